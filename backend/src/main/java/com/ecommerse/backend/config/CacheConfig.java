@@ -0,0 +1,78 @@
+package com.ecommerse.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Application caches. Every cache is bounded in both time and size; hit/miss/eviction counts are
+ * exported through Micrometer as the standard {@code cache.*} meters.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String DASHBOARD_METRICS = "dashboardMetrics";
+    public static final String OCR_PREFILL = "ocrPrefill";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${analytics.cache.dashboard.ttl-ms:300000}") long dashboardTtlMs,
+            @Value("${analytics.cache.dashboard.max-entries:500}") int dashboardMaxEntries,
+            @Value("${ocr.cache.ttl-ms:86400000}") long ocrTtlMs,
+            @Value("${ocr.cache.max-entries:200}") int ocrMaxEntries) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new ExpiringCache(DASHBOARD_METRICS, dashboardTtlMs, dashboardMaxEntries),
+                new ExpiringCache(OCR_PREFILL, ocrTtlMs, ocrMaxEntries)));
+        return cacheManager;
+    }
+
+    @Bean
+    public CacheMeterBinderProvider<ExpiringCache> expiringCacheMeterBinderProvider() {
+        return ExpiringCacheMeterBinder::new;
+    }
+
+    static class ExpiringCacheMeterBinder extends CacheMeterBinder<ExpiringCache> {
+
+        ExpiringCacheMeterBinder(ExpiringCache cache, Iterable<Tag> tags) {
+            super(cache, cache.getName(), tags);
+        }
+
+        @Override
+        protected Long size() {
+            return getCache().size();
+        }
+
+        @Override
+        protected long hitCount() {
+            return getCache().hitCount();
+        }
+
+        @Override
+        protected Long missCount() {
+            return getCache().missCount();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            return getCache().evictionCount();
+        }
+
+        @Override
+        protected long putCount() {
+            return getCache().putCount();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.ecommerse.backend.config;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process {@link org.springframework.cache.Cache} with a fixed time-to-live per entry and an
+ * upper bound on the number of entries. Expired entries are dropped on access; when the bound is
+ * exceeded the least recently used entry is evicted, in constant time. Value loaders run outside
+ * the map lock, and concurrent loads of one key share a single loader call. Hit/miss/put/eviction
+ * counts are kept so they can be published as cache metrics.
+ */
+public class ExpiringCache extends AbstractValueAdaptingCache {
+
+    private record Entry(Object value, long writtenAtNanos) {
+    }
+
+    private final String name;
+    private final long ttlNanos;
+    private final int maxEntries;
+    /** Access-ordered, so the eldest entry is the least recently used one. */
+    private final Map<Object, Entry> store;
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringCache(String name, long ttlMillis, int maxEntries) {
+        super(false);
+        if (ttlMillis <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache TTL and size must be positive");
+        }
+        this.name = name;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+        this.store = Collections.synchronizedMap(new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() <= ExpiringCache.this.maxEntries) {
+                    return false;
+                }
+                evictions.increment();
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return store;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = current(key);
+        if (value == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object cached = lookup(key);
+        if (cached != null) {
+            return (T) fromStoreValue(cached);
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = loading.putIfAbsent(key, load);
+        if (running != null) {
+            return (T) fromStoreValue(await(running));
+        }
+        try {
+            // A load that finished between the lookup and registering ours has already stored a value
+            Object value = current(key);
+            if (value == null) {
+                value = toStoreValue(valueLoader.call());
+                store.put(key, new Entry(value, System.nanoTime()));
+                puts.increment();
+            }
+            load.complete(value);
+            return (T) fromStoreValue(value);
+        } catch (Exception e) {
+            ValueRetrievalException failure = new ValueRetrievalException(key, valueLoader, e);
+            load.completeExceptionally(failure);
+            throw failure;
+        } catch (Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        store.put(key, new Entry(toStoreValue(value), System.nanoTime()));
+        puts.increment();
+    }
+
+    @Override
+    public void evict(Object key) {
+        store.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    public long size() {
+        return store.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * The live stored value for the key, or {@code null}; an expired entry is removed.
+     */
+    private Object current(Object key) {
+        synchronized (store) {
+            Entry entry = store.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.writtenAtNanos() >= ttlNanos) {
+                store.remove(key);
+                evictions.increment();
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
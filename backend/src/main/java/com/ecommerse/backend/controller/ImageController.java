@@ -1,136 +1,109 @@
 package com.ecommerse.backend.controller;
 
-import com.ecommerse.backend.entities.UploadedImage;
-import com.ecommerse.backend.services.UploadedImageService;
-import org.springframework.core.io.ByteArrayResource;
+import com.ecommerse.backend.services.ImageDeliveryService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.List;
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/images")
 @CrossOrigin(origins = "*")
 public class ImageController {
 
-    private final UploadedImageService uploadedImageService;
+    // Tomcat's sendfile request attributes, as used by its DefaultServlet
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
 
-    public ImageController(UploadedImageService uploadedImageService) {
-        this.uploadedImageService = uploadedImageService;
-    }
+    private final ImageDeliveryService imageDeliveryService;
+    private final CacheControl cacheControl;
 
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    public ImageController(ImageDeliveryService imageDeliveryService,
+                           @Value("${app.images.cache-max-age-days:365}") long cacheMaxAgeDays) {
+        this.imageDeliveryService = imageDeliveryService;
+        // Upload names are unique per upload and never reused for other content
+        this.cacheControl = CacheControl.maxAge(Duration.ofDays(cacheMaxAgeDays)).cachePublic().immutable();
+    }
 
+    /**
+     * Serve an uploaded image. Responses carry an ETag and Last-Modified, so conditional requests
+     * get 304 Not Modified, and Range requests get 206 Partial Content. Whole files on disk are
+     * handed to the container's sendfile support where available.
+     */
     @GetMapping("/{fileName}")
-    public ResponseEntity<Resource> getImage(@PathVariable String fileName) {
+    public ResponseEntity<Resource> getImage(@PathVariable String fileName, ServletWebRequest webRequest) {
         try {
-            if (fileName.contains("..")) {
+            if (fileName.contains("..") || fileName.contains("/") || fileName.contains("\\")) {
                 return ResponseEntity.badRequest().build();
             }
 
-            Path filePath = resolveImagePath(fileName);
-            if (filePath == null) {
-                return loadImageFromDatabase(fileName);
+            ImageDeliveryService.ImageDelivery image = imageDeliveryService.find(fileName).orElse(null);
+            if (image == null) {
+                return ResponseEntity.notFound().build();
             }
-            File file = filePath.toFile();
-
-            if (!file.exists() || !file.isFile()) {
-                return loadImageFromDatabase(fileName);
+            if (image.body() instanceof FileSystemResource file && canSendFile(webRequest)) {
+                sendFile(fileName, image, file, webRequest);
+                return null;
             }
-
-            Resource resource = new FileSystemResource(file);
-
-            // Determine content type
-            String contentType = getContentType(fileName);
-            cacheImageInDatabaseIfMissing(fileName, filePath, contentType);
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"")
-                    .body(resource);
+            return toImageResponse(fileName, image);
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
-    private ResponseEntity<Resource> loadImageFromDatabase(String fileName) {
-        return uploadedImageService.findByFileName(fileName)
-                .map(this::toImageResponse)
-                .orElseGet(() -> ResponseEntity.notFound().build());
-    }
-
-    private ResponseEntity<Resource> toImageResponse(UploadedImage uploadedImage) {
-        Resource resource = new ByteArrayResource(uploadedImage.getImageData());
-        String contentType = uploadedImage.getContentType();
-
-        if (contentType == null || contentType.isBlank()) {
-            contentType = getContentType(uploadedImage.getFileName());
-        }
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "inline; filename=\"" + uploadedImage.getFileName() + "\"")
-                .body(resource);
-    }
-
-    private void cacheImageInDatabaseIfMissing(String fileName, Path filePath, String contentType) {
-        if (uploadedImageService.findByFileName(fileName).isPresent()) {
-            return;
-        }
-
-        try {
-            uploadedImageService.save(fileName, Files.readAllBytes(filePath), contentType);
-        } catch (IOException e) {
-            // Keep serving from disk even if DB backfill fails.
-            System.err.println("Failed to backfill image " + fileName + " into database: " + e.getMessage());
+    private ResponseEntity<Resource> toImageResponse(String fileName, ImageDeliveryService.ImageDelivery image) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(image.contentType()))
+                .cacheControl(cacheControl)
+                .eTag(image.eTag())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"");
+        if (image.lastModified() > 0) {
+            response.lastModified(image.lastModified());
         }
+        return response.body(image.body());
     }
 
-    private String getContentType(String fileName) {
-        String extension = fileName.substring(fileName.lastIndexOf('.')).toLowerCase();
-        switch (extension) {
-            case ".jpg":
-            case ".jpeg":
-                return "image/jpeg";
-            case ".png":
-                return "image/png";
-            case ".gif":
-                return "image/gif";
-            case ".webp":
-                return "image/webp";
-            default:
-                return "application/octet-stream";
-        }
+    private static boolean canSendFile(ServletWebRequest webRequest) {
+        HttpServletRequest request = webRequest.getRequest();
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))
+                && "GET".equals(request.getMethod())
+                && request.getHeader(HttpHeaders.RANGE) == null;
     }
 
-    private Path resolveImagePath(String fileName) {
-        List<Path> candidates = List.of(
-                Paths.get(uploadDir, "products", fileName),
-                Paths.get("uploads", "products", fileName),
-                Paths.get("backend", "uploads", "products", fileName),
-                Paths.get(System.getProperty("user.dir"), "uploads", "products", fileName),
-                Paths.get("/app/uploads/products", fileName));
-
-        for (Path candidate : candidates) {
-            if (candidate.toFile().exists()) {
-                return candidate;
-            }
+    /**
+     * Let Tomcat write the file with {@code FileChannel.transferTo} after the handler returns, so
+     * the bytes go from the page cache to the socket without being copied through the heap.
+     */
+    private void sendFile(String fileName, ImageDeliveryService.ImageDelivery image, FileSystemResource file,
+                          ServletWebRequest webRequest) throws IOException {
+        HttpServletResponse response = webRequest.getResponse();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        if (webRequest.checkNotModified(image.eTag(), image.lastModified())) {
+            return;
         }
-
-        return null;
+        long length = file.contentLength();
+        response.setContentType(image.contentType());
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"");
+
+        HttpServletRequest request = webRequest.getRequest();
+        request.setAttribute(SENDFILE_FILENAME, file.getFile().getAbsolutePath());
+        request.setAttribute(SENDFILE_START, 0L);
+        request.setAttribute(SENDFILE_END, length);
     }
 }
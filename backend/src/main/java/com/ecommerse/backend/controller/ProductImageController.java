@@ -4,6 +4,7 @@ import com.ecommerse.backend.dto.ImagePositionDTO;
 import com.ecommerse.backend.dto.ProductImageResponse;
 import com.ecommerse.backend.entities.ProductImage;
 import com.ecommerse.backend.service.ProductImageService;
+import com.ecommerse.backend.services.ImageVariantService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -23,11 +24,14 @@ public class ProductImageController {
     @Autowired
     private ProductImageService productImageService;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
     @GetMapping
     public ResponseEntity<List<ProductImageResponse>> getProductImages(@PathVariable Long productId) {
         List<ProductImage> images = productImageService.getProductImages(productId);
         List<ProductImageResponse> responses = images.stream()
-                .map(ProductImageResponse::new)
+                .map(imageVariantService::toResponse)
                 .collect(java.util.stream.Collectors.toList());
         return ResponseEntity.ok(responses);
     }
@@ -40,7 +44,7 @@ public class ProductImageController {
             @RequestParam(defaultValue = "false") Boolean isMain) {
         try {
             ProductImage uploadedImage = productImageService.uploadImage(productId, file, isMain);
-            return ResponseEntity.status(HttpStatus.CREATED).body(new ProductImageResponse(uploadedImage));
+            return ResponseEntity.status(HttpStatus.CREATED).body(imageVariantService.toResponse(uploadedImage));
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         } catch (IllegalArgumentException e) {
@@ -97,7 +101,7 @@ public class ProductImageController {
             @RequestParam("file") MultipartFile file) {
         try {
             ProductImage replaced = productImageService.replaceImage(productId, imageId, file);
-            return ResponseEntity.ok(new ProductImageResponse(replaced));
+            return ResponseEntity.ok(imageVariantService.toResponse(replaced));
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         } catch (IllegalArgumentException e) {
@@ -113,7 +117,7 @@ public class ProductImageController {
         try {
             List<ProductImage> reorderedImages = productImageService.reorderImages(productId, newOrder);
             List<ProductImageResponse> responses = reorderedImages.stream()
-                    .map(ProductImageResponse::new)
+                    .map(imageVariantService::toResponse)
                     .collect(java.util.stream.Collectors.toList());
             return ResponseEntity.ok(responses);
         } catch (IllegalArgumentException e) {
@@ -91,9 +91,10 @@ public class AnalyticsController {
     @GetMapping("/top-products")
     public ResponseEntity<List<ProductPerformanceDTO>> getTopProducts(
             @RequestParam(defaultValue = "last_30_days") String dateRange,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Long categoryId) {
         try {
-            List<ProductPerformanceDTO> products = metricsService.getTopProducts(dateRange, limit);
+            List<ProductPerformanceDTO> products = metricsService.getTopProducts(dateRange, limit, categoryId);
             return ResponseEntity.ok(products);
         } catch (Exception e) {
             return ResponseEntity.ok(java.util.List.of());
@@ -4,9 +4,9 @@ import com.ecommerse.backend.entities.Order;
 import com.ecommerse.backend.entities.OrderItem;
 import com.ecommerse.backend.entities.User;
 import com.ecommerse.backend.repositories.UserRepository;
-import com.ecommerse.backend.services.CartService;
+import com.ecommerse.backend.services.CheckoutPricingService;
 import com.ecommerse.backend.services.OrderService;
-import com.stripe.Stripe;
+import com.ecommerse.backend.services.payments.StripeGateway;
 import com.stripe.exception.StripeException;
 import com.stripe.param.checkout.SessionCreateParams;
 import org.slf4j.Logger;
@@ -40,22 +40,22 @@ public class CheckoutController {
         private static final BigDecimal STRIPE_CHECKOUT_MAX_TOTAL = BigDecimal.valueOf(2000);
         private static final long STRIPE_CHECKOUT_MAX_TOTAL_CENTS = 200_000L;
         private final OrderService orderService;
-        private final CartService cartService;
+        private final CheckoutPricingService checkoutPricingService;
         private final UserRepository userRepository;
+        private final StripeGateway stripeGateway;
         private final String frontendBaseUrl;
-        private final String configuredStripeSecret;
 
         public CheckoutController(
                         OrderService orderService,
-                        CartService cartService,
+                        CheckoutPricingService checkoutPricingService,
                         UserRepository userRepository,
-                        @Value("${app.frontend-url:http://localhost:4200}") String frontendBaseUrl,
-                        @Value("${stripe.secret.key:${STRIPE_SECRET_KEY:}}") String configuredStripeSecret) {
+                        StripeGateway stripeGateway,
+                        @Value("${app.frontend-url:http://localhost:4200}") String frontendBaseUrl) {
                 this.orderService = orderService;
-                this.cartService = cartService;
+                this.checkoutPricingService = checkoutPricingService;
                 this.userRepository = userRepository;
+                this.stripeGateway = stripeGateway;
                 this.frontendBaseUrl = normalizeFrontendUrl(frontendBaseUrl);
-                this.configuredStripeSecret = configuredStripeSecret != null ? configuredStripeSecret.trim() : "";
         }
 
         private String normalizeFrontendUrl(String configuredUrl) {
@@ -70,14 +70,6 @@ public class CheckoutController {
                 return value;
         }
 
-        private String resolveStripeSecretKey() {
-                if (configuredStripeSecret != null && !configuredStripeSecret.isBlank()) {
-                        return configuredStripeSecret;
-                }
-                String envValue = System.getenv("STRIPE_SECRET_KEY");
-                return envValue != null ? envValue.trim() : null;
-        }
-
         /**
          * Request DTO for create-order endpoint
          */
@@ -128,8 +120,13 @@ public class CheckoutController {
                         User user = userRepository.findByUsername(authentication.getName())
                                         .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-                        BigDecimal cartTotal = cartService.getCartTotal(user.getId());
-                        if (cartTotal != null && cartTotal.compareTo(STRIPE_CHECKOUT_MAX_TOTAL) > 0) {
+                        // Price the cart once; the order is created from this snapshot
+                        CheckoutPricingService.PricedCart pricedCart = checkoutPricingService.priceCart(
+                                        user.getId(),
+                                        request.discountCode(),
+                                        request.shippingAmount() != null ? request.shippingAmount() : BigDecimal.ZERO,
+                                        request.taxAmount() != null ? request.taxAmount() : BigDecimal.ZERO);
+                        if (pricedCart.total().compareTo(STRIPE_CHECKOUT_MAX_TOTAL) > 0) {
                                 return ResponseEntity.badRequest().body(Map.of(
                                                 "error",
                                                 "Stripe checkout is unavailable for carts above $2,000. Please request a quote.",
@@ -138,15 +135,13 @@ public class CheckoutController {
                         }
 
                         // Create order from cart with PENDING status
-                        var orderDTO = orderService.createOrderFromCart(
+                        var orderDTO = orderService.createOrderFromPricedCart(
                                         user.getId(),
                                         request.shippingAddress(),
                                         request.shippingCity(),
                                         request.shippingPostalCode(),
                                         request.shippingCountry(),
-                                        request.shippingAmount() != null ? request.shippingAmount() : BigDecimal.ZERO,
-                                        request.taxAmount() != null ? request.taxAmount() : BigDecimal.ZERO,
-                                        request.discountCode());
+                                        pricedCart);
 
                         // Calculate total in cents
                         BigDecimal totalAmount = orderDTO.getTotalAmount() != null ? orderDTO.getTotalAmount()
@@ -204,8 +199,8 @@ public class CheckoutController {
                         }
                         var order = orderOpt.get();
 
-                        // Recalculate total from DB
-                        long totalCents = orderService.recalculateTotalCents(req.orderId());
+                        // Total as priced when the order was created
+                        long totalCents = orderService.getPricedTotalCents(req.orderId());
                         if (totalCents <= 0) {
                                 return ResponseEntity.badRequest().body(Map.of(
                                                 "error", "Total must be > 0",
@@ -267,16 +262,13 @@ public class CheckoutController {
                                                                 .build());
                         }
 
-                        // Resolve Stripe secret key from config or environment
-                        String secretKey = resolveStripeSecretKey();
-                        if (secretKey == null || secretKey.isBlank()) {
+                        if (!stripeGateway.isConfigured()) {
                                 logger.error(
                                                 "Stripe secret key is not configured via property 'stripe.secret.key' or STRIPE_SECRET_KEY environment variable");
                                 return ResponseEntity.status(500).body(Map.of(
                                                 "error", "Stripe secret key not configured",
                                                 "hint", "Set STRIPE_SECRET_KEY env var or stripe.secret.key property"));
                         }
-                        Stripe.apiKey = secretKey;
 
                         // Build success and cancel URLs (Next.js routes)
                         String successUrl = frontendBaseUrl + "/checkout/success?orderId=" + req.orderId()
@@ -312,11 +304,7 @@ public class CheckoutController {
                         // This ensures uniqueness even if database was reset but Stripe has old records
                         String idempotencyKey = "co_" + req.orderId() + "_" + System.currentTimeMillis();
 
-                        var session = com.stripe.model.checkout.Session.create(
-                                        params,
-                                        com.stripe.net.RequestOptions.builder()
-                                                        .setIdempotencyKey(idempotencyKey)
-                                                        .build());
+                        var session = stripeGateway.createCheckoutSession(params, idempotencyKey);
 
                         // Persist session ID and update order status
                         orderService.attachCheckoutSession(req.orderId(), session.getId());
@@ -78,9 +78,10 @@ public class FileController {
         }
     }
 
-    @Operation(summary = "Upload multiple product images", description = "Upload multiple product images at once. Requires OWNER role.", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @Operation(summary = "Upload multiple product images", description = "Upload multiple product images at once. Files are processed concurrently and each gets its own result. Requires OWNER role.", security = @SecurityRequirement(name = "Bearer Authentication"))
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Images uploaded successfully"),
+            @ApiResponse(responseCode = "207", description = "Some images were uploaded; see the per-file results"),
             @ApiResponse(responseCode = "400", description = "Invalid files or too many files"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "403", description = "Forbidden - requires OWNER role"),
@@ -92,28 +93,46 @@ public class FileController {
             @Parameter(description = "Image files to upload", required = true) @RequestParam("files") List<MultipartFile> files) {
 
         try {
-            List<String> relativePaths = fileService.uploadMultipleProductImages(files);
+            List<FileService.UploadResult> results = fileService.uploadMultipleProductImages(files);
+            List<String> relativePaths = results.stream()
+                    .filter(FileService.UploadResult::succeeded)
+                    .map(FileService.UploadResult::relativePath)
+                    .toList();
             List<String> fileUrls = relativePaths.stream()
                     .map(fileService::getFileUrl)
                     .toList();
+            List<Map<String, String>> fileResults = results.stream()
+                    .map(result -> {
+                        Map<String, String> entry = new HashMap<>();
+                        entry.put("filename", result.originalFilename());
+                        if (result.succeeded()) {
+                            entry.put("relativePath", result.relativePath());
+                            entry.put("url", fileService.getFileUrl(result.relativePath()));
+                        } else {
+                            entry.put("error", result.error());
+                        }
+                        return entry;
+                    })
+                    .toList();
 
             Map<String, Object> response = new HashMap<>();
             response.put("relativePaths", relativePaths);
             response.put("urls", fileUrls);
-            response.put("message", files.size() + " files uploaded successfully");
+            response.put("results", fileResults);
+            response.put("message", relativePaths.size() + " of " + files.size() + " files uploaded successfully");
 
-            return ResponseEntity.ok(response);
+            if (relativePaths.size() == files.size()) {
+                return ResponseEntity.ok(response);
+            }
+            return ResponseEntity.status(relativePaths.isEmpty() ? HttpStatus.BAD_REQUEST : HttpStatus.MULTI_STATUS)
+                    .body(response);
         } catch (IllegalArgumentException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("error", e.getMessage());
             return ResponseEntity.badRequest().body(response);
-        } catch (IOException e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("error", "Failed to upload files: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         } catch (RuntimeException e) {
             Map<String, Object> response = new HashMap<>();
-            response.put("error", "Failed to upload one or more files: " + e.getMessage());
+            response.put("error", "Failed to upload files: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
@@ -4,6 +4,7 @@ import com.ecommerse.backend.dto.FinalizeCheckoutRequest;
 import com.ecommerse.backend.dto.OrderDTO;
 import com.ecommerse.backend.dto.UpdateOrderStatusRequest;
 import com.ecommerse.backend.entities.OrderStatus;
+import com.ecommerse.backend.services.OrderSearchCriteria;
 import com.ecommerse.backend.services.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -17,9 +18,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -114,9 +119,18 @@ public class OrderController {
             @RequestParam(required = false) OrderStatus status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String customerEmail,
+            @RequestParam(required = false) BigDecimal minTotal,
+            @RequestParam(required = false) BigDecimal maxTotal) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<OrderDTO> orders = orderService.getOrdersForOwner(status, startDate, endDate, search, pageable);
+        OrderSearchCriteria criteria = OrderSearchCriteria.of(status, startDate, endDate, search);
+        if (customerEmail != null && !customerEmail.isBlank()) {
+            criteria.setCustomerEmail(customerEmail);
+        }
+        criteria.setMinTotal(minTotal);
+        criteria.setMaxTotal(maxTotal);
+        Page<OrderDTO> orders = orderService.getOrdersForOwner(criteria, pageable);
         return ResponseEntity.ok(orders);
     }
 
@@ -144,22 +158,35 @@ public class OrderController {
     }
 
     /**
-     * Export orders to CSV
+     * Export orders to CSV (streamed; gzip-encoded when the client accepts it)
      */
     @GetMapping("/owner/orders/export")
     @PreAuthorize("hasAnyRole('OWNER', 'ADMIN')")
-    public ResponseEntity<byte[]> exportOrdersCsv(
+    public ResponseEntity<StreamingResponseBody> exportOrdersCsv(
             @RequestParam(required = false) OrderStatus status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        String csvContent = orderService.exportOrdersToCsv(status, startDate, endDate);
-        byte[] csvBytes = csvContent.getBytes();
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                GZIPOutputStream gzipOutput = new GZIPOutputStream(output, 8 * 1024);
+                orderService.writeOrdersCsv(status, startDate, endDate, gzipOutput);
+                gzipOutput.finish();
+            } else {
+                orderService.writeOrdersCsv(status, startDate, endDate, output);
+            }
+        };
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("text/csv"));
         headers.setContentDispositionFormData("attachment", "orders_" + System.currentTimeMillis() + ".csv");
-        headers.setContentLength(csvBytes.length);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
 
-        return new ResponseEntity<>(csvBytes, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 }
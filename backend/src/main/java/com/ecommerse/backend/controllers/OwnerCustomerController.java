@@ -16,8 +16,10 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -87,9 +89,10 @@ public class OwnerCustomerController {
         int end = Math.min(start + pageable.getPageSize(), customers.size());
         List<User> pageSlice = customers.subList(start, end);
 
+        Map<Long, Object[]> orderStats = loadOrderStats(pageSlice);
         List<CustomerSummary> summaries = new ArrayList<>();
         for (User u : pageSlice) {
-            summaries.add(toSummary(u));
+            summaries.add(toSummary(u, orderStats.get(u.getId())));
         }
 
         Page<CustomerSummary> result = new PageImpl<>(summaries, pageable, customers.size());
@@ -126,13 +129,29 @@ public class OwnerCustomerController {
     }
 
     private CustomerSummary toSummary(User user) {
+        return toSummary(user, loadOrderStats(List.of(user)).get(user.getId()));
+    }
+
+    private Map<Long, Object[]> loadOrderStats(List<User> users) {
+        Map<Long, Object[]> stats = new HashMap<>();
+        if (users.isEmpty()) {
+            return stats;
+        }
+        List<Long> ids = users.stream().map(User::getId).collect(Collectors.toList());
+        for (Object[] row : orderRepository.summarizeByUserIds(ids)) {
+            stats.put((Long) row[0], row);
+        }
+        return stats;
+    }
+
+    private CustomerSummary toSummary(User user, Object[] orderStats) {
         String fullName = ((user.getFirstName() != null ? user.getFirstName() : "") + " "
                 + (user.getLastName() != null ? user.getLastName() : "")).trim();
         String name = !fullName.isBlank() ? fullName : user.getUsername();
 
-        Long totalOrders = orderRepository.countByUser(user);
-        BigDecimal totalSpent = orderRepository.sumTotalAmountByUser(user);
-        LocalDateTime lastOrderAt = orderRepository.findLastOrderDateByUser(user);
+        Long totalOrders = orderStats != null ? ((Number) orderStats[1]).longValue() : null;
+        BigDecimal totalSpent = orderStats != null ? new BigDecimal(orderStats[2].toString()) : null;
+        LocalDateTime lastOrderAt = orderStats != null ? (LocalDateTime) orderStats[3] : null;
 
         return new CustomerSummary(
                 user.getId(),
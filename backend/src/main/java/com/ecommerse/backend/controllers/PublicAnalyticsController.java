@@ -2,10 +2,17 @@ package com.ecommerse.backend.controllers;
 
 import com.ecommerse.backend.entities.analytics.AnalyticsEvent;
 import com.ecommerse.backend.services.analytics.AnalyticsEventService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -18,18 +25,54 @@ import java.util.Map;
 )
 public class PublicAnalyticsController {
 
+    private static final String RETRY_AFTER_SECONDS = "5";
+    private static final TypeReference<List<AnalyticsEvent>> EVENT_LIST = new TypeReference<>() {
+    };
+
     private final AnalyticsEventService service;
+    private final ObjectMapper objectMapper;
 
-    public PublicAnalyticsController(AnalyticsEventService service) {
+    public PublicAnalyticsController(AnalyticsEventService service, ObjectMapper objectMapper) {
         this.service = service;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/public/analytics/events")
     public ResponseEntity<Void> ingestEvent(@RequestBody AnalyticsEvent event) {
-        service.ingest(event);
+        if (!service.ingest(event)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        }
         return ResponseEntity.accepted().build();
     }
 
+    /**
+     * Batched ingestion for navigator.sendBeacon payloads (a JSON array of events). Beacons are
+     * often sent as text/plain to avoid a CORS preflight, so any content type is accepted.
+     */
+    @PostMapping(value = "/public/analytics/events/batch", consumes = MediaType.ALL_VALUE)
+    public ResponseEntity<Map<String, Object>> ingestBatch(@RequestBody String payload) {
+        List<AnalyticsEvent> events;
+        try {
+            events = objectMapper.readValue(payload, EVENT_LIST);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid analytics batch payload");
+        }
+
+        AnalyticsEventService.IngestResult result = service.ingestBatch(events);
+        Map<String, Object> body = Map.of(
+                "accepted", result.accepted(),
+                "dropped", result.dropped(),
+                "rejected", result.rejected());
+        if (result.accepted() == 0 && result.dropped() > 0) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(body);
+        }
+        return ResponseEntity.accepted().body(body);
+    }
+
     @GetMapping("/public/analytics/ping")
     public ResponseEntity<Map<String, Object>> ping() {
         return ResponseEntity.ok(java.util.Map.of("ok", true));
@@ -5,7 +5,10 @@ import com.ecommerse.backend.dto.analytics.GenerateReportRequest;
 import com.ecommerse.backend.dto.analytics.ReportResponseDTO;
 import com.ecommerse.backend.dto.analytics.UpdateScheduleRequest;
 import com.ecommerse.backend.entities.analytics.ReportSchedule;
+import com.ecommerse.backend.services.analytics.ReportFormat;
 import com.ecommerse.backend.services.analytics.ReportService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -20,6 +23,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -40,28 +44,58 @@ public class ReportsController {
     @PostMapping("/generate")
     public ResponseEntity<ReportResponseDTO> generateReport(@RequestBody GenerateReportRequest request) {
         ReportResponseDTO report = reportService.generateReport(request);
-        return ResponseEntity.ok(report);
+        return ResponseEntity.accepted().body(report);
     }
 
+    @GetMapping
+    public ResponseEntity<List<ReportResponseDTO>> getRecentReports() {
+        return ResponseEntity.ok(reportService.getRecentReports());
+    }
+
+    @GetMapping("/{reportId}")
+    public ResponseEntity<ReportResponseDTO> getReport(@PathVariable String reportId) {
+        return ResponseEntity.ok(reportService.getReport(reportId));
+    }
+
+    /**
+     * Serve a completed report. Range requests are answered with 206 partial content, so large
+     * downloads can be resumed.
+     */
+    @GetMapping("/{reportId}/download")
+    public ResponseEntity<Resource> downloadReport(@PathVariable String reportId) {
+        ReportService.ReportFile file = reportService.getReportFile(reportId);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(file.contentType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(file.filename())
+                .build());
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(new FileSystemResource(file.path()));
+    }
+
+    /**
+     * Generate a report synchronously, streaming it into the response as rows are read.
+     */
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportReport(
+    public ResponseEntity<StreamingResponseBody> exportReport(
             @RequestParam String reportType,
             @RequestParam String format,
             @RequestParam String dateRange) {
-        byte[] fileContent = reportService.exportReport(reportType, format, dateRange);
+        ReportFormat reportFormat = ReportFormat.parse(format);
+        StreamingResponseBody body = output -> reportService.exportReport(reportType, format, dateRange, output);
 
         HttpHeaders headers = new HttpHeaders();
-        MediaType mediaType = format.equalsIgnoreCase("CSV")
-                ? MediaType.parseMediaType("text/csv")
-                : MediaType.APPLICATION_OCTET_STREAM;
-        headers.setContentType(mediaType);
+        headers.setContentType(MediaType.parseMediaType(reportFormat.getContentType()));
         headers.setContentDisposition(ContentDisposition.attachment()
-                .filename("report-" + reportType + "." + format.toLowerCase())
+                .filename("report-" + reportType + "." + reportFormat.getExtension())
                 .build());
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(fileContent);
+                .body(body);
     }
 
     @PostMapping("/schedules")
@@ -0,0 +1,23 @@
+package com.ecommerse.backend.dto;
+
+import com.ecommerse.backend.entities.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only projection of an order used by the streaming CSV export.
+ * Item count is aggregated in the query so no order items are loaded.
+ */
+public record OrderCsvRow(
+        String orderNumber,
+        LocalDateTime createdDate,
+        String customer,
+        OrderStatus status,
+        BigDecimal totalAmount,
+        Long itemCount,
+        String shippingAddress,
+        String shippingCity,
+        String shippingPostalCode,
+        String shippingCountry) {
+}
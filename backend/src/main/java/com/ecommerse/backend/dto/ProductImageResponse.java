@@ -11,6 +11,8 @@ public class ProductImageResponse {
     private Long productId;
     private LocalDateTime createdDate;
     private LocalDateTime updatedDate;
+    // Responsive variants of imageUrl ("url 400w, ..."); null until they have been generated
+    private String srcset;
 
     // Default constructor
     public ProductImageResponse() {
@@ -83,4 +85,12 @@ public class ProductImageResponse {
     public void setUpdatedDate(LocalDateTime updatedDate) {
         this.updatedDate = updatedDate;
     }
+
+    public String getSrcset() {
+        return srcset;
+    }
+
+    public void setSrcset(String srcset) {
+        this.srcset = srcset;
+    }
 }
@@ -0,0 +1,15 @@
+package com.ecommerse.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of an uploaded image without its data. {@code contentHash} (hex SHA-256)
+ * and {@code sizeBytes} are {@code null} for rows stored before they were recorded.
+ */
+public record UploadedImageMetadata(
+        String fileName,
+        String contentType,
+        String contentHash,
+        Long sizeBytes,
+        LocalDateTime updatedDate) {
+}
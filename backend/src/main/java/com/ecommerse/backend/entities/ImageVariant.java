@@ -0,0 +1,113 @@
+package com.ecommerse.backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A resized copy of an uploaded image. The bytes are stored in {@code uploaded_images} under
+ * {@code fileName}; this row links them to the content hash of the original.
+ */
+@Entity
+@Table(name = "image_variants")
+public class ImageVariant {
+
+    @Id
+    @Column(name = "file_name", nullable = false, length = 255)
+    private String fileName;
+
+    @Column(name = "source_hash", nullable = false, length = 64)
+    private String sourceHash;
+
+    @Column(name = "source_width", nullable = false)
+    private Integer sourceWidth;
+
+    @Column(name = "width", nullable = false)
+    private Integer width;
+
+    @Column(name = "height", nullable = false)
+    private Integer height;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+
+    public ImageVariant() {
+    }
+
+    public ImageVariant(String fileName, String sourceHash, int sourceWidth, int width, int height, long sizeBytes) {
+        this.fileName = fileName;
+        this.sourceHash = sourceHash;
+        this.sourceWidth = sourceWidth;
+        this.width = width;
+        this.height = height;
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getSourceHash() {
+        return sourceHash;
+    }
+
+    public void setSourceHash(String sourceHash) {
+        this.sourceHash = sourceHash;
+    }
+
+    public Integer getSourceWidth() {
+        return sourceWidth;
+    }
+
+    public void setSourceWidth(Integer sourceWidth) {
+        this.sourceWidth = sourceWidth;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(LocalDateTime createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        this.createdDate = LocalDateTime.now();
+    }
+}
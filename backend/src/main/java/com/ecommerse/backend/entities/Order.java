@@ -164,9 +164,8 @@ public class Order {
                 .map(OrderItem::getTotalPrice)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        BigDecimal subtotalWithCharges = itemsTotal.add(shippingAmount).add(taxAmount);
-        BigDecimal appliedDiscount = discountAmount != null ? discountAmount : BigDecimal.ZERO;
-        BigDecimal computedTotal = subtotalWithCharges.subtract(appliedDiscount);
+        // Item unit prices already include any discount code; discountAmount is informational
+        BigDecimal computedTotal = itemsTotal.add(shippingAmount).add(taxAmount);
         this.totalAmount = computedTotal.max(BigDecimal.ZERO);
     }
 
@@ -18,13 +18,25 @@ public class UploadedImage {
     @Column(name = "file_name", nullable = false, length = 255)
     private String fileName;
 
+    /**
+     * {@code null} when the bytes are kept in another blob store, see {@link #storage}.
+     */
     @Lob
-    @Column(name = "image_data", nullable = false)
+    @Column(name = "image_data")
     private byte[] imageData;
 
+    @Column(name = "storage", length = 20)
+    private String storage;
+
     @Column(name = "content_type", length = 100)
     private String contentType;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
     @Column(name = "created_date", nullable = false)
     private LocalDateTime createdDate;
 
@@ -56,6 +68,14 @@ public class UploadedImage {
         this.imageData = imageData;
     }
 
+    public String getStorage() {
+        return storage;
+    }
+
+    public void setStorage(String storage) {
+        this.storage = storage;
+    }
+
     public String getContentType() {
         return contentType;
     }
@@ -64,6 +84,22 @@ public class UploadedImage {
         this.contentType = contentType;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
     public LocalDateTime getCreatedDate() {
         return createdDate;
     }
@@ -85,6 +121,9 @@ public class UploadedImage {
         LocalDateTime now = LocalDateTime.now();
         this.createdDate = now;
         this.updatedDate = now;
+        if (storage == null) {
+            storage = "database";
+        }
     }
 
     @PreUpdate
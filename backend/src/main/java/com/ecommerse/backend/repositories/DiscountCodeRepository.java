@@ -19,4 +19,7 @@ public interface DiscountCodeRepository extends JpaRepository<DiscountCode, Long
 
     @EntityGraph(attributePaths = { "categories" })
     List<DiscountCode> findAllByOrderByCreatedDateDesc();
+
+    @EntityGraph(attributePaths = { "categories" })
+    List<DiscountCode> findAllByActiveTrue();
 }
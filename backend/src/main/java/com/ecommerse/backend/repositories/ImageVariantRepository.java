@@ -0,0 +1,13 @@
+package com.ecommerse.backend.repositories;
+
+import com.ecommerse.backend.entities.ImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, String> {
+
+    List<ImageVariant> findBySourceHash(String sourceHash);
+}
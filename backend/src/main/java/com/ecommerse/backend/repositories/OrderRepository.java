@@ -1,12 +1,17 @@
 package com.ecommerse.backend.repositories;
 
+import com.ecommerse.backend.dto.OrderCsvRow;
 import com.ecommerse.backend.entities.Order;
 import com.ecommerse.backend.entities.OrderStatus;
 import com.ecommerse.backend.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,12 +20,13 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Order entity operations
  */
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
 
     /**
      * Find orders by user
@@ -70,11 +76,6 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = :status")
     BigDecimal getTotalSalesByStatus(@Param("status") OrderStatus status);
 
-    /**
-     * Find orders that need to be shipped (confirmed status)
-     */
-    List<Order> findByStatusOrderByCreatedDateAsc(OrderStatus status);
-
     /**
      * Find recent orders for a user
      */
@@ -86,16 +87,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.product WHERE o.id = :orderId")
     Optional<Order> findByIdWithItems(@Param("orderId") Long orderId);
 
+    /**
+     * Load a batch of orders with their user and items in a single query. Used after paging
+     * order ids so list endpoints do not lazy-load items per order.
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.user LEFT JOIN FETCH o.orderItems WHERE o.id IN :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
     List<Order> findByCreatedDateBetween(LocalDateTime startDate, LocalDateTime endDate);
 
     Long countByCreatedDateBetween(LocalDateTime startDate, LocalDateTime endDate);
 
-    /**
-     * Find orders by order number containing search term (case-insensitive)
-     */
-    @Query("SELECT o FROM Order o WHERE LOWER(o.orderNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Order> findByOrderNumberContainingIgnoreCase(@Param("searchTerm") String searchTerm, Pageable pageable);
-
     /**
      * Count orders for a status that have a Stripe payment intent attached.
      */
@@ -122,19 +124,30 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findTopByUserOrderByCreatedDateDesc(User user);
 
     /**
-     * Count orders for a specific user
-     */
-    Long countByUser(User user);
-
-    /**
-     * Sum total amount for a specific user
-     */
-    @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.user = :user")
-    BigDecimal sumTotalAmountByUser(@Param("user") User user);
-
-    /**
-     * Get last order date for a user
-     */
-    @Query("SELECT MAX(o.createdDate) FROM Order o WHERE o.user = :user")
-    LocalDateTime findLastOrderDateByUser(@Param("user") User user);
+     * Order count, total amount and last order date per user in one grouped query
+     * (userId, count, sum, max createdDate). Users without orders are absent.
+     */
+    @Query("SELECT o.user.id, COUNT(o), COALESCE(SUM(o.totalAmount), 0), MAX(o.createdDate) "
+            + "FROM Order o WHERE o.user.id IN :userIds GROUP BY o.user.id")
+    List<Object[]> summarizeByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Stream CSV export rows oldest first through a forward-only cursor. Must be consumed inside a
+     * transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.ecommerse.backend.dto.OrderCsvRow(o.orderNumber, o.createdDate, u.username, o.status, "
+            + "o.totalAmount, (SELECT COUNT(oi) FROM OrderItem oi WHERE oi.order = o), "
+            + "o.shippingAddress, o.shippingCity, o.shippingPostalCode, o.shippingCountry) "
+            + "FROM Order o LEFT JOIN o.user u "
+            + "WHERE (:status IS NULL OR o.status = :status) "
+            + "AND (:startDate IS NULL OR o.createdDate >= :startDate) "
+            + "AND (:endDate IS NULL OR o.createdDate <= :endDate) "
+            + "ORDER BY o.createdDate ASC, o.id ASC")
+    Stream<OrderCsvRow> streamCsvRows(@Param("status") OrderStatus status,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
 }
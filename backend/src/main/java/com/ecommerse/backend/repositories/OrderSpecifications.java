@@ -0,0 +1,65 @@
+package com.ecommerse.backend.repositories;
+
+import com.ecommerse.backend.entities.Order;
+import com.ecommerse.backend.entities.User;
+import com.ecommerse.backend.services.OrderSearchCriteria;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Composable JPA specifications for owner order queries. Every predicate is a plain column
+ * comparison (equality, range or left-anchored LIKE) so the database can use the orders indexes
+ * and paginate, instead of filtering in memory.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> matching(OrderSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria == null) {
+                return cb.conjunction();
+            }
+
+            if (criteria.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), criteria.getStatus()));
+            }
+            if (criteria.getStartDate() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdDate"), criteria.getStartDate()));
+            }
+            if (criteria.getEndDate() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("createdDate"), criteria.getEndDate()));
+            }
+
+            String orderNumberPrefix = criteria.getNormalizedOrderNumberPrefix();
+            if (orderNumberPrefix != null) {
+                predicates.add(cb.like(root.get("orderNumber"), escapeLike(orderNumberPrefix) + "%", '\\'));
+            }
+
+            String customerEmail = criteria.getNormalizedCustomerEmail();
+            if (customerEmail != null) {
+                Join<Order, User> user = root.join("user");
+                predicates.add(cb.like(cb.lower(user.get("username")), escapeLike(customerEmail) + "%", '\\'));
+            }
+
+            if (criteria.getMinTotal() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("totalAmount"), criteria.getMinTotal()));
+            }
+            if (criteria.getMaxTotal() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("totalAmount"), criteria.getMaxTotal()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
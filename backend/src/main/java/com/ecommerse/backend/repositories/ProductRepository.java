@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -111,6 +112,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         @Query("SELECT p FROM Product p WHERE p.active = true AND COALESCE(p.stockNa, false) = false AND p.stockQuantity < :threshold ORDER BY p.stockQuantity ASC")
         List<Product> findLowStockProducts(@Param("threshold") Integer threshold);
 
+        /**
+         * Resolve product names for a set of ids in one query (id, name pairs)
+         */
+        @Query("SELECT p.id, p.name FROM Product p WHERE p.id IN :ids")
+        List<Object[]> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
         /**
          * Get all distinct brands
          */
@@ -1,9 +1,41 @@
 package com.ecommerse.backend.repositories;
 
+import com.ecommerse.backend.dto.UploadedImageMetadata;
 import com.ecommerse.backend.entities.UploadedImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface UploadedImageRepository extends JpaRepository<UploadedImage, String> {
+
+    /**
+     * Metadata of all persisted images; never reads the image data.
+     */
+    @Query("SELECT new com.ecommerse.backend.dto.UploadedImageMetadata(u.fileName, u.contentType, u.contentHash, "
+            + "u.sizeBytes, u.updatedDate) FROM UploadedImage u")
+    List<UploadedImageMetadata> findAllMetadata();
+
+    @Query("SELECT new com.ecommerse.backend.dto.UploadedImageMetadata(u.fileName, u.contentType, u.contentHash, "
+            + "u.sizeBytes, u.updatedDate) FROM UploadedImage u WHERE u.fileName = :fileName")
+    Optional<UploadedImageMetadata> findMetadataByFileName(@Param("fileName") String fileName);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadedImage u SET u.contentHash = :contentHash, u.sizeBytes = :sizeBytes WHERE u.fileName = :fileName")
+    int updateContentHash(@Param("fileName") String fileName,
+                          @Param("contentHash") String contentHash,
+                          @Param("sizeBytes") long sizeBytes);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadedImage u SET u.updatedDate = :updatedDate WHERE u.fileName = :fileName")
+    int touch(@Param("fileName") String fileName, @Param("updatedDate") LocalDateTime updatedDate);
 }
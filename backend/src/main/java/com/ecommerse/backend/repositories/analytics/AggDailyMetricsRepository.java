@@ -0,0 +1,14 @@
+package com.ecommerse.backend.repositories.analytics;
+
+import com.ecommerse.backend.entities.analytics.AggDailyMetrics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AggDailyMetricsRepository extends JpaRepository<AggDailyMetrics, LocalDate> {
+
+    List<AggDailyMetrics> findByMetricDateBetweenOrderByMetricDate(LocalDate startDate, LocalDate endDate);
+}
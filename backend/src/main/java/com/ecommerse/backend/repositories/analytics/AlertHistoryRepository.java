@@ -2,8 +2,11 @@ package com.ecommerse.backend.repositories.analytics;
 
 import com.ecommerse.backend.entities.analytics.AlertHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +17,10 @@ public interface AlertHistoryRepository extends JpaRepository<AlertHistory, Long
     List<AlertHistory> findByAcknowledgedFalseOrderByTriggeredAtDesc();
 
     List<AlertHistory> findByAcknowledgedTrueOrderByTriggeredAtDesc();
+
+    /**
+     * Most recent firing per alert: alertId, triggeredAt.
+     */
+    @Query("SELECT h.alertId, MAX(h.triggeredAt) FROM AlertHistory h WHERE h.alertId IN :alertIds GROUP BY h.alertId")
+    List<Object[]> findLastTriggeredAt(@Param("alertIds") Collection<Long> alertIds);
 }
@@ -3,6 +3,7 @@ package com.ecommerse.backend.repositories.analytics;
 import com.ecommerse.backend.entities.analytics.AnalyticsEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -11,12 +12,20 @@ import java.util.List;
 @Repository
 public interface AnalyticsEventRepository extends JpaRepository<AnalyticsEvent, Long> {
 
-    List<AnalyticsEvent> findByOccurredAtBetween(LocalDateTime from, LocalDateTime to);
-
     @Query("select e.type as type, count(e.id) as cnt from AnalyticsEvent e where e.occurredAt >= :from group by e.type")
     List<Object[]> countByTypeSince(LocalDateTime from);
-}
-
-
-
 
+    /**
+     * Event counts per hour and type in {@code [from, to)}: hour bucket, type, count.
+     */
+    @Query(value = "SELECT date_trunc('hour', occurred_at) AS bucket, type, COUNT(*) FROM analytics_event "
+            + "WHERE occurred_at >= :from AND occurred_at < :to GROUP BY 1, 2", nativeQuery = true)
+    List<Object[]> countByHourAndType(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Event counts per day and type in {@code [from, to)}: day bucket, type, count.
+     */
+    @Query(value = "SELECT date_trunc('day', occurred_at) AS bucket, type, COUNT(*) FROM analytics_event "
+            + "WHERE occurred_at >= :from AND occurred_at < :to GROUP BY 1, 2", nativeQuery = true)
+    List<Object[]> countByDayAndType(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -17,6 +17,24 @@ public interface FactCustomerMetricsRepository extends JpaRepository<FactCustome
 
     List<FactCustomerMetrics> findByCohortMonth(String cohortMonth);
 
-    @Query("SELECT AVG(f.lifetimeValue) FROM FactCustomerMetrics f WHERE f.calculationDate = :date")
+    /**
+     * Average lifetime value of customers who had placed their first order by {@code date}.
+     */
+    @Query("SELECT AVG(f.lifetimeValue) FROM FactCustomerMetrics f WHERE f.firstOrderDate <= :date")
     BigDecimal getAverageLifetimeValue(@Param("date") LocalDate date);
+
+    /**
+     * Single row: cohort size, average lifetime value, customers with an order since {@code activeSince}.
+     */
+    @Query("SELECT COUNT(f), AVG(f.lifetimeValue), SUM(CASE WHEN f.lastOrderDate >= :activeSince THEN 1 ELSE 0 END) "
+            + "FROM FactCustomerMetrics f WHERE f.cohortMonth = :cohortMonth")
+    List<Object[]> summarizeCohort(@Param("cohortMonth") String cohortMonth,
+                                   @Param("activeSince") LocalDate activeSince);
+
+    /**
+     * Retention rows for a cohort: months since first order, active customers, cohort size.
+     */
+    @Query(value = "SELECT period, active_customers, cohort_size FROM agg_cohort_retention "
+            + "WHERE cohort_month = :cohortMonth ORDER BY period", nativeQuery = true)
+    List<Object[]> getRetentionByPeriod(@Param("cohortMonth") String cohortMonth);
 }
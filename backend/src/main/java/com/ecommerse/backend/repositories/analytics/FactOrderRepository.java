@@ -1,6 +1,7 @@
 package com.ecommerse.backend.repositories.analytics;
 
 import com.ecommerse.backend.entities.analytics.FactOrder;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,6 +19,10 @@ public interface FactOrderRepository extends JpaRepository<FactOrder, Long> {
     BigDecimal getTotalRevenue(@Param("startDate") LocalDate startDate,
                                @Param("endDate") LocalDate endDate);
 
+    @Query("SELECT COUNT(DISTINCT f.orderId) FROM FactOrder f WHERE f.orderDate BETWEEN :startDate AND :endDate")
+    Long countOrders(@Param("startDate") LocalDate startDate,
+                     @Param("endDate") LocalDate endDate);
+
     @Query("SELECT SUM(f.quantity) FROM FactOrder f WHERE f.orderDate BETWEEN :startDate AND :endDate")
     Long getTotalUnits(@Param("startDate") LocalDate startDate,
                        @Param("endDate") LocalDate endDate);
@@ -26,9 +31,25 @@ public interface FactOrderRepository extends JpaRepository<FactOrder, Long> {
     List<Object[]> getRevenueByCategory(@Param("startDate") LocalDate startDate,
                                         @Param("endDate") LocalDate endDate);
 
-    @Query("SELECT f.productId, SUM(f.revenue), SUM(f.quantity) FROM FactOrder f WHERE f.orderDate BETWEEN :startDate AND :endDate GROUP BY f.productId ORDER BY SUM(f.revenue) DESC")
-    List<Object[]> getRevenueByProduct(@Param("startDate") LocalDate startDate,
-                                       @Param("endDate") LocalDate endDate);
+    /**
+     * Per-product totals ranked by revenue in {@code [startDate, endDate]}, with the revenue of the
+     * preceding period {@code [previousStartDate, startDate)} computed in the same scan. Columns:
+     * productId, revenue, quantity, previous revenue. The page size bounds the result in SQL.
+     */
+    @Query("SELECT f.productId, "
+            + "SUM(CASE WHEN f.orderDate >= :startDate THEN f.revenue ELSE 0 END), "
+            + "SUM(CASE WHEN f.orderDate >= :startDate THEN f.quantity ELSE 0 END), "
+            + "SUM(CASE WHEN f.orderDate < :startDate THEN f.revenue ELSE 0 END) "
+            + "FROM FactOrder f WHERE f.orderDate BETWEEN :previousStartDate AND :endDate "
+            + "AND (:categoryId IS NULL OR f.categoryId = :categoryId) "
+            + "GROUP BY f.productId "
+            + "HAVING SUM(CASE WHEN f.orderDate >= :startDate THEN 1 ELSE 0 END) > 0 "
+            + "ORDER BY SUM(CASE WHEN f.orderDate >= :startDate THEN f.revenue ELSE 0 END) DESC, f.productId")
+    List<Object[]> getTopProducts(@Param("previousStartDate") LocalDate previousStartDate,
+                                  @Param("startDate") LocalDate startDate,
+                                  @Param("endDate") LocalDate endDate,
+                                  @Param("categoryId") Long categoryId,
+                                  Pageable pageable);
 
     @Query("SELECT f.orderDate, SUM(f.revenue) FROM FactOrder f WHERE f.orderDate BETWEEN :startDate AND :endDate GROUP BY f.orderDate ORDER BY f.orderDate")
     List<Object[]> getDailyRevenue(@Param("startDate") LocalDate startDate,
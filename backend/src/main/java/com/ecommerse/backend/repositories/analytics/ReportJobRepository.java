@@ -0,0 +1,36 @@
+package com.ecommerse.backend.repositories.analytics;
+
+import com.ecommerse.backend.entities.analytics.ReportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, String> {
+
+    List<ReportJob> findTop50ByOrderByCreatedAtDesc();
+
+    List<ReportJob> findByStatusOrderByCreatedAtAsc(ReportJob.Status status);
+
+    List<ReportJob> findByCreatedAtBefore(LocalDateTime cutoff);
+
+    List<ReportJob> findByStatusAndStartedAtBefore(ReportJob.Status status, LocalDateTime cutoff);
+
+    /**
+     * Move a queued job to RUNNING. Returns 0 when another worker already took it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.status = :running, j.startedAt = :now, j.updatedAt = :now "
+            + "WHERE j.id = :id AND j.status = :queued")
+    int claim(@Param("id") String id,
+              @Param("queued") ReportJob.Status queued,
+              @Param("running") ReportJob.Status running,
+              @Param("now") LocalDateTime now);
+}
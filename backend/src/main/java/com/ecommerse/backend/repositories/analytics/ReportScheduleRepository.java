@@ -1,8 +1,18 @@
 package com.ecommerse.backend.repositories.analytics;
 
 import com.ecommerse.backend.entities.analytics.ReportSchedule;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,4 +23,24 @@ public interface ReportScheduleRepository extends JpaRepository<ReportSchedule,
     List<ReportSchedule> findByIsActiveTrue();
 
     List<ReportSchedule> findByNextRunAtBefore(LocalDateTime dateTime);
+
+    /**
+     * Lock due active schedules, oldest first. Rows already locked by another node are skipped
+     * ({@code FOR UPDATE SKIP LOCKED}), so each firing is claimed once. Must run in a transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT s FROM ReportSchedule s WHERE s.isActive = true AND s.nextRunAt <= :now ORDER BY s.nextRunAt, s.id")
+    List<ReportSchedule> lockDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Put back a firing claimed by {@link #lockDue} whose report could not be queued, unless the
+     * schedule has changed since. Returns 0 when it has.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportSchedule s SET s.nextRunAt = :due WHERE s.id = :id AND s.nextRunAt = :claimedNext")
+    int restoreNextRun(@Param("id") Long id,
+                       @Param("due") LocalDateTime due,
+                       @Param("claimedNext") LocalDateTime claimedNext);
 }
@@ -5,6 +5,7 @@ import com.ecommerse.backend.entities.Product;
 import com.ecommerse.backend.entities.ProductImage;
 import com.ecommerse.backend.repositories.ProductImageRepository;
 import com.ecommerse.backend.repositories.ProductRepository;
+import com.ecommerse.backend.services.ImageVariantService;
 import com.ecommerse.backend.services.UploadedImageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,9 +16,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 @Transactional
@@ -37,6 +36,9 @@ public class ProductImageService {
     @Autowired
     private UploadedImageService uploadedImageService;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
     public List<ProductImage> getProductImages(Long productId) {
         return productImageRepository.findByProductIdOrderByPositionAsc(productId);
     }
@@ -57,7 +59,6 @@ public class ProductImageService {
 
         // Save file
         String fileName = saveImageFile(file);
-        uploadedImageService.save(fileName, file);
         String imageUrl = "/api/images/" + fileName;
 
         boolean shouldBeMain = currentImageCount == 0 || (isMain != null && isMain);
@@ -100,13 +101,11 @@ public class ProductImageService {
 
         Integer deletedPosition = image.getPosition();
         boolean wasMain = Boolean.TRUE.equals(image.getIsMain());
-        String deletedUrl = image.getImageUrl();
 
+        // The stored file is content-addressed and may be shared, so ImageGarbageCollector removes
+        // it once nothing references it.
         productImageRepository.delete(image);
 
-        // Delete physical file
-        deleteImageFileQuietly(deletedUrl);
-
         // Adjust positions of images after deleted image (best-effort; older data can have null positions).
         if (deletedPosition != null) {
             productImageRepository.decrementPositionsAfterPosition(productId, deletedPosition);
@@ -227,20 +226,13 @@ public class ProductImageService {
 
         validateImageFile(file);
 
-        // Save the new file first, then swap the URL, then clean up the old file.
-        String oldUrl = image.getImageUrl();
+        // The old file is left to ImageGarbageCollector: other images may share its content.
         String fileName = saveImageFile(file);
-        uploadedImageService.save(fileName, file);
         String imageUrl = "/api/images/" + fileName;
 
         image.setImageUrl(imageUrl);
         ProductImage saved = productImageRepository.save(image);
 
-        // Best-effort cleanup of old file/storage reference.
-        if (oldUrl != null && !oldUrl.isBlank()) {
-            deleteImageFileQuietly(oldUrl);
-        }
-
         // Backwards-compatibility: if we replaced the main image file, keep Product.imageUrl pointing at it.
         if (Boolean.TRUE.equals(saved.getIsMain()) && saved.getProduct() != null) {
             Product product = saved.getProduct();
@@ -308,11 +300,12 @@ public class ProductImageService {
         }
     }
 
-    private String saveImageFile(MultipartFile file) {
-        // Generate unique filename
+    private String saveImageFile(MultipartFile file) throws IOException {
+        // Content-addressed name, so re-uploading the same photo reuses the stored copy
         String originalFileName = file.getOriginalFilename();
-        String extension = originalFileName.substring(originalFileName.lastIndexOf('.'));
-        String fileName = UUID.randomUUID().toString() + extension;
+        String extension = originalFileName.substring(originalFileName.lastIndexOf('.') + 1);
+        byte[] data = file.getBytes();
+        String fileName = uploadedImageService.saveContentAddressed(data, file.getContentType(), extension);
 
         // Keep a filesystem copy as a best-effort cache.
         try {
@@ -321,37 +314,14 @@ public class ProductImageService {
                 Files.createDirectories(uploadPath);
             }
             Path filePath = uploadPath.resolve(fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            if (!Files.exists(filePath)) {
+                Files.write(filePath, data);
+            }
         } catch (IOException e) {
             System.err.println("File-system cache write failed for product image " + fileName + ": " + e.getMessage());
         }
 
+        imageVariantService.generate(fileName, data);
         return fileName;
     }
-
-    private void deleteImageFileQuietly(String imageUrl) {
-        if (imageUrl == null || imageUrl.isBlank()) {
-            return;
-        }
-
-        String fileName = uploadedImageService.extractFileName(imageUrl);
-        if (fileName == null || fileName.isBlank()) {
-            return;
-        }
-
-        try {
-            Path filePath = Paths.get(UPLOAD_DIR, fileName);
-            Files.deleteIfExists(filePath);
-        } catch (IOException e) {
-            // Log error but don't throw exception
-            System.err.println("Failed to delete image file: " + imageUrl);
-        }
-
-        // DB cleanup should not be allowed to fail the API call.
-        try {
-            uploadedImageService.deleteByFileName(fileName);
-        } catch (RuntimeException e) {
-            System.err.println("Failed to delete uploaded image DB row for fileName=" + fileName + ": " + e.getMessage());
-        }
-    }
 }
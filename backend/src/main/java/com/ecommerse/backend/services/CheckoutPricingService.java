@@ -0,0 +1,164 @@
+package com.ecommerse.backend.services;
+
+import com.ecommerse.backend.entities.Cart;
+import com.ecommerse.backend.entities.CartItem;
+import com.ecommerse.backend.entities.Product;
+import com.ecommerse.backend.repositories.CartRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Prices a cart for checkout in a single pass: effective (sale) unit price, discount code and
+ * shipping/tax are evaluated once into an immutable {@link PricedCart}. The order is built from
+ * that snapshot, so the amounts charged by Stripe are exactly the ones stored on the order.
+ */
+@Service
+public class CheckoutPricingService {
+
+    private static final BigDecimal CENTS = BigDecimal.valueOf(100);
+
+    /**
+     * One priced cart line. {@code finalUnitPrice} already includes the discount code.
+     */
+    public record PricedLine(
+            Long productId,
+            int quantity,
+            BigDecimal effectiveUnitPrice,
+            BigDecimal finalUnitPrice) {
+
+        public BigDecimal lineTotal() {
+            return finalUnitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    /**
+     * Immutable result of pricing a cart. {@code subtotal} is before the discount code,
+     * {@code total} is what the customer pays.
+     */
+    public record PricedCart(
+            List<PricedLine> lines,
+            String discountCode,
+            BigDecimal discountPercentage,
+            BigDecimal subtotal,
+            BigDecimal codeSavings,
+            BigDecimal shippingAmount,
+            BigDecimal taxAmount,
+            BigDecimal total) {
+
+        public PricedCart {
+            lines = List.copyOf(lines);
+        }
+
+        public long totalCents() {
+            return total.multiply(CENTS).longValue();
+        }
+
+        public PricedLine line(Long productId) {
+            for (PricedLine line : lines) {
+                if (Objects.equals(line.productId(), productId)) {
+                    return line;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * True when the cart still holds exactly the products and quantities this snapshot was
+         * priced for.
+         */
+        public boolean matches(Cart cart) {
+            if (cart == null || cart.getItems().size() != lines.size()) {
+                return false;
+            }
+            Map<Long, Integer> quantities = new HashMap<>();
+            for (CartItem item : cart.getItems()) {
+                Product product = item.getProduct();
+                if (product == null) {
+                    return false;
+                }
+                quantities.merge(product.getId(), item.getQuantity(), Integer::sum);
+            }
+            for (PricedLine line : lines) {
+                if (!Objects.equals(quantities.get(line.productId()), line.quantity())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final CartRepository cartRepository;
+    private final DiscountService discountService;
+    private final PricingService pricingService;
+
+    public CheckoutPricingService(CartRepository cartRepository, DiscountService discountService,
+            PricingService pricingService) {
+        this.cartRepository = cartRepository;
+        this.discountService = discountService;
+        this.pricingService = pricingService;
+    }
+
+    /**
+     * Price the user's current cart.
+     */
+    @Transactional(readOnly = true)
+    public PricedCart priceCart(Long userId, String discountCode, BigDecimal shippingAmount, BigDecimal taxAmount) {
+        Cart cart = cartRepository.findByUserIdWithItems(userId)
+                .orElseThrow(() -> new IllegalArgumentException("Cart not found for user"));
+        return price(cart, discountCode, shippingAmount, taxAmount);
+    }
+
+    /**
+     * Price an already loaded cart (items and products fetched).
+     */
+    public PricedCart price(Cart cart, String discountCode, BigDecimal shippingAmount, BigDecimal taxAmount) {
+        if (cart.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Cannot create order from empty cart");
+        }
+
+        DiscountService.AppliedDiscount appliedDiscount = discountService.resolveAppliedDiscount(discountCode,
+                cart.getItems());
+
+        List<PricedLine> lines = new ArrayList<>(cart.getItems().size());
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal discountedSubtotal = BigDecimal.ZERO;
+        for (CartItem cartItem : cart.getItems()) {
+            Product product = cartItem.getProduct();
+            // Cart item's unit price already includes the product-level sale price
+            BigDecimal effectiveUnitPrice = cartItem.getUnitPrice() != null
+                    ? pricingService.roundCurrency(cartItem.getUnitPrice())
+                    : pricingService.resolveEffectiveUnitPrice(product);
+            BigDecimal finalUnitPrice = appliedDiscount.appliesToProduct(product.getId())
+                    ? pricingService.applyPercentageDiscount(effectiveUnitPrice, appliedDiscount.percentage())
+                    : effectiveUnitPrice;
+
+            PricedLine line = new PricedLine(product.getId(), cartItem.getQuantity(), effectiveUnitPrice,
+                    finalUnitPrice);
+            lines.add(line);
+            subtotal = subtotal.add(effectiveUnitPrice.multiply(BigDecimal.valueOf(line.quantity())));
+            discountedSubtotal = discountedSubtotal.add(line.lineTotal());
+        }
+
+        BigDecimal shipping = shippingAmount != null ? shippingAmount : BigDecimal.ZERO;
+        BigDecimal tax = taxAmount != null ? taxAmount : BigDecimal.ZERO;
+        BigDecimal codeSavings = pricingService.roundCurrency(subtotal.subtract(discountedSubtotal));
+        BigDecimal total = discountedSubtotal.add(shipping).add(tax).max(BigDecimal.ZERO);
+
+        return new PricedCart(
+                lines,
+                appliedDiscount.applied() ? appliedDiscount.code() : null,
+                appliedDiscount.applied() ? appliedDiscount.percentage() : null,
+                pricingService.roundCurrency(subtotal),
+                appliedDiscount.applied() ? codeSavings : BigDecimal.ZERO,
+                shipping,
+                tax,
+                pricingService.roundCurrency(total));
+    }
+}
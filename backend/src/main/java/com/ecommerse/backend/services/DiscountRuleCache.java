@@ -0,0 +1,143 @@
+package com.ecommerse.backend.services;
+
+import com.ecommerse.backend.entities.Category;
+import com.ecommerse.backend.entities.DiscountCode;
+import com.ecommerse.backend.entities.Product;
+import com.ecommerse.backend.repositories.DiscountCodeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory snapshot of active discount codes and their eligible category ids.
+ *
+ * Checkout and discount preview look codes up here instead of querying discount_codes (plus the
+ * category join) on every request. The snapshot is rebuilt lazily after {@link #invalidate()}
+ * (called by {@link DiscountService} on create/update/delete) or once the TTL passes, which
+ * bounds staleness when another instance changed the codes.
+ */
+@Component
+public class DiscountRuleCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscountRuleCache.class);
+
+    /**
+     * Immutable, detached view of a discount code.
+     */
+    public record DiscountRule(
+            Long id,
+            String code,
+            BigDecimal percentage,
+            boolean appliesToAllProducts,
+            Set<Long> categoryIds) {
+
+        /**
+         * A product is eligible if the code applies to all products or if the product's
+         * category or any of its ancestors is one of the code's categories.
+         */
+        public boolean appliesTo(Product product) {
+            if (product == null) {
+                return false;
+            }
+            if (appliesToAllProducts) {
+                return true;
+            }
+            if (categoryIds.isEmpty()) {
+                return false;
+            }
+            Category cursor = product.getCategory();
+            while (cursor != null) {
+                if (categoryIds.contains(cursor.getId())) {
+                    return true;
+                }
+                cursor = cursor.getParent();
+            }
+            return false;
+        }
+    }
+
+    private record Snapshot(Map<String, DiscountRule> rulesByCode, long loadedAtMillis) {
+    }
+
+    private final DiscountCodeRepository discountCodeRepository;
+    private final long ttlMillis;
+    private volatile Snapshot snapshot;
+
+    public DiscountRuleCache(DiscountCodeRepository discountCodeRepository,
+            @Value("${discounts.cache.ttl-ms:60000}") long ttlMillis) {
+        this.discountCodeRepository = discountCodeRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Look up an active discount code (case-insensitive).
+     */
+    public Optional<DiscountRule> findActive(String code) {
+        if (code == null || code.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(currentSnapshot().rulesByCode().get(code.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * Drop the snapshot now and again after the surrounding transaction commits, so a reload
+     * racing with the commit cannot keep pre-commit data around.
+     */
+    public void invalidate() {
+        snapshot = null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshot = null;
+                }
+            });
+        }
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        long now = System.currentTimeMillis();
+        if (current != null && now - current.loadedAtMillis() < ttlMillis) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && now - current.loadedAtMillis() < ttlMillis) {
+                return current;
+            }
+            current = new Snapshot(loadRules(), now);
+            snapshot = current;
+            return current;
+        }
+    }
+
+    private Map<String, DiscountRule> loadRules() {
+        Map<String, DiscountRule> rules = new HashMap<>();
+        for (DiscountCode discountCode : discountCodeRepository.findAllByActiveTrue()) {
+            Set<Long> categoryIds = discountCode.getCategories().stream()
+                    .map(Category::getId)
+                    .collect(Collectors.toUnmodifiableSet());
+            DiscountRule rule = new DiscountRule(
+                    discountCode.getId(),
+                    discountCode.getCode(),
+                    discountCode.getPercentage(),
+                    Boolean.TRUE.equals(discountCode.getAppliesToAllProducts()),
+                    categoryIds);
+            rules.put(discountCode.getCode().toUpperCase(Locale.ROOT), rule);
+        }
+        logger.debug("Loaded {} active discount codes into cache", rules.size());
+        return Map.copyOf(rules);
+    }
+}
@@ -39,15 +39,18 @@ public class DiscountService {
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final PricingService pricingService;
+    private final DiscountRuleCache discountRuleCache;
 
     public DiscountService(DiscountCodeRepository discountCodeRepository,
             CategoryRepository categoryRepository,
             ProductRepository productRepository,
-            PricingService pricingService) {
+            PricingService pricingService,
+            DiscountRuleCache discountRuleCache) {
         this.discountCodeRepository = discountCodeRepository;
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
         this.pricingService = pricingService;
+        this.discountRuleCache = discountRuleCache;
     }
 
     @Transactional(readOnly = true)
@@ -67,7 +70,9 @@ public class DiscountService {
 
         DiscountCode discountCode = new DiscountCode();
         applyDtoToEntity(discountCode, dto, normalizedCode);
-        return toDto(discountCodeRepository.save(discountCode));
+        DiscountCode saved = discountCodeRepository.save(discountCode);
+        discountRuleCache.invalidate();
+        return toDto(saved);
     }
 
     @Transactional
@@ -83,7 +88,9 @@ public class DiscountService {
                 });
 
         applyDtoToEntity(existing, dto, normalizedCode);
-        return toDto(discountCodeRepository.save(existing));
+        DiscountCode saved = discountCodeRepository.save(existing);
+        discountRuleCache.invalidate();
+        return toDto(saved);
     }
 
     @Transactional
@@ -92,14 +99,14 @@ public class DiscountService {
             throw new IllegalArgumentException("Discount code not found: " + id);
         }
         discountCodeRepository.deleteById(id);
+        discountRuleCache.invalidate();
     }
 
     @Transactional(readOnly = true)
     public DiscountPreviewDTO previewDiscount(DiscountPreviewRequest request) {
         String normalizedCode = normalizeCode(request.getCode());
 
-        DiscountCode discountCode = discountCodeRepository.findByCodeIgnoreCaseAndActiveTrue(normalizedCode)
-                .orElse(null);
+        DiscountRuleCache.DiscountRule discountCode = discountRuleCache.findActive(normalizedCode).orElse(null);
 
         List<DiscountPreviewRequest.PreviewItem> requestedItems = Optional.ofNullable(request.getItems())
                 .orElseGet(Collections::emptyList)
@@ -122,7 +129,7 @@ public class DiscountService {
         if (discountCode != null) {
             for (DiscountPreviewRequest.PreviewItem line : requestedItems) {
                 Product product = productsById.get(line.getProductId());
-                if (product != null && isProductEligible(discountCode, product)) {
+                if (product != null && discountCode.appliesTo(product)) {
                     eligibleProductIds.add(product.getId());
                 }
             }
@@ -142,7 +149,7 @@ public class DiscountService {
                     pricingService.resolveSaleSavingsPerUnit(product).multiply(quantity));
 
             if (discountCode != null && eligibleProductIds.contains(product.getId())) {
-                BigDecimal discountedUnit = pricingService.applyPercentageDiscount(unitPrice, discountCode.getPercentage());
+                BigDecimal discountedUnit = pricingService.applyPercentageDiscount(unitPrice, discountCode.percentage());
                 BigDecimal lineCodeSavings = unitPrice.subtract(discountedUnit).multiply(quantity);
                 codeSavings = codeSavings.add(lineCodeSavings);
             }
@@ -170,14 +177,14 @@ public class DiscountService {
         if (eligibleProductIds.isEmpty()) {
             response.setValid(false);
             response.setMessage("Discount code does not apply to products in your cart");
-            response.setPercentage(discountCode.getPercentage());
+            response.setPercentage(discountCode.percentage());
             return response;
         }
 
         response.setValid(true);
         response.setMessage("Discount code applied");
-        response.setCode(discountCode.getCode());
-        response.setPercentage(discountCode.getPercentage());
+        response.setCode(discountCode.code());
+        response.setPercentage(discountCode.percentage());
         return response;
     }
 
@@ -188,13 +195,13 @@ public class DiscountService {
             return AppliedDiscount.none();
         }
 
-        DiscountCode discountCode = discountCodeRepository.findByCodeIgnoreCaseAndActiveTrue(normalizedCode)
+        DiscountRuleCache.DiscountRule discountCode = discountRuleCache.findActive(normalizedCode)
                 .orElseThrow(() -> new IllegalArgumentException("Discount code is invalid or inactive"));
 
         Set<Long> eligibleProductIds = cartItems.stream()
                 .map(CartItem::getProduct)
                 .filter(Objects::nonNull)
-                .filter(product -> isProductEligible(discountCode, product))
+                .filter(discountCode::appliesTo)
                 .map(Product::getId)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
@@ -203,7 +210,7 @@ public class DiscountService {
             throw new IllegalArgumentException("Discount code does not apply to products in cart");
         }
 
-        return new AppliedDiscount(true, discountCode.getCode(), discountCode.getPercentage(), eligibleProductIds);
+        return new AppliedDiscount(true, discountCode.code(), discountCode.percentage(), eligibleProductIds);
     }
 
     private void applyDtoToEntity(DiscountCode entity, DiscountCodeDTO dto, String normalizedCode) {
@@ -264,29 +271,4 @@ public class DiscountService {
         String normalized = rawCode.trim().toUpperCase(Locale.ROOT);
         return normalized.isEmpty() ? null : normalized;
     }
-
-    private boolean isProductEligible(DiscountCode discountCode, Product product) {
-        if (discountCode == null || product == null) {
-            return false;
-        }
-        if (Boolean.TRUE.equals(discountCode.getAppliesToAllProducts())) {
-            return true;
-        }
-        if (discountCode.getCategories() == null || discountCode.getCategories().isEmpty()) {
-            return false;
-        }
-
-        Set<Long> eligibleCategoryIds = discountCode.getCategories().stream()
-                .map(Category::getId)
-                .collect(Collectors.toSet());
-
-        Category cursor = product.getCategory();
-        while (cursor != null) {
-            if (eligibleCategoryIds.contains(cursor.getId())) {
-                return true;
-            }
-            cursor = cursor.getParent();
-        }
-        return false;
-    }
 }
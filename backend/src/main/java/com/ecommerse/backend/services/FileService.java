@@ -1,5 +1,6 @@
 package com.ecommerse.backend.services;
 
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -8,12 +9,14 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 /**
  * Service for handling file uploads and management
@@ -22,9 +25,27 @@ import java.util.UUID;
 public class FileService {
 
     private final UploadedImageService uploadedImageService;
+    private final ImageVariantService imageVariantService;
+    private final ImageGarbageCollector imageGarbageCollector;
 
-    public FileService(UploadedImageService uploadedImageService) {
+    private final ExecutorService uploadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore uploadPermits;
+    private final int batchParallelism;
+
+    public FileService(UploadedImageService uploadedImageService, ImageVariantService imageVariantService,
+                       ImageGarbageCollector imageGarbageCollector,
+                       @Value("${app.upload.max-concurrent-files:8}") int maxConcurrentFiles,
+                       @Value("${app.upload.batch-parallelism:4}") int batchParallelism) {
         this.uploadedImageService = uploadedImageService;
+        this.imageVariantService = imageVariantService;
+        this.imageGarbageCollector = imageGarbageCollector;
+        this.uploadPermits = new Semaphore(Math.max(1, maxConcurrentFiles), true);
+        this.batchParallelism = Math.max(1, batchParallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdownNow();
     }
 
     @Value("${app.upload.dir:uploads}")
@@ -36,6 +57,8 @@ public class FileService {
     @Value("${app.upload.public-url-prefix:/uploads}")
     private String publicUrlPrefix;
 
+    private static final int MAX_FILES_PER_BATCH = 10;
+
     private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList(
             "jpg", "jpeg", "png", "gif", "webp");
 
@@ -46,79 +69,156 @@ public class FileService {
      * Upload a product image
      */
     public String uploadProductImage(MultipartFile file) throws IOException {
-        validateFile(file);
+        return storeImage(file, "products");
+    }
 
-        // Generate unique filename
-        String fileName = generateFileName(file);
+    /**
+     * Upload a category image
+     */
+    public String uploadCategoryImage(MultipartFile file) throws IOException {
+        return storeImage(file, "categories");
+    }
 
-        // Persist to DB first so image survives dyno/container restarts.
-        uploadedImageService.save(fileName, file);
+    /**
+     * Outcome of one file in a batch upload: {@code relativePath} on success, {@code error} otherwise.
+     */
+    public record UploadResult(String originalFilename, String relativePath, String error) {
 
-        // Keep filesystem copy as a best-effort cache for direct static serving.
-        try {
-            Path uploadPath = createUploadDirectory("products");
-            Path filePath = uploadPath.resolve(fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            System.err.println("File-system cache write failed for product image " + fileName + ": " + e.getMessage());
+        public boolean succeeded() {
+            return error == null;
         }
-
-        // Return relative path
-        return "products/" + fileName;
     }
 
     /**
-     * Upload a category image
+     * Upload multiple product images. Files are validated, read and hashed concurrently on virtual
+     * threads (bounded per request and across requests), then the new ones are stored with one
+     * JDBC batch insert. A bad file does not fail the others; each gets its own result, in the
+     * order given.
      */
-    public String uploadCategoryImage(MultipartFile file) throws IOException {
-        validateFile(file);
+    public List<UploadResult> uploadMultipleProductImages(List<MultipartFile> files) {
+        if (files.size() > MAX_FILES_PER_BATCH) {
+            throw new IllegalArgumentException("Maximum " + MAX_FILES_PER_BATCH + " images allowed per product");
+        }
 
-        String fileName = generateFileName(file);
-        uploadedImageService.save(fileName, file);
+        Semaphore requestPermits = new Semaphore(batchParallelism);
+        List<Future<UploadedImageService.ImageUpload>> futures = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            futures.add(uploadExecutor.submit(() -> {
+                requestPermits.acquire();
+                uploadPermits.acquire();
+                try {
+                    return prepare(file);
+                } finally {
+                    uploadPermits.release();
+                    requestPermits.release();
+                }
+            }));
+        }
 
-        try {
-            Path uploadPath = createUploadDirectory("categories");
-            Path filePath = uploadPath.resolve(fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            System.err.println("File-system cache write failed for category image " + fileName + ": " + e.getMessage());
+        UploadResult[] results = new UploadResult[files.size()];
+        List<UploadedImageService.ImageUpload> prepared = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            String originalFilename = files.get(i).getOriginalFilename();
+            try {
+                UploadedImageService.ImageUpload upload = futures.get(i).get();
+                prepared.add(upload);
+                results[i] = new UploadResult(originalFilename, "products/" + upload.fileName(), null);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                results[i] = new UploadResult(originalFilename, null,
+                        cause instanceof IllegalArgumentException ? cause.getMessage() : "Failed to read file");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(future -> future.cancel(true));
+                throw new IllegalStateException("Upload interrupted", e);
+            }
+        }
+        if (prepared.isEmpty()) {
+            return List.of(results);
         }
 
-        return "categories/" + fileName;
+        try {
+            uploadedImageService.saveAll(prepared);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i].succeeded()) {
+                    results[i] = new UploadResult(results[i].originalFilename(), null, "Failed to store image");
+                }
+            }
+            return List.of(results);
+        }
+        for (UploadedImageService.ImageUpload upload : prepared) {
+            imageVariantService.generate(upload.fileName(), upload.data());
+        }
+        return List.of(results);
     }
 
     /**
-     * Upload multiple product images
+     * Validate, read and hash one file of a batch, and write its filesystem copy.
      */
-    public List<String> uploadMultipleProductImages(List<MultipartFile> files) throws IOException {
-        if (files.size() > 10) {
-            throw new IllegalArgumentException("Maximum 10 images allowed per product");
-        }
-
-        return files.stream()
-                .map(file -> {
-                    try {
-                        return uploadProductImage(file);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Failed to upload image: " + file.getOriginalFilename(), e);
-                    }
-                })
-                .toList();
+    private UploadedImageService.ImageUpload prepare(MultipartFile file) throws IOException {
+        validateFile(file);
+        byte[] data = file.getBytes();
+        String hash = UploadedImageService.sha256Hex(data);
+        String fileName = UploadedImageService.contentAddressedName(hash, getFileExtension(file.getOriginalFilename()));
+        writeFileSystemCopy("products", fileName, data);
+        return new UploadedImageService.ImageUpload(fileName, data, file.getContentType(), hash);
     }
 
     /**
-     * Delete a file
+     * Delete a file. Stored files are content-addressed and may be shared, so the file is only
+     * removed once nothing references it any more; otherwise it is kept and the call still
+     * succeeds.
      */
     public boolean deleteFile(String relativePath) {
         String fileName = uploadedImageService.extractFileName(relativePath);
+        Path filePath = Paths.get(uploadDir, relativePath);
+        if (!Files.exists(filePath) && !uploadedImageService.exists(fileName)) {
+            return false;
+        }
+        if (imageGarbageCollector.countReferences(fileName) > 0) {
+            return true;
+        }
         try {
-            Path filePath = Paths.get(uploadDir, relativePath);
-            return Files.deleteIfExists(filePath);
+            Files.deleteIfExists(filePath);
         } catch (IOException e) {
             return false;
         } finally {
             uploadedImageService.deleteByFileName(fileName);
         }
+        return true;
+    }
+
+    private String storeImage(MultipartFile file, String subDir) throws IOException {
+        validateFile(file);
+
+        // Persist to DB first so image survives dyno/container restarts. Names are content
+        // hashes, so re-uploading the same photo reuses the stored copy.
+        byte[] data = file.getBytes();
+        String fileName = uploadedImageService.saveContentAddressed(data, file.getContentType(),
+                getFileExtension(file.getOriginalFilename()));
+        if ("products".equals(subDir)) {
+            imageVariantService.generate(fileName, data);
+        }
+
+        writeFileSystemCopy(subDir, fileName, data);
+
+        // Return relative path
+        return subDir + "/" + fileName;
+    }
+
+    /**
+     * Keep filesystem copy as a best-effort cache for direct static serving.
+     */
+    private void writeFileSystemCopy(String subDir, String fileName, byte[] data) {
+        try {
+            Path filePath = createUploadDirectory(subDir).resolve(fileName);
+            if (!Files.exists(filePath)) {
+                Files.write(filePath, data);
+            }
+        } catch (IOException e) {
+            System.err.println("File-system cache write failed for image " + fileName + ": " + e.getMessage());
+        }
     }
 
     /**
@@ -160,17 +260,6 @@ public class FileService {
         return uploadPath;
     }
 
-    /**
-     * Generate unique filename
-     */
-    private String generateFileName(MultipartFile file) {
-        String originalFilename = file.getOriginalFilename();
-        String extension = getFileExtension(originalFilename);
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8);
-        return String.format("%s_%s.%s", timestamp, uuid, extension);
-    }
-
     /**
      * Get file extension
      */
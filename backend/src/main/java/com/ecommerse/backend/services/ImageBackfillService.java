@@ -0,0 +1,151 @@
+package com.ecommerse.backend.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Copies images that only exist on disk into {@code uploaded_images} in the background.
+ *
+ * At startup the existence index is loaded and the upload directories are scanned once; files the
+ * database does not have yet are queued, followed by stored images that still lack a content hash.
+ * The image endpoint queues stragglers it notices while serving from disk. All work runs on one
+ * background thread, so requests never read or write image data in the database for this.
+ */
+@Service
+public class ImageBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageBackfillService.class);
+    private static final List<String> IMAGE_DIRECTORIES = List.of("products", "categories");
+
+    private final UploadedImageService uploadedImageService;
+    private final boolean scanOnStartup;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor executor;
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    public ImageBackfillService(UploadedImageService uploadedImageService,
+                                @Value("${app.upload.backfill-on-startup:true}") boolean scanOnStartup) {
+        this.uploadedImageService = uploadedImageService;
+        this.scanOnStartup = scanOnStartup;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(10_000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-backfill");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            executor.execute(this::scan);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Image backfill scan could not be scheduled");
+        }
+    }
+
+    /**
+     * Queue a disk file for copying unless it is already queued. Returns immediately.
+     */
+    public void enqueue(String fileName, Path filePath, String contentType) {
+        if (!pending.add(fileName)) {
+            return;
+        }
+        try {
+            executor.execute(() -> copy(fileName, filePath, contentType));
+        } catch (RejectedExecutionException e) {
+            pending.remove(fileName);
+        }
+    }
+
+    private void scan() {
+        try {
+            uploadedImageService.loadIndex();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to load the uploaded image index: {}", e.getMessage());
+            return;
+        }
+        if (!scanOnStartup) {
+            return;
+        }
+        int queued = 0;
+        for (String directory : IMAGE_DIRECTORIES) {
+            Path path = Paths.get(uploadDir, directory);
+            if (!Files.isDirectory(path)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(path)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    String fileName = file.getFileName().toString();
+                    if (Files.isRegularFile(file) && !uploadedImageService.exists(fileName)) {
+                        enqueue(fileName, file, null);
+                        queued++;
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to scan {} for image backfill: {}", path, e.getMessage());
+            }
+        }
+        if (queued > 0) {
+            logger.info("Queued {} disk-only image(s) for database backfill", queued);
+        }
+
+        List<String> unhashed = uploadedImageService.findFileNamesWithoutHash();
+        for (String fileName : unhashed) {
+            try {
+                executor.execute(() -> hash(fileName));
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        if (!unhashed.isEmpty()) {
+            logger.info("Queued {} stored image(s) for content hashing", unhashed.size());
+        }
+    }
+
+    private void hash(String fileName) {
+        try {
+            uploadedImageService.backfillContentHash(fileName);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to hash stored image {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    private void copy(String fileName, Path filePath, String contentType) {
+        try {
+            if (!uploadedImageService.exists(fileName)) {
+                uploadedImageService.save(fileName, Files.readAllBytes(filePath), contentType);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Keep serving from disk even if DB backfill fails.
+            logger.warn("Failed to backfill image {} into database: {}", fileName, e.getMessage());
+        } finally {
+            pending.remove(fileName);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
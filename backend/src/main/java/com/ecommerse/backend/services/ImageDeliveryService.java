@@ -0,0 +1,297 @@
+package com.ecommerse.backend.services;
+
+import com.ecommerse.backend.dto.UploadedImageMetadata;
+import com.ecommerse.backend.services.storage.BlobStores;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Resolves the body and cache validators for {@code /api/images/{fileName}}.
+ *
+ * Stored images are looked up in three tiers: small images held in memory, a size-bounded LRU
+ * directory on local disk ({@link ImageDiskCache}), then the blob store. Images whose blob store
+ * keeps them as local files are served from those files directly; other reads stream the blob into
+ * the disk cache, and small images are also kept in memory. Images {@code uploaded_images} does not
+ * know are looked for once in the product and category upload directories and queued for backfill.
+ *
+ * At startup the disk cache is re-indexed and, in the background, filled with the main images
+ * (and their variants) of active products, featured ones first, so an ephemeral filesystem does
+ * not send the first storefront visitors to the database for every image.
+ *
+ * ETags are the stored SHA-256 of the content; files only known on disk get a weak ETag from
+ * name, size and modification time until the backfill records their hash.
+ */
+@Service
+public class ImageDeliveryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDeliveryService.class);
+    private static final String SELECT_WARM_IMAGES = """
+            SELECT image_url FROM products
+            WHERE active = TRUE AND image_url LIKE '/api/images/%'
+            ORDER BY featured DESC, id DESC
+            LIMIT ?
+            """;
+    /** Subdirectories of the upload directory that {@code FileService} writes images to. */
+    private static final List<String> UPLOAD_SUBDIRECTORIES = List.of("products", "categories");
+
+    /**
+     * An image ready to be written to the response.
+     */
+    public record ImageDelivery(Resource body, String contentType, String eTag, long lastModified) {
+    }
+
+    private final UploadedImageService uploadedImageService;
+    private final ImageBackfillService imageBackfillService;
+    private final ImageVariantService imageVariantService;
+    private final BlobStores blobStores;
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageBytesCache memoryCache;
+    private final ImageDiskCache diskCache;
+    private final int warmLimit;
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    public ImageDeliveryService(UploadedImageService uploadedImageService,
+                                ImageBackfillService imageBackfillService,
+                                ImageVariantService imageVariantService,
+                                BlobStores blobStores,
+                                JdbcTemplate jdbcTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.images.memory-cache-bytes:33554432}") long memoryCacheBytes,
+                                @Value("${app.images.memory-cache-max-entry-bytes:262144}") int maxEntryBytes,
+                                @Value("${app.images.disk-cache-dir:${app.upload.dir:uploads}/cache}") String diskCacheDir,
+                                @Value("${app.images.disk-cache-bytes:536870912}") long diskCacheBytes,
+                                @Value("${app.images.disk-cache-delete-delay-ms:60000}") long diskCacheDeleteDelayMs,
+                                @Value("${app.images.warm-limit:200}") int warmLimit) {
+        this.uploadedImageService = uploadedImageService;
+        this.imageBackfillService = imageBackfillService;
+        this.imageVariantService = imageVariantService;
+        this.blobStores = blobStores;
+        this.jdbcTemplate = jdbcTemplate;
+        this.memoryCache = new ImageBytesCache(memoryCacheBytes, maxEntryBytes);
+        this.diskCache = new ImageDiskCache(Paths.get(diskCacheDir), diskCacheBytes, diskCacheDeleteDelayMs);
+        this.warmLimit = Math.max(0, warmLimit);
+
+        Gauge.builder("images.memory_cache.bytes", memoryCache, ImageBytesCache::sizeInBytes)
+                .description("Bytes of image data held in memory")
+                .register(meterRegistry);
+        FunctionCounter.builder("images.memory_cache.requests", memoryCache, ImageBytesCache::hitCount)
+                .description("Image memory cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("images.memory_cache.requests", memoryCache, ImageBytesCache::missCount)
+                .description("Image memory cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("images.disk_cache.bytes", diskCache, ImageDiskCache::sizeInBytes)
+                .description("Bytes of image data cached on local disk")
+                .register(meterRegistry);
+        FunctionCounter.builder("images.disk_cache.requests", diskCache, ImageDiskCache::hitCount)
+                .description("Image disk cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("images.disk_cache.requests", diskCache, ImageDiskCache::missCount)
+                .description("Image disk cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWarmup() {
+        Thread warmup = new Thread(this::warm, "image-cache-warmup");
+        warmup.setDaemon(true);
+        warmup.setPriority(Thread.MIN_PRIORITY);
+        warmup.start();
+    }
+
+    public Optional<ImageDelivery> find(String fileName) {
+        // The metadata index is consulted first so deleted images stop being served from the caches
+        Optional<UploadedImageMetadata> metadata = uploadedImageService.findMetadata(fileName);
+        if (metadata.isEmpty()) {
+            memoryCache.remove(fileName);
+            diskCache.remove(fileName);
+            for (String subdirectory : UPLOAD_SUBDIRECTORIES) {
+                Path uploaded = Paths.get(uploadDir, subdirectory, fileName);
+                if (Files.isRegularFile(uploaded)) {
+                    return Optional.of(fromDisk(fileName, uploaded, null));
+                }
+            }
+            return Optional.empty();
+        }
+
+        ImageBytesCache.Entry cached = memoryCache.get(fileName);
+        if (cached != null) {
+            return Optional.of(new ImageDelivery(new ByteArrayResource(cached.data()), cached.contentType(),
+                    cached.eTag(), cached.lastModified()));
+        }
+        Optional<Path> blobFile = blobStores.localFile(fileName);
+        if (blobFile.isPresent()) {
+            return Optional.of(fromDisk(fileName, blobFile.get(), metadata.get()));
+        }
+        Path cachedFile = diskCache.get(fileName);
+        if (cachedFile != null) {
+            return Optional.of(fromDisk(fileName, cachedFile, metadata.get()));
+        }
+        ImageDelivery stored = fromDatabase(metadata.get());
+        if (stored == null) {
+            // Deleted since the metadata was indexed, e.g. by the garbage collector on another instance
+            uploadedImageService.evict(List.of(fileName));
+        }
+        return Optional.ofNullable(stored);
+    }
+
+    private ImageDelivery fromDisk(String fileName, Path filePath, UploadedImageMetadata metadata) {
+        String contentType = uploadedImageService.resolveContentType(metadata != null ? metadata.contentType() : null, fileName);
+        if (metadata == null) {
+            imageBackfillService.enqueue(fileName, filePath, contentType);
+        }
+        try {
+            long size = Files.size(filePath);
+            long modified = Files.getLastModifiedTime(filePath).toMillis();
+            String eTag = metadata != null && metadata.contentHash() != null
+                    ? strongETag(metadata.contentHash())
+                    : "W/\"" + fileName + "-" + size + "-" + modified + "\"";
+            long lastModified = metadata != null && metadata.updatedDate() != null ? toMillis(metadata) : modified;
+            return new ImageDelivery(new FileSystemResource(filePath), contentType, eTag, lastModified);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The image read from its blob store, or {@code null} if it is gone.
+     */
+    private ImageDelivery fromDatabase(UploadedImageMetadata metadata) {
+        String fileName = metadata.fileName();
+        String contentType = uploadedImageService.resolveContentType(metadata.contentType(), fileName);
+        long lastModified = toMillis(metadata);
+
+        if (metadata.sizeBytes() == null || !memoryCache.admits(metadata.sizeBytes())) {
+            CachedFile cached = cacheOnDisk(fileName);
+            if (cached != null) {
+                return new ImageDelivery(new FileSystemResource(cached.path()), contentType,
+                        strongETag(metadata.contentHash() != null ? metadata.contentHash() : cached.contentHash()),
+                        lastModified);
+            }
+        }
+
+        byte[] data = readImageData(fileName);
+        if (data == null) {
+            return null;
+        }
+        String hash = metadata.contentHash() != null ? metadata.contentHash() : UploadedImageService.sha256Hex(data);
+        ImageBytesCache.Entry entry = new ImageBytesCache.Entry(data, contentType, strongETag(hash), lastModified);
+        memoryCache.put(fileName, entry);
+        try {
+            diskCache.put(fileName, new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            logger.debug("Could not cache image {} on disk: {}", fileName, e.getMessage());
+        }
+        return new ImageDelivery(new ByteArrayResource(data), contentType, entry.eTag(), lastModified);
+    }
+
+    private byte[] readImageData(String fileName) {
+        try {
+            return uploadedImageService.readData(fileName).orElse(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record CachedFile(Path path, String contentHash) {
+    }
+
+    /**
+     * Stream the blob into the disk cache, hashing it on the way. Returns {@code null} when the
+     * image is gone or the disk is not writable.
+     */
+    private CachedFile cacheOnDisk(String fileName) {
+        try {
+            return blobStores.read(fileName, blob -> {
+                try (DigestInputStream input = new DigestInputStream(blob, sha256())) {
+                    Path path = diskCache.put(fileName, input);
+                    return new CachedFile(path, HexFormat.of().formatHex(input.getMessageDigest().digest()));
+                }
+            }).orElse(null);
+        } catch (IOException e) {
+            logger.warn("Could not cache image {} on disk: {}", fileName, e.getMessage());
+            return null;
+        }
+    }
+
+    private void warm() {
+        try {
+            int indexed = diskCache.load();
+            logger.info("Indexed {} image(s) in the disk cache", indexed);
+        } catch (IOException e) {
+            logger.warn("Image disk cache is not usable: {}", e.getMessage());
+            return;
+        }
+        if (warmLimit == 0) {
+            return;
+        }
+        int cached = 0;
+        try {
+            for (String imageUrl : jdbcTemplate.queryForList(SELECT_WARM_IMAGES, String.class, warmLimit)) {
+                String fileName = uploadedImageService.extractFileName(imageUrl);
+                List<String> fileNames = new ArrayList<>(imageVariantService.variantFileNames(fileName));
+                fileNames.add(fileName);
+                for (String name : fileNames) {
+                    if (!diskCache.contains(name) && blobStores.localFile(name).isEmpty()
+                            && uploadedImageService.findMetadata(name).isPresent() && cacheOnDisk(name) != null) {
+                        cached++;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Image cache warmup stopped early: {}", e.getMessage());
+        }
+        if (cached > 0) {
+            logger.info("Warmed the image disk cache with {} image(s)", cached);
+        }
+    }
+
+    private static String strongETag(String contentHash) {
+        return "\"" + contentHash + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long toMillis(UploadedImageMetadata metadata) {
+        return metadata.updatedDate() == null ? -1
+                : metadata.updatedDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,203 @@
+package com.ecommerse.backend.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Local disk LRU of image files in front of {@code uploaded_images}, bounded by total bytes.
+ *
+ * The index of cached files lives in memory, so a lookup is one map access and never probes the
+ * filesystem for misses. Files are written to a temporary name and renamed into place, so readers
+ * never see partial content. Evicted files stay on disk for {@code deleteDelayMillis} before they
+ * are deleted, because a response may still be about to open one by name (Tomcat's sendfile opens
+ * the file after the handler has returned); a re-cached file cancels its pending deletion. After a restart the directory is re-indexed oldest first; on an
+ * ephemeral filesystem it is simply empty and refills from the database.
+ */
+final class ImageDiskCache {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long deleteDelayMillis;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    /** Evicted files awaiting deletion, oldest first, with the time they may be deleted. */
+    private final LinkedHashMap<String, Long> pendingDeletes = new LinkedHashMap<>();
+    private long currentBytes;
+    private long hits;
+    private long misses;
+
+    ImageDiskCache(Path directory, long maxBytes, long deleteDelayMillis) {
+        if (maxBytes < 0 || deleteDelayMillis < 0) {
+            throw new IllegalArgumentException("Cache bound and delete delay must not be negative");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.deleteDelayMillis = deleteDelayMillis;
+    }
+
+    /**
+     * Index files left from a previous run and drop abandoned temporary files. Returns the number
+     * of files indexed.
+     */
+    int load() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) listing::iterator) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(ImageDiskCache::lastModified));
+        synchronized (this) {
+            for (Path file : files) {
+                long size = Files.size(file);
+                Long previous = entries.put(file.getFileName().toString(), size);
+                currentBytes += size - (previous == null ? 0 : previous);
+            }
+            evict(null);
+            deleteDueFiles();
+            return entries.size();
+        }
+    }
+
+    /**
+     * The cached file, or {@code null}. Counts as a use for eviction order.
+     */
+    Path get(String fileName) {
+        synchronized (this) {
+            if (entries.get(fileName) == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        Path file = directory.resolve(fileName);
+        if (Files.isRegularFile(file)) {
+            return file;
+        }
+        // Removed behind our back (e.g. tmp cleaner)
+        remove(fileName);
+        return null;
+    }
+
+    /**
+     * Copy {@code input} into the cache and return the cached file. The caller closes the stream.
+     */
+    Path put(String fileName, InputStream input) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(fileName);
+        Path temp = directory.resolve(fileName + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            long size = Files.copy(input, temp);
+            synchronized (this) {
+                // Moved under the lock, so a pending delete of the previous copy cannot remove this one
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                pendingDeletes.remove(fileName);
+                Long previous = entries.put(fileName, size);
+                currentBytes += size - (previous == null ? 0 : previous);
+                evict(fileName);
+                deleteDueFiles();
+            }
+            return target;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    synchronized void remove(String fileName) {
+        Long removed = entries.remove(fileName);
+        if (removed == null) {
+            return;
+        }
+        currentBytes -= removed;
+        scheduleDelete(fileName);
+        deleteDueFiles();
+    }
+
+    synchronized boolean contains(String fileName) {
+        return entries.containsKey(fileName);
+    }
+
+    synchronized long sizeInBytes() {
+        return currentBytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long hitCount() {
+        return hits;
+    }
+
+    synchronized long missCount() {
+        return misses;
+    }
+
+    /**
+     * Drop least recently used files until within bounds, keeping {@code keep} (the file just
+     * written) even if it alone exceeds the bound. The files are deleted after the delete delay.
+     */
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            currentBytes -= entry.getValue();
+            eldest.remove();
+            scheduleDelete(entry.getKey());
+        }
+    }
+
+    private void scheduleDelete(String fileName) {
+        pendingDeletes.remove(fileName);
+        pendingDeletes.put(fileName, System.currentTimeMillis() + deleteDelayMillis);
+    }
+
+    private void deleteDueFiles() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Long>> oldest = pendingDeletes.entrySet().iterator();
+        while (oldest.hasNext()) {
+            Map.Entry<String, Long> pending = oldest.next();
+            if (pending.getValue() > now) {
+                break;
+            }
+            oldest.remove();
+            deleteQuietly(directory.resolve(pending.getKey()));
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Counted as evicted either way; a later put replaces it
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.ecommerse.backend.services;
+
+import com.ecommerse.backend.services.storage.BlobStores;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes stored images nothing refers to any more.
+ *
+ * Images are referenced by URL from {@code product_images}, {@code products}, {@code product_variants}
+ * and {@code categories}; size variants are referenced through {@code image_variants} by the content
+ * hash of a live original. Reference counts are taken from those tables on each run rather than
+ * kept as counters, since the URL columns are written from many places and counters would drift.
+ * Images changed within the grace period are never collected, which covers uploads whose
+ * referencing row has not been saved yet (re-uploads refresh {@code updated_date}). Garbage is
+ * deleted in batches, each in its own transaction after re-reading the references.
+ */
+@Service
+public class ImageGarbageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageGarbageCollector.class);
+    private static final List<String> IMAGE_DIRECTORIES = List.of("products", "categories");
+
+    private static final String REFERENCED_URLS = """
+            SELECT image_url FROM product_images WHERE image_url IS NOT NULL
+            UNION SELECT image_url FROM products WHERE image_url IS NOT NULL
+            UNION SELECT image_url FROM product_variants WHERE image_url IS NOT NULL
+            UNION SELECT image_url FROM categories WHERE image_url IS NOT NULL
+            """;
+    private static final String COUNT_REFERENCES = """
+            SELECT (SELECT COUNT(*) FROM product_images WHERE image_url = ? OR image_url LIKE ?)
+                 + (SELECT COUNT(*) FROM products WHERE image_url = ? OR image_url LIKE ?)
+                 + (SELECT COUNT(*) FROM product_variants WHERE image_url = ? OR image_url LIKE ?)
+                 + (SELECT COUNT(*) FROM categories WHERE image_url = ? OR image_url LIKE ?)
+            """;
+    private static final String SELECT_STORED = "SELECT file_name, content_hash, updated_date FROM uploaded_images";
+    private static final String SELECT_VARIANT_SOURCES = "SELECT file_name, source_hash FROM image_variants";
+    private static final String DELETE_VARIANT = "DELETE FROM image_variants WHERE file_name = ?";
+    private static final String DELETE_IMAGE = "DELETE FROM uploaded_images WHERE file_name = ? AND updated_date < ?";
+
+    /**
+     * Metadata of one stored image as seen by the collector.
+     */
+    record StoredImage(String fileName, String contentHash, boolean withinGracePeriod) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UploadedImageService uploadedImageService;
+    private final ImageVariantService imageVariantService;
+    private final BlobStores blobStores;
+    private final MeterRegistry meterRegistry;
+    private final Duration gracePeriod;
+    private final int batchSize;
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    public ImageGarbageCollector(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 UploadedImageService uploadedImageService,
+                                 ImageVariantService imageVariantService,
+                                 BlobStores blobStores,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.images.gc.grace-hours:24}") long graceHours,
+                                 @Value("${app.images.gc.batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.uploadedImageService = uploadedImageService;
+        this.imageVariantService = imageVariantService;
+        this.blobStores = blobStores;
+        this.meterRegistry = meterRegistry;
+        this.gracePeriod = Duration.ofHours(Math.max(1, graceHours));
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(cron = "${app.images.gc.cron:0 40 3 * * *}")
+    public void runScheduled() {
+        try {
+            collect();
+        } catch (RuntimeException e) {
+            logger.warn("Image garbage collection failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Number of rows referring to a stored image by URL.
+     */
+    public int countReferences(String fileName) {
+        String suffix = "%/" + fileName;
+        Integer count = jdbcTemplate.queryForObject(COUNT_REFERENCES, Integer.class,
+                fileName, suffix, fileName, suffix, fileName, suffix, fileName, suffix);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Delete unreferenced images older than the grace period. Returns the number deleted.
+     */
+    public int collect() {
+        long startedNanos = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minus(gracePeriod);
+        List<StoredImage> stored = jdbcTemplate.query(SELECT_STORED, (rs, rowNum) -> {
+            Timestamp updated = rs.getTimestamp("updated_date");
+            return new StoredImage(rs.getString("file_name"), rs.getString("content_hash"),
+                    updated == null || !updated.toLocalDateTime().isBefore(cutoff));
+        });
+        Map<String, String> variantSources = new HashMap<>();
+        jdbcTemplate.query(SELECT_VARIANT_SOURCES,
+                rs -> { variantSources.put(rs.getString("file_name"), rs.getString("source_hash")); });
+
+        List<String> garbage = selectGarbage(stored, variantSources, referencedFileNames());
+        int deleted = 0;
+        for (int from = 0; from < garbage.size(); from += batchSize) {
+            deleted += deleteBatch(garbage.subList(from, Math.min(garbage.size(), from + batchSize)),
+                    variantSources, cutoff);
+        }
+
+        Timer.builder("images.gc.runs")
+                .description("Duration of stored image garbage collection")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("images.gc.deleted")
+                .description("Unreferenced stored images deleted")
+                .register(meterRegistry)
+                .increment(deleted);
+        if (deleted > 0) {
+            logger.info("Deleted {} unreferenced image(s) of {} stored", deleted, stored.size());
+        }
+        return deleted;
+    }
+
+    /**
+     * Images to delete: outside the grace period, not referenced by URL, and, for size variants,
+     * whose original is gone or is itself garbage.
+     */
+    static List<String> selectGarbage(List<StoredImage> stored, Map<String, String> variantSources,
+                                      Set<String> referenced) {
+        Set<String> liveHashes = new HashSet<>();
+        for (StoredImage image : stored) {
+            boolean live = image.withinGracePeriod() || referenced.contains(image.fileName());
+            if (live && image.contentHash() != null && !variantSources.containsKey(image.fileName())) {
+                liveHashes.add(image.contentHash());
+            }
+        }
+        List<String> garbage = new ArrayList<>();
+        for (StoredImage image : stored) {
+            if (image.withinGracePeriod() || referenced.contains(image.fileName())) {
+                continue;
+            }
+            String sourceHash = variantSources.get(image.fileName());
+            if (sourceHash == null || !liveHashes.contains(sourceHash)) {
+                garbage.add(image.fileName());
+            }
+        }
+        return garbage;
+    }
+
+    private Set<String> referencedFileNames() {
+        Set<String> fileNames = new HashSet<>();
+        for (String url : jdbcTemplate.queryForList(REFERENCED_URLS, String.class)) {
+            String fileName = uploadedImageService.extractFileName(url.trim());
+            if (fileName != null && !fileName.isBlank()) {
+                fileNames.add(fileName);
+            }
+        }
+        return fileNames;
+    }
+
+    private int deleteBatch(List<String> candidates, Map<String, String> variantSources, LocalDateTime cutoff) {
+        // References may have been added since the run started
+        Set<String> referenced = referencedFileNames();
+        List<String> batch = candidates.stream().filter(fileName -> !referenced.contains(fileName)).toList();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Timestamp cutoffTimestamp = Timestamp.valueOf(cutoff);
+        List<String> deleted = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_VARIANT, batch, batch.size(),
+                    (ps, fileName) -> ps.setString(1, fileName));
+            int[][] counts = jdbcTemplate.batchUpdate(DELETE_IMAGE, batch, batch.size(), (ps, fileName) -> {
+                ps.setString(1, fileName);
+                ps.setTimestamp(2, cutoffTimestamp);
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                // Drivers may report SUCCESS_NO_INFO (-2) instead of a row count
+                if (counts[0][i] != 0) {
+                    deleted.add(batch.get(i));
+                }
+            }
+        });
+
+        uploadedImageService.evict(deleted);
+        for (String fileName : deleted) {
+            String sourceHash = variantSources.get(fileName);
+            if (sourceHash != null) {
+                imageVariantService.forget(sourceHash);
+            }
+            try {
+                blobStores.delete(fileName);
+            } catch (IOException e) {
+                logger.warn("Could not delete blob of {}: {}", fileName, e.getMessage());
+            }
+            for (String directory : IMAGE_DIRECTORIES) {
+                try {
+                    Files.deleteIfExists(Paths.get(uploadDir, directory, fileName));
+                } catch (IOException e) {
+                    logger.debug("Could not delete image copy {}/{}: {}", directory, fileName, e.getMessage());
+                }
+            }
+        }
+        return deleted.size();
+    }
+}
@@ -0,0 +1,276 @@
+package com.ecommerse.backend.services;
+
+import com.ecommerse.backend.dto.ProductImageResponse;
+import com.ecommerse.backend.dto.UploadedImageMetadata;
+import com.ecommerse.backend.entities.ImageVariant;
+import com.ecommerse.backend.entities.ProductImage;
+import com.ecommerse.backend.repositories.ImageVariantRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Responsive size variants of uploaded images.
+ *
+ * Uploads are handed to a small bounded pool that decodes each original once and writes one JPEG
+ * per configured width smaller than it (see {@link ImageVariants}). Variants are stored like any
+ * other uploaded image and served by the image endpoint; their names are derived from the content
+ * hash of the original, so re-uploads of the same picture reuse them. Known variants are kept in
+ * memory by source hash, which lets {@link #srcset} answer without touching the database. Images
+ * uploaded before variants existed are queued the first time their srcset is asked for. Originals
+ * larger than {@code app.images.variants.max-pixels} are never decoded (a small compressed file can
+ * expand to gigabytes of pixels) and are served as is.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+    private static final String IMAGE_URL_PREFIX = "/api/images/";
+
+    private final UploadedImageService uploadedImageService;
+    private final ImageVariantRepository imageVariantRepository;
+    private final List<Integer> widths;
+    private final float quality;
+    private final long maxPixels;
+    private final Map<String, List<ImageVariant>> variantsByHash = new ConcurrentHashMap<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor executor;
+
+    public ImageVariantService(UploadedImageService uploadedImageService,
+                               ImageVariantRepository imageVariantRepository,
+                               @Value("${app.images.variants.widths:160,400,800,1600}") List<Integer> widths,
+                               @Value("${app.images.variants.quality:0.8}") float quality,
+                               @Value("${app.images.variants.threads:2}") int threads,
+                               @Value("${app.images.variants.queue-capacity:32}") int queueCapacity,
+                               @Value("${app.images.variants.max-pixels:25000000}") long maxPixels) {
+        this.uploadedImageService = uploadedImageService;
+        this.imageVariantRepository = imageVariantRepository;
+        this.widths = List.copyOf(widths);
+        if (quality <= 0f || quality > 1f) {
+            throw new IllegalArgumentException("app.images.variants.quality must be in (0, 1]");
+        }
+        this.quality = quality;
+        if (maxPixels <= 0) {
+            throw new IllegalArgumentException("app.images.variants.max-pixels must be positive");
+        }
+        this.maxPixels = maxPixels;
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        // Queued uploads hold their bytes (up to 5MB each), so the queue is kept short.
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    // Ahead of other startup listeners, so the image cache warmup sees the variants
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        try {
+            Map<String, List<ImageVariant>> stored = imageVariantRepository.findAll().stream()
+                    .collect(Collectors.groupingBy(ImageVariant::getSourceHash));
+            stored.forEach((hash, variants) -> variantsByHash.put(hash, sorted(variants)));
+            logger.info("Indexed image variants for {} original(s)", stored.size());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to load image variants: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Queue variant generation for a freshly stored upload. Returns immediately; if the pool is
+     * saturated the upload is skipped and picked up later by {@link #srcset}.
+     */
+    public void generate(String fileName, byte[] data) {
+        if (fileName == null || data == null || data.length == 0 || !pending.add(fileName)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    String hash = uploadedImageService.findMetadata(fileName)
+                            .map(UploadedImageMetadata::contentHash)
+                            .orElseGet(() -> UploadedImageService.sha256Hex(data));
+                    createVariants(fileName, hash, data);
+                } finally {
+                    pending.remove(fileName);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(fileName);
+            logger.debug("Image variant queue is full; deferring {}", fileName);
+        }
+    }
+
+    /**
+     * {@code srcset} value for an image URL served by the image endpoint: its variants followed by
+     * the original, each with its width descriptor. {@code null} when the image has no variants
+     * (yet), in which case clients fall back to {@code imageUrl}.
+     */
+    public String srcset(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(IMAGE_URL_PREFIX)) {
+            return null;
+        }
+        String fileName = uploadedImageService.extractFileName(imageUrl);
+        String hash = uploadedImageService.findMetadata(fileName)
+                .map(UploadedImageMetadata::contentHash)
+                .orElse(null);
+        if (hash == null) {
+            return null;
+        }
+        List<ImageVariant> variants = variantsByHash.get(hash);
+        if (variants == null) {
+            generateFromStore(fileName, hash);
+            return null;
+        }
+        if (variants.isEmpty()) {
+            return null;
+        }
+        StringBuilder srcset = new StringBuilder();
+        for (ImageVariant variant : variants) {
+            srcset.append(IMAGE_URL_PREFIX).append(variant.getFileName())
+                    .append(' ').append(variant.getWidth()).append("w, ");
+        }
+        return srcset.append(imageUrl).append(' ').append(variants.get(0).getSourceWidth()).append('w').toString();
+    }
+
+    /**
+     * Names of the stored variants of an image, smallest first; empty when none are known.
+     */
+    public List<String> variantFileNames(String fileName) {
+        return uploadedImageService.findMetadata(fileName)
+                .map(UploadedImageMetadata::contentHash)
+                .map(hash -> variantsByHash.getOrDefault(hash, List.of()))
+                .orElse(List.of())
+                .stream()
+                .map(ImageVariant::getFileName)
+                .toList();
+    }
+
+    /**
+     * Drop the in-memory variants of an original whose variants were deleted.
+     */
+    public void forget(String sourceHash) {
+        variantsByHash.remove(sourceHash);
+    }
+
+    /**
+     * Response for a product image, including its {@link #srcset}.
+     */
+    public ProductImageResponse toResponse(ProductImage image) {
+        ProductImageResponse response = new ProductImageResponse(image);
+        response.setSrcset(srcset(image.getImageUrl()));
+        return response;
+    }
+
+    private void generateFromStore(String fileName, String hash) {
+        if (!pending.add(fileName)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    byte[] data = uploadedImageService.readData(fileName).orElse(null);
+                    if (data != null) {
+                        createVariants(fileName, hash, data);
+                    }
+                } catch (IOException e) {
+                    logger.warn("Failed to read image {} for variants: {}", fileName, e.getMessage());
+                } finally {
+                    pending.remove(fileName);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(fileName);
+        }
+    }
+
+    private void createVariants(String fileName, String hash, byte[] data) {
+        if (variantsByHash.containsKey(hash)) {
+            return;
+        }
+        try {
+            // Another instance may have generated them already.
+            List<ImageVariant> stored = imageVariantRepository.findBySourceHash(hash);
+            if (!stored.isEmpty()) {
+                variantsByHash.put(hash, sorted(stored));
+                return;
+            }
+
+            int[] dimensions = ImageVariants.dimensions(data);
+            if (dimensions != null && dimensions[0] * (long) dimensions[1] > maxPixels) {
+                logger.info("Not creating variants for {}: {}x{} exceeds {} pixels",
+                        fileName, dimensions[0], dimensions[1], maxPixels);
+                variantsByHash.put(hash, List.of());
+                return;
+            }
+            List<Integer> targets = dimensions == null ? List.of() : ImageVariants.targetWidths(dimensions[0], widths);
+            if (targets.isEmpty()) {
+                // Unreadable (e.g. WebP without a reader) or already small: serve the original.
+                variantsByHash.put(hash, List.of());
+                return;
+            }
+
+            long startedNanos = System.nanoTime();
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(data));
+            if (decoded == null) {
+                variantsByHash.put(hash, List.of());
+                return;
+            }
+            BufferedImage current = ImageVariants.toRgb(decoded);
+            int sourceWidth = current.getWidth();
+            List<ImageVariant> created = new ArrayList<>();
+            for (int width : targets) {
+                current = ImageVariants.resize(current, width);
+                byte[] encoded = ImageVariants.encode(current, quality);
+                String variantName = ImageVariants.fileName(hash, width);
+                uploadedImageService.save(variantName, encoded, ImageVariants.CONTENT_TYPE);
+                created.add(imageVariantRepository.save(new ImageVariant(variantName, hash, sourceWidth, width,
+                        current.getHeight(), encoded.length)));
+            }
+            variantsByHash.put(hash, sorted(created));
+            logger.debug("Created {} variant(s) of {} in {} ms", created.size(), fileName,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos));
+        } catch (IOException | RuntimeException e) {
+            // Not retried until restart; the original keeps being served.
+            variantsByHash.put(hash, List.of());
+            logger.warn("Failed to create image variants for {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    private static List<ImageVariant> sorted(List<ImageVariant> variants) {
+        return variants.stream().sorted(Comparator.comparing(ImageVariant::getWidth)).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,135 @@
+package com.ecommerse.backend.services;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Resizing and encoding for responsive image variants.
+ *
+ * Variants are named after the SHA-256 of the original and their width, so identical uploads share
+ * one set of variants and a variant name never points at different bytes. Widths are produced
+ * largest first, each from the previous one, so the original is decoded once and every step only
+ * halves at most (bilinear halving keeps downscales free of aliasing).
+ */
+final class ImageVariants {
+
+    static final String CONTENT_TYPE = "image/jpeg";
+    private static final String EXTENSION = ".jpg";
+    private static final int PROGRESSIVE_MIN_WIDTH = 800;
+
+    private ImageVariants() {
+    }
+
+    static String fileName(String sourceHash, int width) {
+        return sourceHash + "-" + width + "w" + EXTENSION;
+    }
+
+    /**
+     * Configured widths smaller than the source, largest first. Upscaled variants would only add
+     * bytes, so a source narrower than every width gets none.
+     */
+    static List<Integer> targetWidths(int sourceWidth, List<Integer> widths) {
+        return widths.stream()
+                .filter(width -> width > 0 && width < sourceWidth)
+                .distinct()
+                .sorted((a, b) -> Integer.compare(b, a))
+                .toList();
+    }
+
+    /**
+     * Width and height read from the image header, without decoding pixels; {@code null} when no
+     * reader recognises the data.
+     */
+    static int[] dimensions(byte[] data) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new int[] { reader.getWidth(0), reader.getHeight(0) };
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static int heightFor(int sourceWidth, int sourceHeight, int width) {
+        return Math.max(1, (int) Math.round((double) sourceHeight * width / sourceWidth));
+    }
+
+    /**
+     * Opaque RGB copy of a decoded image; transparent pixels become white since JPEG has no alpha.
+     */
+    static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return rgb;
+    }
+
+    /**
+     * Downscale to {@code width}, halving repeatedly until the last step is at most 2x.
+     */
+    static BufferedImage resize(BufferedImage image, int width) {
+        BufferedImage current = image;
+        int height = heightFor(image.getWidth(), image.getHeight(), width);
+        while (current.getWidth() > width) {
+            int stepWidth = Math.max(width, current.getWidth() / 2);
+            int stepHeight = stepWidth == width ? height
+                    : heightFor(current.getWidth(), current.getHeight(), stepWidth);
+            BufferedImage next = new BufferedImage(stepWidth, stepHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+            graphics.dispose();
+            current = next;
+        }
+        return current;
+    }
+
+    /**
+     * Encode as JPEG at the given quality; wider variants are written progressive, which is
+     * usually smaller for them and lets the browser paint a preview early.
+     */
+    static byte[] encode(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(output)) {
+            ImageWriteParam params = writer.getDefaultWriteParam();
+            params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            params.setCompressionQuality(quality);
+            if (image.getWidth() >= PROGRESSIVE_MIN_WIDTH) {
+                params.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), params);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerse.backend.services;
+
+import com.ecommerse.backend.entities.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Filter criteria for owner order listings and exports.
+ */
+public class OrderSearchCriteria {
+
+    private static final String ORDER_NUMBER_PREFIX = "ORD-";
+
+    private OrderStatus status;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private String orderNumberPrefix;
+    private String customerEmail;
+    private BigDecimal minTotal;
+    private BigDecimal maxTotal;
+
+    /**
+     * Build criteria from the free-text owner search box. Terms containing "@" are treated as a
+     * customer email prefix, anything else as an order number prefix.
+     */
+    public static OrderSearchCriteria of(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate,
+            String search) {
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        criteria.setStatus(status);
+        criteria.setStartDate(startDate);
+        criteria.setEndDate(endDate);
+        if (search != null && !search.trim().isEmpty()) {
+            if (search.contains("@")) {
+                criteria.setCustomerEmail(search);
+            } else {
+                criteria.setOrderNumberPrefix(search);
+            }
+        }
+        return criteria;
+    }
+
+    /**
+     * Order numbers are stored as upper-case "ORD-&lt;digits&gt;"; allow owners to type just the digits.
+     */
+    public String getNormalizedOrderNumberPrefix() {
+        if (!hasText(orderNumberPrefix)) {
+            return null;
+        }
+        String normalized = orderNumberPrefix.trim().toUpperCase(Locale.ROOT);
+        if (!normalized.startsWith("ORD") && Character.isDigit(normalized.charAt(0))) {
+            normalized = ORDER_NUMBER_PREFIX + normalized;
+        }
+        return normalized;
+    }
+
+    public String getNormalizedCustomerEmail() {
+        return hasText(customerEmail) ? customerEmail.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDateTime startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDateTime getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDateTime endDate) {
+        this.endDate = endDate;
+    }
+
+    public String getOrderNumberPrefix() {
+        return orderNumberPrefix;
+    }
+
+    public void setOrderNumberPrefix(String orderNumberPrefix) {
+        this.orderNumberPrefix = orderNumberPrefix;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public void setCustomerEmail(String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+
+    public BigDecimal getMinTotal() {
+        return minTotal;
+    }
+
+    public void setMinTotal(BigDecimal minTotal) {
+        this.minTotal = minTotal;
+    }
+
+    public BigDecimal getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(BigDecimal maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+}
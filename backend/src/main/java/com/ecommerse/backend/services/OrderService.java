@@ -1,36 +1,46 @@
 package com.ecommerse.backend.services;
 
 import com.ecommerse.backend.dto.CartValidationResult;
+import com.ecommerse.backend.dto.OrderCsvRow;
 import com.ecommerse.backend.dto.OrderDTO;
 import com.ecommerse.backend.dto.OrderItemDTO;
 import com.ecommerse.backend.entities.*;
-import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.checkout.Session;
 import com.ecommerse.backend.repositories.CartRepository;
 import com.ecommerse.backend.repositories.OrderRepository;
+import com.ecommerse.backend.repositories.OrderSpecifications;
 import com.ecommerse.backend.repositories.ProductRepository;
 import com.ecommerse.backend.repositories.UserRepository;
 import com.ecommerse.backend.services.notifications.EmailService;
+import com.ecommerse.backend.services.payments.StripeGateway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.Optional;
 
 @Service
@@ -41,37 +51,41 @@ public class OrderService {
             OrderStatus.SHIPPED, OrderStatus.DELIVERED);
     private static final EnumSet<OrderStatus> TERMINAL_CHECKOUT_STATUSES = EnumSet.of(OrderStatus.PAID,
             OrderStatus.FAILED, OrderStatus.CANCELLED, OrderStatus.EXPIRED, OrderStatus.REFUNDED);
+    private static final EnumSet<OrderStatus> CHECKOUT_TRANSITION_STATUSES = EnumSet.of(OrderStatus.PAID,
+            OrderStatus.FAILED, OrderStatus.CANCELLED, OrderStatus.EXPIRED);
     private static final EnumSet<OrderStatus> PAYMENT_ELIGIBLE_STATUSES = EnumSet.of(OrderStatus.PENDING,
             OrderStatus.CONFIRMED, OrderStatus.CHECKOUT_CREATED);
+    private static final Sort OWNER_DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "createdDate")
+            .and(Sort.by(Sort.Direction.DESC, "id"));
 
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final CartRepository cartRepository;
     private final CartService cartService;
     private final ProductRepository productRepository;
-    private final DiscountService discountService;
-    private final PricingService pricingService;
+    private final CheckoutPricingService checkoutPricingService;
     private final EmailService emailService;
     private final com.ecommerse.backend.services.analytics.AlertService alertService;
-    private final String stripeSecretKeyProperty;
+    private final StripeGateway stripeGateway;
+    private final ApplicationEventPublisher eventPublisher;
 
     public OrderService(OrderRepository orderRepository, UserRepository userRepository,
             CartRepository cartRepository, CartService cartService, ProductRepository productRepository,
-            DiscountService discountService,
-            PricingService pricingService,
+            CheckoutPricingService checkoutPricingService,
             EmailService emailService,
             com.ecommerse.backend.services.analytics.AlertService alertService,
-            @Value("${stripe.secret.key:}") String stripeSecretKeyProperty) {
+            StripeGateway stripeGateway,
+            ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.cartRepository = cartRepository;
         this.cartService = cartService;
         this.productRepository = productRepository;
-        this.discountService = discountService;
-        this.pricingService = pricingService;
+        this.checkoutPricingService = checkoutPricingService;
         this.emailService = emailService;
         this.alertService = alertService;
-        this.stripeSecretKeyProperty = stripeSecretKeyProperty;
+        this.stripeGateway = stripeGateway;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -79,8 +93,7 @@ public class OrderService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        return orderRepository.findByUserOrderByCreatedDateDesc(user, pageable)
-                .map(this::convertToDto);
+        return toDtoPage(orderRepository.findByUserOrderByCreatedDateDesc(user, pageable));
     }
 
     @Transactional(readOnly = true)
@@ -88,11 +101,7 @@ public class OrderService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        return orderRepository.findByUserOrderByCreatedDateDesc(user, Pageable.unpaged())
-                .getContent()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtoList(orderRepository.findByUserOrderByCreatedDateDesc(user, Pageable.unpaged()).getContent());
     }
 
     @Transactional(readOnly = true)
@@ -148,11 +157,7 @@ public class OrderService {
     @Transactional(readOnly = true)
     public List<OrderDTO> getRecentOrdersForOwner(int limit) {
         Pageable pageable = PageRequest.of(0, Math.max(limit, 1), Sort.by(Sort.Direction.DESC, "createdDate"));
-        return orderRepository.findAll(pageable)
-                .getContent()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtoList(orderRepository.findAll(pageable).getContent());
     }
 
     /**
@@ -171,6 +176,25 @@ public class OrderService {
     public OrderDTO createOrderFromCart(Long userId, String shippingAddress, String shippingCity,
             String shippingPostalCode, String shippingCountry,
             BigDecimal shippingAmount, BigDecimal taxAmount, String discountCode) {
+        return createOrder(userId, shippingAddress, shippingCity, shippingPostalCode, shippingCountry,
+                null, shippingAmount, taxAmount, discountCode);
+    }
+
+    /**
+     * Create an order from a cart that was already priced by {@link CheckoutPricingService}. The
+     * snapshot is reused as long as the cart still holds the same products and quantities;
+     * otherwise the cart is priced again.
+     */
+    @Transactional
+    public OrderDTO createOrderFromPricedCart(Long userId, String shippingAddress, String shippingCity,
+            String shippingPostalCode, String shippingCountry, CheckoutPricingService.PricedCart pricedCart) {
+        return createOrder(userId, shippingAddress, shippingCity, shippingPostalCode, shippingCountry,
+                pricedCart, pricedCart.shippingAmount(), pricedCart.taxAmount(), pricedCart.discountCode());
+    }
+
+    private OrderDTO createOrder(Long userId, String shippingAddress, String shippingCity,
+            String shippingPostalCode, String shippingCountry, CheckoutPricingService.PricedCart pricedCart,
+            BigDecimal shippingAmount, BigDecimal taxAmount, String discountCode) {
         // Validate cart
         CartValidationResult validation = cartService.validateCartComprehensive(userId);
         if (!validation.isValid()) {
@@ -185,20 +209,20 @@ public class OrderService {
             throw new IllegalArgumentException("Cannot create order from empty cart");
         }
 
+        CheckoutPricingService.PricedCart priced = pricedCart != null && pricedCart.matches(cart)
+                ? pricedCart
+                : checkoutPricingService.price(cart, discountCode, shippingAmount, taxAmount);
+
         // Get user
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         // Create order
         Order order = new Order(user, shippingAddress, shippingCity, shippingPostalCode, shippingCountry);
-        order.setShippingAmount(shippingAmount != null ? shippingAmount : BigDecimal.ZERO);
-        order.setTaxAmount(taxAmount != null ? taxAmount : BigDecimal.ZERO);
+        order.setShippingAmount(priced.shippingAmount());
+        order.setTaxAmount(priced.taxAmount());
         order.setStatus(OrderStatus.PENDING);
 
-        DiscountService.AppliedDiscount appliedDiscount = discountService.resolveAppliedDiscount(discountCode,
-                cart.getItems());
-        BigDecimal codeSavings = BigDecimal.ZERO;
-
         // Convert cart items to order items (stock already reserved while in cart)
         for (CartItem cartItem : cart.getItems()) {
             Product product = cartItem.getProduct();
@@ -209,36 +233,19 @@ public class OrderService {
             }
 
             OrderItem orderItem = new OrderItem(order, product, cartItem.getQuantity());
-            // Use cart item's effective unit price (already includes product-level sale price)
-            // and apply discount-code percentage when eligible.
-            BigDecimal effectiveUnitPrice = cartItem.getUnitPrice() != null
-                    ? pricingService.roundCurrency(cartItem.getUnitPrice())
-                    : pricingService.resolveEffectiveUnitPrice(product);
-            BigDecimal finalUnitPrice = effectiveUnitPrice;
-            if (appliedDiscount.appliesToProduct(product.getId())) {
-                finalUnitPrice = pricingService.applyPercentageDiscount(effectiveUnitPrice, appliedDiscount.percentage());
-                BigDecimal lineSavings = effectiveUnitPrice.subtract(finalUnitPrice)
-                        .multiply(BigDecimal.valueOf(cartItem.getQuantity()));
-                codeSavings = codeSavings.add(lineSavings);
-            }
-            orderItem.setUnitPrice(finalUnitPrice);
+            orderItem.setUnitPrice(priced.line(product.getId()).finalUnitPrice());
             order.addOrderItem(orderItem);
         }
 
-        if (appliedDiscount.applied()) {
-            order.setDiscountCode(appliedDiscount.code());
-            order.setDiscountAmount(pricingService.roundCurrency(codeSavings));
-        } else {
-            order.setDiscountCode(null);
-            order.setDiscountAmount(BigDecimal.ZERO);
-        }
-
-        // Calculate totals
-        order.calculateTotalAmount();
+        order.setDiscountCode(priced.discountCode());
+        order.setDiscountAmount(priced.codeSavings());
+        // Persist the priced total as-is; it is what checkout charges
+        order.setTotalAmount(priced.total());
         order.setInventoryLocked(true);
 
         // Save order
         Order savedOrder = orderRepository.save(order);
+        publishStatusChange(savedOrder, null);
 
         // Clear cart after successful order creation
         cartService.clearCart(userId, false);
@@ -295,9 +302,7 @@ public class OrderService {
                 ? checkoutSessionId.trim()
                 : order.getStripeCheckoutSessionId();
 
-        String secretKey = resolveStripeSecretKey();
-
-        if (secretKey == null || secretKey.isBlank()) {
+        if (!stripeGateway.isConfigured()) {
             logger.warn("Stripe secret key not configured; skipping finalize verification for order {}",
                     order.getOrderNumber());
             return convertToDto(order);
@@ -310,8 +315,7 @@ public class OrderService {
         }
 
         try {
-            Stripe.apiKey = secretKey;
-            Session session = Session.retrieve(effectiveSessionId);
+            Session session = stripeGateway.retrieveCheckoutSession(effectiveSessionId);
 
             if (session != null) {
                 String paymentStatus = session.getPaymentStatus();
@@ -481,6 +485,7 @@ public class OrderService {
                 order.setFailureMessage(null);
                 order.setUpdatedDate(now);
                 Order saved = orderRepository.save(order);
+                publishStatusChange(saved, currentStatus);
                 dispatchPostPaymentNotifications(saved);
                 logger.info("Order {} transitioned to PAID (paymentIntent={}, reservedInventory={})",
                         saved.getOrderNumber(), paymentIntentId, inventoryWasLocked);
@@ -508,6 +513,7 @@ public class OrderService {
                 }
                 order.setUpdatedDate(now);
                 Order saved = orderRepository.save(order);
+                publishStatusChange(saved, currentStatus);
                 logger.info("Order {} transitioned to {}", saved.getOrderNumber(), targetStatus);
                 return saved;
             }
@@ -515,6 +521,11 @@ public class OrderService {
         }
     }
 
+    private void publishStatusChange(Order order, OrderStatus previousStatus) {
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), previousStatus, order.getStatus(),
+                LocalDateTime.now()));
+    }
+
     private String trimFailureMessage(String failureMessage) {
         if (failureMessage == null) {
             return null;
@@ -522,13 +533,6 @@ public class OrderService {
         return failureMessage.length() > 1000 ? failureMessage.substring(0, 1000) : failureMessage;
     }
 
-    private String resolveStripeSecretKey() {
-        if (stripeSecretKeyProperty != null && !stripeSecretKeyProperty.isBlank()) {
-            return stripeSecretKeyProperty;
-        }
-        return System.getenv("STRIPE_SECRET_KEY");
-    }
-
     private void applyInventoryAdjustments(Order order) {
         Map<Long, Integer> quantityByProduct = new HashMap<>();
         Map<Long, Product> productById = new HashMap<>();
@@ -662,12 +666,16 @@ public class OrderService {
             return convertToDto(order);
         }
 
+        OrderStatus previousStatus = order.getStatus();
         order.setPaymentIntentId(paymentIntentId);
         if (order.getStatus() == OrderStatus.PENDING) {
             order.setStatus(OrderStatus.CONFIRMED);
         }
         order.setPaymentProvider("stripe");
         Order saved = orderRepository.save(order);
+        if (saved.getStatus() != previousStatus) {
+            publishStatusChange(saved, previousStatus);
+        }
         return convertToDto(saved);
     }
 
@@ -679,7 +687,7 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public Page<OrderDTO> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable).map(this::convertToDto);
+        return toDtoPage(orderRepository.findAll(pageable));
     }
 
     /**
@@ -691,8 +699,7 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public Page<OrderDTO> getOrdersByStatus(OrderStatus status, Pageable pageable) {
-        return orderRepository.findByStatusOrderByCreatedDateDesc(status, pageable)
-                .map(this::convertToDto);
+        return toDtoPage(orderRepository.findByStatusOrderByCreatedDateDesc(status, pageable));
     }
 
     /**
@@ -705,8 +712,7 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public Page<OrderDTO> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
-        return orderRepository.findByCreatedDateBetweenOrderByCreatedDateDesc(startDate, endDate, pageable)
-                .map(this::convertToDto);
+        return toDtoPage(orderRepository.findByCreatedDateBetweenOrderByCreatedDateDesc(startDate, endDate, pageable));
     }
 
     /**
@@ -715,70 +721,30 @@ public class OrderService {
      * @param status     Order status (optional, null for all statuses)
      * @param startDate  Start date (optional)
      * @param endDate    End date (optional)
-     * @param searchTerm Order number search term (optional)
+     * @param searchTerm Order number or customer email prefix (optional)
      * @param pageable   Pagination parameters
      * @return Page of OrderDTOs
      */
     @Transactional(readOnly = true)
     public Page<OrderDTO> getOrdersForOwner(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate,
             String searchTerm, Pageable pageable) {
-        Page<Order> orders;
-
-        // Search by order number
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            orders = orderRepository.findByOrderNumberContainingIgnoreCase(searchTerm.trim(), pageable);
-            // Filter by status if provided - manually paginate filtered list
-            if (status != null) {
-                List<Order> filtered = orders.getContent().stream()
-                        .filter(order -> order.getStatus() == status)
-                        .collect(Collectors.toList());
-
-                // Manually paginate the filtered list
-                int start = (int) pageable.getOffset();
-                int end = Math.min(start + pageable.getPageSize(), filtered.size());
-                List<Order> pagedList = start < filtered.size()
-                        ? filtered.subList(start, end)
-                        : Collections.emptyList();
-
-                // Convert to DTOs and create Page
-                List<OrderDTO> dtos = pagedList.stream()
-                        .map(this::convertToDto)
-                        .collect(Collectors.toList());
-
-                return new org.springframework.data.domain.PageImpl<>(dtos, pageable, filtered.size());
-            }
-            return orders.map(this::convertToDto);
-        }
-
-        // Filter by status only
-        if (status != null && startDate == null && endDate == null) {
-            orders = orderRepository.findByStatusOrderByCreatedDateDesc(status, pageable);
-        }
-        // Filter by date range only
-        else if (status == null && startDate != null && endDate != null) {
-            orders = orderRepository.findByCreatedDateBetweenOrderByCreatedDateDesc(startDate, endDate, pageable);
-        }
-        // Filter by status and date range - need to filter manually
-        else if (status != null && startDate != null && endDate != null) {
-            // Get all orders in date range, then manually filter by status
-            List<Order> allInRange = orderRepository.findByCreatedDateBetween(startDate, endDate);
-            List<Order> filtered = allInRange.stream()
-                    .filter(order -> order.getStatus() == status)
-                    .collect(Collectors.toList());
-            // For pagination, we need to paginate the filtered list manually
-            int start = (int) pageable.getOffset();
-            int end = Math.min(start + pageable.getPageSize(), filtered.size());
-            List<Order> pagedList = filtered.subList(Math.min(start, filtered.size()), end);
-            // Create a simple page implementation
-            return new org.springframework.data.domain.PageImpl<>(pagedList, pageable, filtered.size())
-                    .map(this::convertToDto);
-        }
-        // No filters - get all orders
-        else {
-            orders = orderRepository.findAll(pageable);
-        }
+        return getOrdersForOwner(OrderSearchCriteria.of(status, startDate, endDate, searchTerm), pageable);
+    }
 
-        return orders.map(this::convertToDto);
+    /**
+     * Get orders matching the owner search criteria. All filters are combined into a single query
+     * so filtering, counting and pagination happen in the database.
+     *
+     * @param criteria Search criteria (all fields optional)
+     * @param pageable Pagination parameters; defaults to newest first when unsorted
+     * @return Page of OrderDTOs
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderDTO> getOrdersForOwner(OrderSearchCriteria criteria, Pageable pageable) {
+        Pageable resolved = pageable.isPaged() && pageable.getSort().isUnsorted()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), OWNER_DEFAULT_SORT)
+                : pageable;
+        return toDtoPage(orderRepository.findAll(OrderSpecifications.matching(criteria), resolved));
     }
 
     /**
@@ -897,6 +863,11 @@ public class OrderService {
             }
         }
 
+        // transitionCheckoutStatus already published the change
+        if (!CHECKOUT_TRANSITION_STATUSES.contains(newStatus)) {
+            publishStatusChange(savedOrder, currentStatus);
+        }
+
         // Trigger email notification for status changes that customers care about
         if (newStatus == OrderStatus.SHIPPED || newStatus == OrderStatus.DELIVERED) {
             try {
@@ -911,55 +882,46 @@ public class OrderService {
     }
 
     /**
-     * Export orders to CSV format
+     * Stream orders as CSV directly to the given output. Rows are read through a forward-only
+     * cursor as flat projections (item counts aggregated in SQL), so memory use stays constant
+     * regardless of how many orders match.
      *
      * @param status    Order status filter (optional)
      * @param startDate Start date filter (optional)
      * @param endDate   End date filter (optional)
-     * @return CSV content as string
+     * @param output    Destination stream; flushed but not closed
      */
     @Transactional(readOnly = true)
-    public String exportOrdersToCsv(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Order> orders;
-
-        // Build query based on filters
-        if (status != null && startDate != null && endDate != null) {
-            // Status and date range
-            orders = orderRepository.findByCreatedDateBetween(startDate, endDate)
-                    .stream()
-                    .filter(order -> order.getStatus() == status)
-                    .collect(Collectors.toList());
-        } else if (status != null) {
-            // Status only
-            orders = orderRepository.findByStatusOrderByCreatedDateAsc(status);
-        } else if (startDate != null && endDate != null) {
-            // Date range only
-            orders = orderRepository.findByCreatedDateBetween(startDate, endDate);
-        } else {
-            // No filters - get all orders
-            orders = orderRepository.findAll();
-        }
-
-        // Build CSV
-        StringBuilder csv = new StringBuilder();
-        csv.append("Order Number,Date,Customer,Status,Total Amount,Items Count,Shipping Address\n");
+    public void writeOrdersCsv(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate,
+            OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write("Order Number,Date,Customer,Status,Total Amount,Items Count,Shipping Address\n");
 
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-        for (Order order : orders) {
-            csv.append(escapeCsv(order.getOrderNumber())).append(",");
-            csv.append(escapeCsv(order.getCreatedDate() != null ? order.getCreatedDate().format(dateFormatter) : "N/A"))
-                    .append(",");
-            csv.append(escapeCsv(order.getUser() != null ? order.getUser().getUsername() : "N/A")).append(",");
-            csv.append(escapeCsv(order.getStatus().name())).append(",");
-            csv.append(order.getTotalAmount() != null ? order.getTotalAmount().toString() : "0.00").append(",");
-            csv.append(order.getOrderItems() != null ? order.getOrderItems().size() : 0).append(",");
-            String shippingAddress = order.getShippingAddress() + ", " + order.getShippingCity() +
-                    ", " + order.getShippingPostalCode() + ", " + order.getShippingCountry();
-            csv.append(escapeCsv(shippingAddress)).append("\n");
+        try (Stream<OrderCsvRow> rows = orderRepository.streamCsvRows(status, startDate, endDate)) {
+            Iterator<OrderCsvRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                OrderCsvRow row = iterator.next();
+                writer.write(escapeCsv(row.orderNumber()));
+                writer.write(',');
+                writer.write(escapeCsv(row.createdDate() != null ? row.createdDate().format(dateFormatter) : "N/A"));
+                writer.write(',');
+                writer.write(escapeCsv(row.customer() != null ? row.customer() : "N/A"));
+                writer.write(',');
+                writer.write(escapeCsv(row.status().name()));
+                writer.write(',');
+                writer.write(row.totalAmount() != null ? row.totalAmount().toString() : "0.00");
+                writer.write(',');
+                writer.write(String.valueOf(row.itemCount() != null ? row.itemCount() : 0L));
+                writer.write(',');
+                String shippingAddress = row.shippingAddress() + ", " + row.shippingCity() +
+                        ", " + row.shippingPostalCode() + ", " + row.shippingCountry();
+                writer.write(escapeCsv(shippingAddress));
+                writer.write('\n');
+            }
         }
-
-        return csv.toString();
+        writer.flush();
     }
 
     /**
@@ -989,16 +951,13 @@ public class OrderService {
     }
 
     /**
-     * Recalculate total in cents from DB for a given order (by id or orderNumber),
-     * updating the order total.
+     * Total in cents for a given order (by id or orderNumber), as priced when the order was created.
      */
-    @Transactional
-    public long recalculateTotalCents(String orderIdOrNumber) {
-        // Parse order ID and load with items
+    @Transactional(readOnly = true)
+    public long getPricedTotalCents(String orderIdOrNumber) {
         final Long orderId = parseOrderId(orderIdOrNumber);
 
-        // Load order with items using JOIN FETCH
-        Order order = orderRepository.findByIdWithItems(orderId)
+        Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
 
         // Verify order is in correct state
@@ -1006,21 +965,11 @@ public class OrderService {
             throw new IllegalArgumentException("Order is not in PENDING/CHECKOUT_CREATED state: " + order.getStatus());
         }
 
-        // Force initialization of items collection and recalculate
-        int itemCount = order.getOrderItems().size();
-        if (itemCount == 0) {
-            throw new IllegalArgumentException("Order has no items");
-        }
-
-        order.calculateTotalAmount();
-        Order saved = orderRepository.save(order);
-
-        java.math.BigDecimal total = saved.getTotalAmount() != null ? saved.getTotalAmount()
-                : java.math.BigDecimal.ZERO;
-        long totalCents = total.multiply(java.math.BigDecimal.valueOf(100)).longValue();
+        BigDecimal total = order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
+        long totalCents = total.multiply(BigDecimal.valueOf(100)).longValue();
 
         if (totalCents <= 0) {
-            throw new IllegalArgumentException("Calculated total is 0. Items: " + itemCount + ", Total: " + total);
+            throw new IllegalArgumentException("Calculated total is 0. Total: " + total);
         }
 
         return totalCents;
@@ -1057,9 +1006,11 @@ public class OrderService {
         if (paymentIntentId != null && paymentIntentId.equals(order.getPaymentIntentId())) {
             return;
         }
+        OrderStatus previousStatus = order.getStatus();
         order.setPaymentIntentId(paymentIntentId);
         order.setStatus(OrderStatus.CONFIRMED);
         orderRepository.save(order);
+        publishStatusChange(order, previousStatus);
     }
 
     /**
@@ -1075,9 +1026,11 @@ public class OrderService {
         }
         order.setStripeCheckoutSessionId(checkoutSessionId);
         order.setPaymentProvider("stripe");
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.CHECKOUT_CREATED);
         order.setUpdatedDate(LocalDateTime.now());
         orderRepository.save(order);
+        publishStatusChange(order, previousStatus);
     }
 
     /**
@@ -1151,6 +1104,30 @@ public class OrderService {
         return field;
     }
 
+    /**
+     * Convert a page of orders, loading users and items for the whole page in one query.
+     */
+    private Page<OrderDTO> toDtoPage(Page<Order> orders) {
+        List<OrderDTO> dtos = toDtoList(orders.getContent());
+        return new PageImpl<>(dtos, orders.getPageable(), orders.getTotalElements());
+    }
+
+    /**
+     * Convert orders to DTOs in a constant number of queries regardless of list size: the
+     * orders' users and items are fetched together by id, and products are only referenced by id.
+     */
+    private List<OrderDTO> toDtoList(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = orders.stream().map(Order::getId).collect(Collectors.toList());
+        Map<Long, Order> loaded = orderRepository.findAllWithItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, order -> order, (first, second) -> first));
+        return orders.stream()
+                .map(order -> convertToDto(loaded.getOrDefault(order.getId(), order)))
+                .collect(Collectors.toList());
+    }
+
     private OrderDTO convertToDto(Order order) {
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
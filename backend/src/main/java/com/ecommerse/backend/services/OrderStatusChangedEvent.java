@@ -0,0 +1,16 @@
+package com.ecommerse.backend.services;
+
+import com.ecommerse.backend.entities.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link OrderService} whenever an order is created or its status changes.
+ * {@code previousStatus} is {@code null} for newly created orders.
+ */
+public record OrderStatusChangedEvent(
+        Long orderId,
+        OrderStatus previousStatus,
+        OrderStatus newStatus,
+        LocalDateTime occurredAt) {
+}
@@ -1,11 +1,16 @@
 package com.ecommerse.backend.services;
 
+import com.ecommerse.backend.config.CacheConfig;
 import com.ecommerse.backend.dto.ProductOcrFieldSuggestion;
 import com.ecommerse.backend.dto.ProductOcrPrefillResponse;
 import com.ecommerse.backend.entities.Category;
 import com.ecommerse.backend.repositories.CategoryRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -37,17 +42,64 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Suggests product fields from a photo using a vision model.
+ *
+ * Settings come from {@code OCR_*} environment variables and are read once at startup. Results are
+ * cached by the SHA-256 of the uploaded bytes, and concurrent submissions of the same photo share
+ * one extraction. Decoding, resizing and encoding run on a small bounded pool; provider calls share
+ * one HTTP client, are limited to {@code OCR_OPENAI_MAX_CONCURRENT_REQUESTS} at a time and retry
+ * throttling and server errors with backoff before the fallback model is tried.
+ * {@code OCR_PROVIDER=stub} answers with {@code OCR_STUB_RESPONSE} after
+ * {@code OCR_STUB_LATENCY_MS}, for tests and benchmarks without network access.
+ */
 @Service
 public class ProductOcrPrefillService {
 
+    private static final String STUB_PROVIDER = "stub";
+    private static final String DEFAULT_STUB_RESPONSE = "{\"rawText\":\"STUB OCR\",\"fields\":{" +
+            "\"name\":{\"value\":\"Stub product\",\"confidence\":0.9}," +
+            "\"price\":{\"value\":\"100\",\"confidence\":0.9}," +
+            "\"productType\":{\"value\":\"part\",\"confidence\":0.9}}}";
+    private static final Set<Integer> RETRYABLE_STATUS_CODES = Set.of(429, 500, 502, 503, 504);
+    private static final long RETRY_BASE_DELAY_MS = 500;
+    private static final long RETRY_MAX_DELAY_MS = 8_000;
+
+    /**
+     * OCR settings parsed from the environment at startup.
+     */
+    private record OcrSettings(String provider, String apiKey, String model, String fallbackModel, String apiMode,
+            String promptMode, String reasoningEffort, int requestTimeoutSeconds, int maxOutputTokens,
+            boolean enableFallbackModel, String imageDetail, int maxDimension, long maxBytes, int maxRetries,
+            int maxConcurrentRequests, String stubResponse, int stubLatencyMillis) {
+    }
+
     private final ObjectMapper objectMapper;
     private final CategoryRepository categoryRepository;
+    private final Map<String, String> environment;
+    private final OcrSettings settings;
+    private final Cache resultCache;
+    private final Map<String, CompletableFuture<ProductOcrPrefillResponse>> inFlight = new ConcurrentHashMap<>();
     private final HttpClient httpClient;
+    private final Semaphore requestPermits;
+    private final ThreadPoolExecutor imageExecutor;
 
     private static final Set<String> ROOT_CATEGORY_SLUGS = Set.of("cars", "parts", "tools", "custom");
     private static final Pattern MILEAGE_HINT_PATTERN = Pattern.compile(
@@ -57,48 +109,171 @@ public class ProductOcrPrefillService {
     private static final Pattern FLEX_NUMBER_PATTERN = Pattern.compile(
             "(?i)([-+]?[0-9]{1,3}(?:[\\s.,][0-9]{3})+|[-+]?[0-9]+(?:[.,][0-9]+)?)(?:\\s*([km]))?");
 
-    public ProductOcrPrefillService(ObjectMapper objectMapper, CategoryRepository categoryRepository) {
+    @Autowired
+    public ProductOcrPrefillService(ObjectMapper objectMapper, CategoryRepository categoryRepository,
+            CacheManager cacheManager) {
+        this(objectMapper, categoryRepository, cacheManager, System.getenv());
+    }
+
+    ProductOcrPrefillService(ObjectMapper objectMapper, CategoryRepository categoryRepository,
+            CacheManager cacheManager, Map<String, String> environment) {
         this.objectMapper = objectMapper;
         this.categoryRepository = categoryRepository;
+        this.environment = environment;
+        this.settings = loadSettings();
+        this.resultCache = cacheManager.getCache(CacheConfig.OCR_PREFILL);
         this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(20)).build();
+        this.requestPermits = new Semaphore(settings.maxConcurrentRequests(), true);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        int threads = parseBoundedInt(env("OCR_IMAGE_THREADS", ""), 1, processors, Math.max(1, processors / 2));
+        int queueCapacity = parseBoundedInt(env("OCR_IMAGE_QUEUE_CAPACITY", ""), 1, 256, 16);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.imageExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ocr-image-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        imageExecutor.shutdownNow();
     }
 
     public ProductOcrPrefillResponse prefillFromImage(MultipartFile file) {
         validateImage(file);
 
-        String provider = env("OCR_PROVIDER", "openai").trim().toLowerCase(Locale.ROOT);
-        if (!"openai".equals(provider)) {
+        String provider = settings.provider();
+        if (!"openai".equals(provider) && !STUB_PROVIDER.equals(provider)) {
             return notImplemented(provider, "OCR provider is not configured. Set OCR_PROVIDER=openai.");
         }
 
-        String apiKey = env("OPENAI_API_KEY", "").trim();
-        if (apiKey.isEmpty()) {
+        if ("openai".equals(provider) && settings.apiKey().isEmpty()) {
             return notImplemented("openai", "OPENAI_API_KEY is missing. Configure it to enable OCR prefill.");
         }
 
+        byte[] bytes;
         try {
-            return runOpenAiPrefill(file, apiKey);
+            bytes = file.getBytes();
+        } catch (IOException e) {
+            return requestFailed(e);
+        }
+        String cacheKey = provider + ":" + UploadedImageService.sha256Hex(bytes);
+        ProductOcrPrefillResponse cached = resultCache != null
+                ? resultCache.get(cacheKey, ProductOcrPrefillResponse.class)
+                : null;
+        if (cached != null) {
+            return copyOf(cached);
+        }
+
+        CompletableFuture<ProductOcrPrefillResponse> extraction = new CompletableFuture<>();
+        CompletableFuture<ProductOcrPrefillResponse> running = inFlight.putIfAbsent(cacheKey, extraction);
+        if (running != null) {
+            // The same photo is already being extracted for another request
+            try {
+                return copyOf(running.join());
+            } catch (CompletionException e) {
+                // Rethrow the extracting request's own error rather than the future's wrapper
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        ProductOcrPrefillResponse result = null;
+        RuntimeException failure = null;
+        try {
+            result = extract(provider, bytes, file.getContentType());
+            if (result.isImplemented() && resultCache != null) {
+                resultCache.put(cacheKey, copyOf(result));
+            }
+            return result;
         } catch (IOException | InterruptedException e) {
-            ProductOcrPrefillResponse response = notImplemented("openai", "OCR request failed: " + e.getMessage());
-            response.setImplemented(false);
-            return response;
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            result = requestFailed(e);
+            return result;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, extraction);
+            if (result != null) {
+                extraction.complete(result);
+            } else {
+                extraction.completeExceptionally(
+                        failure != null ? failure : new IllegalStateException("OCR extraction failed"));
+            }
         }
     }
 
-    private ProductOcrPrefillResponse runOpenAiPrefill(MultipartFile file, String apiKey)
+    private ProductOcrPrefillResponse extract(String provider, byte[] bytes, String contentType)
             throws IOException, InterruptedException {
-        String model = env("OCR_OPENAI_MODEL", "gpt-5-nano");
-        String fallbackModel = env("OCR_OPENAI_FALLBACK_MODEL", "gpt-4o-mini");
-        String apiMode = parseApiMode(env("OCR_OPENAI_API_MODE", "chat"));
-        String promptMode = parsePromptMode(env("OCR_OPENAI_PROMPT_MODE", "fast"));
-        String responsesReasoningEffort = parseReasoningEffort(env("OCR_OPENAI_REASONING_EFFORT", ""), promptMode);
-        int requestTimeoutSeconds = parseTimeoutSeconds(env("OCR_OPENAI_TIMEOUT_SECONDS", "45"));
-        int maxOutputTokens = parseMaxOutputTokens(env("OCR_OPENAI_MAX_OUTPUT_TOKENS", "700"));
-        boolean enableFallbackModel = parseBoolean(env("OCR_OPENAI_ENABLE_FALLBACK", "true"));
-        String imageDetail = parseImageDetail(env("OCR_OPENAI_IMAGE_DETAIL", "auto"));
-        PreparedImage preparedImage = prepareImageForOcr(file);
+        PreparedImage preparedImage;
+        try {
+            preparedImage = imageExecutor.submit(() -> prepareImageForOcr(bytes, contentType)).get();
+        } catch (RejectedExecutionException e) {
+            return notImplemented(provider, "OCR is busy. Please retry in a moment.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("OCR image preparation failed", e.getCause());
+        }
+
+        if (STUB_PROVIDER.equals(provider)) {
+            return runStubPrefill();
+        }
+        return runOpenAiPrefill(preparedImage, settings.apiKey());
+    }
+
+    /**
+     * Deterministic provider: holds a request slot for {@code OCR_STUB_LATENCY_MS}, like a provider
+     * call, then parses {@code OCR_STUB_RESPONSE} exactly as a model answer.
+     */
+    private ProductOcrPrefillResponse runStubPrefill() throws IOException, InterruptedException {
+        acquireRequestPermit();
+        try {
+            if (settings.stubLatencyMillis() > 0) {
+                Thread.sleep(settings.stubLatencyMillis());
+            }
+        } finally {
+            requestPermits.release();
+        }
+        ProductOcrPrefillResponse result = parseSuccessfulOcr(settings.stubResponse(), "");
+        result.setProvider(STUB_PROVIDER);
+        return result;
+    }
+
+    private ProductOcrPrefillResponse requestFailed(Exception e) {
+        return notImplemented(settings.provider(), "OCR request failed: " + e.getMessage());
+    }
+
+    private ProductOcrPrefillResponse copyOf(ProductOcrPrefillResponse response) {
+        return objectMapper.convertValue(response, ProductOcrPrefillResponse.class);
+    }
+
+    private ProductOcrPrefillResponse runOpenAiPrefill(PreparedImage preparedImage, String apiKey)
+            throws IOException, InterruptedException {
+        String model = settings.model();
+        String fallbackModel = settings.fallbackModel();
+        String apiMode = settings.apiMode();
+        String promptMode = settings.promptMode();
+        String responsesReasoningEffort = settings.reasoningEffort();
+        int requestTimeoutSeconds = settings.requestTimeoutSeconds();
+        int maxOutputTokens = settings.maxOutputTokens();
+        boolean enableFallbackModel = settings.enableFallbackModel();
+        String imageDetail = settings.imageDetail();
         String mimeType = preparedImage.mimeType;
-        String base64Image = Base64.getEncoder().encodeToString(preparedImage.bytes);
+        String base64Image = preparedImage.base64;
 
         String instruction = buildInstruction(promptMode);
 
@@ -454,7 +629,7 @@ public class ProductOcrPrefillService {
                 .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request);
         return new OpenAiCallResult(response.statusCode(), response.body());
     }
 
@@ -489,10 +664,61 @@ public class ProductOcrPrefillService {
                 .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request);
         return new OpenAiCallResult(response.statusCode(), response.body());
     }
 
+    /**
+     * Send a provider request within the concurrency limit, retrying connection failures,
+     * throttling and server errors. Timeouts are not retried here; callers fall back instead.
+     */
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        acquireRequestPermit();
+        try {
+            for (int attempt = 0; ; attempt++) {
+                HttpResponse<String> response;
+                try {
+                    response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                } catch (HttpTimeoutException timeoutException) {
+                    throw timeoutException;
+                } catch (IOException ioException) {
+                    if (attempt >= settings.maxRetries()) {
+                        throw ioException;
+                    }
+                    Thread.sleep(retryDelayMillis(attempt, Optional.empty()));
+                    continue;
+                }
+                if (!RETRYABLE_STATUS_CODES.contains(response.statusCode()) || attempt >= settings.maxRetries()) {
+                    return response;
+                }
+                Thread.sleep(retryDelayMillis(attempt, response.headers().firstValue("Retry-After")));
+            }
+        } finally {
+            requestPermits.release();
+        }
+    }
+
+    private void acquireRequestPermit() throws HttpTimeoutException, InterruptedException {
+        if (!requestPermits.tryAcquire(settings.requestTimeoutSeconds(), TimeUnit.SECONDS)) {
+            throw new HttpTimeoutException("Timed out waiting for a free OCR request slot");
+        }
+    }
+
+    /**
+     * Exponential backoff with jitter, or the provider's {@code Retry-After} (in seconds) when given.
+     */
+    private long retryDelayMillis(int attempt, Optional<String> retryAfter) {
+        if (retryAfter.isPresent()) {
+            try {
+                return Math.min(RETRY_MAX_DELAY_MS, Math.max(0, Long.parseLong(retryAfter.get().trim()) * 1000));
+            } catch (NumberFormatException ignored) {
+                // HTTP-date form; use the computed delay
+            }
+        }
+        long delay = Math.min(RETRY_MAX_DELAY_MS, RETRY_BASE_DELAY_MS << attempt);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
     private String extractResponseContentFromResponses(JsonNode root) {
         String outputText = root.path("output_text").asText("");
         if (!outputText.isBlank()) {
@@ -803,13 +1029,12 @@ public class ProductOcrPrefillService {
         return "auto";
     }
 
-    private PreparedImage prepareImageForOcr(MultipartFile file) throws IOException {
-        String inputMimeType = file.getContentType() != null ? file.getContentType() : "image/jpeg";
+    private PreparedImage prepareImageForOcr(byte[] originalBytes, String contentType) throws IOException {
+        String inputMimeType = contentType != null ? contentType : "image/jpeg";
         String normalizedMimeType = inputMimeType.toLowerCase(Locale.ROOT);
-        byte[] originalBytes = file.getBytes();
 
-        int maxDimension = parseDimension(env("OCR_OPENAI_IMAGE_MAX_DIMENSION", "1400"));
-        long maxBytes = parseMaxBytes(env("OCR_OPENAI_IMAGE_MAX_BYTES", "1100000"));
+        int maxDimension = settings.maxDimension();
+        long maxBytes = settings.maxBytes();
 
         BufferedImage inputImage = ImageIO.read(new ByteArrayInputStream(originalBytes));
         if (inputImage == null) {
@@ -887,11 +1112,12 @@ public class ProductOcrPrefillService {
     }
 
     private static class PreparedImage {
-        private final byte[] bytes;
+        private final String base64;
         private final String mimeType;
 
         private PreparedImage(byte[] bytes, String mimeType) {
-            this.bytes = bytes;
+            // Encoded here so it runs on the image pool
+            this.base64 = Base64.getEncoder().encodeToString(bytes);
             this.mimeType = mimeType;
         }
     }
@@ -1858,6 +2084,37 @@ public class ProductOcrPrefillService {
         return response;
     }
 
+    private OcrSettings loadSettings() {
+        String promptMode = parsePromptMode(env("OCR_OPENAI_PROMPT_MODE", "fast"));
+        return new OcrSettings(
+                env("OCR_PROVIDER", "openai").trim().toLowerCase(Locale.ROOT),
+                env("OPENAI_API_KEY", "").trim(),
+                env("OCR_OPENAI_MODEL", "gpt-5-nano"),
+                env("OCR_OPENAI_FALLBACK_MODEL", "gpt-4o-mini"),
+                parseApiMode(env("OCR_OPENAI_API_MODE", "chat")),
+                promptMode,
+                parseReasoningEffort(env("OCR_OPENAI_REASONING_EFFORT", ""), promptMode),
+                parseTimeoutSeconds(env("OCR_OPENAI_TIMEOUT_SECONDS", "45")),
+                parseMaxOutputTokens(env("OCR_OPENAI_MAX_OUTPUT_TOKENS", "700")),
+                parseBoolean(env("OCR_OPENAI_ENABLE_FALLBACK", "true")),
+                parseImageDetail(env("OCR_OPENAI_IMAGE_DETAIL", "auto")),
+                parseDimension(env("OCR_OPENAI_IMAGE_MAX_DIMENSION", "1400")),
+                parseMaxBytes(env("OCR_OPENAI_IMAGE_MAX_BYTES", "1100000")),
+                parseBoundedInt(env("OCR_OPENAI_MAX_RETRIES", "2"), 0, 5, 2),
+                parseBoundedInt(env("OCR_OPENAI_MAX_CONCURRENT_REQUESTS", "4"), 1, 32, 4),
+                env("OCR_STUB_RESPONSE", DEFAULT_STUB_RESPONSE),
+                parseBoundedInt(env("OCR_STUB_LATENCY_MS", "0"), 0, 60_000, 0));
+    }
+
+    private int parseBoundedInt(String value, int min, int max, int fallback) {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            return Math.max(min, Math.min(max, parsed));
+        } catch (Exception ignored) {
+            return fallback;
+        }
+    }
+
     private String parseApiMode(String value) {
         String normalized = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
         if ("chat".equals(normalized) || "responses".equals(normalized) || "auto".equals(normalized)) {
@@ -2011,7 +2268,7 @@ public class ProductOcrPrefillService {
     }
 
     private String env(String key, String fallback) {
-        String value = System.getenv(key);
+        String value = environment.get(key);
         return value != null ? value : fallback;
     }
 }
@@ -41,6 +41,7 @@ public class ProductService {
     private final CategoryService categoryService;
     private final CartItemRepository cartItemRepository;
     private final OrderItemRepository orderItemRepository;
+    private final ImageVariantService imageVariantService;
 
     private static final int MAX_SKU_LENGTH = 50;
     private static final int SKU_SUFFIX_LENGTH = 6;
@@ -50,12 +51,13 @@ public class ProductService {
     @Autowired
     public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository,
             CategoryService categoryService, CartItemRepository cartItemRepository,
-            OrderItemRepository orderItemRepository) {
+            OrderItemRepository orderItemRepository, ImageVariantService imageVariantService) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.categoryService = categoryService;
         this.cartItemRepository = cartItemRepository;
         this.orderItemRepository = orderItemRepository;
+        this.imageVariantService = imageVariantService;
     }
 
     /**
@@ -666,7 +668,7 @@ public class ProductService {
         // Convert ProductImage entities to ProductImageResponse DTOs
         if (product.getImages() != null && !product.getImages().isEmpty()) {
             java.util.List<ProductImageResponse> imageResponses = product.getImages().stream()
-                    .map(ProductImageResponse::new)
+                    .map(imageVariantService::toResponse)
                     .sorted((a, b) -> Integer.compare(a.getPosition(), b.getPosition()))
                     .collect(java.util.stream.Collectors.toList());
             dto.setImages(imageResponses);
@@ -1,20 +1,66 @@
 package com.ecommerse.backend.services;
 
+import com.ecommerse.backend.dto.UploadedImageMetadata;
 import com.ecommerse.backend.entities.UploadedImage;
 import com.ecommerse.backend.repositories.UploadedImageRepository;
+import com.ecommerse.backend.services.storage.BlobStore;
+import com.ecommerse.backend.services.storage.BlobStores;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Persistent copies of uploaded images.
+ *
+ * Keeps an in-memory index of stored image metadata so existence checks and cache validators on
+ * the image serving path never load {@code image_data}. The index is loaded once from a
+ * metadata-only query and kept current by {@link #save} and {@link #deleteByFileName}; images stored
+ * by another instance are picked up by a metadata query on first lookup.
+ *
+ * Image bytes go to the primary {@link BlobStores blob store}: into {@code image_data} for the
+ * database store, otherwise into the store before the row is inserted, so a row never points at
+ * missing bytes.
+ */
 @Service
 public class UploadedImageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UploadedImageService.class);
+
+    private static final String INSERT_IMAGE = """
+            INSERT INTO uploaded_images (file_name, image_data, storage, content_type, content_hash, size_bytes,
+                                         created_date, updated_date)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
     private final UploadedImageRepository uploadedImageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStores blobStores;
+    private final Map<String, UploadedImageMetadata> index = new ConcurrentHashMap<>();
 
-    public UploadedImageService(UploadedImageRepository uploadedImageRepository) {
+    public UploadedImageService(UploadedImageRepository uploadedImageRepository, JdbcTemplate jdbcTemplate,
+                                BlobStores blobStores) {
         this.uploadedImageRepository = uploadedImageRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.blobStores = blobStores;
     }
 
     public void save(String fileName, MultipartFile file) throws IOException {
@@ -29,23 +75,224 @@ public class UploadedImageService {
         if (fileName == null || fileName.isBlank() || imageData == null || imageData.length == 0) {
             return;
         }
+        save(fileName, imageData, contentType, sha256Hex(imageData));
+    }
+
+    /**
+     * Store an upload under the SHA-256 of its content, so identical uploads share one row, and
+     * return the file name ({@code <hash>.<extension>}). Uploading content that is already stored
+     * writes nothing and only refreshes its {@code updated_date}, which keeps it out of the
+     * garbage collector's grace window while the new reference is being saved.
+     */
+    public String saveContentAddressed(byte[] imageData, String contentType, String extension) {
+        if (imageData == null || imageData.length == 0) {
+            throw new IllegalArgumentException("Image data is empty");
+        }
+        String hash = sha256Hex(imageData);
+        String fileName = contentAddressedName(hash, extension);
+        if (!touchIfStored(fileName)) {
+            save(fileName, imageData, contentType, hash);
+        }
+        return fileName;
+    }
+
+    /**
+     * An upload prepared for {@link #saveAll}, already named by {@link #contentAddressedName}.
+     */
+    public record ImageUpload(String fileName, byte[] data, String contentType, String contentHash) {
+    }
+
+    /**
+     * Store several content-addressed uploads with one JDBC batch insert. Uploads already stored
+     * (or repeated within the batch) are only touched, as in {@link #saveContentAddressed}.
+     */
+    public void saveAll(List<ImageUpload> uploads) {
+        Map<String, ImageUpload> pending = new LinkedHashMap<>();
+        for (ImageUpload upload : uploads) {
+            if (!pending.containsKey(upload.fileName()) && !touchIfStored(upload.fileName())) {
+                pending.put(upload.fileName(), upload);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
 
-        UploadedImage uploadedImage = new UploadedImage(fileName, imageData, resolveContentType(contentType, fileName));
+        List<ImageUpload> inserts = List.copyOf(pending.values());
+        BlobStore store = blobStores.primary();
+        if (!store.storesInRow()) {
+            inserts.forEach(upload -> putBlob(store, upload.fileName(), upload.data()));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        try {
+            jdbcTemplate.batchUpdate(INSERT_IMAGE, inserts, inserts.size(), (ps, upload) -> {
+                ps.setString(1, upload.fileName());
+                ps.setBytes(2, store.storesInRow() ? upload.data() : null);
+                ps.setString(3, store.name());
+                ps.setString(4, resolveContentType(upload.contentType(), upload.fileName()));
+                ps.setString(5, upload.contentHash());
+                ps.setLong(6, upload.data().length);
+                ps.setTimestamp(7, timestamp);
+                ps.setTimestamp(8, timestamp);
+            });
+        } catch (DuplicateKeyException e) {
+            // Another request stored one of them first; fall back to one row at a time
+            for (ImageUpload upload : inserts) {
+                if (!touchIfStored(upload.fileName())) {
+                    save(upload.fileName(), upload.data(), upload.contentType(), upload.contentHash());
+                }
+            }
+            return;
+        }
+        for (ImageUpload upload : inserts) {
+            index.put(upload.fileName(), new UploadedImageMetadata(upload.fileName(),
+                    resolveContentType(upload.contentType(), upload.fileName()), upload.contentHash(),
+                    (long) upload.data().length, now));
+        }
+    }
+
+    public static String contentAddressedName(String contentHash, String extension) {
+        return extension == null || extension.isBlank()
+                ? contentHash
+                : contentHash + "." + extension.toLowerCase(Locale.ROOT);
+    }
+
+    private boolean touchIfStored(String fileName) {
+        Optional<UploadedImageMetadata> existing = findMetadata(fileName);
+        if (existing.isEmpty()) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (uploadedImageRepository.touch(fileName, now) == 0) {
+            // Deleted since it was indexed, e.g. by the garbage collector on another instance
+            index.remove(fileName);
+            return false;
+        }
+        UploadedImageMetadata metadata = existing.get();
+        index.put(fileName, new UploadedImageMetadata(fileName, metadata.contentType(), metadata.contentHash(),
+                metadata.sizeBytes(), now));
+        return true;
+    }
+
+    private void save(String fileName, byte[] imageData, String contentType, String hash) {
+        BlobStore store = blobStores.primary();
+        if (!store.storesInRow()) {
+            putBlob(store, fileName, imageData);
+        }
+        UploadedImage uploadedImage = new UploadedImage(fileName, store.storesInRow() ? imageData : null,
+                resolveContentType(contentType, fileName));
+        uploadedImage.setStorage(store.name());
+        uploadedImage.setContentHash(hash);
+        uploadedImage.setSizeBytes((long) imageData.length);
         uploadedImageRepository.save(uploadedImage);
+        index.put(fileName, new UploadedImageMetadata(fileName, uploadedImage.getContentType(),
+                uploadedImage.getContentHash(), uploadedImage.getSizeBytes(), LocalDateTime.now()));
     }
 
-    public Optional<UploadedImage> findByFileName(String fileName) {
+    private static void putBlob(BlobStore store, String fileName, byte[] data) {
+        try {
+            store.put(fileName, new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store image " + fileName, e);
+        }
+    }
+
+    /**
+     * Whether a persisted copy exists, without reading the image data.
+     */
+    public boolean exists(String fileName) {
+        return findMetadata(fileName).isPresent();
+    }
+
+    /**
+     * Metadata of a persisted image, without reading the image data.
+     */
+    public Optional<UploadedImageMetadata> findMetadata(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return Optional.empty();
+        }
+        UploadedImageMetadata metadata = index.get(fileName);
+        if (metadata != null) {
+            return Optional.of(metadata);
+        }
+        Optional<UploadedImageMetadata> stored = uploadedImageRepository.findMetadataByFileName(fileName);
+        stored.ifPresent(found -> index.put(fileName, found));
+        return stored;
+    }
+
+    /**
+     * Load the metadata of all stored images into the index.
+     */
+    public int loadIndex() {
+        for (UploadedImageMetadata metadata : uploadedImageRepository.findAllMetadata()) {
+            index.put(metadata.fileName(), metadata);
+        }
+        logger.info("Indexed {} persisted image(s)", index.size());
+        return index.size();
+    }
+
+    /**
+     * Names of indexed images stored before content hashes were recorded.
+     */
+    public List<String> findFileNamesWithoutHash() {
+        return index.values().stream()
+                .filter(metadata -> metadata.contentHash() == null)
+                .map(UploadedImageMetadata::fileName)
+                .toList();
+    }
+
+    /**
+     * Record the content hash of an image stored before hashes were kept. Reads the image data once.
+     */
+    public void backfillContentHash(String fileName) throws IOException {
+        Optional<UploadedImageMetadata> metadata = findMetadata(fileName);
+        Optional<byte[]> data = readData(fileName);
+        if (metadata.isEmpty() || data.isEmpty()) {
+            return;
+        }
+        String hash = sha256Hex(data.get());
+        long size = data.get().length;
+        uploadedImageRepository.updateContentHash(fileName, hash, size);
+        index.put(fileName, new UploadedImageMetadata(fileName, metadata.get().contentType(), hash, size,
+                metadata.get().updatedDate()));
+    }
+
+    public static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * The bytes of a persisted image, from whichever blob store holds them.
+     */
+    public Optional<byte[]> readData(String fileName) throws IOException {
         if (fileName == null || fileName.isBlank()) {
             return Optional.empty();
         }
-        return uploadedImageRepository.findById(fileName);
+        return blobStores.readBytes(fileName);
+    }
+
+    /**
+     * Drop index entries of images deleted directly in the database.
+     */
+    public void evict(Collection<String> fileNames) {
+        fileNames.forEach(index::remove);
     }
 
     public void deleteByFileName(String fileName) {
         if (fileName == null || fileName.isBlank()) {
             return;
         }
+        index.remove(fileName);
         uploadedImageRepository.deleteById(fileName);
+        try {
+            blobStores.delete(fileName);
+        } catch (IOException e) {
+            logger.warn("Failed to delete blob of {}: {}", fileName, e.getMessage());
+        }
     }
 
     public String extractFileName(String imagePathOrUrl) {
@@ -56,7 +303,7 @@ public class UploadedImageService {
         return slashIndex >= 0 ? imagePathOrUrl.substring(slashIndex + 1) : imagePathOrUrl;
     }
 
-    private String resolveContentType(String providedType, String fileName) {
+    String resolveContentType(String providedType, String fileName) {
         if (providedType != null && !providedType.isBlank()) {
             return providedType;
         }
@@ -0,0 +1,265 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.ecommerse.backend.entities.analytics.AnalyticsAlert;
+import com.ecommerse.backend.repositories.analytics.AggDailyMetricsRepository;
+import com.ecommerse.backend.repositories.analytics.AlertHistoryRepository;
+import com.ecommerse.backend.repositories.analytics.AnalyticsAlertRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates active {@link AnalyticsAlert}s on a schedule.
+ *
+ * Each pass loads the active alerts, reuses the {@link CompiledAlert} of every alert that has not
+ * changed since the previous pass, reads the daily rollups once for the longest window any alert
+ * needs, and answers each alert from prefix sums in constant time, so the number of queries per pass
+ * does not grow with the number of alerts. Event metrics are counted in SQL over
+ * {@code analytics_event} on its {@code (occurred_at, type)} index, one query per distinct window, so
+ * every instance sees the events accepted by all of them; types are compared case-insensitively.
+ * An alert that fired within its cooldown is suppressed; firings are written to
+ * {@code alert_history} in one JDBC batch. On PostgreSQL an advisory lock keeps instances from
+ * firing the same alert twice.
+ */
+@Service
+public class AlertEvaluationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AlertEvaluationService.class);
+    private static final String INSERT_HISTORY = """
+            INSERT INTO alert_history (alert_id, triggered_at, metric_value, message, acknowledged, created_at)
+            VALUES (?, ?, ?, ?, FALSE, ?)
+            """;
+    private static final String COUNT_EVENTS = """
+            SELECT type, COUNT(*) FROM analytics_event
+            WHERE occurred_at >= ? AND occurred_at < ?
+            GROUP BY type
+            """;
+
+    /** A compiled alert, or the reason it could not be compiled, for one alert version. */
+    private record CompiledEntry(LocalDateTime version, CompiledAlert alert, String error) {
+    }
+
+    record Firing(CompiledAlert alert, double value) {
+    }
+
+    private final AnalyticsAlertRepository alertRepository;
+    private final AlertHistoryRepository alertHistoryRepository;
+    private final AggDailyMetricsRepository dailyMetricsRepository;
+    private final AnalyticsETLService analyticsETLService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Counter firedCounter;
+    private final Counter suppressedCounter;
+    private final Map<Long, CompiledEntry> compiled = new ConcurrentHashMap<>();
+
+    public AlertEvaluationService(AnalyticsAlertRepository alertRepository,
+                                  AlertHistoryRepository alertHistoryRepository,
+                                  AggDailyMetricsRepository dailyMetricsRepository,
+                                  AnalyticsETLService analyticsETLService,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.alertRepository = alertRepository;
+        this.alertHistoryRepository = alertHistoryRepository;
+        this.dailyMetricsRepository = dailyMetricsRepository;
+        this.analyticsETLService = analyticsETLService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.firedCounter = counter(meterRegistry, "fired");
+        this.suppressedCounter = counter(meterRegistry, "suppressed");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("analytics.alerts.evaluations")
+                .description("Analytics alert evaluations that matched, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.alerts.evaluate-ms:60000}")
+    public void evaluateScheduled() {
+        try {
+            evaluateAll();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Alert evaluation failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Evaluate every active alert once. Returns the firings that were recorded.
+     */
+    public List<Firing> evaluateAll() {
+        List<Firing> recorded = transactionTemplate.execute(status -> {
+            if (analyticsETLService.isPostgreSql() && !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, "analytics_alerts"))) {
+                return List.<Firing>of();
+            }
+            List<CompiledAlert> alerts = compileActiveAlerts();
+            if (alerts.isEmpty()) {
+                return List.<Firing>of();
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<Firing> firings = suppressRecent(evaluate(alerts, now), now);
+            writeHistory(firings, now);
+            return firings;
+        });
+        return recorded != null ? recorded : List.of();
+    }
+
+    private List<CompiledAlert> compileActiveAlerts() {
+        List<AnalyticsAlert> active = alertRepository.findByIsActiveTrue();
+        List<CompiledAlert> alerts = new ArrayList<>(active.size());
+        Map<Long, CompiledEntry> seen = new HashMap<>();
+        for (AnalyticsAlert alert : active) {
+            CompiledEntry entry = compiled.get(alert.getId());
+            if (entry == null || !Objects.equals(entry.version(), alert.getUpdatedAt())) {
+                try {
+                    entry = new CompiledEntry(alert.getUpdatedAt(), CompiledAlert.compile(alert, objectMapper), null);
+                } catch (IllegalArgumentException e) {
+                    entry = new CompiledEntry(alert.getUpdatedAt(), null, e.getMessage());
+                    LOGGER.warn("Skipping analytics alert {}: {}", alert.getId(), e.getMessage());
+                }
+            }
+            seen.put(alert.getId(), entry);
+            if (entry.alert() != null) {
+                alerts.add(entry.alert());
+            }
+        }
+        // Drop alerts that were deleted or deactivated
+        compiled.keySet().retainAll(seen.keySet());
+        compiled.putAll(seen);
+        return alerts;
+    }
+
+    List<Firing> evaluate(List<CompiledAlert> alerts, LocalDateTime now) {
+        LocalDate today = now.toLocalDate();
+        int lookbackDays = 0;
+        for (CompiledAlert alert : alerts) {
+            if (!alert.isEventMetric()) {
+                lookbackDays = Math.max(lookbackDays, alert.lookbackDays());
+            }
+        }
+        DailyRollupSeries series = null;
+        if (lookbackDays > 0) {
+            LocalDate firstDay = today.minusDays(lookbackDays - 1L);
+            series = DailyRollupSeries.of(firstDay, today,
+                    dailyMetricsRepository.findByMetricDateBetweenOrderByMetricDate(firstDay, today));
+        }
+
+        Map<Integer, Map<String, Long>> eventWindows = new HashMap<>();
+        List<Firing> firings = new ArrayList<>();
+        for (CompiledAlert alert : alerts) {
+            double current;
+            double previous = 0;
+            if (alert.isEventMetric()) {
+                int minutes = alert.windowMinutes();
+                Map<String, Long> window = eventWindows.computeIfAbsent(minutes, m -> countEvents(now, m));
+                current = eventCount(window, alert.eventType());
+                if (alert.comparison().isChange()) {
+                    Map<String, Long> doubled = eventWindows.computeIfAbsent(minutes * 2, m -> countEvents(now, m));
+                    previous = eventCount(doubled, alert.eventType()) - current;
+                }
+            } else {
+                LocalDate windowStart = today.minusDays(alert.windowDays() - 1L);
+                current = alert.valueOf(series.sum(windowStart, today));
+                if (alert.comparison().isChange()) {
+                    previous = alert.valueOf(series.sum(windowStart.minusDays(alert.windowDays()), windowStart.minusDays(1)));
+                }
+            }
+            if (alert.test(current, previous)) {
+                firings.add(new Firing(alert, current));
+            }
+        }
+        return firings;
+    }
+
+    /**
+     * Events that occurred in the last {@code minutes} minutes, by lower-cased type.
+     */
+    private Map<String, Long> countEvents(LocalDateTime now, int minutes) {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query(COUNT_EVENTS, rs -> {
+            counts.merge(rs.getString(1).toLowerCase(Locale.ROOT), rs.getLong(2), Long::sum);
+        }, Timestamp.valueOf(now.minusMinutes(minutes)), Timestamp.valueOf(now));
+        return counts;
+    }
+
+    private static double eventCount(Map<String, Long> counts, String type) {
+        if (type == null) {
+            return counts.values().stream().mapToLong(Long::longValue).sum();
+        }
+        return counts.getOrDefault(type, 0L);
+    }
+
+    private List<Firing> suppressRecent(List<Firing> firings, LocalDateTime now) {
+        if (firings.isEmpty()) {
+            return firings;
+        }
+        Map<Long, LocalDateTime> lastFired = new HashMap<>();
+        for (Object[] row : alertHistoryRepository.findLastTriggeredAt(
+                firings.stream().map(f -> f.alert().alertId()).toList())) {
+            lastFired.put((Long) row[0], (LocalDateTime) row[1]);
+        }
+        List<Firing> accepted = new ArrayList<>(firings.size());
+        for (Firing firing : firings) {
+            LocalDateTime last = lastFired.get(firing.alert().alertId());
+            if (last != null && last.plus(firing.alert().cooldown()).isAfter(now)) {
+                suppressedCounter.increment();
+                continue;
+            }
+            accepted.add(firing);
+        }
+        return accepted;
+    }
+
+    private void writeHistory(List<Firing> firings, LocalDateTime now) {
+        if (firings.isEmpty()) {
+            return;
+        }
+        Timestamp triggeredAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, firings, firings.size(), (ps, firing) -> {
+            ps.setLong(1, firing.alert().alertId());
+            ps.setTimestamp(2, triggeredAt);
+            ps.setString(3, formatValue(firing.value()));
+            ps.setString(4, message(firing));
+            ps.setTimestamp(5, triggeredAt);
+        });
+        firedCounter.increment(firings.size());
+        LOGGER.info("{} analytics alert(s) fired", firings.size());
+    }
+
+    private static String formatValue(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String message(Firing firing) {
+        CompiledAlert alert = firing.alert();
+        String window = alert.isEventMetric() ? alert.windowMinutes() + " min" : alert.windowDays() + " day(s)";
+        String condition = alert.comparison().name().toLowerCase(Locale.ROOT).replace('_', ' ');
+        String message = String.format(Locale.ROOT, "%s: %s %s %s%s (value %s over %s)",
+                alert.alertName(), alert.metric(), condition, formatValue(alert.threshold()),
+                alert.comparison().isChange() ? "%" : "", formatValue(firing.value()), window);
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ecommerse.backend.services.analytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Published after the ETL or the real-time refresher has changed fact and rollup rows, so cached
+ * aggregates can be rebuilt. {@code days} are the dates whose data changed; empty means unknown,
+ * to be treated as every date.
+ */
+public record AnalyticsDataRefreshedEvent(String source, LocalDateTime occurredAt, Set<LocalDate> days) {
+}
@@ -1,104 +1,447 @@
 package com.ecommerse.backend.services.analytics;
 
-import com.ecommerse.backend.entities.Order;
-import com.ecommerse.backend.entities.OrderItem;
-import com.ecommerse.backend.entities.OrderStatus;
-import com.ecommerse.backend.entities.analytics.FactOrder;
-import com.ecommerse.backend.repositories.OrderRepository;
-import com.ecommerse.backend.repositories.analytics.FactOrderRepository;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Extract-transform-load pipeline that snapshots operational order data into analytics fact tables.
+ *
+ * Each step is one set-based {@code INSERT ... SELECT ... ON CONFLICT (order_id, product_id) DO UPDATE}
+ * over orders/order_items/products for a bounded time window, so no entities are loaded. Windows
+ * are committed one by one together with a checkpoint row in {@code analytics_etl_checkpoints},
+ * which lets an interrupted run resume where it stopped. Every run is recorded in
+ * {@code analytics_etl_runs} and timed as {@code analytics.etl.runs}. After fact rows change, the
+ * daily rollups ({@code agg_daily_metrics} and the per-category/per-channel tables) are rebuilt for
+ * the affected days.
+ *
+ * The upsert relies on PostgreSQL; on other databases the ETL is skipped.
  */
 @Service
 public class AnalyticsETLService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AnalyticsETLService.class);
-    private static final DateTimeFormatter DAY_KEY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String INCREMENTAL_JOB = "fact_orders.incremental";
 
-    private final OrderRepository orderRepository;
-    private final FactOrderRepository factOrderRepository;
+    private static final String UPSERT_FACT_ORDERS = """
+            INSERT INTO fact_orders (order_id, customer_id, product_id, category_id, order_date,
+                                     year_key, month_key, day_key, revenue, cost, profit, quantity,
+                                     discount_amount, is_returned, is_cancelled, created_at, updated_at)
+            SELECT o.id,
+                   o.user_id,
+                   oi.product_id,
+                   p.category_id,
+                   CAST(o.created_date AS DATE),
+                   CAST(EXTRACT(YEAR FROM o.created_date) AS INTEGER),
+                   CAST(EXTRACT(YEAR FROM o.created_date) * 100 + EXTRACT(MONTH FROM o.created_date) AS INTEGER),
+                   CAST(TO_CHAR(o.created_date, 'YYYYMMDD') AS INTEGER),
+                   ROUND(SUM(oi.unit_price * oi.quantity), 2),
+                   0,
+                   ROUND(SUM(oi.unit_price * oi.quantity), 2),
+                   SUM(oi.quantity),
+                   0,
+                   FALSE,
+                   o.status = 'CANCELLED',
+                   NOW(),
+                   NOW()
+            FROM orders o
+            JOIN order_items oi ON oi.order_id = o.id
+            JOIN products p ON p.id = oi.product_id
+            WHERE %s
+            GROUP BY o.id, o.user_id, oi.product_id, p.category_id, o.created_date, o.status
+            ON CONFLICT (order_id, product_id) DO UPDATE SET
+                customer_id = EXCLUDED.customer_id,
+                category_id = EXCLUDED.category_id,
+                order_date = EXCLUDED.order_date,
+                year_key = EXCLUDED.year_key,
+                month_key = EXCLUDED.month_key,
+                day_key = EXCLUDED.day_key,
+                revenue = EXCLUDED.revenue,
+                profit = EXCLUDED.profit,
+                quantity = EXCLUDED.quantity,
+                is_cancelled = EXCLUDED.is_cancelled,
+                updated_at = NOW()
+            """;
 
-    public AnalyticsETLService(OrderRepository orderRepository,
-                               FactOrderRepository factOrderRepository) {
-        this.orderRepository = orderRepository;
-        this.factOrderRepository = factOrderRepository;
+    /** Orders touched in the window (status changes bump updated_date). */
+    private static final String UPSERT_BY_CHANGE = UPSERT_FACT_ORDERS.formatted(
+            "COALESCE(o.updated_date, o.created_date) >= ? AND COALESCE(o.updated_date, o.created_date) < ?");
+    /** Orders placed in the window, for backfills. */
+    private static final String UPSERT_BY_CREATION = UPSERT_FACT_ORDERS.formatted(
+            "o.created_date >= ? AND o.created_date < ?");
+    /** Explicit orders, for event-driven refreshes. */
+    private static final String UPSERT_BY_IDS = UPSERT_FACT_ORDERS.formatted("o.id = ANY(?)");
+
+    private static final String DELETE_DAILY_ROLLUPS = "DELETE FROM agg_daily_metrics WHERE metric_date = ANY(?)";
+    private static final String INSERT_DAILY_ROLLUPS = """
+            INSERT INTO agg_daily_metrics (metric_date, revenue, units, order_count, sessions, conversions, updated_at)
+            SELECT COALESCE(o.metric_date, s.metric_date),
+                   COALESCE(o.revenue, 0),
+                   COALESCE(o.units, 0),
+                   COALESCE(o.order_count, 0),
+                   COALESCE(s.sessions, 0),
+                   COALESCE(s.conversions, 0),
+                   NOW()
+            FROM (SELECT order_date AS metric_date, SUM(revenue) AS revenue, SUM(quantity) AS units,
+                         COUNT(DISTINCT order_id) AS order_count
+                  FROM fact_orders
+                  WHERE order_date = ANY(?)
+                  GROUP BY order_date) o
+            FULL OUTER JOIN (SELECT CAST(start_time AS DATE) AS metric_date, COUNT(*) AS sessions,
+                                    COUNT(*) FILTER (WHERE converted) AS conversions
+                             FROM fact_sessions
+                             WHERE start_time >= ? AND start_time < ? AND CAST(start_time AS DATE) = ANY(?)
+                             GROUP BY CAST(start_time AS DATE)) s
+              ON s.metric_date = o.metric_date
+            """;
+    private static final String DELETE_CATEGORY_ROLLUPS =
+            "DELETE FROM agg_daily_category_metrics WHERE metric_date = ANY(?)";
+    private static final String INSERT_CATEGORY_ROLLUPS = """
+            INSERT INTO agg_daily_category_metrics (metric_date, category_id, revenue, units, order_count, updated_at)
+            SELECT order_date, category_id, SUM(revenue), SUM(quantity), COUNT(DISTINCT order_id), NOW()
+            FROM fact_orders
+            WHERE order_date = ANY(?)
+            GROUP BY order_date, category_id
+            """;
+    private static final String DELETE_CHANNEL_ROLLUPS =
+            "DELETE FROM agg_daily_channel_metrics WHERE metric_date = ANY(?)";
+    private static final String INSERT_CHANNEL_ROLLUPS = """
+            INSERT INTO agg_daily_channel_metrics (metric_date, channel, sessions, conversions, updated_at)
+            SELECT CAST(start_time AS DATE), COALESCE(source_channel, 'direct'), COUNT(*),
+                   COUNT(*) FILTER (WHERE converted), NOW()
+            FROM fact_sessions
+            WHERE start_time >= ? AND start_time < ? AND CAST(start_time AS DATE) = ANY(?)
+            GROUP BY CAST(start_time AS DATE), COALESCE(source_channel, 'direct')
+            """;
+    private static final int ROLLUP_DAYS_PER_TRANSACTION = 366;
+
+    /**
+     * Summary of one ETL run.
+     */
+    public record EtlRunResult(String jobName, LocalDateTime windowStart, LocalDateTime windowEnd, int chunks,
+            long rowsUpserted, boolean completed) {
+    }
+
+    /**
+     * Outcome of {@link #refreshOrders}: fact rows upserted and the order dates whose rollups were
+     * rebuilt.
+     */
+    public record RefreshResult(int upserted, Set<LocalDate> days) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkDays;
+    private final long commitLagSeconds;
+    private volatile Boolean postgreSql;
+
+    public AnalyticsETLService(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${analytics.etl.chunk-days:7}") int chunkDays,
+                               @Value("${analytics.etl.commit-lag-seconds:60}") long commitLagSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.chunkDays = Math.max(1, chunkDays);
+        this.commitLagSeconds = Math.max(0, commitLagSeconds);
+    }
+
+    /**
+     * Incremental ETL: upserts facts for every order created or changed since the last checkpoint.
+     */
+    @Scheduled(cron = "${analytics.etl.cron:0 */15 * * * *}")
+    public void runScheduledETL() {
+        runIncremental();
+    }
+
+    public EtlRunResult runIncremental() {
+        if (!isPostgreSql()) {
+            LOGGER.debug("Skipping analytics ETL because database is not PostgreSQL");
+            return new EtlRunResult(INCREMENTAL_JOB, null, null, 0, 0, false);
+        }
+        // Leave a small lag so rows from transactions still in flight are picked up next run
+        LocalDateTime upper = LocalDateTime.now().minusSeconds(commitLagSeconds);
+        LocalDateTime lower = readCheckpoint(INCREMENTAL_JOB);
+        if (lower == null) {
+            lower = jdbcTemplate.queryForObject(
+                    "SELECT MIN(COALESCE(updated_date, created_date)) FROM orders", LocalDateTime.class);
+            if (lower == null) {
+                lower = upper;
+            }
+        }
+        return runWindows(INCREMENTAL_JOB, UPSERT_BY_CHANGE, lower, upper, true);
     }
 
     /**
-     * Daily ETL (runs at 1:00am server time) processing previous day orders.
+     * Upsert the fact rows of specific orders in one statement. Used by {@link FactOrderRefresher}
+     * to apply order status changes within seconds.
      */
-    @Transactional
-    @Scheduled(cron = "0 0 1 * * ?")
-    public void runDailyETL() {
-        LocalDate targetDate = LocalDate.now().minusDays(1);
-        LOGGER.info("Starting scheduled analytics ETL for {}", targetDate);
-        processOrdersForDate(targetDate);
+    public RefreshResult refreshOrders(Collection<Long> orderIds) {
+        if (orderIds == null || orderIds.isEmpty() || !isPostgreSql()) {
+            return new RefreshResult(0, Set.of());
+        }
+        long startedNanos = System.nanoTime();
+        LocalDateTime touchedSince = databaseNow();
+        Long[] ids = orderIds.toArray(new Long[0]);
+        int upserted = jdbcTemplate.update(UPSERT_BY_IDS,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+        List<LocalDate> days = rebuildRollupsTouchedSince(touchedSince);
+        record("fact_orders.refresh", "success", startedNanos, upserted);
+        return new RefreshResult(upserted, Set.copyOf(days));
     }
 
     /**
-     * Manual trigger for a specific date, useful for backfills.
+     * Manual trigger for a specific date (by order creation date).
      */
-    @Transactional
-    public void processOrdersForDate(LocalDate date) {
+    public EtlRunResult processOrdersForDate(LocalDate date) {
+        if (!isPostgreSql()) {
+            LOGGER.warn("Skipping analytics ETL for {} because database is not PostgreSQL", date);
+            return new EtlRunResult("fact_orders.day", null, null, 0, 0, false);
+        }
         LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.atTime(23, 59, 59);
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+        return runWindows("fact_orders.day:" + date, UPSERT_BY_CREATION, start, end, false);
+    }
 
-        List<Order> orders = orderRepository.findByCreatedDateBetween(start, end);
-        LOGGER.info("Found {} orders to process for {}", orders.size(), date);
+    /**
+     * Backfill a range of historical dates (inclusive). Re-running the same range after an
+     * interruption resumes from the last committed chunk.
+     */
+    public EtlRunResult backfill(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Invalid backfill range");
+        }
+        if (!isPostgreSql()) {
+            LOGGER.warn("Skipping analytics backfill because database is not PostgreSQL");
+            return new EtlRunResult("fact_orders.backfill", null, null, 0, 0, false);
+        }
+        String jobName = "fact_orders.backfill:" + startDate + ":" + endDate;
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+        LocalDateTime resumeFrom = readCheckpoint(jobName);
+        LocalDateTime start = resumeFrom != null ? resumeFrom : startDate.atStartOfDay();
+        return runWindows(jobName, UPSERT_BY_CREATION, start, end, true);
+    }
+
+    private EtlRunResult runWindows(String jobName, String upsertSql, LocalDateTime start, LocalDateTime end,
+            boolean checkpointed) {
+        String metricJob = jobName.contains(":") ? jobName.substring(0, jobName.indexOf(':')) : jobName;
+        long startedNanos = System.nanoTime();
+        LocalDateTime touchedSince = databaseNow();
+        Long runId = startRun(jobName, start, end);
+
+        int chunks = 0;
+        long rows = 0;
+        boolean completed = true;
+        try {
+            LocalDateTime chunkStart = start;
+            while (chunkStart.isBefore(end)) {
+                LocalDateTime chunkEnd = chunkStart.plusDays(chunkDays);
+                if (chunkEnd.isAfter(end)) {
+                    chunkEnd = end;
+                }
+                Integer upserted = runChunk(jobName, upsertSql, chunkStart, chunkEnd, checkpointed);
+                if (upserted == null) {
+                    LOGGER.info("Analytics ETL {} is running elsewhere; stopping at {}", jobName, chunkStart);
+                    completed = false;
+                    break;
+                }
+                chunks++;
+                rows += upserted;
+                chunkStart = chunkEnd;
+            }
+            if (checkpointed && completed && chunks == 0 && readCheckpoint(jobName) == null) {
+                writeCheckpoint(jobName, end);
+            }
+            if (rows > 0) {
+                List<LocalDate> days = rebuildRollupsTouchedSince(touchedSince);
+                eventPublisher.publishEvent(new AnalyticsDataRefreshedEvent(jobName, LocalDateTime.now(),
+                        Set.copyOf(days)));
+            }
+            finishRun(runId, chunks, rows, completed ? "SUCCEEDED" : "SKIPPED", null);
+            record(metricJob, completed ? "success" : "skipped", startedNanos, rows);
+            LOGGER.info("Analytics ETL {} upserted {} fact rows in {} chunk(s)", jobName, rows, chunks);
+            return new EtlRunResult(jobName, start, end, chunks, rows, completed);
+        } catch (RuntimeException e) {
+            finishRun(runId, chunks, rows, "FAILED", e.getMessage());
+            record(metricJob, "error", startedNanos, rows);
+            LOGGER.error("Analytics ETL {} failed after {} chunk(s): {}", jobName, chunks, e.getMessage());
+            throw e;
+        }
+    }
 
-        orders.forEach(this::upsertFactOrders);
+    /**
+     * Upsert one window and advance the checkpoint in the same transaction. Returns {@code null}
+     * when another instance holds the job lock.
+     */
+    private Integer runChunk(String jobName, String upsertSql, LocalDateTime from, LocalDateTime to,
+            boolean checkpointed) {
+        return transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(hashtext(?))",
+                    Boolean.class, jobName);
+            if (!Boolean.TRUE.equals(locked)) {
+                return null;
+            }
+            int upserted = jdbcTemplate.update(upsertSql, Timestamp.valueOf(from), Timestamp.valueOf(to));
+            if (checkpointed) {
+                writeCheckpoint(jobName, to);
+            }
+            return upserted;
+        });
     }
 
     /**
-     * Backfill a range of historical dates.
+     * Rebuild the daily, per-category and per-channel rollups for the given days from the fact
+     * tables.
      */
-    @Transactional
-    public void backfill(LocalDate startDate, LocalDate endDate) {
-        LocalDate current = startDate;
-        while (!current.isAfter(endDate)) {
-            processOrdersForDate(current);
-            current = current.plusDays(1);
+    public void rebuildDailyRollups(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        rebuildDailyRollups(days);
+    }
+
+    public void rebuildDailyRollups(Collection<LocalDate> days) {
+        if (days == null || days.isEmpty() || !isPostgreSql()) {
+            return;
+        }
+        List<LocalDate> sorted = days.stream().distinct().sorted().toList();
+        for (int from = 0; from < sorted.size(); from += ROLLUP_DAYS_PER_TRANSACTION) {
+            List<LocalDate> slice = sorted.subList(from, Math.min(sorted.size(), from + ROLLUP_DAYS_PER_TRANSACTION));
+            transactionTemplate.executeWithoutResult(status -> rebuildRollupSlice(slice));
         }
     }
 
-    private void upsertFactOrders(Order order) {
-        order.getOrderItems().forEach(item -> {
-            FactOrder factOrder = factOrderRepository.findByOrderIdAndProductId(order.getId(), item.getProduct().getId())
-                    .orElseGet(FactOrder::new);
-
-            factOrder.setOrderId(order.getId());
-            factOrder.setCustomerId(order.getUser() != null ? order.getUser().getId() : null);
-            factOrder.setProductId(item.getProduct().getId());
-            factOrder.setCategoryId(item.getProduct().getCategory() != null ? item.getProduct().getCategory().getId() : null);
-
-            LocalDate orderDate = order.getCreatedDate().toLocalDate();
-            factOrder.setOrderDate(orderDate);
-            factOrder.setYearKey(orderDate.getYear());
-            factOrder.setMonthKey(orderDate.getYear() * 100 + orderDate.getMonthValue());
-            factOrder.setDayKey(Integer.parseInt(orderDate.format(DAY_KEY_FORMAT)));
-
-            BigDecimal revenue = item.getTotalPrice();
-            factOrder.setRevenue(revenue);
-            factOrder.setCost(BigDecimal.ZERO);
-            factOrder.setProfit(revenue); // Without cost data, assume full revenue as profit
-            factOrder.setQuantity(item.getQuantity());
-            factOrder.setDiscountAmount(BigDecimal.ZERO);
-            factOrder.setIsCancelled(order.getStatus() == OrderStatus.CANCELLED);
-            factOrder.setIsReturned(Boolean.FALSE);
-
-            factOrderRepository.save(factOrder);
+    private void rebuildRollupSlice(List<LocalDate> days) {
+        java.sql.Date[] dates = days.stream().map(java.sql.Date::valueOf).toArray(java.sql.Date[]::new);
+        Timestamp sessionsFrom = Timestamp.valueOf(days.get(0).atStartOfDay());
+        Timestamp sessionsTo = Timestamp.valueOf(days.get(days.size() - 1).plusDays(1).atStartOfDay());
+
+        jdbcTemplate.update(DELETE_DAILY_ROLLUPS, ps -> ps.setArray(1, dateArray(ps, dates)));
+        jdbcTemplate.update(INSERT_DAILY_ROLLUPS, ps -> {
+            ps.setArray(1, dateArray(ps, dates));
+            ps.setTimestamp(2, sessionsFrom);
+            ps.setTimestamp(3, sessionsTo);
+            ps.setArray(4, dateArray(ps, dates));
+        });
+        jdbcTemplate.update(DELETE_CATEGORY_ROLLUPS, ps -> ps.setArray(1, dateArray(ps, dates)));
+        jdbcTemplate.update(INSERT_CATEGORY_ROLLUPS, ps -> ps.setArray(1, dateArray(ps, dates)));
+        jdbcTemplate.update(DELETE_CHANNEL_ROLLUPS, ps -> ps.setArray(1, dateArray(ps, dates)));
+        jdbcTemplate.update(INSERT_CHANNEL_ROLLUPS, ps -> {
+            ps.setTimestamp(1, sessionsFrom);
+            ps.setTimestamp(2, sessionsTo);
+            ps.setArray(3, dateArray(ps, dates));
         });
     }
+
+    private static java.sql.Array dateArray(PreparedStatement ps, java.sql.Date[] dates) throws SQLException {
+        return ps.getConnection().createArrayOf("date", dates);
+    }
+
+    private List<LocalDate> rebuildRollupsTouchedSince(LocalDateTime touchedSince) {
+        List<LocalDate> days = jdbcTemplate.queryForList(
+                "SELECT DISTINCT order_date FROM fact_orders WHERE updated_at >= ?",
+                LocalDate.class, Timestamp.valueOf(touchedSince));
+        rebuildDailyRollups(days);
+        return days;
+    }
+
+    LocalDateTime databaseNow() {
+        return jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+    }
+
+    LocalDateTime readCheckpoint(String jobName) {
+        List<LocalDateTime> marks = jdbcTemplate.queryForList(
+                "SELECT high_water_mark FROM analytics_etl_checkpoints WHERE job_name = ?",
+                LocalDateTime.class, jobName);
+        return marks.isEmpty() ? null : marks.get(0);
+    }
+
+    void writeCheckpoint(String jobName, LocalDateTime highWaterMark) {
+        jdbcTemplate.update("""
+                INSERT INTO analytics_etl_checkpoints (job_name, high_water_mark, updated_at)
+                VALUES (?, ?, NOW())
+                ON CONFLICT (job_name) DO UPDATE SET high_water_mark = EXCLUDED.high_water_mark, updated_at = NOW()
+                """, jobName, Timestamp.valueOf(highWaterMark));
+    }
+
+    private Long startRun(String jobName, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO analytics_etl_runs (job_name, started_at, window_start, window_end, status)
+                VALUES (?, NOW(), ?, ?, 'RUNNING')
+                RETURNING id
+                """, Long.class, jobName, Timestamp.valueOf(windowStart), Timestamp.valueOf(windowEnd));
+    }
+
+    private void finishRun(Long runId, int chunks, long rows, String status, String errorMessage) {
+        try {
+            jdbcTemplate.update("""
+                    UPDATE analytics_etl_runs
+                    SET finished_at = NOW(), chunks = ?, rows_upserted = ?, status = ?, error_message = ?
+                    WHERE id = ?
+                    """, chunks, rows, status,
+                    errorMessage != null && errorMessage.length() > 1000 ? errorMessage.substring(0, 1000)
+                            : errorMessage,
+                    runId);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to record analytics ETL run {}: {}", runId, e.getMessage());
+        }
+    }
+
+    private void record(String jobName, String outcome, long startedNanos, long rows) {
+        Timer.builder("analytics.etl.runs")
+                .description("Duration of analytics ETL runs")
+                .tag("job", jobName)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("analytics.etl.rows")
+                .description("Fact rows upserted by analytics ETL")
+                .tag("job", jobName)
+                .register(meterRegistry)
+                .increment(rows);
+    }
+
+    boolean isPostgreSql() {
+        Boolean cached = postgreSql;
+        if (cached == null) {
+            try {
+                String productName = jdbcTemplate.execute(
+                        (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+                cached = productName != null && productName.toLowerCase(Locale.ROOT).contains("postgresql");
+            } catch (RuntimeException e) {
+                LOGGER.warn("Unable to determine database type for analytics ETL", e);
+                return false;
+            }
+            postgreSql = cached;
+        }
+        return cached;
+    }
 }
@@ -2,11 +2,15 @@ package com.ecommerse.backend.services.analytics;
 
 import com.ecommerse.backend.entities.analytics.AnalyticsEvent;
 import com.ecommerse.backend.repositories.analytics.AnalyticsEventRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,14 +18,67 @@ import java.util.Map;
 @Service
 public class AnalyticsEventService {
 
+    private static final int MAX_LIVE_TYPES = 100;
+
+    /**
+     * Outcome of a batch ingest: events queued for writing, shed because the buffer was full, and
+     * rejected as invalid.
+     */
+    public record IngestResult(int accepted, int dropped, int rejected) {
+    }
+
     private final AnalyticsEventRepository repository;
+    private final AnalyticsEventWriter writer;
+    private final int maxBatchSize;
+    private final MinuteEventCounter minuteCounter = new MinuteEventCounter(MAX_LIVE_TYPES);
 
-    public AnalyticsEventService(AnalyticsEventRepository repository) {
+    public AnalyticsEventService(AnalyticsEventRepository repository, AnalyticsEventWriter writer,
+            @Value("${analytics.ingest.max-batch-events:100}") int maxBatchSize) {
         this.repository = repository;
+        this.writer = writer;
+        this.maxBatchSize = maxBatchSize;
     }
 
-    public AnalyticsEvent ingest(AnalyticsEvent event) {
-        if (event.getType() == null || event.getType().length() > 64) {
+    /**
+     * Validate and enqueue a single event. Returns {@code false} when the event was shed because
+     * the ingestion buffer is full.
+     */
+    public boolean ingest(AnalyticsEvent event) {
+        validate(event);
+        return offer(event);
+    }
+
+    /**
+     * Enqueue a beacon batch. Invalid events are skipped instead of failing the whole batch.
+     */
+    public IngestResult ingestBatch(List<AnalyticsEvent> events) {
+        if (events == null || events.isEmpty()) {
+            return new IngestResult(0, 0, 0);
+        }
+        if (events.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Too many events in batch (max " + maxBatchSize + ")");
+        }
+        int accepted = 0;
+        int dropped = 0;
+        int rejected = 0;
+        for (AnalyticsEvent event : events) {
+            try {
+                validate(event);
+            } catch (IllegalArgumentException e) {
+                rejected++;
+                continue;
+            }
+            if (offer(event)) {
+                accepted++;
+            } else {
+                dropped++;
+            }
+        }
+        return new IngestResult(accepted, dropped, rejected);
+    }
+
+    private void validate(AnalyticsEvent event) {
+        if (event == null || event.getType() == null || event.getType().length() > 64) {
             throw new IllegalArgumentException("Invalid event type");
         }
         if (event.getSessionId() != null && event.getSessionId().length() > 128) {
@@ -30,11 +87,32 @@ public class AnalyticsEventService {
         if (event.getPath() != null && event.getPath().length() > 512) {
             throw new IllegalArgumentException("Invalid path");
         }
-        return repository.save(event);
     }
 
+    private boolean offer(AnalyticsEvent event) {
+        if (!writer.offer(prepare(event))) {
+            return false;
+        }
+        minuteCounter.record(event.getType(), System.currentTimeMillis());
+        return true;
+    }
+
+    private AnalyticsEvent prepare(AnalyticsEvent event) {
+        // Rows are written with plain JDBC, so apply the entity's @PrePersist defaults here
+        event.setId(null);
+        event.onCreate();
+        return event;
+    }
+
+    /**
+     * Event totals by type plus histograms. The hourly ({@code series24h}, indexed by hour of day)
+     * and daily ({@code seriesDaily}, oldest day first) series are aggregated in SQL;
+     * {@code liveMinutes} holds this instance's per-minute counts for the current hour.
+     */
     public Map<String, Object> getSummary(int days) {
-        LocalDateTime from = LocalDate.now().minusDays(days).atStartOfDay();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate firstDay = LocalDate.now().minusDays(days);
+        LocalDateTime from = firstDay.atStartOfDay();
         Map<String, Object> result = new HashMap<>();
 
         // Totals by type
@@ -47,22 +125,39 @@ public class AnalyticsEventService {
         }
         result.put("totals", totals);
 
-        // Simple 24h series (hourly) for the last day
-        LocalDateTime last24h = LocalDateTime.now().minusHours(24);
-        List<AnalyticsEvent> recent = repository.findByOccurredAtBetween(last24h, LocalDateTime.now());
+        // Hourly series for the last 24 clock hours, including the current one
+        LocalDateTime firstHour = now.truncatedTo(ChronoUnit.HOURS).minusHours(23);
         Map<String, long[]> series = new HashMap<>();
-        for (AnalyticsEvent e : recent) {
-            String type = e.getType();
-            series.computeIfAbsent(type, k -> new long[24]);
-            int hourIndex = Math.max(0, Math.min(23, e.getOccurredAt().getHour()));
-            series.get(type)[hourIndex]++;
+        for (Object[] row : repository.countByHourAndType(firstHour, now.plusSeconds(1))) {
+            LocalDateTime bucket = toLocalDateTime(row[0]);
+            series.computeIfAbsent((String) row[1], k -> new long[24])[bucket.getHour()] += ((Number) row[2]).longValue();
         }
         result.put("series24h", series);
 
+        int dayCount = days + 1;
+        Map<String, long[]> daily = new HashMap<>();
+        for (Object[] row : repository.countByDayAndType(from, now.plusSeconds(1))) {
+            int index = (int) ChronoUnit.DAYS.between(firstDay, toLocalDateTime(row[0]).toLocalDate());
+            if (index >= 0 && index < dayCount) {
+                daily.computeIfAbsent((String) row[1], k -> new long[dayCount])[index] += ((Number) row[2]).longValue();
+            }
+        }
+        result.put("seriesDaily", daily);
+        result.put("liveMinutes", minuteCounter.currentHour(now, ZoneId.systemDefault()));
+
         return result;
     }
-}
-
-
-
 
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime;
+        }
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toLocalDateTime();
+        }
+        throw new IllegalStateException("Unexpected bucket type: " + value);
+    }
+}
@@ -0,0 +1,180 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.ecommerse.backend.entities.analytics.AnalyticsEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous writer for analytics events.
+ *
+ * Requests only enqueue into a bounded in-memory {@link EventRingBuffer}; a single background
+ * thread drains it and writes one JDBC batch insert every {@code batch-size} events or every
+ * {@code flush-ms}, whichever comes first. When the buffer is full new events are dropped
+ * (counted in {@code analytics.events.ingest{outcome=dropped}}) rather than slowing down the
+ * public endpoints. Remaining events are flushed on shutdown.
+ */
+@Component
+public class AnalyticsEventWriter implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsEventWriter.class);
+    private static final String INSERT_SQL = "INSERT INTO analytics_event "
+            + "(type, session_id, user_id, path, product_id, occurred_at, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EventRingBuffer<AnalyticsEvent> buffer;
+    private final int batchSize;
+    private final long flushNanos;
+    private final Counter acceptedCounter;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private volatile Thread writerThread;
+
+    public AnalyticsEventWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+            @Value("${analytics.ingest.buffer-capacity:8192}") int bufferCapacity,
+            @Value("${analytics.ingest.batch-size:500}") int batchSize,
+            @Value("${analytics.ingest.flush-ms:1000}") long flushMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new EventRingBuffer<>(Math.max(2, bufferCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(10, flushMs));
+
+        this.acceptedCounter = counter(meterRegistry, "accepted");
+        this.droppedCounter = counter(meterRegistry, "dropped");
+        this.writtenCounter = counter(meterRegistry, "written");
+        this.failedCounter = counter(meterRegistry, "failed");
+        Gauge.builder("analytics.events.buffered", buffer, EventRingBuffer::size)
+                .description("Analytics events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("analytics.events.ingest")
+                .description("Analytics events by ingestion outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enqueue an already validated event. Returns {@code false} when the buffer is full and the
+     * event was shed.
+     */
+    public boolean offer(AnalyticsEvent event) {
+        if (!buffer.offer(event)) {
+            droppedCounter.increment();
+            return false;
+        }
+        acceptedCounter.increment();
+        Thread writer = writerThread;
+        if (writer != null && buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runLoop, "analytics-event-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.NANOSECONDS.toMillis(flushNanos) + 5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writerThread = null;
+        }
+        // Anything enqueued after the writer exited
+        List<AnalyticsEvent> pending = new ArrayList<>(batchSize);
+        while (buffer.drainTo(pending, batchSize) > 0) {
+            write(pending);
+            pending.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runLoop() {
+        List<AnalyticsEvent> pending = new ArrayList<>(batchSize);
+        long firstPendingAt = 0;
+        while (running || buffer.size() > 0 || !pending.isEmpty()) {
+            int before = pending.size();
+            buffer.drainTo(pending, batchSize - pending.size());
+            if (before == 0 && !pending.isEmpty()) {
+                firstPendingAt = System.nanoTime();
+            }
+
+            long waited = System.nanoTime() - firstPendingAt;
+            boolean flushDue = pending.size() >= batchSize
+                    || (!pending.isEmpty() && (waited >= flushNanos || !running));
+            if (flushDue) {
+                write(pending);
+                pending.clear();
+                continue;
+            }
+            if (!running) {
+                continue;
+            }
+            LockSupport.parkNanos(this, pending.isEmpty() ? flushNanos : flushNanos - waited);
+        }
+    }
+
+    private void write(List<AnalyticsEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+                ps.setString(1, event.getType());
+                ps.setString(2, event.getSessionId());
+                ps.setObject(3, event.getUserId(), Types.BIGINT);
+                ps.setString(4, event.getPath());
+                ps.setObject(5, event.getProductId(), Types.BIGINT);
+                ps.setTimestamp(6, Timestamp.valueOf(event.getOccurredAt()));
+                ps.setTimestamp(7, Timestamp.valueOf(event.getCreatedAt()));
+            });
+            writtenCounter.increment(events.size());
+        } catch (RuntimeException e) {
+            // Analytics is best effort: drop the batch instead of backing up the buffer
+            failedCounter.increment(events.size());
+            logger.warn("Failed to write {} analytics events: {}", events.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.ecommerse.backend.entities.analytics.AnalyticsAlert;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * An {@link AnalyticsAlert} parsed once into a ready-to-evaluate rule.
+ *
+ * Metrics are either daily rollup figures ({@code revenue}, {@code orders}, {@code units},
+ * {@code sessions}, {@code conversions}, {@code conversion_rate}, {@code average_order_value}),
+ * summed over {@code windowDays} days ending today, or event counts ({@code events} or
+ * {@code events.<type>}) over the last {@code windowMinutes} minutes. Conditions compare the window
+ * against {@code value} ({@code above}/{@code below}) or compare its percentage change against the
+ * preceding window of the same length ({@code change_above}/{@code change_below}).
+ *
+ * Threshold JSON, e.g. {@code {"value": 500, "windowDays": 1, "cooldownMinutes": 60}}.
+ */
+record CompiledAlert(
+        Long alertId,
+        LocalDateTime version,
+        String alertName,
+        String metric,
+        Comparison comparison,
+        double threshold,
+        int windowDays,
+        int windowMinutes,
+        Duration cooldown) {
+
+    static final String EVENTS_METRIC = "events";
+
+    private static final Set<String> ROLLUP_METRICS = Set.of("revenue", "orders", "units", "sessions",
+            "conversions", "conversion_rate", "average_order_value");
+    private static final int MAX_WINDOW_DAYS = 366;
+    private static final int MAX_WINDOW_MINUTES = 60;
+
+    enum Comparison {
+        ABOVE, BELOW, CHANGE_ABOVE, CHANGE_BELOW;
+
+        boolean isChange() {
+            return this == CHANGE_ABOVE || this == CHANGE_BELOW;
+        }
+
+        static Comparison parse(String condition) {
+            String normalized = condition == null ? "" : condition.trim().toLowerCase(Locale.ROOT);
+            return switch (normalized) {
+                case "above", "gt", ">", "greater_than" -> ABOVE;
+                case "below", "lt", "<", "less_than" -> BELOW;
+                case "change_above", "increase_above", "pct_change_above" -> CHANGE_ABOVE;
+                case "change_below", "decrease_below", "pct_change_below" -> CHANGE_BELOW;
+                default -> throw new IllegalArgumentException("Unsupported alert condition: " + condition);
+            };
+        }
+    }
+
+    static CompiledAlert compile(AnalyticsAlert alert, ObjectMapper objectMapper) {
+        String metric = alert.getMetricName() == null ? "" : alert.getMetricName().trim().toLowerCase(Locale.ROOT);
+        boolean eventMetric = metric.equals(EVENTS_METRIC) || metric.startsWith(EVENTS_METRIC + ".");
+        if (!eventMetric && !ROLLUP_METRICS.contains(metric)) {
+            throw new IllegalArgumentException("Unsupported alert metric: " + alert.getMetricName());
+        }
+        Comparison comparison = Comparison.parse(alert.getCondition());
+
+        JsonNode threshold;
+        try {
+            threshold = objectMapper.readTree(alert.getThresholdJson() == null ? "{}" : alert.getThresholdJson());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid threshold JSON for alert " + alert.getId());
+        }
+        JsonNode value = threshold.get("value");
+        if (value == null || !value.isNumber()) {
+            throw new IllegalArgumentException("Alert threshold requires a numeric \"value\"");
+        }
+        int windowDays = threshold.path("windowDays").asInt(1);
+        int windowMinutes = threshold.path("windowMinutes").asInt(15);
+        int maxMinutes = comparison.isChange() ? MAX_WINDOW_MINUTES / 2 : MAX_WINDOW_MINUTES;
+        if (windowDays < 1 || windowDays > MAX_WINDOW_DAYS || windowMinutes < 1 || windowMinutes > maxMinutes) {
+            throw new IllegalArgumentException("Alert window out of range");
+        }
+        long cooldownMinutes = Math.max(0, threshold.path("cooldownMinutes").asLong(60));
+
+        return new CompiledAlert(alert.getId(), alert.getUpdatedAt(), alert.getAlertName(), metric, comparison,
+                value.asDouble(), windowDays, windowMinutes, Duration.ofMinutes(cooldownMinutes));
+    }
+
+    boolean isEventMetric() {
+        return metric.equals(EVENTS_METRIC) || metric.startsWith(EVENTS_METRIC + ".");
+    }
+
+    /**
+     * Event type filter for event metrics, {@code null} for all types.
+     */
+    String eventType() {
+        return metric.startsWith(EVENTS_METRIC + ".") ? metric.substring(EVENTS_METRIC.length() + 1) : null;
+    }
+
+    /**
+     * Days of rollups needed, including the comparison window.
+     */
+    int lookbackDays() {
+        return comparison.isChange() ? windowDays * 2 : windowDays;
+    }
+
+    double valueOf(DailyRollupSeries.Totals totals) {
+        return switch (metric) {
+            case "revenue" -> totals.revenue().doubleValue();
+            case "orders" -> totals.orders();
+            case "units" -> totals.units();
+            case "sessions" -> totals.sessions();
+            case "conversions" -> totals.conversions();
+            case "conversion_rate" -> totals.conversionRate();
+            case "average_order_value" -> totals.averageOrderValue().doubleValue();
+            default -> throw new IllegalStateException("Not a rollup metric: " + metric);
+        };
+    }
+
+    /**
+     * Whether the alert fires. {@code previous} is only used by change conditions; a change from
+     * zero is undefined and never fires.
+     */
+    boolean test(double current, double previous) {
+        return switch (comparison) {
+            case ABOVE -> current > threshold;
+            case BELOW -> current < threshold;
+            case CHANGE_ABOVE -> previous != 0 && percentChange(current, previous) > threshold;
+            case CHANGE_BELOW -> previous != 0 && percentChange(current, previous) < threshold;
+        };
+    }
+
+    static double percentChange(double current, double previous) {
+        return (current - previous) / Math.abs(previous) * 100.0;
+    }
+}
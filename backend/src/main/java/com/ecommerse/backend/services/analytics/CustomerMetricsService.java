@@ -0,0 +1,262 @@
+package com.ecommerse.backend.services.analytics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains {@code fact_customer_metrics} (one snapshot row per customer) and
+ * {@code agg_cohort_retention}.
+ *
+ * Every figure comes from a single grouped pass over {@code orders}. The incremental run only
+ * recomputes customers with orders created or changed since its checkpoint, plus the cohorts those
+ * customers belong to (before and after the change, since a cancelled first order moves a
+ * customer to a later cohort). The nightly full run recomputes everything, which also ages
+ * {@code days_since_last_order} for customers without new orders. The checkpoint is taken from
+ * the database clock, so every instance advances it against the same clock instead of its own.
+ * PostgreSQL only.
+ */
+@Service
+public class CustomerMetricsService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerMetricsService.class);
+    private static final String INCREMENTAL_JOB = "fact_customer_metrics.incremental";
+    private static final String FULL_JOB = "fact_customer_metrics.full";
+
+    /** Orders that count as purchases. */
+    private static final String PURCHASE_FILTER =
+            "o.status NOT IN ('PENDING', 'CHECKOUT_CREATED', 'FAILED', 'EXPIRED', 'CANCELLED')";
+
+    private static final String UPSERT_CUSTOMERS = """
+            INSERT INTO fact_customer_metrics (customer_id, calculation_date, total_orders, lifetime_value,
+                                               average_order_value, last_order_date, days_since_last_order,
+                                               cart_abandonment_count, first_order_date, cohort_month,
+                                               created_at, updated_at)
+            SELECT o.user_id,
+                   CURRENT_DATE,
+                   COUNT(*),
+                   ROUND(SUM(o.total_amount), 2),
+                   ROUND(AVG(o.total_amount), 2),
+                   CAST(MAX(o.created_date) AS DATE),
+                   CURRENT_DATE - CAST(MAX(o.created_date) AS DATE),
+                   0,
+                   CAST(MIN(o.created_date) AS DATE),
+                   TO_CHAR(MIN(o.created_date), 'YYYY-MM'),
+                   NOW(),
+                   NOW()
+            FROM orders o
+            WHERE %s AND %s
+            GROUP BY o.user_id
+            ON CONFLICT (customer_id) DO UPDATE SET
+                calculation_date = EXCLUDED.calculation_date,
+                total_orders = EXCLUDED.total_orders,
+                lifetime_value = EXCLUDED.lifetime_value,
+                average_order_value = EXCLUDED.average_order_value,
+                last_order_date = EXCLUDED.last_order_date,
+                days_since_last_order = EXCLUDED.days_since_last_order,
+                first_order_date = EXCLUDED.first_order_date,
+                cohort_month = EXCLUDED.cohort_month,
+                updated_at = NOW()
+            """;
+
+    /** Customers whose purchases were all cancelled/refunded away. */
+    private static final String DELETE_CUSTOMERS_WITHOUT_PURCHASES = """
+            DELETE FROM fact_customer_metrics f
+            WHERE %s
+              AND NOT EXISTS (SELECT 1 FROM orders o WHERE o.user_id = f.customer_id AND %s)
+            """;
+
+    private static final String DELETE_RETENTION = "DELETE FROM agg_cohort_retention WHERE %s";
+
+    private static final String INSERT_RETENTION = """
+            INSERT INTO agg_cohort_retention (cohort_month, period, active_customers, cohort_size, updated_at)
+            WITH purchases AS (
+                SELECT o.user_id, CAST(date_trunc('month', o.created_date) AS DATE) AS order_month
+                FROM orders o
+                WHERE %1$s
+            ), cohorts AS (
+                SELECT user_id, MIN(order_month) AS cohort
+                FROM purchases
+                GROUP BY user_id
+            ), scoped AS (
+                SELECT user_id, cohort, TO_CHAR(cohort, 'YYYY-MM') AS cohort_month
+                FROM cohorts
+                WHERE %2$s
+            ), sizes AS (
+                SELECT cohort_month, COUNT(*) AS cohort_size
+                FROM scoped
+                GROUP BY cohort_month
+            )
+            SELECT s.cohort_month,
+                   CAST((EXTRACT(YEAR FROM p.order_month) - EXTRACT(YEAR FROM s.cohort)) * 12
+                        + EXTRACT(MONTH FROM p.order_month) - EXTRACT(MONTH FROM s.cohort) AS INTEGER) AS period,
+                   COUNT(DISTINCT p.user_id),
+                   MAX(z.cohort_size),
+                   NOW()
+            FROM scoped s
+            JOIN purchases p ON p.user_id = s.user_id
+            JOIN sizes z ON z.cohort_month = s.cohort_month
+            GROUP BY s.cohort_month, period
+            """;
+
+    private static final String CHANGED_CUSTOMERS = """
+            SELECT DISTINCT user_id FROM orders
+            WHERE COALESCE(updated_date, created_date) >= ? AND COALESCE(updated_date, created_date) < ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AnalyticsETLService analyticsETLService;
+    private final MeterRegistry meterRegistry;
+    private final long commitLagSeconds;
+
+    public CustomerMetricsService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  AnalyticsETLService analyticsETLService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${analytics.etl.commit-lag-seconds:60}") long commitLagSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.analyticsETLService = analyticsETLService;
+        this.meterRegistry = meterRegistry;
+        this.commitLagSeconds = Math.max(0, commitLagSeconds);
+    }
+
+    @Scheduled(cron = "${analytics.customers.cron:0 5 * * * *}")
+    public void runScheduledIncremental() {
+        runIncremental();
+    }
+
+    @Scheduled(cron = "${analytics.customers.full-cron:0 30 2 * * *}")
+    public void runScheduledFull() {
+        runFull();
+    }
+
+    /**
+     * Recompute customers with orders changed since the last run. Returns the number of customer
+     * rows written.
+     */
+    public int runIncremental() {
+        if (!analyticsETLService.isPostgreSql()) {
+            LOGGER.debug("Skipping customer metrics because database is not PostgreSQL");
+            return 0;
+        }
+        LocalDateTime upper = analyticsETLService.databaseNow().minusSeconds(commitLagSeconds);
+        LocalDateTime lower = analyticsETLService.readCheckpoint(INCREMENTAL_JOB);
+        if (lower == null) {
+            // First run: compute everyone, then continue incrementally from here
+            int rows = runFull();
+            analyticsETLService.writeCheckpoint(INCREMENTAL_JOB, upper);
+            return rows;
+        }
+        long startedNanos = System.nanoTime();
+        Integer rows = transactionTemplate.execute(status -> {
+            if (!tryLock()) {
+                return null;
+            }
+            List<Long> customers = jdbcTemplate.queryForList(CHANGED_CUSTOMERS, Long.class,
+                    Timestamp.valueOf(lower), Timestamp.valueOf(upper));
+            int written = 0;
+            if (!customers.isEmpty()) {
+                Long[] ids = customers.toArray(new Long[0]);
+                Set<String> cohorts = new HashSet<>(cohortsOf(ids));
+                written = jdbcTemplate.update(UPSERT_CUSTOMERS.formatted(PURCHASE_FILTER, "o.user_id = ANY(?)"),
+                        ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+                jdbcTemplate.update(DELETE_CUSTOMERS_WITHOUT_PURCHASES.formatted("f.customer_id = ANY(?)", PURCHASE_FILTER),
+                        ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+                cohorts.addAll(cohortsOf(ids));
+                rebuildRetention(cohorts);
+            }
+            analyticsETLService.writeCheckpoint(INCREMENTAL_JOB, upper);
+            return written;
+        });
+        if (rows == null) {
+            LOGGER.info("Customer metrics job is running elsewhere; skipping");
+            record(INCREMENTAL_JOB, "skipped", startedNanos, 0);
+            return 0;
+        }
+        record(INCREMENTAL_JOB, "success", startedNanos, rows);
+        return rows;
+    }
+
+    /**
+     * Recompute every customer and every cohort.
+     */
+    public int runFull() {
+        if (!analyticsETLService.isPostgreSql()) {
+            LOGGER.debug("Skipping customer metrics because database is not PostgreSQL");
+            return 0;
+        }
+        long startedNanos = System.nanoTime();
+        Integer rows = transactionTemplate.execute(status -> {
+            if (!tryLock()) {
+                return null;
+            }
+            int written = jdbcTemplate.update(UPSERT_CUSTOMERS.formatted(PURCHASE_FILTER, "TRUE"));
+            jdbcTemplate.update(DELETE_CUSTOMERS_WITHOUT_PURCHASES.formatted("TRUE", PURCHASE_FILTER));
+            jdbcTemplate.update(DELETE_RETENTION.formatted("TRUE"));
+            jdbcTemplate.update(INSERT_RETENTION.formatted(PURCHASE_FILTER, "TRUE"));
+            return written;
+        });
+        if (rows == null) {
+            LOGGER.info("Customer metrics job is running elsewhere; skipping full run");
+            record(FULL_JOB, "skipped", startedNanos, 0);
+            return 0;
+        }
+        record(FULL_JOB, "success", startedNanos, rows);
+        LOGGER.info("Customer metrics recomputed for {} customer(s)", rows);
+        return rows;
+    }
+
+    private boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, "fact_customer_metrics"));
+    }
+
+    private List<String> cohortsOf(Long[] customerIds) {
+        return jdbcTemplate.query(
+                "SELECT DISTINCT cohort_month FROM fact_customer_metrics WHERE customer_id = ANY(?) AND cohort_month IS NOT NULL",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", customerIds)),
+                (rs, rowNum) -> rs.getString(1));
+    }
+
+    private void rebuildRetention(Set<String> cohorts) {
+        if (cohorts.isEmpty()) {
+            return;
+        }
+        String[] months = cohorts.toArray(new String[0]);
+        jdbcTemplate.update(DELETE_RETENTION.formatted("cohort_month = ANY(?)"),
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", months)));
+        jdbcTemplate.update(INSERT_RETENTION.formatted(PURCHASE_FILTER, "TO_CHAR(cohort, 'YYYY-MM') = ANY(?)"),
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", months)));
+    }
+
+    private void record(String jobName, String outcome, long startedNanos, long rows) {
+        Timer.builder("analytics.etl.runs")
+                .description("Duration of analytics ETL runs")
+                .tag("job", jobName)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("analytics.etl.rows")
+                .description("Fact rows upserted by analytics ETL")
+                .tag("job", jobName)
+                .register(meterRegistry)
+                .increment(rows);
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.ecommerse.backend.entities.analytics.AggDailyMetrics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Running totals over a contiguous span of daily rollup rows. Built once from at most a few
+ * hundred rows, after which the sum over any sub-range is answered in O(1) as the difference of
+ * two prefix sums. Days without a rollup row count as zero.
+ */
+final class DailyRollupSeries {
+
+    /**
+     * Aggregates over a date range.
+     */
+    record Totals(BigDecimal revenue, long units, long orders, long sessions, long conversions) {
+
+        BigDecimal averageOrderValue() {
+            return orders == 0 ? BigDecimal.ZERO
+                    : revenue.divide(BigDecimal.valueOf(orders), 2, RoundingMode.HALF_UP);
+        }
+
+        double conversionRate() {
+            return sessions == 0 ? 0.0 : conversions * 100.0 / sessions;
+        }
+    }
+
+    private final LocalDate firstDay;
+    private final LocalDate lastDay;
+    private final BigDecimal[] revenue;
+    private final long[] units;
+    private final long[] orders;
+    private final long[] sessions;
+    private final long[] conversions;
+
+    private DailyRollupSeries(LocalDate firstDay, LocalDate lastDay) {
+        int days = (int) ChronoUnit.DAYS.between(firstDay, lastDay) + 1;
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.revenue = new BigDecimal[days + 1];
+        this.units = new long[days + 1];
+        this.orders = new long[days + 1];
+        this.sessions = new long[days + 1];
+        this.conversions = new long[days + 1];
+    }
+
+    static DailyRollupSeries of(LocalDate firstDay, LocalDate lastDay, List<AggDailyMetrics> rows) {
+        if (firstDay == null || lastDay == null || lastDay.isBefore(firstDay)) {
+            throw new IllegalArgumentException("Invalid rollup range");
+        }
+        DailyRollupSeries series = new DailyRollupSeries(firstDay, lastDay);
+        int days = series.units.length - 1;
+
+        BigDecimal[] dailyRevenue = new BigDecimal[days];
+        long[] dailyUnits = new long[days];
+        long[] dailyOrders = new long[days];
+        long[] dailySessions = new long[days];
+        long[] dailyConversions = new long[days];
+        for (AggDailyMetrics row : rows) {
+            LocalDate day = row.getMetricDate();
+            if (day == null || day.isBefore(firstDay) || day.isAfter(lastDay)) {
+                continue;
+            }
+            int index = (int) ChronoUnit.DAYS.between(firstDay, day);
+            dailyRevenue[index] = row.getRevenue();
+            dailyUnits[index] = valueOf(row.getUnits());
+            dailyOrders[index] = valueOf(row.getOrderCount());
+            dailySessions[index] = valueOf(row.getSessions());
+            dailyConversions[index] = valueOf(row.getConversions());
+        }
+
+        series.revenue[0] = BigDecimal.ZERO;
+        for (int i = 0; i < days; i++) {
+            series.revenue[i + 1] = dailyRevenue[i] != null ? series.revenue[i].add(dailyRevenue[i]) : series.revenue[i];
+            series.units[i + 1] = series.units[i] + dailyUnits[i];
+            series.orders[i + 1] = series.orders[i] + dailyOrders[i];
+            series.sessions[i + 1] = series.sessions[i] + dailySessions[i];
+            series.conversions[i + 1] = series.conversions[i] + dailyConversions[i];
+        }
+        return series;
+    }
+
+    /**
+     * Totals for {@code [from, to]} (inclusive), clamped to the span this series covers.
+     */
+    Totals sum(LocalDate from, LocalDate to) {
+        LocalDate start = from.isBefore(firstDay) ? firstDay : from;
+        LocalDate end = to.isAfter(lastDay) ? lastDay : to;
+        if (end.isBefore(start)) {
+            return new Totals(BigDecimal.ZERO, 0, 0, 0, 0);
+        }
+        int lo = (int) ChronoUnit.DAYS.between(firstDay, start);
+        int hi = (int) ChronoUnit.DAYS.between(firstDay, end) + 1;
+        return new Totals(
+                revenue[hi].subtract(revenue[lo]),
+                units[hi] - units[lo],
+                orders[hi] - orders[lo],
+                sessions[hi] - sessions[lo],
+                conversions[hi] - conversions[lo]);
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,180 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.ecommerse.backend.config.CacheConfig;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the most requested dashboard views hot.
+ *
+ * The configured {@code TYPE:range} pairs (the dashboard defaults) are computed at startup and
+ * recomputed on a fixed delay shorter than the cache TTL, so they are refreshed ahead of expiry
+ * instead of being rebuilt on a user request.
+ *
+ * When the ETL reports new data, the changed days are only recorded; at most once per
+ * {@code invalidate-interval-ms} the cached views whose range (or comparison period) covers one
+ * of those days are evicted and the affected warm views rebuilt. All of this runs on the warmer's
+ * own thread, so neither the event publisher nor the shared scheduler waits for dashboard queries.
+ */
+@Component
+public class DashboardMetricsWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardMetricsWarmer.class);
+
+    private final MetricsService metricsService;
+    private final CacheManager cacheManager;
+    private final List<String> warmViews;
+    private final boolean enabled;
+    private final long refreshAheadMs;
+    private final long invalidateIntervalMs;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dashboard-warmer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+    private final Set<LocalDate> changedDays = new HashSet<>();
+    private boolean everythingChanged;
+
+    public DashboardMetricsWarmer(MetricsService metricsService, CacheManager cacheManager,
+            @Value("${analytics.cache.dashboard.warm-views:EXECUTIVE:last_30_days,EXECUTIVE:last_7_days,"
+                    + "EXECUTIVE:today,OPERATIONAL:today,CUSTOMER_ANALYTICS:last_90_days}") List<String> warmViews,
+            @Value("${analytics.cache.dashboard.warmup-enabled:true}") boolean enabled,
+            @Value("${analytics.cache.dashboard.refresh-ahead-ms:240000}") long refreshAheadMs,
+            @Value("${analytics.cache.dashboard.invalidate-interval-ms:30000}") long invalidateIntervalMs) {
+        this.metricsService = metricsService;
+        this.cacheManager = cacheManager;
+        this.warmViews = List.copyOf(warmViews);
+        this.enabled = enabled;
+        this.refreshAheadMs = Math.max(1000, refreshAheadMs);
+        this.invalidateIntervalMs = Math.max(1000, invalidateIntervalMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::warm);
+        executor.scheduleWithFixedDelay(this::warm, refreshAheadMs, refreshAheadMs, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::applyInvalidations, invalidateIntervalMs, invalidateIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onAnalyticsDataRefreshed(AnalyticsDataRefreshedEvent event) {
+        synchronized (lock) {
+            if (event.days() == null || event.days().isEmpty()) {
+                everythingChanged = true;
+            } else {
+                changedDays.addAll(event.days());
+            }
+        }
+        logger.debug("Dashboard metrics marked stale by {}", event.source());
+    }
+
+    /**
+     * Evict the cached views affected by the data changes recorded since the last call and rebuild
+     * the affected warm views.
+     */
+    void applyInvalidations() {
+        Set<LocalDate> days;
+        boolean everything;
+        synchronized (lock) {
+            if (!everythingChanged && changedDays.isEmpty()) {
+                return;
+            }
+            days = Set.copyOf(changedDays);
+            everything = everythingChanged;
+            changedDays.clear();
+            everythingChanged = false;
+        }
+
+        try {
+            Cache cache = cacheManager.getCache(CacheConfig.DASHBOARD_METRICS);
+            if (cache != null) {
+                evict(cache, days, everything);
+            }
+            List<String> affected = new ArrayList<>();
+            for (String view : warmViews) {
+                int separator = view.indexOf(':');
+                if (separator > 0 && (everything || covers(view.substring(separator + 1).trim(), days))) {
+                    affected.add(view);
+                }
+            }
+            warm(affected);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to apply dashboard metrics invalidation: {}", e.getMessage());
+        }
+    }
+
+    private static void evict(Cache cache, Set<LocalDate> days, boolean everything) {
+        if (everything || !(cache.getNativeCache() instanceof Map<?, ?> entries)) {
+            cache.clear();
+            return;
+        }
+        int evicted = 0;
+        for (Object key : List.copyOf(entries.keySet())) {
+            // Keys are range|TYPE|date, see MetricsService.dashboardCacheKey
+            String range = key.toString().split("\\|", 2)[0];
+            if (covers(range, days)) {
+                cache.evict(key);
+                evicted++;
+            }
+        }
+        logger.debug("Evicted {} dashboard view(s) covering {} changed day(s)", evicted, days.size());
+    }
+
+    private static boolean covers(String range, Set<LocalDate> days) {
+        for (LocalDate day : days) {
+            if (MetricsService.dashboardRangeCovers(range, day)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void warm() {
+        warm(warmViews);
+    }
+
+    private void warm(List<String> views) {
+        if (!enabled) {
+            return;
+        }
+        for (String view : views) {
+            int separator = view.indexOf(':');
+            if (separator <= 0) {
+                logger.warn("Ignoring dashboard warm view '{}'; expected TYPE:range", view);
+                continue;
+            }
+            String type = view.substring(0, separator).trim();
+            String range = view.substring(separator + 1).trim();
+            try {
+                metricsService.refreshDashboardMetrics(range, type);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to warm dashboard metrics {} {}: {}", type, range, e.getMessage());
+            }
+        }
+    }
+}
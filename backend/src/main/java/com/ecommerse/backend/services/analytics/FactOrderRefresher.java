@@ -0,0 +1,79 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.ecommerse.backend.services.OrderStatusChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps {@code fact_orders} close to real time.
+ *
+ * Order status events are collected after the order transaction commits; a short fixed-delay
+ * task then refreshes the fact rows of all orders touched since the previous tick in one upsert,
+ * so a burst of webhook/status updates for the same order costs a single statement. Orders that
+ * fail to refresh are retried on the next tick, and the incremental ETL remains the safety net.
+ */
+@Component
+public class FactOrderRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FactOrderRefresher.class);
+
+    private final AnalyticsETLService analyticsETLService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Set<Long> pendingOrderIds = ConcurrentHashMap.newKeySet();
+    private final int maxBatchSize;
+
+    public FactOrderRefresher(AnalyticsETLService analyticsETLService, ApplicationEventPublisher eventPublisher,
+            @Value("${analytics.realtime.max-batch-size:1000}") int maxBatchSize) {
+        this.analyticsETLService = analyticsETLService;
+        this.eventPublisher = eventPublisher;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.orderId() != null) {
+            pendingOrderIds.add(event.orderId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.realtime.flush-ms:2000}")
+    public void flush() {
+        Set<LocalDate> days = new HashSet<>();
+        while (!pendingOrderIds.isEmpty()) {
+            List<Long> batch = new ArrayList<>(Math.min(maxBatchSize, pendingOrderIds.size()));
+            Iterator<Long> iterator = pendingOrderIds.iterator();
+            while (iterator.hasNext() && batch.size() < maxBatchSize) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            try {
+                AnalyticsETLService.RefreshResult result = analyticsETLService.refreshOrders(batch);
+                logger.debug("Refreshed {} fact rows for {} orders", result.upserted(), batch.size());
+                days.addAll(result.days());
+            } catch (RuntimeException e) {
+                pendingOrderIds.addAll(batch);
+                logger.warn("Failed to refresh fact rows for {} orders: {}", batch.size(), e.getMessage());
+                break;
+            }
+        }
+        if (!days.isEmpty()) {
+            eventPublisher.publishEvent(new AnalyticsDataRefreshedEvent("fact_orders.refresh", LocalDateTime.now(),
+                    Set.copyOf(days)));
+        }
+    }
+}
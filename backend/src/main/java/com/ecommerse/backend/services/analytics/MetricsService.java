@@ -1,21 +1,21 @@
 package com.ecommerse.backend.services.analytics;
 
+import com.ecommerse.backend.config.CacheConfig;
 import com.ecommerse.backend.dto.analytics.CohortAnalysisDTO;
 import com.ecommerse.backend.dto.analytics.DashboardMetricsDTO;
 import com.ecommerse.backend.dto.analytics.PeriodComparisonDTO;
 import com.ecommerse.backend.dto.analytics.ProductPerformanceDTO;
 import com.ecommerse.backend.dto.analytics.TimeSeriesDataDTO;
 import com.ecommerse.backend.dto.analytics.TrafficHealthDTO;
-import com.ecommerse.backend.entities.Product;
-import com.ecommerse.backend.entities.analytics.FactCustomerMetrics;
-import com.ecommerse.backend.repositories.OrderRepository;
 import com.ecommerse.backend.repositories.ProductRepository;
+import com.ecommerse.backend.repositories.analytics.AggDailyMetricsRepository;
 import com.ecommerse.backend.repositories.analytics.FactCustomerMetricsRepository;
 import com.ecommerse.backend.repositories.analytics.FactOrderRepository;
-import com.ecommerse.backend.repositories.analytics.FactSessionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -27,6 +27,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -38,27 +39,58 @@ import java.util.Optional;
 public class MetricsService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MetricsService.class);
+    private static final int MAX_TOP_PRODUCTS = 100;
+    private static final String DASHBOARD_CACHE_KEY =
+            "T(com.ecommerse.backend.services.analytics.MetricsService).dashboardCacheKey(#dateRange, #type)";
 
     private final FactOrderRepository factOrderRepository;
-    private final FactSessionRepository factSessionRepository;
+    private final AggDailyMetricsRepository dailyMetricsRepository;
     private final FactCustomerMetricsRepository customerMetricsRepository;
-    private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
 
     public MetricsService(FactOrderRepository factOrderRepository,
-                          FactSessionRepository factSessionRepository,
+                          AggDailyMetricsRepository dailyMetricsRepository,
                           FactCustomerMetricsRepository customerMetricsRepository,
-                          OrderRepository orderRepository,
                           ProductRepository productRepository) {
         this.factOrderRepository = factOrderRepository;
-        this.factSessionRepository = factSessionRepository;
+        this.dailyMetricsRepository = dailyMetricsRepository;
         this.customerMetricsRepository = customerMetricsRepository;
-        this.orderRepository = orderRepository;
         this.productRepository = productRepository;
     }
 
-    @Cacheable(value = "dashboardMetrics", key = "#dateRange + '-' + #type")
+    @Cacheable(value = CacheConfig.DASHBOARD_METRICS, key = DASHBOARD_CACHE_KEY)
     public DashboardMetricsDTO getDashboardMetrics(String dateRange, String type) {
+        return computeDashboardMetrics(dateRange, type);
+    }
+
+    /**
+     * Recompute and replace the cached dashboard metrics; used for warmup and refresh-ahead.
+     */
+    @CachePut(value = CacheConfig.DASHBOARD_METRICS, key = DASHBOARD_CACHE_KEY)
+    public DashboardMetricsDTO refreshDashboardMetrics(String dateRange, String type) {
+        return computeDashboardMetrics(dateRange, type);
+    }
+
+    /**
+     * Cache key for dashboard metrics. Relative ranges such as "today" resolve against the current
+     * date, so the date is part of the key and entries roll over at midnight.
+     */
+    public static String dashboardCacheKey(String dateRange, String type) {
+        String range = dateRange == null ? "last_30_days" : dateRange.toLowerCase();
+        String kind = type == null ? "" : type.toUpperCase();
+        return range + '|' + kind + '|' + LocalDate.now();
+    }
+
+    /**
+     * Whether the dashboard for {@code dateRange} reads data of {@code day}, counting the preceding
+     * comparison period.
+     */
+    public static boolean dashboardRangeCovers(String dateRange, LocalDate day) {
+        DateRange range = parseDateRange(dateRange);
+        return !day.isBefore(range.previous.startDate) && !day.isAfter(range.endDate);
+    }
+
+    private DashboardMetricsDTO computeDashboardMetrics(String dateRange, String type) {
         DateRange range = parseDateRange(dateRange);
         LOGGER.debug("Fetching dashboard metrics for type {} and range {}", type, dateRange);
 
@@ -72,42 +104,59 @@ public class MetricsService {
 
     public List<TimeSeriesDataDTO> getRevenueTrend(String dateRange, String granularity) {
         DateRange range = parseDateRange(dateRange);
-        List<Object[]> results = factOrderRepository.getDailyRevenue(range.startDate, range.endDate);
         List<TimeSeriesDataDTO> series = new ArrayList<>();
-        results.forEach(row -> series.add(new TimeSeriesDataDTO((LocalDate) row[0], toBigDecimal(row[1]))));
+        dailyMetricsRepository.findByMetricDateBetweenOrderByMetricDate(range.startDate, range.endDate)
+                .forEach(row -> series.add(new TimeSeriesDataDTO(row.getMetricDate(), row.getRevenue())));
         return series;
     }
 
     public List<ProductPerformanceDTO> getTopProducts(String dateRange, int limit) {
+        return getTopProducts(dateRange, limit, null);
+    }
+
+    /**
+     * Top products by revenue, optionally restricted to one category. Ranking, the limit and the
+     * prior-period revenue used for {@code growthRate} are all computed in a single query; names
+     * are then resolved with one batch lookup.
+     */
+    public List<ProductPerformanceDTO> getTopProducts(String dateRange, int limit, Long categoryId) {
         DateRange range = parseDateRange(dateRange);
-        List<Object[]> results = factOrderRepository.getRevenueByProduct(range.startDate, range.endDate);
-        List<ProductPerformanceDTO> products = new ArrayList<>();
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_TOP_PRODUCTS));
+        List<Object[]> results = factOrderRepository.getTopProducts(range.previous.startDate,
+                range.startDate, range.endDate, categoryId, PageRequest.of(0, boundedLimit));
+        if (results.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> productIds = new ArrayList<>(results.size());
+        results.forEach(row -> productIds.add(((Number) row[0]).longValue()));
+        Map<Long, String> names = new HashMap<>();
+        for (Object[] row : productRepository.findNamesByIdIn(productIds)) {
+            names.put(((Number) row[0]).longValue(), (String) row[1]);
+        }
 
+        List<ProductPerformanceDTO> products = new ArrayList<>(results.size());
         for (Object[] row : results) {
-            Long productId = (Long) row[0];
+            Long productId = ((Number) row[0]).longValue();
             BigDecimal revenue = toBigDecimal(row[1]);
-            Long quantity = row[2] != null ? ((Number) row[2]).longValue() : 0L;
+            BigDecimal previousRevenue = toBigDecimal(row[3]);
 
             ProductPerformanceDTO dto = new ProductPerformanceDTO();
             dto.setProductId(productId);
+            dto.setProductName(names.getOrDefault(productId, "Product " + productId));
             dto.setRevenue(revenue);
-            dto.setQuantity(quantity);
-            dto.setGrowthRate(0.0); // Placeholder until prior-period logic is added
-
-            Optional<Product> product = productRepository.findById(productId);
-            dto.setProductName(product.map(Product::getName).orElse("Product " + productId));
-
+            dto.setQuantity(row[2] != null ? ((Number) row[2]).longValue() : 0L);
+            dto.setGrowthRate(calculateGrowth(revenue, previousRevenue));
             products.add(dto);
-            if (products.size() >= limit) {
-                break;
-            }
         }
         return products;
     }
 
     public CohortAnalysisDTO getCohortAnalysis(String cohortMonth) {
-        List<FactCustomerMetrics> cohortMetrics = customerMetricsRepository.findByCohortMonth(cohortMonth);
-        if (cohortMetrics.isEmpty()) {
+        List<Object[]> summary = customerMetricsRepository.summarizeCohort(cohortMonth, LocalDate.now().minusDays(30));
+        Object[] row = summary.isEmpty() ? null : summary.get(0);
+        long totalCustomers = row != null && row[0] != null ? ((Number) row[0]).longValue() : 0L;
+        if (totalCustomers == 0) {
             CohortAnalysisDTO dto = new CohortAnalysisDTO();
             dto.setCohortMonth(cohortMonth);
             dto.setAverageLifetimeValue(BigDecimal.ZERO);
@@ -117,23 +166,19 @@ public class MetricsService {
             return dto;
         }
 
-        BigDecimal totalLtv = BigDecimal.ZERO;
-        int totalCustomers = cohortMetrics.size();
-        int activeCustomers = 0;
-        Map<Integer, Double> retention = new HashMap<>();
-
-        for (FactCustomerMetrics metrics : cohortMetrics) {
-            totalLtv = totalLtv.add(Optional.ofNullable(metrics.getLifetimeValue()).orElse(BigDecimal.ZERO));
-            if (metrics.getDaysSinceLastOrder() != null && metrics.getDaysSinceLastOrder() <= 30) {
-                activeCustomers++;
-            }
+        int activeCustomers = row[2] != null ? ((Number) row[2]).intValue() : 0;
+        Map<Integer, Double> retention = new LinkedHashMap<>();
+        for (Object[] period : customerMetricsRepository.getRetentionByPeriod(cohortMonth)) {
+            long cohortSize = ((Number) period[2]).longValue();
+            double rate = cohortSize == 0 ? 0.0 : ((Number) period[1]).longValue() * 100.0 / cohortSize;
+            retention.put(((Number) period[0]).intValue(), rate);
         }
 
         CohortAnalysisDTO dto = new CohortAnalysisDTO();
         dto.setCohortMonth(cohortMonth);
-        dto.setAverageLifetimeValue(totalCustomers == 0 ? BigDecimal.ZERO : totalLtv.divide(BigDecimal.valueOf(totalCustomers), 2, RoundingMode.HALF_UP));
+        dto.setAverageLifetimeValue(toBigDecimal(row[1]).setScale(2, RoundingMode.HALF_UP));
         dto.setActiveCustomers(activeCustomers);
-        dto.setRetentionRate(totalCustomers == 0 ? 0.0 : (activeCustomers * 100.0) / totalCustomers);
+        dto.setRetentionRate((activeCustomers * 100.0) / totalCustomers);
         dto.setRetentionByPeriod(retention);
         return dto;
     }
@@ -141,29 +186,31 @@ public class MetricsService {
     private DashboardMetricsDTO getExecutiveMetrics(DateRange range) {
         DashboardMetricsDTO metrics = new DashboardMetricsDTO();
 
-        BigDecimal totalRevenue = Optional.ofNullable(factOrderRepository.getTotalRevenue(range.startDate, range.endDate)).orElse(BigDecimal.ZERO);
-        Long totalUnits = Optional.ofNullable(factOrderRepository.getTotalUnits(range.startDate, range.endDate)).orElse(0L);
-        long totalOrders = orderRepository.countByCreatedDateBetween(range.startDateTime, range.endDateTime);
+        // One rollup read covers both the current and the comparison period
+        DailyRollupSeries series = loadRollups(range);
+        DailyRollupSeries.Totals current = series.sum(range.startDate, range.endDate);
 
-        metrics.setTotalRevenue(totalRevenue);
-        metrics.setTotalOrders(totalOrders);
-        metrics.setAverageOrderValue(totalOrders == 0 ? BigDecimal.ZERO
-                : totalRevenue.divide(BigDecimal.valueOf(totalOrders), 2, RoundingMode.HALF_UP));
+        metrics.setTotalRevenue(current.revenue());
+        metrics.setTotalOrders(current.orders());
+        metrics.setAverageOrderValue(current.averageOrderValue());
         metrics.setTotalCost(BigDecimal.ZERO);
-        metrics.setProfit(totalRevenue);
-
-        Double conversionRate = Optional.ofNullable(factSessionRepository.getConversionRate(range.startDateTime, range.endDateTime)).orElse(0.0);
-        metrics.setConversionRate(conversionRate);
-
-        TrafficHealthDTO traffic = calculateTrafficHealth(range);
-        metrics.setTrafficHealth(traffic);
+        metrics.setProfit(current.revenue());
+        metrics.setConversionRate(current.conversionRate());
+        metrics.setTrafficHealth(calculateTrafficHealth(current));
 
-        PeriodComparisonDTO comparison = calculateComparison(range, totalRevenue, conversionRate, traffic.getTotalSessions(), metrics.getAverageOrderValue());
+        PeriodComparisonDTO comparison = range.previous == null ? new PeriodComparisonDTO()
+                : calculateComparison(current, series.sum(range.previous.startDate, range.previous.endDate));
         metrics.setComparison(comparison);
 
         return metrics;
     }
 
+    private DailyRollupSeries loadRollups(DateRange range) {
+        LocalDate first = range.previous != null ? range.previous.startDate : range.startDate;
+        return DailyRollupSeries.of(first, range.endDate,
+                dailyMetricsRepository.findByMetricDateBetweenOrderByMetricDate(first, range.endDate));
+    }
+
     private DashboardMetricsDTO getOperationalMetrics(DateRange range) {
         // For now reuse executive metrics, but this is the hook for fulfillment SLAs, etc.
         return getExecutiveMetrics(range);
@@ -176,44 +223,23 @@ public class MetricsService {
         return metrics;
     }
 
-    private TrafficHealthDTO calculateTrafficHealth(DateRange range) {
+    private TrafficHealthDTO calculateTrafficHealth(DailyRollupSeries.Totals totals) {
         TrafficHealthDTO traffic = new TrafficHealthDTO();
-        Long sessions = Optional.ofNullable(factSessionRepository.getTotalSessions(range.startDateTime, range.endDateTime)).orElse(0L);
-        traffic.setTotalSessions(sessions);
+        traffic.setTotalSessions(totals.sessions());
         traffic.setProductViews(0L);
         traffic.setCartActions(0L);
-
-        Double conversionRate = Optional.ofNullable(factSessionRepository.getConversionRate(range.startDateTime, range.endDateTime)).orElse(0.0);
-        long convertedSessions = Math.round((conversionRate / 100.0) * sessions);
-        traffic.setConvertedSessions(convertedSessions);
+        traffic.setConvertedSessions(totals.conversions());
         traffic.setBounceRate(0.0);
         return traffic;
     }
 
-    private PeriodComparisonDTO calculateComparison(DateRange currentRange,
-                                                    BigDecimal currentRevenue,
-                                                    Double currentConversionRate,
-                                                    Long currentSessions,
-                                                    BigDecimal currentAov) {
-        if (currentRange.previous == null) {
-            return new PeriodComparisonDTO();
-        }
-        DateRange previous = currentRange.previous;
-
-        BigDecimal previousRevenue = Optional.ofNullable(factOrderRepository.getTotalRevenue(previous.startDate, previous.endDate)).orElse(BigDecimal.ZERO);
-        Double previousConversion = Optional.ofNullable(factSessionRepository.getConversionRate(previous.startDateTime, previous.endDateTime)).orElse(0.0);
-        Long previousSessions = Optional.ofNullable(factSessionRepository.getTotalSessions(previous.startDateTime, previous.endDateTime)).orElse(0L);
-
-        long previousOrders = orderRepository.countByCreatedDateBetween(previous.startDateTime, previous.endDateTime);
-        BigDecimal previousAov = previousOrders == 0 ? BigDecimal.ZERO
-                : Optional.ofNullable(factOrderRepository.getTotalRevenue(previous.startDate, previous.endDate)).orElse(BigDecimal.ZERO)
-                .divide(BigDecimal.valueOf(previousOrders), 2, RoundingMode.HALF_UP);
-
+    private PeriodComparisonDTO calculateComparison(DailyRollupSeries.Totals current,
+                                                    DailyRollupSeries.Totals previous) {
         PeriodComparisonDTO dto = new PeriodComparisonDTO();
-        dto.setRevenueGrowth(calculateGrowth(currentRevenue, previousRevenue));
-        dto.setConversionGrowth(calculateGrowth(currentConversionRate, previousConversion));
-        dto.setSessionGrowth(calculateGrowth(Double.valueOf(currentSessions), Double.valueOf(previousSessions)));
-        dto.setAovGrowth(calculateGrowth(currentAov, previousAov));
+        dto.setRevenueGrowth(calculateGrowth(current.revenue(), previous.revenue()));
+        dto.setConversionGrowth(calculateGrowth(current.conversionRate(), previous.conversionRate()));
+        dto.setSessionGrowth(calculateGrowth((double) current.sessions(), (double) previous.sessions()));
+        dto.setAovGrowth(calculateGrowth(current.averageOrderValue(), previous.averageOrderValue()));
         return dto;
     }
 
@@ -234,7 +260,7 @@ public class MetricsService {
         return ((current - previous) / previous) * 100.0;
     }
 
-    private DateRange parseDateRange(String rangeKey) {
+    private static DateRange parseDateRange(String rangeKey) {
         String key = rangeKey == null ? "last_30_days" : rangeKey.toLowerCase();
         LocalDate today = LocalDate.now();
         LocalDate start;
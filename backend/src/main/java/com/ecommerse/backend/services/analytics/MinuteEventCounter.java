@@ -0,0 +1,89 @@
+package com.ecommerse.backend.services.analytics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live per-minute event counts for the last hour, fed by the ingest path. A ring of 60 slots is
+ * indexed by minute; a slot belonging to an older minute is swapped for a fresh one on first use,
+ * so no background cleanup is needed. Counts are by arrival time and per instance.
+ */
+final class MinuteEventCounter {
+
+    static final String OTHER_TYPE = "other";
+
+    private static final int MINUTES = 60;
+
+    private record Slot(long epochMinute, ConcurrentHashMap<String, LongAdder> counts) {
+    }
+
+    private final AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<>(MINUTES);
+    private final int maxTypesPerMinute;
+
+    MinuteEventCounter(int maxTypesPerMinute) {
+        if (maxTypesPerMinute < 1) {
+            throw new IllegalArgumentException("maxTypesPerMinute must be positive");
+        }
+        this.maxTypesPerMinute = maxTypesPerMinute;
+    }
+
+    void record(String type, long epochMillis) {
+        long minute = TimeUnit.MILLISECONDS.toMinutes(epochMillis);
+        ConcurrentHashMap<String, LongAdder> counts = slotFor(minute).counts();
+        LongAdder counter = counts.get(type);
+        if (counter == null) {
+            // Types come from clients; cap distinct keys so a noisy client can't grow the map
+            String key = counts.size() < maxTypesPerMinute ? type : OTHER_TYPE;
+            counter = counts.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Counts for the clock hour containing {@code now}, by type, indexed by minute of the hour.
+     */
+    Map<String, long[]> currentHour(LocalDateTime now, ZoneId zone) {
+        LocalDateTime hourStart = now.withMinute(0).withSecond(0).withNano(0);
+        long firstMinute = TimeUnit.SECONDS.toMinutes(hourStart.atZone(zone).toEpochSecond());
+        Map<String, long[]> series = new HashMap<>();
+        for (int offset = 0; offset <= now.getMinute(); offset++) {
+            long minute = firstMinute + offset;
+            Slot slot = slots.get(index(minute));
+            if (slot == null || slot.epochMinute() != minute) {
+                continue;
+            }
+            int minuteOfHour = offset;
+            slot.counts().forEach((type, count) ->
+                    series.computeIfAbsent(type, k -> new long[MINUTES])[minuteOfHour] += count.sum());
+        }
+        return series;
+    }
+
+    private Slot slotFor(long minute) {
+        int index = index(minute);
+        while (true) {
+            Slot slot = slots.get(index);
+            if (slot != null && slot.epochMinute() == minute) {
+                return slot;
+            }
+            if (slot != null && slot.epochMinute() > minute) {
+                // Late arrival for a minute that has already been recycled; count it in the newer slot
+                return slot;
+            }
+            Slot fresh = new Slot(minute, new ConcurrentHashMap<>());
+            if (slots.compareAndSet(index, slot, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static int index(long minute) {
+        return (int) Math.floorMod(minute, (long) MINUTES);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ecommerse.backend.services.analytics;
+
+/**
+ * Published by a report worker when a report file has been written. {@code scheduleId} is
+ * {@code null} for ad-hoc reports.
+ */
+public record ReportCompletedEvent(String reportId, Long scheduleId) {
+}
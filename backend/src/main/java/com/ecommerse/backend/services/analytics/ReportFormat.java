@@ -0,0 +1,38 @@
+package com.ecommerse.backend.services.analytics;
+
+import java.util.Locale;
+
+/**
+ * Output formats supported by the report engine.
+ */
+public enum ReportFormat {
+    CSV("text/csv", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx"),
+    JSON("application/json", "json");
+
+    private final String contentType;
+    private final String extension;
+
+    ReportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ReportFormat parse(String format) {
+        String normalized = format == null || format.isBlank() ? "CSV" : format.trim().toUpperCase(Locale.ROOT);
+        return switch (normalized) {
+            case "CSV" -> CSV;
+            case "XLSX", "EXCEL" -> XLSX;
+            case "JSON" -> JSON;
+            default -> throw new IllegalArgumentException("Unsupported report format: " + format);
+        };
+    }
+}
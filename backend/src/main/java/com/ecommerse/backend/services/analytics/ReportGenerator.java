@@ -0,0 +1,134 @@
+package com.ecommerse.backend.services.analytics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs report queries and streams the rows into a {@link ReportWriter}.
+ *
+ * Rows are fetched through a cursor in pages of {@code fetchSize} and written as they arrive, so
+ * neither the database driver nor the writer holds the whole report. Every report, whether run by a
+ * worker or streamed straight to an HTTP response, holds one of {@code analytics.reports.max-concurrent}
+ * slots for its duration; at most that many connections are ever busy with reporting, leaving the rest
+ * of the pool to the storefront.
+ */
+@Component
+public class ReportGenerator {
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore slots;
+    private final long slotWaitMs;
+
+    public ReportGenerator(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${analytics.reports.max-concurrent:2}") int maxConcurrent,
+                           @Value("${analytics.reports.slot-wait-ms:30000}") long slotWaitMs,
+                           @Value("${analytics.reports.query-timeout-seconds:600}") int queryTimeoutSeconds) {
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(1000);
+        this.streamingJdbcTemplate.setQueryTimeout(queryTimeoutSeconds);
+        // A cursor-based fetch needs an open transaction on PostgreSQL; otherwise the driver buffers everything
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.slots = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.slotWaitMs = Math.max(0, slotWaitMs);
+    }
+
+    /**
+     * Write the report to {@code output} and return the number of data rows. Fails with
+     * {@link IllegalStateException} when no reporting slot frees up within the configured wait.
+     */
+    long generate(ReportType type, ReportPeriod period, ReportFormat format, OutputStream output) {
+        acquireSlot();
+        long startedNanos = System.nanoTime();
+        String outcome = "failure";
+        try {
+            Long rows = transactionTemplate.execute(status -> stream(type, period, format, output));
+            outcome = "success";
+            Counter.builder("analytics.reports.rows")
+                    .description("Rows written to generated reports")
+                    .tag("type", type.name())
+                    .register(meterRegistry)
+                    .increment(rows == null ? 0 : rows);
+            return rows == null ? 0 : rows;
+        } finally {
+            slots.release();
+            Timer.builder("analytics.reports.runs")
+                    .description("Duration of report generation")
+                    .tag("type", type.name())
+                    .tag("format", format.name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void acquireSlot() {
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(slotWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a report slot");
+        }
+        if (!acquired) {
+            throw new IllegalStateException("Too many reports are running; try again shortly");
+        }
+    }
+
+    private long stream(ReportType type, ReportPeriod period, ReportFormat format, OutputStream output) {
+        int columnCount = type.columns().size();
+        long[] rows = {0};
+        try (ReportWriter writer = ReportWriter.open(format, type.columns(), output)) {
+            streamingJdbcTemplate.query(type.sql(), ps -> {
+                ps.setDate(1, Date.valueOf(period.start()));
+                ps.setDate(2, Date.valueOf(period.end()));
+            }, rs -> {
+                Object[] values = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = value(rs, i + 1);
+                }
+                try {
+                    writer.writeRow(values);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows[0];
+    }
+
+    private static Object value(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecommerse.backend.services.analytics;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Inclusive date range a report covers. Accepts the dashboard range keys ({@code today},
+ * {@code last_7_days}, {@code last_month}, ...), which include today where they are rolling, the
+ * complete-day keys {@code previous_7_days}, {@code previous_30_days} and {@code previous_90_days},
+ * which end yesterday, or an explicit {@code 2025-01-01..2025-03-31}.
+ */
+record ReportPeriod(LocalDate start, LocalDate end) {
+
+    static final int MAX_DAYS = 3 * 366;
+
+    ReportPeriod {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Report range starts after it ends");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_DAYS) {
+            throw new IllegalArgumentException("Report range cannot exceed " + MAX_DAYS + " days");
+        }
+    }
+
+    static ReportPeriod parse(String range, LocalDate today) {
+        String key = range == null || range.isBlank() ? "last_30_days" : range.trim().toLowerCase(Locale.ROOT);
+        int separator = key.indexOf("..");
+        if (separator > 0) {
+            try {
+                return new ReportPeriod(LocalDate.parse(key.substring(0, separator)),
+                        LocalDate.parse(key.substring(separator + 2)));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid report range: " + range);
+            }
+        }
+        return switch (key) {
+            case "today" -> new ReportPeriod(today, today);
+            case "yesterday" -> new ReportPeriod(today.minusDays(1), today.minusDays(1));
+            case "last_7_days" -> new ReportPeriod(today.minusDays(6), today);
+            case "last_30_days" -> new ReportPeriod(today.minusDays(29), today);
+            case "last_90_days" -> new ReportPeriod(today.minusDays(89), today);
+            case "this_month" -> new ReportPeriod(YearMonth.from(today).atDay(1), today);
+            case "last_month" -> {
+                YearMonth month = YearMonth.from(today).minusMonths(1);
+                yield new ReportPeriod(month.atDay(1), month.atEndOfMonth());
+            }
+            case "previous_7_days" -> new ReportPeriod(today.minusDays(7), today.minusDays(1));
+            case "previous_30_days" -> new ReportPeriod(today.minusDays(30), today.minusDays(1));
+            case "previous_90_days" -> new ReportPeriod(today.minusDays(90), today.minusDays(1));
+            case "last_12_months" -> new ReportPeriod(today.minusMonths(12).plusDays(1), today);
+            default -> throw new IllegalArgumentException("Unsupported report range: " + range);
+        };
+    }
+}
@@ -0,0 +1,220 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.ecommerse.backend.entities.analytics.ReportJob;
+import com.ecommerse.backend.entities.analytics.ReportSchedule;
+import com.ecommerse.backend.repositories.analytics.ReportScheduleRepository;
+import com.ecommerse.backend.services.notifications.EmailService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link ReportSchedule}s.
+ *
+ * Each poll locks up to {@code batch-size} due schedules with {@code FOR UPDATE SKIP LOCKED}, so
+ * concurrent nodes claim disjoint rows, advances {@code nextRunAt} to the next firing after now and
+ * commits; the reports are queued on the report workers afterwards, and a firing whose report the
+ * workers reject (queue full) is put back so the next poll retries it. Missed firings are coalesced
+ * into a single run, and a schedule more than {@code max-lateness-hours} overdue (e.g. after a long
+ * outage) skips straight to its next firing. Completed scheduled reports are emailed from a
+ * separate single-threaded mailer, so neither the scheduler thread nor a report worker waits on
+ * SMTP.
+ */
+@Component
+public class ReportScheduleExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReportScheduleExecutor.class);
+    private static final int MAX_COMPILED = 1000;
+
+    private record DueRun(Long scheduleId, LocalDateTime due, LocalDateTime next, String reportType, String format,
+                          String dateRange) {
+    }
+
+    private final ReportScheduleRepository reportScheduleRepository;
+    private final ReportService reportService;
+    private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, CronExpression> compiled = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor mailer;
+    private final int batchSize;
+    private final Duration maxLateness;
+    private final long maxAttachmentBytes;
+
+    public ReportScheduleExecutor(ReportScheduleRepository reportScheduleRepository,
+                                  ReportService reportService,
+                                  EmailService emailService,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${analytics.reports.schedules.batch-size:20}") int batchSize,
+                                  @Value("${analytics.reports.schedules.max-lateness-hours:24}") long maxLatenessHours,
+                                  @Value("${analytics.reports.schedules.max-attachment-bytes:10485760}") long maxAttachmentBytes) {
+        this.reportScheduleRepository = reportScheduleRepository;
+        this.reportService = reportService;
+        this.emailService = emailService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxLateness = Duration.ofHours(Math.max(1, maxLatenessHours));
+        this.maxAttachmentBytes = Math.max(0, maxAttachmentBytes);
+        this.mailer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100), runnable -> {
+            Thread thread = new Thread(runnable, "report-mailer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(initialDelayString = "${analytics.reports.schedules.poll-ms:60000}",
+            fixedDelayString = "${analytics.reports.schedules.poll-ms:60000}")
+    public void runDueSchedules() {
+        LocalDateTime now = LocalDateTime.now();
+        List<DueRun> runs = transactionTemplate.execute(status -> claimDue(now));
+        if (runs == null) {
+            return;
+        }
+        for (DueRun run : runs) {
+            try {
+                ReportJob job = reportService.queueReport(run.reportType(), run.format(), run.dateRange(), run.scheduleId());
+                LOGGER.info("Queued report {} for schedule {}", job.getId(), run.scheduleId());
+            } catch (IllegalArgumentException e) {
+                // Invalid type, format or range: retrying the firing would fail the same way
+                LOGGER.warn("Could not queue report for schedule {}: {}", run.scheduleId(), e.getMessage());
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not queue report for schedule {}, will retry: {}", run.scheduleId(), e.getMessage());
+                restore(run);
+            }
+        }
+    }
+
+    private void restore(DueRun run) {
+        if (run.next() == null) {
+            return;
+        }
+        try {
+            reportScheduleRepository.restoreNextRun(run.scheduleId(), run.due(), run.next());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not put back firing of report schedule {}: {}", run.scheduleId(), e.getMessage());
+        }
+    }
+
+    private List<DueRun> claimDue(LocalDateTime now) {
+        List<DueRun> runs = new ArrayList<>();
+        for (ReportSchedule schedule : reportScheduleRepository.lockDue(now, PageRequest.of(0, batchSize))) {
+            CronExpression cron;
+            try {
+                cron = compile(schedule.getScheduleExpression());
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Deactivating report schedule {}: {}", schedule.getId(), e.getMessage());
+                schedule.setIsActive(false);
+                continue;
+            }
+            LocalDateTime due = schedule.getNextRunAt();
+            LocalDateTime next = cron.next(now);
+            schedule.setNextRunAt(next);
+            if (next == null) {
+                schedule.setIsActive(false);
+            }
+            if (due.isBefore(now.minus(maxLateness))) {
+                LOGGER.info("Skipping report schedule {} overdue since {}; next run {}", schedule.getId(), due, next);
+                continue;
+            }
+            schedule.setLastRunAt(now);
+            runs.add(new DueRun(schedule.getId(), due, next, schedule.getReportType(), schedule.getFormat(),
+                    dateRange(schedule, cron, now)));
+        }
+        return runs;
+    }
+
+    private CronExpression compile(String expression) {
+        CronExpression cron = compiled.get(expression);
+        if (cron == null) {
+            cron = ScheduleCron.parse(expression);
+            if (compiled.size() >= MAX_COMPILED) {
+                compiled.clear();
+            }
+            compiled.put(expression, cron);
+        }
+        return cron;
+    }
+
+    /**
+     * {@code dateRange} from the schedule's filter JSON, otherwise the period matching its cadence.
+     */
+    private String dateRange(ReportSchedule schedule, CronExpression cron, LocalDateTime now) {
+        if (schedule.getFilterJson() != null && !schedule.getFilterJson().isBlank()) {
+            try {
+                JsonNode range = objectMapper.readTree(schedule.getFilterJson()).get("dateRange");
+                if (range != null && range.isTextual() && !range.asText().isBlank()) {
+                    return range.asText();
+                }
+            } catch (JsonProcessingException e) {
+                LOGGER.warn("Ignoring invalid filter JSON on report schedule {}", schedule.getId());
+            }
+        }
+        return ScheduleCron.defaultRange(cron, now);
+    }
+
+    @EventListener
+    public void onReportCompleted(ReportCompletedEvent event) {
+        if (event.scheduleId() == null) {
+            return;
+        }
+        try {
+            mailer.execute(() -> deliver(event));
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Report mail queue is full; report {} was not emailed", event.reportId());
+        }
+    }
+
+    private void deliver(ReportCompletedEvent event) {
+        try {
+            ReportSchedule schedule = reportScheduleRepository.findById(event.scheduleId()).orElse(null);
+            if (schedule == null) {
+                return;
+            }
+            List<String> recipients = ReportService.parseRecipients(schedule.getRecipients());
+            if (recipients.isEmpty()) {
+                return;
+            }
+            ReportJob job = reportService.findJob(event.reportId());
+            ReportService.ReportFile file = reportService.getReportFile(event.reportId());
+            boolean attach = job.getByteSize() != null && job.getByteSize() <= maxAttachmentBytes;
+            Map<String, Object> variables = Map.of(
+                    "reportType", job.getReportType(),
+                    "dateRange", job.getDateRange(),
+                    "rowCount", job.getRowCount() == null ? 0L : job.getRowCount(),
+                    "downloadPath", "/api/reports/" + job.getId() + "/download");
+            emailService.sendScheduledReport(recipients, schedule.getReportName(), variables,
+                    attach ? file.path() : null, file.filename());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to email report {}: {}", event.reportId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mailer.shutdown();
+    }
+}
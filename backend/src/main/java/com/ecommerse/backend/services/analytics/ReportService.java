@@ -4,21 +4,51 @@ import com.ecommerse.backend.dto.analytics.CreateScheduleRequest;
 import com.ecommerse.backend.dto.analytics.GenerateReportRequest;
 import com.ecommerse.backend.dto.analytics.ReportResponseDTO;
 import com.ecommerse.backend.dto.analytics.UpdateScheduleRequest;
+import com.ecommerse.backend.entities.analytics.ReportJob;
 import com.ecommerse.backend.entities.analytics.ReportSchedule;
+import com.ecommerse.backend.repositories.analytics.ReportJobRepository;
 import com.ecommerse.backend.repositories.analytics.ReportScheduleRepository;
+import jakarta.annotation.PreDestroy;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Handles ad-hoc and scheduled reporting functionality for analytics.
+ *
+ * Generated reports are persisted as {@code report_jobs} rows and run on a small worker pool with
+ * a bounded queue; each worker streams its report to a file under {@code analytics.reports.dir},
+ * which the download endpoint then serves. Queued jobs left over from a restart are picked up again
+ * on startup; jobs stuck RUNNING for longer than {@code analytics.reports.stale-running-minutes}
+ * (their worker died with the process) are failed and their partial output removed, both on startup
+ * and during the nightly purge.
  */
 @Service
 public class ReportService {
@@ -26,27 +56,279 @@ public class ReportService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReportService.class);
 
     private final ReportScheduleRepository reportScheduleRepository;
+    private final ReportJobRepository reportJobRepository;
+    private final ReportGenerator reportGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path reportsDir;
+    private final Duration retention;
+    private final Duration staleRunning;
+    private final ThreadPoolExecutor workers;
 
-    public ReportService(ReportScheduleRepository reportScheduleRepository) {
+    public ReportService(ReportScheduleRepository reportScheduleRepository,
+                         ReportJobRepository reportJobRepository,
+                         ReportGenerator reportGenerator,
+                         ApplicationEventPublisher eventPublisher,
+                         @Value("${analytics.reports.dir:reports}") String reportsDir,
+                         @Value("${analytics.reports.workers:2}") int workerCount,
+                         @Value("${analytics.reports.queue-capacity:50}") int queueCapacity,
+                         @Value("${analytics.reports.retention-hours:168}") long retentionHours,
+                         @Value("${analytics.reports.stale-running-minutes:60}") long staleRunningMinutes) {
         this.reportScheduleRepository = reportScheduleRepository;
+        this.reportJobRepository = reportJobRepository;
+        this.reportGenerator = reportGenerator;
+        this.eventPublisher = eventPublisher;
+        this.reportsDir = Paths.get(reportsDir).toAbsolutePath().normalize();
+        this.retention = Duration.ofHours(Math.max(1, retentionHours));
+        this.staleRunning = Duration.ofMinutes(Math.max(1, staleRunningMinutes));
+        int threads = Math.max(1, workerCount);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
     }
 
+    /**
+     * Queue a report. Type, format and range are validated up front so bad requests fail here
+     * rather than in the worker.
+     */
     public ReportResponseDTO generateReport(GenerateReportRequest request) {
-        // Placeholder implementation until full reporting engine is implemented
-        String reportId = UUID.randomUUID().toString();
-        String message = String.format("Report %s generation started for range %s", request.getType(), request.getDateRange());
+        ReportJob job = queueReport(request.getType(), request.getFormat(), request.getDateRange(), null);
+        String message = String.format("Report %s queued for range %s", job.getReportType(), job.getDateRange());
         LOGGER.info(message);
-        return new ReportResponseDTO(reportId, "QUEUED", null, message);
+        return toResponse(job, message);
     }
 
-    public byte[] exportReport(String reportType, String format, String dateRange) {
-        // Provide simple CSV placeholder content for now
-        String csv = "metric,value\n" +
-                "report_type," + reportType + "\n" +
-                "date_range," + dateRange + "\n" +
-                "generated_at," + LocalDateTime.now() + "\n";
-        LOGGER.info("Exporting {} report in {} format for range {}", reportType, format, dateRange);
-        return csv.getBytes(StandardCharsets.UTF_8);
+    ReportJob queueReport(String reportType, String format, String dateRange, Long scheduleId) {
+        ReportType type = ReportType.parse(reportType);
+        ReportFormat reportFormat = ReportFormat.parse(format);
+        String range = dateRange == null || dateRange.isBlank() ? "last_30_days" : dateRange.trim();
+        ReportPeriod.parse(range, LocalDate.now());
+
+        ReportJob job = new ReportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setReportType(type.name());
+        job.setFormat(reportFormat.name());
+        job.setDateRange(range);
+        job.setScheduleId(scheduleId);
+        job = reportJobRepository.save(job);
+        submit(job.getId());
+        return job;
+    }
+
+    private void submit(String jobId) {
+        try {
+            workers.execute(() -> runJob(jobId));
+        } catch (RejectedExecutionException e) {
+            reportJobRepository.findById(jobId).ifPresent(job -> fail(job, "Report queue is full"));
+            throw new IllegalStateException("Report queue is full; try again later");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeQueuedReports() {
+        failStaleReports();
+        for (ReportJob job : reportJobRepository.findByStatusOrderByCreatedAtAsc(ReportJob.Status.QUEUED)) {
+            try {
+                submit(job.getId());
+            } catch (IllegalStateException e) {
+                LOGGER.warn("Could not resume report {}: {}", job.getId(), e.getMessage());
+            }
+        }
+    }
+
+    void runJob(String jobId) {
+        if (reportJobRepository.claim(jobId, ReportJob.Status.QUEUED, ReportJob.Status.RUNNING, LocalDateTime.now()) == 0) {
+            return;
+        }
+        ReportJob job = reportJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        ReportFormat format = ReportFormat.parse(job.getFormat());
+        Path target = outputPath(job);
+        Path partial = partialPath(job);
+        try {
+            Files.createDirectories(reportsDir);
+            long rows;
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(partial), ReportWriter.BUFFER_SIZE)) {
+                rows = reportGenerator.generate(ReportType.valueOf(job.getReportType()),
+                        ReportPeriod.parse(job.getDateRange(), job.getCreatedAt().toLocalDate()), format, output);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            job.setStatus(ReportJob.Status.COMPLETED);
+            job.setFilePath(target.toString());
+            job.setRowCount(rows);
+            job.setByteSize(Files.size(target));
+            job.setCompletedAt(LocalDateTime.now());
+            reportJobRepository.save(job);
+            LOGGER.info("Report {} ({} {}) completed with {} row(s)", job.getId(), job.getReportType(), job.getFormat(), rows);
+            eventPublisher.publishEvent(new ReportCompletedEvent(job.getId(), job.getScheduleId()));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Report {} failed: {}", job.getId(), e.getMessage());
+            deleteQuietly(partial);
+            fail(job, e.getMessage());
+        }
+    }
+
+    /**
+     * Fail jobs that have been RUNNING for longer than the stale timeout; their worker is gone, so
+     * nothing else will ever finish them.
+     */
+    void failStaleReports() {
+        List<ReportJob> stale = reportJobRepository.findByStatusAndStartedAtBefore(ReportJob.Status.RUNNING,
+                LocalDateTime.now().minus(staleRunning));
+        for (ReportJob job : stale) {
+            LOGGER.warn("Report {} has been running since {}; marking it failed", job.getId(), job.getStartedAt());
+            deleteQuietly(partialPath(job));
+            deleteQuietly(outputPath(job));
+            fail(job, "Report generation was interrupted");
+        }
+    }
+
+    private Path outputPath(ReportJob job) {
+        return reportsDir.resolve(job.getId() + "." + ReportFormat.parse(job.getFormat()).getExtension());
+    }
+
+    private Path partialPath(ReportJob job) {
+        return reportsDir.resolve(job.getId() + "." + ReportFormat.parse(job.getFormat()).getExtension() + ".part");
+    }
+
+    private void fail(ReportJob job, String message) {
+        String error = message == null ? "Report generation failed" : message;
+        job.setStatus(ReportJob.Status.FAILED);
+        job.setErrorMessage(error.length() > 500 ? error.substring(0, 500) : error);
+        job.setCompletedAt(LocalDateTime.now());
+        reportJobRepository.save(job);
+    }
+
+    public ReportResponseDTO getReport(String reportId) {
+        ReportJob job = findJob(reportId);
+        return toResponse(job, describe(job));
+    }
+
+    public List<ReportResponseDTO> getRecentReports() {
+        return reportJobRepository.findTop50ByOrderByCreatedAtDesc().stream()
+                .map(job -> toResponse(job, describe(job)))
+                .toList();
+    }
+
+    /**
+     * A completed report file ready to be served.
+     */
+    public record ReportFile(Path path, String filename, String contentType) {
+    }
+
+    public ReportFile getReportFile(String reportId) {
+        ReportJob job = findJob(reportId);
+        if (job.getStatus() != ReportJob.Status.COMPLETED || job.getFilePath() == null) {
+            throw new IllegalArgumentException("Report is not ready: " + reportId);
+        }
+        Path path = Paths.get(job.getFilePath()).toAbsolutePath().normalize();
+        if (!path.startsWith(reportsDir) || !Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("Report file is no longer available: " + reportId);
+        }
+        ReportFormat format = ReportFormat.parse(job.getFormat());
+        String filename = "report-" + job.getReportType().toLowerCase(Locale.ROOT) + "-" + job.getDateRange().replace("..", "_to_")
+                + "." + format.getExtension();
+        return new ReportFile(path, filename, format.getContentType());
+    }
+
+    /**
+     * Stream a report straight to {@code output}, sharing the concurrency limit with the workers.
+     */
+    public void exportReport(String reportType, String format, String dateRange, OutputStream output) {
+        ReportType type = ReportType.parse(reportType);
+        ReportFormat reportFormat = ReportFormat.parse(format);
+        ReportPeriod period = ReportPeriod.parse(dateRange, LocalDate.now());
+        LOGGER.info("Exporting {} report in {} format for range {}", type, reportFormat, dateRange);
+        reportGenerator.generate(type, period, reportFormat, output);
+    }
+
+    /**
+     * Drop report jobs and files older than the retention period.
+     */
+    @Scheduled(cron = "${analytics.reports.purge-cron:0 15 3 * * *}")
+    public void purgeExpiredReports() {
+        failStaleReports();
+        List<ReportJob> expired = reportJobRepository.findByCreatedAtBefore(LocalDateTime.now().minus(retention));
+        for (ReportJob job : expired) {
+            if (job.getStatus() == ReportJob.Status.RUNNING) {
+                continue;
+            }
+            if (job.getFilePath() != null) {
+                deleteQuietly(Paths.get(job.getFilePath()));
+            }
+            reportJobRepository.delete(job);
+        }
+        if (!expired.isEmpty()) {
+            LOGGER.info("Purged {} expired report(s)", expired.size());
+        }
+    }
+
+    ReportJob findJob(String reportId) {
+        return reportJobRepository.findById(reportId)
+                .orElseThrow(() -> new IllegalArgumentException("Report not found: " + reportId));
+    }
+
+    private static String describe(ReportJob job) {
+        return switch (job.getStatus()) {
+            case QUEUED -> "Report is queued";
+            case RUNNING -> "Report is being generated";
+            case COMPLETED -> String.format("%d row(s), %d byte(s)", job.getRowCount(), job.getByteSize());
+            case FAILED -> job.getErrorMessage();
+        };
+    }
+
+    private static ReportResponseDTO toResponse(ReportJob job, String message) {
+        String downloadUrl = job.getStatus() == ReportJob.Status.COMPLETED
+                ? "/api/reports/" + job.getId() + "/download"
+                : null;
+        return new ReportResponseDTO(job.getId(), job.getStatus().name(), downloadUrl, message);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete report file {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Split a recipient list on commas, semicolons or whitespace.
+     */
+    static List<String> parseRecipients(String recipients) {
+        if (recipients == null) {
+            return List.of();
+        }
+        List<String> parsed = new ArrayList<>();
+        for (String recipient : recipients.split("[,;\\s]+")) {
+            if (recipient.isBlank()) {
+                continue;
+            }
+            if (recipient.indexOf('@') <= 0) {
+                throw new IllegalArgumentException("Invalid report recipient: " + recipient);
+            }
+            parsed.add(recipient);
+        }
+        return parsed;
+    }
+
+    private static void validateSchedule(ReportSchedule schedule) {
+        ReportType.parse(schedule.getReportType());
+        ReportFormat.parse(schedule.getFormat());
+        if (parseRecipients(schedule.getRecipients()).isEmpty()) {
+            throw new IllegalArgumentException("Report schedule needs at least one recipient");
+        }
     }
 
     @Transactional
@@ -58,7 +340,9 @@ public class ReportService {
         schedule.setRecipients(request.getRecipients());
         schedule.setFormat(request.getFormat());
         schedule.setFilterJson(request.getFilterJson());
-        schedule.setNextRunAt(LocalDateTime.now());
+        validateSchedule(schedule);
+        LocalDateTime now = LocalDateTime.now();
+        schedule.setNextRunAt(ScheduleCron.validate(request.getScheduleExpression(), now).next(now));
         LOGGER.info("Creating report schedule '{}'", request.getReportName());
         return reportScheduleRepository.save(schedule);
     }
@@ -81,6 +365,11 @@ public class ReportService {
         if (request.getIsActive() != null) {
             schedule.setIsActive(request.getIsActive());
         }
+        validateSchedule(schedule);
+        if (request.getScheduleExpression() != null || Boolean.TRUE.equals(request.getIsActive())) {
+            LocalDateTime now = LocalDateTime.now();
+            schedule.setNextRunAt(ScheduleCron.validate(schedule.getScheduleExpression(), now).next(now));
+        }
         return reportScheduleRepository.save(schedule);
     }
 
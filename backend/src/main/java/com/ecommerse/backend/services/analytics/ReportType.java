@@ -0,0 +1,86 @@
+package com.ecommerse.backend.services.analytics;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Report definitions. Every query reads the fact or rollup tables maintained by the analytics
+ * jobs, never the transactional tables, and takes the inclusive period start and end dates as its
+ * two parameters.
+ */
+public enum ReportType {
+    DAILY_SALES(List.of("date", "revenue", "units", "orders", "sessions", "conversions"), """
+            SELECT metric_date, revenue, units, order_count, sessions, conversions
+            FROM agg_daily_metrics
+            WHERE metric_date BETWEEN ? AND ?
+            ORDER BY metric_date
+            """),
+    CATEGORY_SALES(List.of("category_id", "category", "revenue", "units", "orders"), """
+            SELECT a.category_id, MAX(c.name), SUM(a.revenue), SUM(a.units), SUM(a.order_count)
+            FROM agg_daily_category_metrics a
+            LEFT JOIN categories c ON c.id = a.category_id
+            WHERE a.metric_date BETWEEN ? AND ?
+            GROUP BY a.category_id
+            ORDER BY SUM(a.revenue) DESC, a.category_id
+            """),
+    PRODUCT_SALES(List.of("product_id", "product", "category_id", "revenue", "units", "orders"), """
+            SELECT f.product_id, MAX(p.name), MAX(f.category_id), SUM(f.revenue), SUM(f.quantity),
+                   COUNT(DISTINCT f.order_id)
+            FROM fact_orders f
+            LEFT JOIN products p ON p.id = f.product_id
+            WHERE f.order_date BETWEEN ? AND ?
+            GROUP BY f.product_id
+            ORDER BY SUM(f.revenue) DESC, f.product_id
+            """),
+    ORDER_LINES(List.of("order_id", "order_date", "customer_id", "product_id", "category_id", "quantity",
+            "revenue", "discount", "cancelled", "returned"), """
+            SELECT order_id, order_date, customer_id, product_id, category_id, quantity, revenue,
+                   discount_amount, is_cancelled, is_returned
+            FROM fact_orders
+            WHERE order_date BETWEEN ? AND ?
+            ORDER BY order_date, order_id, product_id
+            """),
+    CHANNELS(List.of("date", "channel", "sessions", "conversions"), """
+            SELECT metric_date, channel, sessions, conversions
+            FROM agg_daily_channel_metrics
+            WHERE metric_date BETWEEN ? AND ?
+            ORDER BY metric_date, channel
+            """),
+    CUSTOMERS(List.of("customer_id", "cohort_month", "first_order_date", "last_order_date", "total_orders",
+            "lifetime_value", "average_order_value"), """
+            SELECT customer_id, cohort_month, first_order_date, last_order_date, total_orders, lifetime_value,
+                   average_order_value
+            FROM fact_customer_metrics
+            WHERE last_order_date BETWEEN ? AND ?
+            ORDER BY lifetime_value DESC, customer_id
+            """);
+
+    private final List<String> columns;
+    private final String sql;
+
+    ReportType(List<String> columns, String sql) {
+        this.columns = columns;
+        this.sql = sql;
+    }
+
+    List<String> columns() {
+        return columns;
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    public static ReportType parse(String type) {
+        String normalized = type == null ? "" : type.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_');
+        return switch (normalized) {
+            case "DAILY_SALES", "SALES", "REVENUE", "EXECUTIVE" -> DAILY_SALES;
+            case "CATEGORY_SALES", "CATEGORIES" -> CATEGORY_SALES;
+            case "PRODUCT_SALES", "PRODUCTS", "TOP_PRODUCTS" -> PRODUCT_SALES;
+            case "ORDER_LINES", "ORDERS" -> ORDER_LINES;
+            case "CHANNELS", "TRAFFIC", "SESSIONS" -> CHANNELS;
+            case "CUSTOMERS", "CUSTOMER_ANALYTICS", "LTV" -> CUSTOMERS;
+            default -> throw new IllegalArgumentException("Unsupported report type: " + type);
+        };
+    }
+}
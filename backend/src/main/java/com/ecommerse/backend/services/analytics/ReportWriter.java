@@ -0,0 +1,257 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes report rows straight to an output stream, one row at a time, so memory use does not
+ * depend on the size of the report. {@link #close()} finishes the document and flushes, but
+ * leaves the underlying stream open.
+ */
+interface ReportWriter extends AutoCloseable {
+
+    int BUFFER_SIZE = 64 * 1024;
+
+    void writeRow(Object[] values) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    static ReportWriter open(ReportFormat format, List<String> columns, OutputStream output) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(columns, output);
+            case JSON -> new Json(columns, output);
+            case XLSX -> new Xlsx(columns, output);
+        };
+    }
+
+    /**
+     * Plain values only: dates and timestamps are expected as {@code java.time} types, rendered
+     * in ISO format.
+     */
+    private static String text(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+
+    final class Csv implements ReportWriter {
+        private final Writer writer;
+
+        Csv(List<String> columns, OutputStream output) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writeRow(columns.toArray());
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(text(values[i])));
+            }
+            writer.write('\n');
+        }
+
+        static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * A JSON array of objects keyed by column name.
+     */
+    final class Json implements ReportWriter {
+        private static final JsonFactory FACTORY = JsonFactory.builder()
+                .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .build();
+
+        private final List<String> columns;
+        private final JsonGenerator generator;
+
+        Json(List<String> columns, OutputStream output) throws IOException {
+            this.columns = columns;
+            this.generator = FACTORY.createGenerator(output, JsonEncoding.UTF8);
+            generator.writeStartArray();
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                generator.writeFieldName(columns.get(i));
+                Object value = i < values.length ? values[i] : null;
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+                    generator.writeNumber(((Number) value).longValue());
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.doubleValue());
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.writeEndArray();
+            generator.close();
+        }
+    }
+
+    /**
+     * A single-sheet Office Open XML workbook. The sheet XML is streamed into the zip entry with
+     * inline strings, so there is no shared string table to hold in memory.
+     */
+    final class Xlsx implements ReportWriter {
+        static final int MAX_ROWS = 1_048_576;
+
+        private static final String CONTENT_TYPES = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">\
+                <Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>\
+                <Default Extension="xml" ContentType="application/xml"/>\
+                <Override PartName="/xl/workbook.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml"/>\
+                <Override PartName="/xl/worksheets/sheet1.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml"/>\
+                </Types>""";
+        private static final String ROOT_RELS = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+                <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument" Target="xl/workbook.xml"/>\
+                </Relationships>""";
+        private static final String WORKBOOK = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <workbook xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" \
+                xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">\
+                <sheets><sheet name="Report" sheetId="1" r:id="rId1"/></sheets></workbook>""";
+        private static final String WORKBOOK_RELS = """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+                <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet" Target="worksheets/sheet1.xml"/>\
+                </Relationships>""";
+
+        private final ZipOutputStream zip;
+        private final Writer writer;
+        private int rowNumber;
+
+        Xlsx(List<String> columns, OutputStream output) throws IOException {
+            this.zip = new ZipOutputStream(output, StandardCharsets.UTF_8);
+            this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), BUFFER_SIZE);
+            putEntry("[Content_Types].xml", CONTENT_TYPES);
+            putEntry("_rels/.rels", ROOT_RELS);
+            putEntry("xl/workbook.xml", WORKBOOK);
+            putEntry("xl/_rels/workbook.xml.rels", WORKBOOK_RELS);
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+            writeRow(columns.toArray());
+        }
+
+        private void putEntry(String name, String content) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            if (rowNumber >= MAX_ROWS) {
+                throw new IllegalStateException("Report exceeds the XLSX row limit of " + MAX_ROWS + "; export it as CSV");
+            }
+            rowNumber++;
+            writer.write("<row r=\"");
+            writer.write(Integer.toString(rowNumber));
+            writer.write("\">");
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                String reference = columnName(i) + rowNumber;
+                if (value instanceof Number number) {
+                    writer.write("<c r=\"" + reference + "\"><v>");
+                    writer.write(number instanceof BigDecimal decimal ? decimal.toPlainString() : number.toString());
+                    writer.write("</v></c>");
+                } else if (value instanceof Boolean bool) {
+                    writer.write("<c r=\"" + reference + "\" t=\"b\"><v>" + (bool ? 1 : 0) + "</v></c>");
+                } else {
+                    writer.write("<c r=\"" + reference + "\" t=\"inlineStr\"><is><t>");
+                    writer.write(escapeXml(value.toString()));
+                    writer.write("</t></is></c>");
+                }
+            }
+            writer.write("</row>");
+        }
+
+        static String columnName(int index) {
+            StringBuilder name = new StringBuilder();
+            for (int n = index + 1; n > 0; n = (n - 1) / 26) {
+                name.insert(0, (char) ('A' + (n - 1) % 26));
+            }
+            return name.toString();
+        }
+
+        /**
+         * Escapes markup and drops characters XML 1.0 cannot represent.
+         */
+        static String escapeXml(String value) {
+            StringBuilder escaped = new StringBuilder(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '&' -> escaped.append("&amp;");
+                    case '<' -> escaped.append("&lt;");
+                    case '>' -> escaped.append("&gt;");
+                    case '"' -> escaped.append("&quot;");
+                    default -> {
+                        if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                            escaped.append(c);
+                        }
+                    }
+                }
+            }
+            return escaped.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.write("</sheetData></worksheet>");
+            writer.flush();
+            zip.closeEntry();
+            zip.finish();
+            zip.flush();
+        }
+    }
+}
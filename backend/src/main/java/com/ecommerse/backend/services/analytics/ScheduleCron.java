@@ -0,0 +1,67 @@
+package com.ecommerse.backend.services.analytics;
+
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Cron handling for report schedules. Accepts Spring's six-field expressions, classic five-field
+ * expressions (seconds default to 0) and macros such as {@code @daily}.
+ */
+final class ScheduleCron {
+
+    /** Reports are heavy; schedules may not fire more often than this. */
+    static final Duration MIN_INTERVAL = Duration.ofMinutes(15);
+
+    private ScheduleCron() {
+    }
+
+    static CronExpression parse(String expression) {
+        String trimmed = expression == null ? "" : expression.trim();
+        String normalized = !trimmed.startsWith("@") && trimmed.split("\\s+").length == 5 ? "0 " + trimmed : trimmed;
+        try {
+            return CronExpression.parse(normalized);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid schedule expression: " + expression);
+        }
+    }
+
+    /**
+     * Parse and check that the expression fires at all and no more often than {@link #MIN_INTERVAL}.
+     */
+    static CronExpression validate(String expression, LocalDateTime from) {
+        CronExpression cron = parse(expression);
+        LocalDateTime first = cron.next(from);
+        if (first == null) {
+            throw new IllegalArgumentException("Schedule expression never fires: " + expression);
+        }
+        LocalDateTime second = cron.next(first);
+        if (second != null && Duration.between(first, second).compareTo(MIN_INTERVAL) < 0) {
+            throw new IllegalArgumentException("Report schedules cannot run more often than every "
+                    + MIN_INTERVAL.toMinutes() + " minutes");
+        }
+        return cron;
+    }
+
+    /**
+     * Range covered by a scheduled report when its filters do not name one: the last complete
+     * period matching the schedule's cadence, always ending yesterday so a report never covers
+     * part of a day.
+     */
+    static String defaultRange(CronExpression cron, LocalDateTime from) {
+        LocalDateTime first = cron.next(from);
+        LocalDateTime second = first == null ? null : cron.next(first);
+        if (second == null) {
+            return "previous_30_days";
+        }
+        Duration interval = Duration.between(first, second);
+        if (interval.compareTo(Duration.ofDays(1)) <= 0) {
+            return "yesterday";
+        }
+        if (interval.compareTo(Duration.ofDays(7)) <= 0) {
+            return "previous_7_days";
+        }
+        return interval.compareTo(Duration.ofDays(31)) <= 0 ? "last_month" : "previous_90_days";
+    }
+}
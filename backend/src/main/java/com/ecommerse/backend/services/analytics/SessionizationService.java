@@ -0,0 +1,311 @@
+package com.ecommerse.backend.services.analytics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds {@code fact_sessions} from {@code analytics_event}.
+ *
+ * Events are consumed in windows of server-side insertion time ({@code created_at}) behind a
+ * watermark that trails the clock by {@code watermark-lag-seconds}, so events still buffered by
+ * {@link AnalyticsEventWriter} are picked up by a later run. Each window is streamed from the
+ * database ordered by session and time through a {@link Sessionizer} and written back in JDBC
+ * batches in the same transaction as the checkpoint, so a window is applied exactly once: the
+ * checkpoint is read again under the job lock and any part of the window another instance has
+ * already applied is skipped. Events
+ * that continue a stored session extend it rather than opening a new one.
+ *
+ * Sessions are then marked converted when the signed-in customer placed an order during the
+ * session (or within the inactivity gap after it), and the daily rollups of every touched day are
+ * rebuilt. PostgreSQL only, like the order ETL.
+ */
+@Service
+public class SessionizationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionizationService.class);
+    private static final String JOB_NAME = "fact_sessions.sessionize";
+
+    private static final String STREAM_EVENTS = """
+            WITH batch AS (
+                SELECT LEFT(e.session_id, 100) AS session_id, e.occurred_at, e.type, e.user_id
+                FROM analytics_event e
+                WHERE e.created_at >= ? AND e.created_at < ? AND e.session_id IS NOT NULL
+            ), latest AS (
+                SELECT DISTINCT ON (s.session_id) s.id, s.session_id, s.customer_id, s.start_time, s.end_time,
+                       s.page_views, s.product_views, s.cart_actions, s.converted
+                FROM fact_sessions s
+                WHERE s.session_id IN (SELECT session_id FROM batch)
+                ORDER BY s.session_id, s.start_time DESC
+            )
+            SELECT b.session_id, b.occurred_at, b.type, b.user_id,
+                   l.id, l.customer_id, l.start_time, l.end_time,
+                   l.page_views, l.product_views, l.cart_actions, l.converted
+            FROM batch b
+            LEFT JOIN latest l ON l.session_id = b.session_id
+            ORDER BY b.session_id, b.occurred_at
+            """;
+
+    private static final String INSERT_SESSION = """
+            INSERT INTO fact_sessions (session_id, customer_id, start_time, end_time, page_views, product_views,
+                                       cart_actions, converted, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, NOW(), NOW())
+            """;
+
+    private static final String UPDATE_SESSION = """
+            UPDATE fact_sessions
+            SET customer_id = ?, start_time = ?, end_time = ?, page_views = ?, product_views = ?,
+                cart_actions = ?, converted = ?, updated_at = NOW()
+            WHERE id = ?
+            """;
+
+    private static final String MARK_CONVERSIONS = """
+            UPDATE fact_sessions s
+            SET converted = TRUE, order_id = o.id, updated_at = NOW()
+            FROM orders o
+            WHERE s.end_time >= ?
+              AND s.customer_id IS NOT NULL
+              AND s.order_id IS NULL
+              AND o.user_id = s.customer_id
+              AND o.created_date BETWEEN s.start_time AND s.end_time + (? * INTERVAL '1 second')
+              AND o.status NOT IN ('PENDING', 'CHECKOUT_CREATED', 'FAILED', 'EXPIRED', 'CANCELLED')
+            RETURNING CAST(s.start_time AS DATE)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AnalyticsETLService analyticsETLService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final Duration inactivityGap;
+    private final long watermarkLagSeconds;
+    private final long chunkMinutes;
+    private final int writeBatchSize;
+    private final Duration conversionLookback;
+
+    public SessionizationService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 AnalyticsETLService analyticsETLService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${analytics.sessions.inactivity-gap-minutes:30}") long inactivityGapMinutes,
+                                 @Value("${analytics.sessions.watermark-lag-seconds:120}") long watermarkLagSeconds,
+                                 @Value("${analytics.sessions.chunk-minutes:60}") long chunkMinutes,
+                                 @Value("${analytics.sessions.write-batch-size:500}") int writeBatchSize,
+                                 @Value("${analytics.sessions.conversion-lookback-hours:24}") long conversionLookbackHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(1000);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.analyticsETLService = analyticsETLService;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.inactivityGap = Duration.ofMinutes(Math.max(1, inactivityGapMinutes));
+        this.watermarkLagSeconds = Math.max(0, watermarkLagSeconds);
+        this.chunkMinutes = Math.max(1, chunkMinutes);
+        this.writeBatchSize = Math.max(1, writeBatchSize);
+        this.conversionLookback = Duration.ofHours(Math.max(1, conversionLookbackHours));
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.sessions.run-ms:60000}")
+    public void runScheduled() {
+        runIncremental();
+    }
+
+    /**
+     * Sessionize every event inserted since the last checkpoint, up to the watermark. Returns the
+     * number of sessions written.
+     */
+    public long runIncremental() {
+        if (!analyticsETLService.isPostgreSql()) {
+            LOGGER.debug("Skipping sessionization because database is not PostgreSQL");
+            return 0;
+        }
+        long startedNanos = System.nanoTime();
+        LocalDateTime watermark = LocalDateTime.now().minusSeconds(watermarkLagSeconds);
+        LocalDateTime lower = analyticsETLService.readCheckpoint(JOB_NAME);
+        if (lower == null) {
+            lower = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM analytics_event", LocalDateTime.class);
+            if (lower == null) {
+                return 0;
+            }
+        }
+
+        Set<LocalDate> touchedDays = new HashSet<>();
+        long written = 0;
+        String outcome = "success";
+        try {
+            LocalDateTime chunkStart = lower;
+            while (chunkStart.isBefore(watermark)) {
+                LocalDateTime chunkEnd = chunkStart.plusMinutes(chunkMinutes);
+                if (chunkEnd.isAfter(watermark)) {
+                    chunkEnd = watermark;
+                }
+                Long chunkWritten = sessionizeChunk(chunkStart, chunkEnd, touchedDays);
+                if (chunkWritten == null) {
+                    LOGGER.info("Sessionization is running elsewhere; stopping at {}", chunkStart);
+                    outcome = "skipped";
+                    break;
+                }
+                written += chunkWritten;
+                chunkStart = chunkEnd;
+            }
+
+            LocalDateTime conversionsSince = LocalDateTime.now().minus(conversionLookback);
+            touchedDays.addAll(jdbcTemplate.queryForList(MARK_CONVERSIONS, LocalDate.class,
+                    Timestamp.valueOf(conversionsSince), inactivityGap.toSeconds()));
+        } catch (RuntimeException e) {
+            outcome = "error";
+            LOGGER.error("Sessionization failed after {} session(s): {}", written, e.getMessage());
+            throw e;
+        } finally {
+            // Committed windows stay committed, so refresh their days even if a later step failed
+            refreshRollups(touchedDays);
+            record(outcome, startedNanos, written);
+        }
+        if (written > 0) {
+            LOGGER.info("Sessionization wrote {} session(s) across {} day(s)", written, touchedDays.size());
+        }
+        return written;
+    }
+
+    /**
+     * Stream one window of events through the sessionizer and advance the checkpoint in the same
+     * transaction. Returns {@code null} when another instance holds the job lock.
+     */
+    private Long sessionizeChunk(LocalDateTime chunkFrom, LocalDateTime to, Set<LocalDate> touchedDays) {
+        return transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(hashtext(?))",
+                    Boolean.class, JOB_NAME);
+            if (!Boolean.TRUE.equals(locked)) {
+                return null;
+            }
+            // Another instance may have committed part of this window since our checkpoint was read;
+            // replaying it would add its events onto the stored sessions a second time
+            LocalDateTime committed = analyticsETLService.readCheckpoint(JOB_NAME);
+            if (committed != null && !committed.isBefore(to)) {
+                return 0L;
+            }
+            LocalDateTime from = committed != null && committed.isAfter(chunkFrom) ? committed : chunkFrom;
+            List<Sessionizer.Session> pending = new ArrayList<>(writeBatchSize);
+            long[] written = {0};
+            Sessionizer sessionizer = new Sessionizer(inactivityGap, session -> {
+                pending.add(session);
+                touchedDays.add(session.getStartTime().toLocalDate());
+                if (pending.size() >= writeBatchSize) {
+                    written[0] += write(pending);
+                    pending.clear();
+                }
+            });
+
+            streamingJdbcTemplate.query(STREAM_EVENTS, ps -> {
+                ps.setTimestamp(1, Timestamp.valueOf(from));
+                ps.setTimestamp(2, Timestamp.valueOf(to));
+            }, rs -> {
+                sessionizer.accept(rs.getString(1), rs.getTimestamp(2).toLocalDateTime(), rs.getString(3),
+                        rs.getObject(4, Long.class), storedSession(rs));
+            });
+            sessionizer.finish();
+            written[0] += write(pending);
+
+            analyticsETLService.writeCheckpoint(JOB_NAME, to);
+            return written[0];
+        });
+    }
+
+    private void refreshRollups(Set<LocalDate> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        try {
+            analyticsETLService.rebuildDailyRollups(days);
+            eventPublisher.publishEvent(new AnalyticsDataRefreshedEvent(JOB_NAME, LocalDateTime.now(), Set.copyOf(days)));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to rebuild daily rollups for {} session day(s): {}", days.size(), e.getMessage());
+        }
+    }
+
+    private static Sessionizer.Session storedSession(ResultSet rs) throws SQLException {
+        long id = rs.getLong(5);
+        if (rs.wasNull()) {
+            return null;
+        }
+        return new Sessionizer.Session(id, rs.getString(1), rs.getObject(6, Long.class),
+                rs.getTimestamp(7).toLocalDateTime(),
+                rs.getTimestamp(8) != null ? rs.getTimestamp(8).toLocalDateTime() : rs.getTimestamp(7).toLocalDateTime(),
+                rs.getInt(9), rs.getInt(10), rs.getInt(11), rs.getBoolean(12));
+    }
+
+    private int write(List<Sessionizer.Session> sessions) {
+        if (sessions.isEmpty()) {
+            return 0;
+        }
+        List<Sessionizer.Session> inserts = new ArrayList<>();
+        List<Sessionizer.Session> updates = new ArrayList<>();
+        for (Sessionizer.Session session : sessions) {
+            (session.getId() == null ? inserts : updates).add(session);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SESSION, inserts, inserts.size(), (ps, s) -> {
+                ps.setString(1, s.getSessionId());
+                ps.setObject(2, s.getCustomerId(), Types.BIGINT);
+                ps.setTimestamp(3, Timestamp.valueOf(s.getStartTime()));
+                ps.setTimestamp(4, Timestamp.valueOf(s.getEndTime()));
+                ps.setInt(5, s.getPageViews());
+                ps.setInt(6, s.getProductViews());
+                ps.setInt(7, s.getCartActions());
+                ps.setBoolean(8, s.isConverted());
+            });
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SESSION, updates, updates.size(), (ps, s) -> {
+                ps.setObject(1, s.getCustomerId(), Types.BIGINT);
+                ps.setTimestamp(2, Timestamp.valueOf(s.getStartTime()));
+                ps.setTimestamp(3, Timestamp.valueOf(s.getEndTime()));
+                ps.setInt(4, s.getPageViews());
+                ps.setInt(5, s.getProductViews());
+                ps.setInt(6, s.getCartActions());
+                ps.setBoolean(7, s.isConverted());
+                ps.setLong(8, s.getId());
+            });
+        }
+        return sessions.size();
+    }
+
+    private void record(String outcome, long startedNanos, long sessions) {
+        Timer.builder("analytics.etl.runs")
+                .description("Duration of analytics ETL runs")
+                .tag("job", JOB_NAME)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("analytics.etl.rows")
+                .description("Fact rows upserted by analytics ETL")
+                .tag("job", JOB_NAME)
+                .register(meterRegistry)
+                .increment(sessions);
+    }
+}
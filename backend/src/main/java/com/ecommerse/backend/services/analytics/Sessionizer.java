@@ -0,0 +1,173 @@
+package com.ecommerse.backend.services.analytics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streaming sessionizer. Events must arrive ordered by session id and then by time; only the
+ * session currently being built is kept in memory, so memory use does not depend on the number of
+ * events or sessions. A gap longer than the inactivity timeout starts a new session. For each
+ * session id the caller can pass the latest stored session so new events extend it instead of
+ * creating a duplicate. Changed sessions are handed to the sink.
+ */
+final class Sessionizer {
+
+    private static final Set<String> CONVERSION_TYPES = Set.of("purchase", "order_completed", "checkout_completed");
+
+    /**
+     * Mutable session aggregate. {@code id} is {@code null} for sessions not stored yet.
+     */
+    static final class Session {
+        private final Long id;
+        private final String sessionId;
+        private Long customerId;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+        private int pageViews;
+        private int productViews;
+        private int cartActions;
+        private boolean converted;
+        private boolean dirty;
+
+        Session(Long id, String sessionId, Long customerId, LocalDateTime startTime, LocalDateTime endTime,
+                int pageViews, int productViews, int cartActions, boolean converted) {
+            this.id = id;
+            this.sessionId = sessionId;
+            this.customerId = customerId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.pageViews = pageViews;
+            this.productViews = productViews;
+            this.cartActions = cartActions;
+            this.converted = converted;
+        }
+
+        Long getId() {
+            return id;
+        }
+
+        String getSessionId() {
+            return sessionId;
+        }
+
+        Long getCustomerId() {
+            return customerId;
+        }
+
+        LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        LocalDateTime getEndTime() {
+            return endTime;
+        }
+
+        int getPageViews() {
+            return pageViews;
+        }
+
+        int getProductViews() {
+            return productViews;
+        }
+
+        int getCartActions() {
+            return cartActions;
+        }
+
+        boolean isConverted() {
+            return converted;
+        }
+
+        private boolean covers(LocalDateTime time, Duration gap) {
+            return !time.isBefore(startTime.minus(gap)) && !time.isAfter(endTime.plus(gap));
+        }
+
+        private void add(LocalDateTime occurredAt, String type, Long userId) {
+            if (occurredAt.isBefore(startTime)) {
+                startTime = occurredAt;
+            }
+            if (occurredAt.isAfter(endTime)) {
+                endTime = occurredAt;
+            }
+            if (customerId == null) {
+                customerId = userId;
+            }
+            String normalized = type == null ? "" : type.toLowerCase(Locale.ROOT);
+            if (CONVERSION_TYPES.contains(normalized)) {
+                converted = true;
+            } else if (normalized.contains("cart")) {
+                cartActions++;
+            } else if (normalized.contains("product")) {
+                productViews++;
+            } else {
+                pageViews++;
+            }
+            dirty = true;
+        }
+    }
+
+    private final Duration inactivityGap;
+    private final Consumer<Session> sink;
+
+    private String currentSessionId;
+    private Session current;
+    private Session stored;
+    private boolean storedInUse;
+
+    Sessionizer(Duration inactivityGap, Consumer<Session> sink) {
+        if (inactivityGap == null || inactivityGap.isNegative() || inactivityGap.isZero()) {
+            throw new IllegalArgumentException("Inactivity gap must be positive");
+        }
+        this.inactivityGap = inactivityGap;
+        this.sink = sink;
+    }
+
+    /**
+     * Feed the next event. {@code latestStored} is only consulted on the first event of each
+     * session id.
+     */
+    void accept(String sessionId, LocalDateTime occurredAt, String type, Long userId, Session latestStored) {
+        if (sessionId == null || occurredAt == null) {
+            return;
+        }
+        if (!Objects.equals(sessionId, currentSessionId)) {
+            emit(current);
+            currentSessionId = sessionId;
+            current = null;
+            stored = latestStored;
+            storedInUse = false;
+        }
+
+        if (current == null || !current.covers(occurredAt, inactivityGap)) {
+            emit(current);
+            if (stored != null && !storedInUse && stored.covers(occurredAt, inactivityGap)) {
+                current = stored;
+                storedInUse = true;
+            } else {
+                current = new Session(null, sessionId, null, occurredAt, occurredAt, 0, 0, 0, false);
+            }
+        }
+        current.add(occurredAt, type, userId);
+    }
+
+    /**
+     * Emit the session still being built.
+     */
+    void finish() {
+        emit(current);
+        current = null;
+        currentSessionId = null;
+        stored = null;
+    }
+
+    private void emit(Session session) {
+        if (session != null && session.dirty) {
+            session.dirty = false;
+            sink.accept(session);
+        }
+    }
+}
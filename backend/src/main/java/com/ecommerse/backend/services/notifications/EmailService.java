@@ -13,15 +13,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -195,12 +198,44 @@ public class EmailService {
     }
 
     /**
-     * Send email using JavaMailSender or log to console in dev mode
+     * Send a generated report to the schedule's recipients
+     *
+     * @param recipients Recipient addresses
+     * @param reportName Schedule name, used as the subject
+     * @param variables Template variables (reportType, dateRange, rowCount, downloadPath)
+     * @param attachment Report file to attach, or null to send the download path only
+     * @param attachmentName File name shown to the recipient
      */
+    public void sendScheduledReport(List<String> recipients, String reportName, Map<String, Object> variables,
+                                    Path attachment, String attachmentName) {
+        try {
+            Context context = new Context();
+            context.setVariables(variables);
+            context.setVariable("reportName", reportName);
+            context.setVariable("generatedAt", formatDate(LocalDateTime.now()));
+            context.setVariable("attached", attachment != null);
+
+            String htmlContent = templateEngine.process("scheduled-report", context);
+            String subject = "Scheduled Report - " + reportName;
+            for (String recipient : recipients) {
+                sendEmail(recipient, subject, htmlContent, attachment, attachmentName);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to send scheduled report '{}': {}", reportName, e.getMessage(), e);
+        }
+    }
+
     private void sendEmail(String to, String subject, String htmlContent) {
+        sendEmail(to, subject, htmlContent, null, null);
+    }
+
+    /**
+     * Send email using JavaMailSender or log to console in dev mode
+     */
+    private void sendEmail(String to, String subject, String htmlContent, Path attachment, String attachmentName) {
         if (!isEmailConfigured()) {
             // Dev fallback: log email content to console
-            logger.info("[EMAIL] To: {}, Subject: {}, Body: {}", to, subject, htmlContent);
+            logger.info("[EMAIL] To: {}, Subject: {}, Attachment: {}, Body: {}", to, subject, attachmentName, htmlContent);
             return;
         }
 
@@ -218,6 +253,9 @@ public class EmailService {
             helper.setTo(to);
             helper.setSubject(subject);
             helper.setText(htmlContent, true); // true = HTML
+            if (attachment != null) {
+                helper.addAttachment(attachmentName, new FileSystemResource(attachment));
+            }
 
             mailSender.send(message);
             logger.info("Email sent successfully to {}: {}", to, subject);
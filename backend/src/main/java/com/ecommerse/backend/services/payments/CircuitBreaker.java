@@ -0,0 +1,86 @@
+package com.ecommerse.backend.services.payments;
+
+import java.time.Clock;
+
+/**
+ * Minimal count-based circuit breaker. After {@code failureThreshold} consecutive failures the
+ * circuit opens and rejects calls for {@code openMillis}; the next call after that is let through
+ * as a half-open probe, and its outcome closes or re-opens the circuit.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int failureThreshold, long openMillis, Clock clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = Math.max(0, openMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * @return true if the caller may proceed; false if the circuit is open
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.millis() - openedAt < openMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+
+    synchronized void onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.millis();
+        }
+    }
+
+    /**
+     * The call got a response that says nothing bad about the remote side (e.g. a 4xx); a
+     * half-open probe treats that as recovery.
+     */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            onSuccess();
+        }
+    }
+
+    /**
+     * The call was abandoned before reaching the remote side; free the half-open probe slot.
+     */
+    synchronized void onAbandoned() {
+        probeInFlight = false;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
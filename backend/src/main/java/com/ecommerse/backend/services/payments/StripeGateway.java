@@ -0,0 +1,182 @@
+package com.ecommerse.backend.services.payments;
+
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.checkout.SessionCreateParams;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single entry point for outbound Stripe API calls.
+ *
+ * Holds one shared {@link StripeClient} (instead of mutating the global {@code Stripe.apiKey} per
+ * request) with tuned connect/read timeouts, and wraps every call in a bulkhead (bounded number of
+ * concurrent Stripe calls, short wait for a slot), a circuit breaker that fails fast while Stripe
+ * is unhealthy, and a per-operation latency timer ({@code stripe.api.calls}).
+ *
+ * Setting {@code stripe.gateway.api-base} points the client at a local stub server such as
+ * stripe-mock ({@code http://localhost:12111}) so load tests run without the network.
+ */
+@Component
+public class StripeGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeGateway.class);
+    private static final String METRIC_NAME = "stripe.api.calls";
+
+    @FunctionalInterface
+    interface StripeCall<T> {
+        T call(StripeClient client) throws StripeException;
+    }
+
+    private final StripeClient client;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore bulkhead;
+    private final long bulkheadWaitMs;
+    private final CircuitBreaker circuitBreaker;
+
+    public StripeGateway(
+            MeterRegistry meterRegistry,
+            @Value("${stripe.secret.key:${STRIPE_SECRET_KEY:}}") String secretKey,
+            @Value("${stripe.gateway.api-base:}") String apiBase,
+            @Value("${stripe.gateway.connect-timeout-ms:3000}") int connectTimeoutMs,
+            @Value("${stripe.gateway.read-timeout-ms:10000}") int readTimeoutMs,
+            @Value("${stripe.gateway.max-network-retries:1}") int maxNetworkRetries,
+            @Value("${stripe.gateway.max-concurrent-calls:16}") int maxConcurrentCalls,
+            @Value("${stripe.gateway.bulkhead-wait-ms:250}") long bulkheadWaitMs,
+            @Value("${stripe.gateway.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${stripe.gateway.circuit.open-ms:30000}") long circuitOpenMs) {
+        this.meterRegistry = meterRegistry;
+        this.bulkhead = new Semaphore(Math.max(1, maxConcurrentCalls));
+        this.bulkheadWaitMs = Math.max(0, bulkheadWaitMs);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, circuitOpenMs, Clock.systemUTC());
+
+        String resolvedKey = resolveSecretKey(secretKey);
+        if (resolvedKey == null) {
+            logger.warn("Stripe secret key is not configured; Stripe calls are disabled");
+            this.client = null;
+            return;
+        }
+
+        StripeClient.StripeClientBuilder builder = StripeClient.builder()
+                .setApiKey(resolvedKey)
+                .setConnectTimeout(connectTimeoutMs)
+                .setReadTimeout(readTimeoutMs)
+                .setMaxNetworkRetries(maxNetworkRetries);
+        if (apiBase != null && !apiBase.isBlank()) {
+            builder.setApiBase(apiBase.trim());
+            logger.info("Stripe gateway using stub API base {}", apiBase.trim());
+        }
+        this.client = builder.build();
+    }
+
+    private static String resolveSecretKey(String configured) {
+        String value = configured != null && !configured.isBlank() ? configured : System.getenv("STRIPE_SECRET_KEY");
+        return value != null && !value.isBlank() ? value.trim() : null;
+    }
+
+    public boolean isConfigured() {
+        return client != null;
+    }
+
+    public Session createCheckoutSession(SessionCreateParams params, String idempotencyKey) throws StripeException {
+        RequestOptions options = RequestOptions.builder().setIdempotencyKey(idempotencyKey).build();
+        return execute("checkout.session.create", c -> c.checkout().sessions().create(params, options));
+    }
+
+    public Session retrieveCheckoutSession(String sessionId) throws StripeException {
+        return execute("checkout.session.retrieve", c -> c.checkout().sessions().retrieve(sessionId));
+    }
+
+    public PaymentIntent createPaymentIntent(PaymentIntentCreateParams params, String idempotencyKey)
+            throws StripeException {
+        RequestOptions options = RequestOptions.builder().setIdempotencyKey(idempotencyKey).build();
+        return execute("payment_intent.create", c -> c.paymentIntents().create(params, options));
+    }
+
+    public PaymentIntent retrievePaymentIntent(String paymentIntentId) throws StripeException {
+        return execute("payment_intent.retrieve", c -> c.paymentIntents().retrieve(paymentIntentId));
+    }
+
+    <T> T execute(String operation, StripeCall<T> call) throws StripeException {
+        if (client == null) {
+            throw new IllegalStateException(
+                    "Stripe secret key not configured. Set STRIPE_SECRET_KEY env var or stripe.secret.key property");
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            record(operation, "circuit_open", 0);
+            throw new StripeGatewayUnavailableException("Stripe temporarily unavailable (circuit open)");
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            circuitBreaker.onAbandoned();
+            record(operation, "rejected", 0);
+            throw new StripeGatewayUnavailableException("Too many concurrent Stripe calls");
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = call.call(client);
+            circuitBreaker.onSuccess();
+            record(operation, "success", System.nanoTime() - start);
+            return result;
+        } catch (StripeException e) {
+            if (isStripeHealthFailure(e)) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onIgnored();
+            }
+            record(operation, "error", System.nanoTime() - start);
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            record(operation, "error", System.nanoTime() - start);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Only connectivity problems, rate limiting and Stripe-side 5xx errors count against the
+     * circuit; invalid requests and card errors are the caller's problem.
+     */
+    private boolean isStripeHealthFailure(StripeException e) {
+        if (e instanceof ApiConnectionException || e instanceof RateLimitException) {
+            return true;
+        }
+        Integer status = e.getStatusCode();
+        return e instanceof ApiException || (status != null && status >= 500);
+    }
+
+    private void record(String operation, String outcome, long nanos) {
+        Timer.builder(METRIC_NAME)
+                .description("Latency of outbound Stripe API calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerse.backend.services.payments;
+
+import com.stripe.exception.ApiConnectionException;
+
+/**
+ * Raised by {@link StripeGateway} when a call is rejected locally (circuit open or bulkhead full)
+ * without reaching Stripe. Extends {@link ApiConnectionException} so existing Stripe error
+ * handling treats it as a transient connectivity failure.
+ */
+public class StripeGatewayUnavailableException extends ApiConnectionException {
+
+    public StripeGatewayUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,13 +1,10 @@
 package com.ecommerse.backend.services.payments;
 
-import com.ecommerse.backend.dto.OrderDTO;
-import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
 
 import com.stripe.param.PaymentIntentCreateParams;
 
-import com.stripe.net.RequestOptions;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
@@ -24,8 +21,7 @@ public class StripeService {
 
     private static final Logger logger = LoggerFactory.getLogger(StripeService.class);
 
-    @Value("${STRIPE_SECRET_KEY:sk_test_placeholder}")
-    private String stripeSecretKey;
+    private final StripeGateway stripeGateway;
 
     @Value("${frontend.base.url:http://localhost:3000}")
     private String frontendBaseUrl;
@@ -36,13 +32,16 @@ public class StripeService {
     @Value("${checkout.cancel.path:/checkout/cancel}")
     private String cancelPath;
 
+    public StripeService(StripeGateway stripeGateway) {
+        this.stripeGateway = stripeGateway;
+    }
+
     @PostConstruct
     public void init() {
-        if (stripeSecretKey == null || stripeSecretKey.isEmpty() || stripeSecretKey.equals("sk_test_placeholder")) {
+        if (!stripeGateway.isConfigured()) {
             logger.warn(
                     "Stripe secret key is not configured. Payment processing will fail. Please set STRIPE_SECRET_KEY environment variable.");
         } else {
-            Stripe.apiKey = stripeSecretKey;
             logger.info("Stripe service initialized");
         }
         logger.info("Stripe Checkout URLs: success={}, cancel={}", getSuccessUrlTemplate(), getCancelUrl());
@@ -73,7 +72,7 @@ public class StripeService {
     public String createPaymentIntent(Long amount, String currency, Long orderId, String customerEmail)
             throws StripeException {
 
-        if (stripeSecretKey == null || stripeSecretKey.isEmpty() || stripeSecretKey.equals("sk_test_placeholder")) {
+        if (!stripeGateway.isConfigured()) {
             throw new IllegalArgumentException(
                     "Stripe API key is not configured. Please set STRIPE_SECRET_KEY environment variable.");
         }
@@ -93,11 +92,7 @@ public class StripeService {
                 .setConfirmationMethod(PaymentIntentCreateParams.ConfirmationMethod.AUTOMATIC)
                 .build();
 
-        RequestOptions requestOptions = RequestOptions.builder()
-                .setIdempotencyKey("pi_create_" + orderId)
-                .build();
-
-        PaymentIntent paymentIntent = PaymentIntent.create(params, requestOptions);
+        PaymentIntent paymentIntent = stripeGateway.createPaymentIntent(params, "pi_create_" + orderId);
         logger.debug("Payment intent created: {}", paymentIntent.getId());
         return paymentIntent.getClientSecret();
     }
@@ -129,7 +124,7 @@ public class StripeService {
      * @throws StripeException if Stripe API call fails
      */
     public PaymentIntent retrievePaymentIntent(String paymentIntentId) throws StripeException {
-        return PaymentIntent.retrieve(paymentIntentId);
+        return stripeGateway.retrievePaymentIntent(paymentIntentId);
     }
 
     /**
@@ -0,0 +1,131 @@
+package com.ecommerse.backend.services.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves image bytes still held in {@code uploaded_images.image_data} to the primary blob store
+ * when that store keeps them elsewhere, a small batch per run so the site stays online.
+ *
+ * Each image is copied first and its row switched afterwards with a conditional update, so the
+ * image stays readable from one store or the other throughout, and instances running the migrator
+ * at the same time only repeat an idempotent copy. PostgreSQL reuses the space of cleared
+ * {@code image_data} values after (auto)vacuum.
+ */
+@Service
+public class BlobMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobMigrator.class);
+
+    private static final String SELECT_BATCH = """
+            SELECT file_name FROM uploaded_images
+            WHERE storage = 'database' AND image_data IS NOT NULL AND file_name > ?
+            ORDER BY file_name
+            LIMIT ?
+            """;
+    private static final String MARK_MOVED = """
+            UPDATE uploaded_images SET storage = ?, image_data = NULL
+            WHERE file_name = ? AND storage = 'database'
+            """;
+
+    private final BlobStores blobStores;
+    private final DatabaseBlobStore databaseStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter moved;
+    private final Counter failed;
+    private final int batchSize;
+    private final boolean enabled;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /** Last file name tried, so images that keep failing do not block the rest. */
+    private volatile String cursor = "";
+
+    public BlobMigrator(BlobStores blobStores,
+                        JdbcTemplate jdbcTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.images.blob-migration.enabled:true}") boolean enabled,
+                        @Value("${app.images.blob-migration.batch-size:50}") int batchSize) {
+        this.blobStores = blobStores;
+        this.databaseStore = new DatabaseBlobStore(jdbcTemplate);
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.moved = Counter.builder("images.blob_migration.images")
+                .description("Images moved out of uploaded_images.image_data")
+                .tag("outcome", "moved")
+                .register(meterRegistry);
+        this.failed = Counter.builder("images.blob_migration.images")
+                .description("Images moved out of uploaded_images.image_data")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.images.blob-migration.delay-ms:30000}",
+            initialDelayString = "${app.images.blob-migration.initial-delay-ms:120000}")
+    public void runScheduled() {
+        if (enabled) {
+            migrateBatch();
+        }
+    }
+
+    /**
+     * Move up to one batch of images. Returns the number moved; 0 once nothing is left or when
+     * the primary store is the database.
+     */
+    public int migrateBatch() {
+        BlobStore target = blobStores.primary();
+        if (target.storesInRow() || !running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            List<String> fileNames = jdbcTemplate.queryForList(SELECT_BATCH, String.class, cursor, batchSize);
+            // Start over after the last batch, retrying the failures
+            cursor = fileNames.isEmpty() ? "" : fileNames.get(fileNames.size() - 1);
+            int count = 0;
+            for (String fileName : fileNames) {
+                if (migrate(target, fileName)) {
+                    count++;
+                }
+            }
+            if (count > 0) {
+                logger.info("Moved {} image(s) to the {} blob store", count, target.name());
+            }
+            return count;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean migrate(BlobStore target, String fileName) {
+        try {
+            Optional<Boolean> copied = databaseStore.read(fileName, input -> {
+                target.put(fileName, input);
+                return Boolean.TRUE;
+            });
+            if (copied.isEmpty()) {
+                // Deleted or moved by another instance meanwhile
+                return false;
+            }
+            if (jdbcTemplate.update(MARK_MOVED, target.name(), fileName) == 0) {
+                return false;
+            }
+            moved.increment();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            logger.warn("Failed to move image {} to the {} blob store: {}", fileName, target.name(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerse.backend.services.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Storage for image bytes, keyed by the {@code uploaded_images} file name. Metadata always stays
+ * in {@code uploaded_images}; a store only holds the bytes.
+ */
+public interface BlobStore {
+
+    /**
+     * Consumes the stream of a stored blob; the stream is only valid during the call.
+     */
+    @FunctionalInterface
+    interface BlobReader<T> {
+        T read(InputStream input) throws IOException;
+    }
+
+    /**
+     * Name recorded in {@code uploaded_images.storage} for blobs written here.
+     */
+    String name();
+
+    /**
+     * Whether blobs live in the {@code image_data} column of their own row, so they are written
+     * with the row and removed with it.
+     */
+    default boolean storesInRow() {
+        return false;
+    }
+
+    /**
+     * Store a blob, replacing any previous content under the key. The caller closes the stream.
+     */
+    void put(String key, InputStream data) throws IOException;
+
+    /**
+     * Read a blob, or return empty if this store does not have it.
+     */
+    <T> Optional<T> read(String key, BlobReader<T> reader) throws IOException;
+
+    /**
+     * The blob as a local file, for stores that keep one; lets callers serve it without copying.
+     */
+    default Optional<Path> localFile(String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * Remove a blob; nothing happens if it does not exist.
+     */
+    void delete(String key) throws IOException;
+}
@@ -0,0 +1,95 @@
+package com.ecommerse.backend.services.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The configured {@link BlobStore}s. New images are written to the primary store
+ * ({@code app.images.blob-store}); reads try the primary store first and then the others, so rows
+ * written before a switch, or moved by {@link BlobMigrator} on another instance, stay readable.
+ *
+ * The database store is always available because existing rows keep their data in
+ * {@code image_data} until they are migrated.
+ */
+@Component
+public class BlobStores {
+
+    private final BlobStore primary;
+    private final List<BlobStore> readOrder;
+
+    public BlobStores(JdbcTemplate jdbcTemplate,
+                      @Value("${app.images.blob-store:database}") String primaryName,
+                      @Value("${app.images.blob-store-dir:${app.upload.dir:uploads}/blobs}") String directory) {
+        BlobStore database = new DatabaseBlobStore(jdbcTemplate);
+        String name = primaryName == null ? "" : primaryName.trim().toLowerCase(Locale.ROOT);
+        switch (name) {
+            case DatabaseBlobStore.NAME -> {
+                this.primary = database;
+                this.readOrder = List.of(database);
+            }
+            case FileSystemBlobStore.NAME -> {
+                this.primary = new FileSystemBlobStore(Paths.get(directory).toAbsolutePath().normalize());
+                this.readOrder = List.of(primary, database);
+            }
+            default -> throw new IllegalArgumentException("Unsupported blob store: " + primaryName);
+        }
+    }
+
+    /**
+     * Where new images are written.
+     */
+    public BlobStore primary() {
+        return primary;
+    }
+
+    /**
+     * Read a blob from the first store that has it.
+     */
+    public <T> Optional<T> read(String key, BlobStore.BlobReader<T> reader) throws IOException {
+        for (BlobStore store : readOrder) {
+            Optional<T> result = store.read(key, reader);
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<byte[]> readBytes(String key) throws IOException {
+        return read(key, InputStream::readAllBytes);
+    }
+
+    /**
+     * The blob as a local file, if a store keeps it as one.
+     */
+    public Optional<Path> localFile(String key) {
+        for (BlobStore store : readOrder) {
+            Optional<Path> file = store.localFile(key);
+            if (file.isPresent()) {
+                return file;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Remove a blob from the stores that keep it outside its {@code uploaded_images} row; data in
+     * the row goes with the row.
+     */
+    public void delete(String key) throws IOException {
+        for (BlobStore store : readOrder) {
+            if (!store.storesInRow()) {
+                store.delete(key);
+            }
+        }
+    }
+}
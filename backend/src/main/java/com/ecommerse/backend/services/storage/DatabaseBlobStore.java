@@ -0,0 +1,74 @@
+package com.ecommerse.backend.services.storage;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+/**
+ * Blobs kept in {@code uploaded_images.image_data}, as all images were before other stores
+ * existed. Reads stream the column over JDBC.
+ */
+final class DatabaseBlobStore implements BlobStore {
+
+    static final String NAME = "database";
+
+    private static final String SELECT_DATA = "SELECT image_data FROM uploaded_images WHERE file_name = ?";
+    private static final String UPDATE_DATA =
+            "UPDATE uploaded_images SET image_data = ?, storage = ? WHERE file_name = ?";
+    private static final String CLEAR_DATA =
+            "UPDATE uploaded_images SET image_data = NULL WHERE file_name = ? AND storage = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    DatabaseBlobStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean storesInRow() {
+        return true;
+    }
+
+    /**
+     * Writes into an existing row; new rows carry their data when they are inserted.
+     */
+    @Override
+    public void put(String key, InputStream data) throws IOException {
+        byte[] bytes = data.readAllBytes();
+        if (jdbcTemplate.update(UPDATE_DATA, bytes, NAME, key) == 0) {
+            throw new IOException("No uploaded image row for " + key);
+        }
+    }
+
+    @Override
+    public <T> Optional<T> read(String key, BlobReader<T> reader) throws IOException {
+        try {
+            return Optional.ofNullable(jdbcTemplate.query(SELECT_DATA, rs -> {
+                if (!rs.next()) {
+                    return null;
+                }
+                try (InputStream input = rs.getBinaryStream(1)) {
+                    // NULL once the blob has moved to another store
+                    return input == null ? null : reader.read(input);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, key));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        jdbcTemplate.update(CLEAR_DATA, key, NAME);
+    }
+}
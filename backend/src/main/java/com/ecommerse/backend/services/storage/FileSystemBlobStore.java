@@ -0,0 +1,85 @@
+package com.ecommerse.backend.services.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Blobs as files under a root directory, sharded two levels deep by the SHA-256 of the key
+ * ({@code ab/cd/<key>}) so no directory grows past a few thousand entries. Writes go to a
+ * temporary file renamed into place, so readers never see partial content.
+ */
+final class FileSystemBlobStore implements BlobStore {
+
+    static final String NAME = "filesystem";
+
+    private final Path root;
+
+    FileSystemBlobStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void put(String key, InputStream data) throws IOException {
+        Path target = pathOf(key);
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(key + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.copy(data, temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public <T> Optional<T> read(String key, BlobReader<T> reader) throws IOException {
+        Optional<Path> file = localFile(key);
+        if (file.isEmpty()) {
+            return Optional.empty();
+        }
+        try (InputStream input = Files.newInputStream(file.get())) {
+            return Optional.ofNullable(reader.read(input));
+        }
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        Path file = pathOf(key);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(pathOf(key));
+    }
+
+    Path pathOf(String key) {
+        if (key == null || key.isBlank() || key.contains("/") || key.contains("\\") || key.contains("..")) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        String shard = HexFormat.of().formatHex(sha256(key.getBytes(StandardCharsets.UTF_8)), 0, 2);
+        return root.resolve(shard.substring(0, 2)).resolve(shard.substring(2, 4)).resolve(key);
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+-- Indexes backing the composable owner order search (status, date range, order number prefix,
+-- customer email prefix, total range). Idempotent for PostgreSQL.
+
+-- Unfiltered and date-range listings ordered newest first.
+CREATE INDEX IF NOT EXISTS idx_orders_created_date_id ON orders (created_date DESC, id DESC);
+
+-- Status + date range listings (idx_orders_status_created_date covers the ascending scan).
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_date_desc ON orders (status, created_date DESC, id DESC);
+
+-- Customer order history and customer email filter joins.
+CREATE INDEX IF NOT EXISTS idx_orders_user_created_date ON orders (user_id, created_date DESC);
+
+-- Left-anchored LIKE on order number regardless of database collation.
+CREATE INDEX IF NOT EXISTS idx_orders_order_number_pattern ON orders (order_number varchar_pattern_ops);
+
+-- Total range filters combined with status.
+CREATE INDEX IF NOT EXISTS idx_orders_status_total_amount ON orders (status, total_amount);
+
+-- Case-insensitive customer email prefix lookups.
+CREATE INDEX IF NOT EXISTS idx_users_username_lower_pattern ON users (LOWER(username) varchar_pattern_ops);
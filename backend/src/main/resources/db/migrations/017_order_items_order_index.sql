@@ -0,0 +1,3 @@
+-- Index order_items by parent order so per-order item lookups and aggregated item counts
+-- (CSV export, order history) use an index instead of scanning order_items.
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
@@ -0,0 +1,36 @@
+-- Set-based analytics ETL: fact_orders is upserted on (order_id, product_id),
+-- incremental runs scan orders by last change, and progress is checkpointed.
+
+DELETE FROM fact_orders f
+USING fact_orders d
+WHERE f.order_id = d.order_id
+  AND f.product_id = d.product_id
+  AND f.id < d.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_fact_orders_order_product
+    ON fact_orders (order_id, product_id);
+
+CREATE INDEX IF NOT EXISTS idx_orders_updated_date
+    ON orders (updated_date);
+
+CREATE TABLE IF NOT EXISTS analytics_etl_checkpoints (
+    job_name VARCHAR(128) PRIMARY KEY,
+    high_water_mark TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS analytics_etl_runs (
+    id BIGSERIAL PRIMARY KEY,
+    job_name VARCHAR(128) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP,
+    window_start TIMESTAMP,
+    window_end TIMESTAMP,
+    chunks INTEGER NOT NULL DEFAULT 0,
+    rows_upserted BIGINT NOT NULL DEFAULT 0,
+    status VARCHAR(16) NOT NULL,
+    error_message VARCHAR(1000)
+);
+
+CREATE INDEX IF NOT EXISTS idx_analytics_etl_runs_job_started
+    ON analytics_etl_runs (job_name, started_at DESC);
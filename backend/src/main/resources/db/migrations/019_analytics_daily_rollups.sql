@@ -0,0 +1,35 @@
+-- Daily rollups of fact_orders / fact_sessions maintained by the analytics ETL.
+-- Dashboards sum at most a few months of these rows instead of aggregating fact tables.
+
+CREATE TABLE IF NOT EXISTS agg_daily_metrics (
+    metric_date DATE PRIMARY KEY,
+    revenue NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    sessions BIGINT NOT NULL DEFAULT 0,
+    conversions BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS agg_daily_category_metrics (
+    metric_date DATE NOT NULL,
+    category_id BIGINT NOT NULL,
+    revenue NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (metric_date, category_id)
+);
+
+CREATE TABLE IF NOT EXISTS agg_daily_channel_metrics (
+    metric_date DATE NOT NULL,
+    channel VARCHAR(50) NOT NULL,
+    sessions BIGINT NOT NULL DEFAULT 0,
+    conversions BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (metric_date, channel)
+);
+
+CREATE INDEX IF NOT EXISTS idx_fact_orders_updated_at ON fact_orders (updated_at);
+CREATE INDEX IF NOT EXISTS idx_fact_orders_order_date ON fact_orders (order_date);
+CREATE INDEX IF NOT EXISTS idx_fact_sessions_start_time ON fact_sessions (start_time);
@@ -0,0 +1,3 @@
+-- Event histograms group by date_trunc(occurred_at) and type over a time window; a composite
+-- index lets PostgreSQL answer them with an index(-only) range scan instead of reading the heap.
+CREATE INDEX IF NOT EXISTS idx_analytics_event_occurred_type ON analytics_event (occurred_at, type);
@@ -0,0 +1,9 @@
+-- Sessionizer (SessionizationService): events are read by insertion time, and the latest stored
+-- session per session id is looked up for every batch.
+CREATE INDEX IF NOT EXISTS idx_analytics_event_created_at ON analytics_event (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_fact_sessions_session_start
+    ON fact_sessions (session_id, start_time DESC);
+
+-- Conversion matching scans recently ended sessions of signed-in customers.
+CREATE INDEX IF NOT EXISTS idx_fact_sessions_end_time ON fact_sessions (end_time);
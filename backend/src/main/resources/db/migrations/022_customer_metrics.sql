@@ -0,0 +1,24 @@
+-- fact_customer_metrics holds one current snapshot per customer, upserted by CustomerMetricsService.
+DELETE FROM fact_customer_metrics f
+USING fact_customer_metrics d
+WHERE f.customer_id = d.customer_id
+  AND f.id < d.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_fact_customer_metrics_customer
+    ON fact_customer_metrics (customer_id);
+
+CREATE INDEX IF NOT EXISTS idx_fact_customer_metrics_cohort
+    ON fact_customer_metrics (cohort_month);
+
+-- Share of a cohort (customers by month of first order) that ordered again N months later.
+CREATE TABLE IF NOT EXISTS agg_cohort_retention (
+    cohort_month VARCHAR(7) NOT NULL,
+    period INTEGER NOT NULL,
+    active_customers BIGINT NOT NULL DEFAULT 0,
+    cohort_size BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (cohort_month, period)
+);
+
+CREATE INDEX IF NOT EXISTS idx_orders_user_created
+    ON orders (user_id, created_date);
@@ -0,0 +1,22 @@
+-- Report generation jobs; output files live under analytics.reports.dir.
+
+CREATE TABLE IF NOT EXISTS report_jobs (
+    id VARCHAR(36) PRIMARY KEY,
+    report_type VARCHAR(50) NOT NULL,
+    format VARCHAR(20) NOT NULL,
+    date_range VARCHAR(50),
+    status VARCHAR(20) NOT NULL,
+    schedule_id BIGINT,
+    file_path VARCHAR(500),
+    row_count BIGINT,
+    byte_size BIGINT,
+    error_message VARCHAR(500),
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_report_jobs_status ON report_jobs (status, created_at);
+CREATE INDEX IF NOT EXISTS idx_report_jobs_created_at ON report_jobs (created_at);
+CREATE INDEX IF NOT EXISTS idx_fact_customer_metrics_last_order ON fact_customer_metrics (last_order_date);
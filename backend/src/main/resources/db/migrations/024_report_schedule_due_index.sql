@@ -0,0 +1,4 @@
+-- The report schedule executor polls active schedules by next_run_at and locks them with SKIP LOCKED.
+
+CREATE INDEX IF NOT EXISTS idx_report_schedules_due ON report_schedules (next_run_at) WHERE is_active;
+CREATE INDEX IF NOT EXISTS idx_report_jobs_schedule ON report_jobs (schedule_id);
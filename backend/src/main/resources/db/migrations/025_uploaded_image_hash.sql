@@ -0,0 +1,5 @@
+-- Content hash (hex SHA-256) and size of stored images, used as the image ETag.
+-- Existing rows are hashed in the background by ImageBackfillService.
+
+ALTER TABLE uploaded_images ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+ALTER TABLE uploaded_images ADD COLUMN IF NOT EXISTS size_bytes BIGINT;
@@ -0,0 +1,14 @@
+-- Resized copies of uploaded images, keyed by the content hash of the original.
+-- Variant bytes are stored in uploaded_images under file_name.
+
+CREATE TABLE IF NOT EXISTS image_variants (
+    file_name VARCHAR(255) PRIMARY KEY,
+    source_hash VARCHAR(64) NOT NULL,
+    source_width INTEGER NOT NULL,
+    width INTEGER NOT NULL,
+    height INTEGER NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    created_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_image_variants_source_hash ON image_variants (source_hash);
@@ -0,0 +1,7 @@
+-- Image bytes can live outside uploaded_images (see BlobStores). storage names the blob store
+-- holding them; image_data is NULL for rows whose bytes were moved out by BlobMigrator.
+
+ALTER TABLE uploaded_images ALTER COLUMN image_data DROP NOT NULL;
+ALTER TABLE uploaded_images ADD COLUMN IF NOT EXISTS storage VARCHAR(20) NOT NULL DEFAULT 'database';
+
+CREATE INDEX IF NOT EXISTS idx_uploaded_images_in_database ON uploaded_images (file_name) WHERE storage = 'database';
@@ -0,0 +1,7 @@
+-- With ddl-auto=update Hibernate adds uploaded_images.storage as a nullable column before 027 runs,
+-- so ADD COLUMN IF NOT EXISTS was skipped and existing rows kept storage = NULL. Those rows hold
+-- their bytes in image_data; record that and enforce the default 027 intended.
+
+UPDATE uploaded_images SET storage = 'database' WHERE storage IS NULL;
+ALTER TABLE uploaded_images ALTER COLUMN storage SET DEFAULT 'database';
+ALTER TABLE uploaded_images ALTER COLUMN storage SET NOT NULL;
@@ -0,0 +1,37 @@
+-- One-time seed of the daily rollups (019) from the fact tables. The ETL only rebuilds days it
+-- touches, so days that existed before the rollups would otherwise stay empty in reports.
+-- Days that already have rollup rows are left alone.
+
+INSERT INTO agg_daily_metrics (metric_date, revenue, units, order_count, sessions, conversions, updated_at)
+SELECT COALESCE(o.metric_date, s.metric_date),
+       COALESCE(o.revenue, 0),
+       COALESCE(o.units, 0),
+       COALESCE(o.order_count, 0),
+       COALESCE(s.sessions, 0),
+       COALESCE(s.conversions, 0),
+       NOW()
+FROM (SELECT order_date AS metric_date, SUM(revenue) AS revenue, SUM(quantity) AS units,
+             COUNT(DISTINCT order_id) AS order_count
+      FROM fact_orders
+      GROUP BY order_date) o
+FULL OUTER JOIN (SELECT CAST(start_time AS DATE) AS metric_date, COUNT(*) AS sessions,
+                        COUNT(*) FILTER (WHERE converted) AS conversions
+                 FROM fact_sessions
+                 GROUP BY CAST(start_time AS DATE)) s
+  ON s.metric_date = o.metric_date
+ON CONFLICT (metric_date) DO NOTHING;
+
+INSERT INTO agg_daily_category_metrics (metric_date, category_id, revenue, units, order_count, updated_at)
+SELECT f.order_date, f.category_id, SUM(f.revenue), SUM(f.quantity), COUNT(DISTINCT f.order_id), NOW()
+FROM fact_orders f
+WHERE NOT EXISTS (SELECT 1 FROM agg_daily_category_metrics a WHERE a.metric_date = f.order_date)
+GROUP BY f.order_date, f.category_id
+ON CONFLICT (metric_date, category_id) DO NOTHING;
+
+INSERT INTO agg_daily_channel_metrics (metric_date, channel, sessions, conversions, updated_at)
+SELECT CAST(s.start_time AS DATE), COALESCE(s.source_channel, 'direct'), COUNT(*),
+       COUNT(*) FILTER (WHERE s.converted), NOW()
+FROM fact_sessions s
+WHERE NOT EXISTS (SELECT 1 FROM agg_daily_channel_metrics a WHERE a.metric_date = CAST(s.start_time AS DATE))
+GROUP BY CAST(s.start_time AS DATE), COALESCE(s.source_channel, 'direct')
+ON CONFLICT (metric_date, channel) DO NOTHING;
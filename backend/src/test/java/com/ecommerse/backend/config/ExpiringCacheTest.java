@@ -0,0 +1,130 @@
+package com.ecommerse.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpiringCacheTest {
+
+    @Test
+    void entriesExpireAfterTheirTimeToLive() throws Exception {
+        ExpiringCache cache = new ExpiringCache("test", 20, 10);
+        cache.put("key", "value");
+        assertEquals("value", cache.get("key", String.class));
+
+        Thread.sleep(40);
+
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void oldestEntriesAreEvictedBeyondMaxEntries() throws Exception {
+        ExpiringCache cache = new ExpiringCache("test", 60_000, 2);
+        cache.put("a", 1);
+        Thread.sleep(2);
+        cache.put("b", 2);
+        Thread.sleep(2);
+        cache.put("c", 3);
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void recentlyReadEntriesSurviveEviction() {
+        ExpiringCache cache = new ExpiringCache("test", 60_000, 2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void loaderCanUseTheCacheForOtherKeys() {
+        ExpiringCache cache = new ExpiringCache("test", 60_000, 10);
+
+        assertEquals("inner!", cache.get("outer", () -> cache.get("inner", () -> "inner") + "!"));
+
+        assertEquals("inner", cache.get("inner", String.class));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void loaderRunsOnceAndItsValueIsCached() {
+        ExpiringCache cache = new ExpiringCache("test", 60_000, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("loaded", cache.get("key", () -> {
+            calls.incrementAndGet();
+            return "loaded";
+        }));
+        assertEquals("loaded", cache.get("key", () -> "other" + calls.incrementAndGet()));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    void concurrentLoadsOfOneKeyShareTheLoaderCall() throws Exception {
+        ExpiringCache cache = new ExpiringCache("test", 60_000, 10);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.get("key", () -> {
+                calls.incrementAndGet();
+                loading.countDown();
+                Thread.sleep(100);
+                return "value";
+            }));
+            loading.await(5, TimeUnit.SECONDS);
+            Future<String> second = executor.submit(() -> cache.get("key", () -> {
+                calls.incrementAndGet();
+                return "second";
+            }));
+
+            assertEquals("value", first.get(5, TimeUnit.SECONDS));
+            assertEquals("value", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failingLoaderStoresNothing() {
+        ExpiringCache cache = new ExpiringCache("test", 60_000, 10);
+
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("key", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void rejectsNonPositiveBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpiringCache("test", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ExpiringCache("test", 1000, 0));
+    }
+}
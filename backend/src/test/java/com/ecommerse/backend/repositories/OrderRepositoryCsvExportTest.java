@@ -0,0 +1,110 @@
+package com.ecommerse.backend.repositories;
+
+import com.ecommerse.backend.dto.OrderCsvRow;
+import com.ecommerse.backend.entities.Category;
+import com.ecommerse.backend.entities.Order;
+import com.ecommerse.backend.entities.OrderItem;
+import com.ecommerse.backend.entities.OrderStatus;
+import com.ecommerse.backend.entities.Product;
+import com.ecommerse.backend.entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class OrderRepositoryCsvExportTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User buyer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("Parts");
+        category.setSlug("parts");
+        category.setActive(true);
+        category.setSortOrder(1);
+        entityManager.persist(category);
+
+        product = new Product();
+        product.setName("Part");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStockQuantity(100);
+        product.setSku("PART-CSV");
+        product.setActive(true);
+        product.setCategory(category);
+        entityManager.persist(product);
+
+        buyer = entityManager.persist(new User("buyer@example.com", "Buyer", "One", "secret123", User.Role.CUSTOMER));
+    }
+
+    @Test
+    void streamCsvRows_ShouldReturnMatchingOrdersOldestFirstWithItemCounts() {
+        order("ORD-CSV-3", OrderStatus.PAID, DAY.plusDays(2), 1);
+        order("ORD-CSV-1", OrderStatus.PAID, DAY, 3);
+        order("ORD-CSV-X", OrderStatus.CANCELLED, DAY.plusDays(1), 1);
+        order("ORD-CSV-2", OrderStatus.PAID, DAY.plusDays(1), 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<OrderCsvRow> rows;
+        try (Stream<OrderCsvRow> stream = orderRepository.streamCsvRows(OrderStatus.PAID, null, null)) {
+            rows = stream.toList();
+        }
+
+        assertThat(rows).extracting(OrderCsvRow::orderNumber).containsExactly("ORD-CSV-1", "ORD-CSV-2", "ORD-CSV-3");
+        assertThat(rows).extracting(OrderCsvRow::itemCount).containsExactly(3L, 0L, 1L);
+        assertThat(rows).extracting(OrderCsvRow::customer).containsOnly("buyer@example.com");
+    }
+
+    @Test
+    void streamCsvRows_ShouldApplyDateRangeInclusively() {
+        order("ORD-CSV-1", OrderStatus.PAID, DAY, 0);
+        order("ORD-CSV-2", OrderStatus.SHIPPED, DAY.plusDays(1), 0);
+        order("ORD-CSV-3", OrderStatus.PAID, DAY.plusDays(2), 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<OrderCsvRow> rows;
+        try (Stream<OrderCsvRow> stream = orderRepository.streamCsvRows(null, DAY, DAY.plusDays(1))) {
+            rows = stream.toList();
+        }
+
+        assertThat(rows).extracting(OrderCsvRow::orderNumber).containsExactly("ORD-CSV-1", "ORD-CSV-2");
+    }
+
+    private void order(String orderNumber, OrderStatus status, LocalDateTime createdDate, int items) {
+        Order order = new Order(buyer, "123 Main", "City", "00000", "Country");
+        order.setOrderNumber(orderNumber);
+        order.setStatus(status);
+        order.setTotalAmount(new BigDecimal("10.00"));
+        for (int i = 0; i < items; i++) {
+            order.addOrderItem(new OrderItem(order, product, 1));
+        }
+        entityManager.persist(order);
+        entityManager.flush();
+        // created_date is set by @CreationTimestamp and not updatable through the entity
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE orders SET created_date = ?1 WHERE id = ?2")
+                .setParameter(1, createdDate)
+                .setParameter(2, order.getId())
+                .executeUpdate();
+    }
+}
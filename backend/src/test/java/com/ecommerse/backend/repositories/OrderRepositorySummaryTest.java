@@ -0,0 +1,61 @@
+package com.ecommerse.backend.repositories;
+
+import com.ecommerse.backend.entities.Order;
+import com.ecommerse.backend.entities.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class OrderRepositorySummaryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private int orderCount;
+
+    @Test
+    void summarizeByUserIds_ShouldGroupOrdersPerUserAndOmitUsersWithoutOrders() {
+        User buyer = customer("buyer@example.com");
+        User freeBuyer = customer("free@example.com");
+        User browser = customer("browser@example.com");
+        order(buyer, "10.00");
+        order(buyer, "5.50");
+        order(freeBuyer, "0.00");
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<Long, Object[]> rows = new HashMap<>();
+        for (Object[] row : orderRepository.summarizeByUserIds(List.of(buyer.getId(), freeBuyer.getId(), browser.getId()))) {
+            rows.put((Long) row[0], row);
+        }
+
+        assertThat(rows).containsOnlyKeys(buyer.getId(), freeBuyer.getId());
+        assertThat(((Number) rows.get(buyer.getId())[1]).longValue()).isEqualTo(2L);
+        assertThat(new BigDecimal(rows.get(buyer.getId())[2].toString())).isEqualByComparingTo("15.50");
+        assertThat(rows.get(buyer.getId())[3]).isNotNull();
+        assertThat(new BigDecimal(rows.get(freeBuyer.getId())[2].toString())).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    private User customer(String email) {
+        return entityManager.persist(new User(email, "Test", "Customer", "secret123", User.Role.CUSTOMER));
+    }
+
+    private void order(User user, String totalAmount) {
+        Order order = new Order(user, "123 Main", "City", "00000", "Country");
+        order.setOrderNumber("ORD-SUMMARY-" + ++orderCount);
+        order.setTotalAmount(new BigDecimal(totalAmount));
+        entityManager.persist(order);
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerse.backend.repositories;
+
+import com.ecommerse.backend.entities.Order;
+import com.ecommerse.backend.entities.OrderStatus;
+import com.ecommerse.backend.entities.User;
+import com.ecommerse.backend.services.OrderSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class OrderSpecificationsTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        User alice = userRepository.saveAndFlush(
+                new User("alice@example.com", "Alice", "A", "secret123", User.Role.CUSTOMER));
+        User bob = userRepository.saveAndFlush(
+                new User("bob@example.com", "Bob", "B", "secret123", User.Role.CUSTOMER));
+
+        for (int i = 0; i < 5; i++) {
+            BigDecimal total = new BigDecimal("10.00").multiply(BigDecimal.valueOf(i + 1));
+            orderRepository.save(buildOrder(alice, "ORD-10" + i, OrderStatus.PAID, total));
+        }
+        orderRepository.save(buildOrder(alice, "ORD-105", OrderStatus.CANCELLED, new BigDecimal("60.00")));
+        orderRepository.save(buildOrder(bob, "ORD-200", OrderStatus.PAID, new BigDecimal("70.00")));
+        orderRepository.flush();
+    }
+
+    @Test
+    void statusAndOrderNumberPrefix_ShouldPaginateInDatabase() {
+        OrderSearchCriteria criteria = OrderSearchCriteria.of(OrderStatus.PAID, null, null, "ord-10");
+
+        Page<Order> first = orderRepository.findAll(OrderSpecifications.matching(criteria),
+                PageRequest.of(0, 2, Sort.by("orderNumber")));
+        Page<Order> last = orderRepository.findAll(OrderSpecifications.matching(criteria),
+                PageRequest.of(2, 2, Sort.by("orderNumber")));
+
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getContent()).extracting(Order::getOrderNumber).containsExactly("ORD-100", "ORD-101");
+        assertThat(last.getContent()).extracting(Order::getOrderNumber).containsExactly("ORD-104");
+    }
+
+    @Test
+    void digitsOnlySearch_ShouldMatchOrderNumberPrefix() {
+        OrderSearchCriteria criteria = OrderSearchCriteria.of(null, null, null, "20");
+
+        Page<Order> page = orderRepository.findAll(OrderSpecifications.matching(criteria), PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(Order::getOrderNumber).containsExactly("ORD-200");
+    }
+
+    @Test
+    void customerEmailAndTotalRange_ShouldCombine() {
+        OrderSearchCriteria criteria = OrderSearchCriteria.of(null, null, null, "ALICE@");
+        criteria.setMinTotal(new BigDecimal("30.00"));
+        criteria.setMaxTotal(new BigDecimal("60.00"));
+
+        Page<Order> page = orderRepository.findAll(OrderSpecifications.matching(criteria),
+                PageRequest.of(0, 10, Sort.by("orderNumber")));
+
+        assertThat(page.getContent()).extracting(Order::getOrderNumber)
+                .containsExactly("ORD-102", "ORD-103", "ORD-104", "ORD-105");
+    }
+
+    private Order buildOrder(User user, String orderNumber, OrderStatus status, BigDecimal total) {
+        Order order = new Order(user, "123 Main", "City", "00000", "Country");
+        order.setOrderNumber(orderNumber);
+        order.setStatus(status);
+        order.setTotalAmount(total);
+        return order;
+    }
+}
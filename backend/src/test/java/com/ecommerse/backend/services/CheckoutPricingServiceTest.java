@@ -0,0 +1,110 @@
+package com.ecommerse.backend.services;
+
+import com.ecommerse.backend.entities.Cart;
+import com.ecommerse.backend.entities.CartItem;
+import com.ecommerse.backend.entities.Product;
+import com.ecommerse.backend.repositories.CartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutPricingServiceTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private DiscountService discountService;
+
+    private CheckoutPricingService checkoutPricingService;
+
+    @BeforeEach
+    void setUp() {
+        checkoutPricingService = new CheckoutPricingService(cartRepository, discountService, new PricingService());
+    }
+
+    @Test
+    void priceAppliesDiscountToEligibleLinesOnly() {
+        Cart cart = cartWith(item(1L, "100.00", 2), item(2L, "50.00", 1));
+        when(discountService.resolveAppliedDiscount(eq("SAVE10"), anyList()))
+                .thenReturn(new DiscountService.AppliedDiscount(true, "SAVE10", new BigDecimal("10"), Set.of(1L)));
+
+        CheckoutPricingService.PricedCart priced = checkoutPricingService.price(cart, "SAVE10",
+                new BigDecimal("5.00"), BigDecimal.ZERO);
+
+        assertEquals(new BigDecimal("90.00"), priced.line(1L).finalUnitPrice());
+        assertEquals(new BigDecimal("50.00"), priced.line(2L).finalUnitPrice());
+        assertEquals(new BigDecimal("250.00"), priced.subtotal());
+        assertEquals(new BigDecimal("20.00"), priced.codeSavings());
+        // Discount is counted once: 180 + 50 + 5 shipping
+        assertEquals(new BigDecimal("235.00"), priced.total());
+        assertEquals(23_500L, priced.totalCents());
+        assertEquals("SAVE10", priced.discountCode());
+        assertTrue(priced.matches(cart));
+    }
+
+    @Test
+    void priceWithoutCodeLeavesLinesUntouched() {
+        Cart cart = cartWith(item(1L, "19.99", 3));
+        when(discountService.resolveAppliedDiscount(eq(null), anyList()))
+                .thenReturn(DiscountService.AppliedDiscount.none());
+
+        CheckoutPricingService.PricedCart priced = checkoutPricingService.price(cart, null, null, null);
+
+        assertNull(priced.discountCode());
+        assertEquals(BigDecimal.ZERO, priced.codeSavings());
+        assertEquals(new BigDecimal("59.97"), priced.total());
+    }
+
+    @Test
+    void snapshotNoLongerMatchesChangedCart() {
+        Cart cart = cartWith(item(1L, "10.00", 1));
+        when(discountService.resolveAppliedDiscount(eq(null), anyList()))
+                .thenReturn(DiscountService.AppliedDiscount.none());
+
+        CheckoutPricingService.PricedCart priced = checkoutPricingService.price(cart, null, null, null);
+        cart.getItems().get(0).setQuantity(2);
+
+        assertFalse(priced.matches(cart));
+    }
+
+    private Cart cartWith(CartItem... items) {
+        Cart cart = new Cart();
+        for (CartItem item : items) {
+            item.setCart(cart);
+        }
+        cart.setItems(new ArrayList<>(List.of(items)));
+        return cart;
+    }
+
+    private CartItem item(Long productId, String price, int quantity) {
+        Product product = new Product();
+        product.setId(productId);
+        product.setName("Product " + productId);
+        product.setSku("SKU-" + productId);
+        product.setPrice(new BigDecimal(price));
+        product.setStockQuantity(10);
+
+        CartItem item = new CartItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setUnitPrice(new BigDecimal(price));
+        return item;
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerse.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImageBytesCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesByTotalBytes() {
+        ImageBytesCache cache = new ImageBytesCache(10, 4);
+        cache.put("a", entry(4));
+        cache.put("b", entry(4));
+        cache.get("a");
+        cache.put("c", entry(4));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(8, cache.sizeInBytes());
+    }
+
+    @Test
+    void rejectsEntriesAboveTheEntryLimit() {
+        ImageBytesCache cache = new ImageBytesCache(100, 4);
+        cache.put("large", entry(5));
+
+        assertNull(cache.get("large"));
+        assertEquals(0, cache.sizeInBytes());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void replacingAnEntryKeepsTheByteCountExact() {
+        ImageBytesCache cache = new ImageBytesCache(100, 10);
+        cache.put("a", entry(6));
+        cache.put("a", entry(2));
+        cache.remove("a");
+
+        assertEquals(0, cache.sizeInBytes());
+        assertEquals(0, cache.size());
+    }
+
+    private static ImageBytesCache.Entry entry(int size) {
+        return new ImageBytesCache.Entry(new byte[size], "image/png", "\"etag\"", 0);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerse.backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageDiskCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void evictsLeastRecentlyUsedFilesByTotalBytes() throws Exception {
+        ImageDiskCache cache = new ImageDiskCache(directory, 10, 0);
+        cache.put("a.jpg", bytes(4));
+        cache.put("b.jpg", bytes(4));
+        cache.get("a.jpg");
+        cache.put("c.jpg", bytes(4));
+
+        assertNotNull(cache.get("a.jpg"));
+        assertNull(cache.get("b.jpg"));
+        assertFalse(Files.exists(directory.resolve("b.jpg")));
+        assertEquals(8, cache.sizeInBytes());
+    }
+
+    @Test
+    void loadIndexesExistingFilesAndDropsTemporaryOnes() throws Exception {
+        Files.write(directory.resolve("kept.jpg"), new byte[3]);
+        Files.write(directory.resolve("kept.jpg.1234.tmp"), new byte[5]);
+
+        ImageDiskCache cache = new ImageDiskCache(directory, 100, 0);
+
+        assertEquals(1, cache.load());
+        assertEquals(3, cache.sizeInBytes());
+        assertNotNull(cache.get("kept.jpg"));
+        assertFalse(Files.exists(directory.resolve("kept.jpg.1234.tmp")));
+    }
+
+    @Test
+    void filesRemovedOutsideTheCacheAreTreatedAsMisses() throws Exception {
+        ImageDiskCache cache = new ImageDiskCache(directory, 100, 0);
+        Path file = cache.put("a.jpg", bytes(4));
+        Files.delete(file);
+
+        assertNull(cache.get("a.jpg"));
+        assertEquals(0, cache.sizeInBytes());
+    }
+
+    @Test
+    void evictedFilesStayReadableUntilTheDeleteDelayPasses() throws Exception {
+        ImageDiskCache cache = new ImageDiskCache(directory, 4, 60_000);
+        cache.put("a.jpg", bytes(4));
+        cache.put("b.jpg", bytes(4));
+
+        assertNull(cache.get("a.jpg"));
+        assertTrue(Files.exists(directory.resolve("a.jpg")));
+        assertEquals(4, cache.sizeInBytes());
+    }
+
+    @Test
+    void recachingAFileCancelsItsPendingDelete() throws Exception {
+        ImageDiskCache cache = new ImageDiskCache(directory, 4, 20);
+        cache.put("a.jpg", bytes(4));
+        cache.put("b.jpg", bytes(4));
+        cache.put("a.jpg", bytes(4));
+        Thread.sleep(40);
+        cache.put("c.jpg", bytes(4));
+
+        assertTrue(Files.exists(directory.resolve("a.jpg")));
+        assertFalse(Files.exists(directory.resolve("b.jpg")));
+    }
+
+    private static ByteArrayInputStream bytes(int size) {
+        return new ByteArrayInputStream(new byte[size]);
+    }
+}
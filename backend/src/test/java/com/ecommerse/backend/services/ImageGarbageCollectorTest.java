@@ -0,0 +1,42 @@
+package com.ecommerse.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ImageGarbageCollectorTest {
+
+    @Test
+    void collectsOnlyOldUnreferencedImages() {
+        List<ImageGarbageCollector.StoredImage> stored = List.of(
+                new ImageGarbageCollector.StoredImage("referenced.jpg", "h1", false),
+                new ImageGarbageCollector.StoredImage("recent.jpg", "h2", true),
+                new ImageGarbageCollector.StoredImage("orphan.jpg", "h3", false));
+
+        List<String> garbage = ImageGarbageCollector.selectGarbage(stored, Map.of(), Set.of("referenced.jpg"));
+
+        assertEquals(List.of("orphan.jpg"), garbage);
+    }
+
+    @Test
+    void variantsLiveAsLongAsTheirOriginal() {
+        List<ImageGarbageCollector.StoredImage> stored = List.of(
+                new ImageGarbageCollector.StoredImage("live.jpg", "live", false),
+                new ImageGarbageCollector.StoredImage("live-400w.jpg", "v1", false),
+                new ImageGarbageCollector.StoredImage("dead.jpg", "dead", false),
+                new ImageGarbageCollector.StoredImage("dead-400w.jpg", "v2", false),
+                new ImageGarbageCollector.StoredImage("gone-400w.jpg", "v3", false));
+        Map<String, String> variantSources = Map.of(
+                "live-400w.jpg", "live",
+                "dead-400w.jpg", "dead",
+                "gone-400w.jpg", "gone");
+
+        List<String> garbage = ImageGarbageCollector.selectGarbage(stored, variantSources, Set.of("live.jpg"));
+
+        assertEquals(List.of("dead.jpg", "dead-400w.jpg", "gone-400w.jpg"), garbage);
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerse.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageVariantsTest {
+
+    @Test
+    void targetWidthsSkipUpscalingAndRunLargestFirst() {
+        assertEquals(List.of(800, 400, 160), ImageVariants.targetWidths(1000, List.of(160, 400, 800, 1600)));
+        assertEquals(List.of(), ImageVariants.targetWidths(160, List.of(160, 400)));
+    }
+
+    @Test
+    void resizeKeepsAspectRatioAcrossHalvingSteps() {
+        BufferedImage source = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage resized = ImageVariants.resize(source, 160);
+
+        assertEquals(160, resized.getWidth());
+        assertEquals(80, resized.getHeight());
+    }
+
+    @Test
+    void transparentImagesAreEncodedAsDecodableJpeg() throws Exception {
+        BufferedImage source = new BufferedImage(900, 300, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(source, "png", png);
+
+        assertArrayEquals(new int[] { 900, 300 }, ImageVariants.dimensions(png.toByteArray()));
+
+        byte[] jpeg = ImageVariants.encode(ImageVariants.resize(ImageVariants.toRgb(source), 400), 0.8f);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(jpeg));
+
+        assertNotNull(decoded);
+        assertEquals(400, decoded.getWidth());
+        assertTrue(jpeg.length > 0);
+    }
+
+    @Test
+    void variantNamesAreDerivedFromTheSourceHash() {
+        assertEquals("abc-400w.jpg", ImageVariants.fileName("abc", 400));
+    }
+}
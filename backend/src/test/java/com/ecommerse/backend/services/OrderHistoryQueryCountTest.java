@@ -0,0 +1,127 @@
+package com.ecommerse.backend.services;
+
+import com.ecommerse.backend.dto.OrderDTO;
+import com.ecommerse.backend.entities.Category;
+import com.ecommerse.backend.entities.Order;
+import com.ecommerse.backend.entities.OrderItem;
+import com.ecommerse.backend.entities.OrderStatus;
+import com.ecommerse.backend.entities.Product;
+import com.ecommerse.backend.entities.User;
+import com.ecommerse.backend.services.analytics.AlertService;
+import com.ecommerse.backend.services.notifications.EmailService;
+import com.ecommerse.backend.services.payments.StripeGateway;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(OrderService.class)
+class OrderHistoryQueryCountTest {
+
+    private static final int ORDER_COUNT = 8;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private CartService cartService;
+    @MockBean
+    private CheckoutPricingService checkoutPricingService;
+    @MockBean
+    private EmailService emailService;
+    @MockBean
+    private AlertService alertService;
+    @MockBean
+    private StripeGateway stripeGateway;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("Parts");
+        category.setSlug("parts");
+        category.setActive(true);
+        category.setSortOrder(1);
+        entityManager.persist(category);
+
+        Product[] products = new Product[ITEMS_PER_ORDER];
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            Product product = new Product();
+            product.setName("Part " + i);
+            product.setPrice(new BigDecimal("10.00"));
+            product.setStockQuantity(100);
+            product.setSku("PART-" + i);
+            product.setActive(true);
+            product.setCategory(category);
+            products[i] = entityManager.persist(product);
+        }
+
+        for (int u = 0; u < 2; u++) {
+            User user = entityManager.persist(
+                    new User("buyer" + u + "@example.com", "Buyer", "" + u, "secret123", User.Role.CUSTOMER));
+            for (int o = 0; o < ORDER_COUNT; o++) {
+                Order order = new Order(user, "123 Main", "City", "00000", "Country");
+                order.setOrderNumber("ORD-" + u + "-" + o);
+                order.setStatus(OrderStatus.PAID);
+                for (Product product : products) {
+                    order.addOrderItem(new OrderItem(order, product, 1));
+                }
+                entityManager.persist(order);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void customerOrderHistory_ShouldUseConstantStatementCount() {
+        List<OrderDTO> orders = orderService.getOrdersForUser("buyer0@example.com");
+
+        assertThat(orders).hasSize(ORDER_COUNT);
+        assertThat(orders).allSatisfy(order -> {
+            assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER);
+            assertThat(order.getUsername()).isEqualTo("buyer0@example.com");
+        });
+        // user lookup + order page + batched items fetch
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void ownerOrderList_ShouldUseConstantStatementCount() {
+        Page<OrderDTO> page = orderService.getOrdersForOwner(new OrderSearchCriteria(), PageRequest.of(0, 12));
+
+        assertThat(page.getContent()).hasSize(12);
+        assertThat(page.getTotalElements()).isEqualTo(2L * ORDER_COUNT);
+        assertThat(page.getContent()).allSatisfy(order -> {
+            assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER);
+            assertThat(order.getUsername()).startsWith("buyer");
+        });
+        // order page + count + batched users/items fetch
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+}
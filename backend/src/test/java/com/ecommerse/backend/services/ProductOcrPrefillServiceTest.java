@@ -0,0 +1,118 @@
+package com.ecommerse.backend.services;
+
+import com.ecommerse.backend.config.CacheConfig;
+import com.ecommerse.backend.dto.ProductOcrPrefillResponse;
+import com.ecommerse.backend.repositories.CategoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductOcrPrefillServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.OCR_PREFILL);
+
+    private ProductOcrPrefillService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void stubProviderReturnsParsedSuggestions() {
+        service = newService(Map.of("OCR_PROVIDER", "stub"));
+
+        ProductOcrPrefillResponse response = service.prefillFromImage(image(new byte[] {1, 2, 3}));
+
+        assertTrue(response.isImplemented());
+        assertEquals("stub", response.getProvider());
+        assertEquals("Stub product", response.getFields().get("name").getValue());
+    }
+
+    @Test
+    void identicalImagesAreExtractedOnceAndReturnedAsCopies() {
+        service = newService(Map.of("OCR_PROVIDER", "stub"));
+
+        ProductOcrPrefillResponse first = service.prefillFromImage(image(new byte[] {1, 2, 3}));
+        ProductOcrPrefillResponse second = service.prefillFromImage(image(new byte[] {1, 2, 3}));
+        service.prefillFromImage(image(new byte[] {4, 5, 6}));
+
+        assertNotSame(first, second);
+        assertEquals(first.getFields().get("name").getValue(), second.getFields().get("name").getValue());
+        assertEquals(2, ((ConcurrentMap<?, ?>) cacheManager.getCache(CacheConfig.OCR_PREFILL).getNativeCache()).size());
+    }
+
+    @Test
+    void concurrentRequestForTheSameImageSeesTheExtractingRequestsError() throws Exception {
+        CountDownLatch extracting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(categoryRepository.findByActiveTrueOrderBySortOrderAsc()).thenAnswer(call -> {
+            extracting.countDown();
+            release.await();
+            throw new IllegalStateException("categories unavailable");
+        });
+        service = newService(Map.of("OCR_PROVIDER", "stub"));
+
+        FutureTask<ProductOcrPrefillResponse> leader =
+                new FutureTask<>(() -> service.prefillFromImage(image(new byte[] {1, 2, 3})));
+        new Thread(leader).start();
+        assertTrue(extracting.await(5, TimeUnit.SECONDS));
+        FutureTask<ProductOcrPrefillResponse> waiter =
+                new FutureTask<>(() -> service.prefillFromImage(image(new byte[] {1, 2, 3})));
+        Thread waiterThread = new Thread(waiter);
+        waiterThread.start();
+        while (waiterThread.getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException waiterError = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertEquals("categories unavailable", leaderError.getCause().getMessage());
+        assertSame(leaderError.getCause(), waiterError.getCause());
+    }
+
+    @Test
+    void missingApiKeyIsReportedWithoutCaching() {
+        service = newService(Map.of());
+
+        ProductOcrPrefillResponse response = service.prefillFromImage(image(new byte[] {1, 2, 3}));
+
+        assertFalse(response.isImplemented());
+        assertTrue(((ConcurrentMap<?, ?>) cacheManager.getCache(CacheConfig.OCR_PREFILL).getNativeCache()).isEmpty());
+    }
+
+    private ProductOcrPrefillService newService(Map<String, String> environment) {
+        return new ProductOcrPrefillService(new ObjectMapper(), categoryRepository, cacheManager, environment);
+    }
+
+    private static MockMultipartFile image(byte[] data) {
+        return new MockMultipartFile("file", "label.png", "image/png", data);
+    }
+}
@@ -1,21 +1,37 @@
 package com.ecommerse.backend.services;
 
+import com.ecommerse.backend.dto.UploadedImageMetadata;
 import com.ecommerse.backend.entities.UploadedImage;
 import com.ecommerse.backend.repositories.UploadedImageRepository;
+import com.ecommerse.backend.services.storage.BlobStores;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockMultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class UploadedImageServiceTest {
@@ -23,11 +39,18 @@ class UploadedImageServiceTest {
     @Mock
     private UploadedImageRepository uploadedImageRepository;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path blobDirectory;
+
     private UploadedImageService uploadedImageService;
 
     @BeforeEach
     void setUp() {
-        uploadedImageService = new UploadedImageService(uploadedImageRepository);
+        uploadedImageService = new UploadedImageService(uploadedImageRepository, jdbcTemplate,
+                new BlobStores(jdbcTemplate, "database", blobDirectory.toString()));
     }
 
     @Test
@@ -49,6 +72,100 @@ class UploadedImageServiceTest {
         assertArrayEquals(new byte[] {1, 2, 3}, saved.getImageData());
     }
 
+    @Test
+    void existsShouldAnswerFromIndexWithoutLoadingImages() {
+        when(uploadedImageRepository.findAllMetadata()).thenReturn(List.of(metadata("indexed.jpg")));
+        when(uploadedImageRepository.findMetadataByFileName("other.jpg")).thenReturn(Optional.of(metadata("other.jpg")));
+        when(uploadedImageRepository.findMetadataByFileName("missing.jpg")).thenReturn(Optional.empty());
+
+        uploadedImageService.loadIndex();
+
+        assertTrue(uploadedImageService.exists("indexed.jpg"));
+        assertTrue(uploadedImageService.exists("other.jpg"));
+        assertTrue(uploadedImageService.exists("other.jpg"));
+        assertFalse(uploadedImageService.exists("missing.jpg"));
+        verify(uploadedImageRepository, never()).findMetadataByFileName("indexed.jpg");
+        verify(uploadedImageRepository, times(1)).findMetadataByFileName("other.jpg");
+        verify(uploadedImageRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void saveShouldRecordContentHashAndSize() {
+        uploadedImageService.save("hashed.png", new byte[] {'a', 'b', 'c'}, "image/png");
+
+        ArgumentCaptor<UploadedImage> captor = ArgumentCaptor.forClass(UploadedImage.class);
+        verify(uploadedImageRepository).save(captor.capture());
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", captor.getValue().getContentHash());
+        assertEquals(3L, captor.getValue().getSizeBytes());
+        assertEquals(captor.getValue().getContentHash(),
+                uploadedImageService.findMetadata("hashed.png").orElseThrow().contentHash());
+    }
+
+    @Test
+    void saveToFilesystemStoreShouldKeepBytesOutOfTheRow() throws IOException {
+        uploadedImageService = new UploadedImageService(uploadedImageRepository, jdbcTemplate,
+                new BlobStores(jdbcTemplate, "filesystem", blobDirectory.toString()));
+
+        uploadedImageService.save("on-disk.png", new byte[] {1, 2, 3}, "image/png");
+
+        ArgumentCaptor<UploadedImage> captor = ArgumentCaptor.forClass(UploadedImage.class);
+        verify(uploadedImageRepository).save(captor.capture());
+        assertNull(captor.getValue().getImageData());
+        assertEquals("filesystem", captor.getValue().getStorage());
+        assertArrayEquals(new byte[] {1, 2, 3}, uploadedImageService.readData("on-disk.png").orElseThrow());
+    }
+
+    @Test
+    void saveContentAddressedShouldStoreIdenticalUploadsOnce() {
+        String hash = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        when(uploadedImageRepository.findMetadataByFileName(hash + ".jpg")).thenReturn(Optional.empty());
+        when(uploadedImageRepository.touch(eq(hash + ".jpg"), any(LocalDateTime.class))).thenReturn(1);
+
+        String first = uploadedImageService.saveContentAddressed(new byte[] {'a', 'b', 'c'}, "image/jpeg", "JPG");
+        String second = uploadedImageService.saveContentAddressed(new byte[] {'a', 'b', 'c'}, "image/jpeg", "jpg");
+
+        assertEquals(hash + ".jpg", first);
+        assertEquals(first, second);
+        verify(uploadedImageRepository, times(1)).save(any(UploadedImage.class));
+        verify(uploadedImageRepository).touch(eq(first), any(LocalDateTime.class));
+    }
+
+    @Test
+    void saveAllShouldBatchInsertOnlyNewUploads() {
+        when(uploadedImageRepository.findAllMetadata()).thenReturn(List.of(metadata("stored.jpg")));
+        when(uploadedImageRepository.findMetadataByFileName("new.jpg")).thenReturn(Optional.empty());
+        when(uploadedImageRepository.touch(eq("stored.jpg"), any(LocalDateTime.class))).thenReturn(1);
+        uploadedImageService.loadIndex();
+
+        UploadedImageService.ImageUpload stored = new UploadedImageService.ImageUpload("stored.jpg", new byte[] {1}, "image/jpeg", "a");
+        UploadedImageService.ImageUpload fresh = new UploadedImageService.ImageUpload("new.jpg", new byte[] {2}, "image/jpeg", "b");
+        uploadedImageService.saveAll(List.of(stored, fresh, fresh));
+
+        verify(jdbcTemplate).batchUpdate(anyString(), eq(List.of(fresh)), eq(1), any());
+        verify(uploadedImageRepository).touch(eq("stored.jpg"), any(LocalDateTime.class));
+        verify(uploadedImageRepository, never()).save(any(UploadedImage.class));
+        assertTrue(uploadedImageService.exists("new.jpg"));
+    }
+
+    @Test
+    void saveContentAddressedShouldStoreAgainWhenTheIndexedRowWasDeleted() {
+        String fileName = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad.jpg";
+        when(uploadedImageRepository.findAllMetadata()).thenReturn(List.of(metadata(fileName)));
+        when(uploadedImageRepository.touch(eq(fileName), any(LocalDateTime.class))).thenReturn(0);
+        uploadedImageService.loadIndex();
+
+        assertEquals(fileName, uploadedImageService.saveContentAddressed(new byte[] {'a', 'b', 'c'}, "image/jpeg", "jpg"));
+
+        ArgumentCaptor<UploadedImage> captor = ArgumentCaptor.forClass(UploadedImage.class);
+        verify(uploadedImageRepository).save(captor.capture());
+        assertEquals(fileName, captor.getValue().getFileName());
+        assertTrue(uploadedImageService.exists(fileName));
+    }
+
+    private static UploadedImageMetadata metadata(String fileName) {
+        return new UploadedImageMetadata(fileName, "image/jpeg", null, null, LocalDateTime.now());
+    }
+
     @Test
     void extractFileNameShouldHandlePathsAndNull() {
         assertEquals("image.png", uploadedImageService.extractFileName("products/image.png"));
@@ -0,0 +1,112 @@
+package com.ecommerse.backend.services.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsETLServiceTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(2024, 1, 10);
+    private static final String BACKFILL_JOB = "fact_orders.backfill:2024-01-01:2024-01-10";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private AnalyticsETLService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new AnalyticsETLService(jdbcTemplate, transactionManager, new SimpleMeterRegistry(),
+                eventPublisher, 7, 60);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        when(jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class))
+                .thenReturn(LocalDateTime.of(2024, 2, 1, 12, 0));
+        when(jdbcTemplate.queryForObject(contains("INSERT INTO analytics_etl_runs"), eq(Long.class), eq(BACKFILL_JOB),
+                any(), any())).thenReturn(1L);
+    }
+
+    @Test
+    void backfillUpsertsEachChunkAndCommitsItsCheckpoint() {
+        givenLock(true);
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenAnswer(call -> call.<String>getArgument(0).contains("INSERT INTO fact_orders") ? 3 : 1);
+
+        AnalyticsETLService.EtlRunResult result = service.backfill(FIRST_DAY, LAST_DAY);
+
+        assertTrue(result.completed());
+        assertEquals(2, result.chunks());
+        assertEquals(6, result.rowsUpserted());
+        verify(jdbcTemplate).update(contains("o.created_date >= ?"), eq(at(1)), eq(at(8)));
+        verify(jdbcTemplate).update(contains("o.created_date >= ?"), eq(at(8)), eq(at(11)));
+        verify(jdbcTemplate).update(contains("INSERT INTO analytics_etl_checkpoints"), eq(BACKFILL_JOB), eq(at(8)));
+        verify(jdbcTemplate).update(contains("INSERT INTO analytics_etl_checkpoints"), eq(BACKFILL_JOB), eq(at(11)));
+        verify(eventPublisher).publishEvent(any(AnalyticsDataRefreshedEvent.class));
+    }
+
+    @Test
+    void rerunningAnInterruptedBackfillResumesFromItsCheckpoint() {
+        when(jdbcTemplate.queryForList(contains("FROM analytics_etl_checkpoints"), eq(LocalDateTime.class),
+                eq(BACKFILL_JOB))).thenReturn(List.of(at(8).toLocalDateTime()));
+        givenLock(true);
+
+        AnalyticsETLService.EtlRunResult result = service.backfill(FIRST_DAY, LAST_DAY);
+
+        assertEquals(1, result.chunks());
+        verify(jdbcTemplate).update(contains("o.created_date >= ?"), eq(at(8)), eq(at(11)));
+        verify(jdbcTemplate, never()).update(contains("o.created_date >= ?"), eq(at(1)), any());
+    }
+
+    @Test
+    void backfillStopsWithoutCheckpointWhenAnotherInstanceHoldsTheLock() {
+        givenLock(false);
+
+        AnalyticsETLService.EtlRunResult result = service.backfill(FIRST_DAY, LAST_DAY);
+
+        assertFalse(result.completed());
+        assertEquals(0, result.chunks());
+        verify(jdbcTemplate, never()).update(contains("INSERT INTO fact_orders"), any(Object[].class));
+        verify(jdbcTemplate, never()).update(contains("INSERT INTO analytics_etl_checkpoints"), any(Object[].class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    private void givenLock(boolean acquired) {
+        when(jdbcTemplate.queryForObject(contains("pg_try_advisory_xact_lock"), eq(Boolean.class), eq(BACKFILL_JOB)))
+                .thenReturn(acquired);
+    }
+
+    private static Timestamp at(int dayOfJanuary) {
+        return Timestamp.valueOf(LocalDate.of(2024, 1, dayOfJanuary).atStartOfDay());
+    }
+}
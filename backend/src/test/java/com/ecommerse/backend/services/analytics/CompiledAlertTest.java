@@ -0,0 +1,78 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.ecommerse.backend.entities.analytics.AnalyticsAlert;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledAlertTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void compilesRollupThresholdWithDefaults() {
+        CompiledAlert alert = CompiledAlert.compile(alert("Revenue", "below", "{\"value\": 100}"), objectMapper);
+
+        assertEquals(CompiledAlert.Comparison.BELOW, alert.comparison());
+        assertEquals(1, alert.windowDays());
+        assertEquals(Duration.ofMinutes(60), alert.cooldown());
+        assertFalse(alert.isEventMetric());
+
+        DailyRollupSeries.Totals totals = new DailyRollupSeries.Totals(new BigDecimal("80.00"), 2, 2, 10, 1);
+        assertTrue(alert.test(alert.valueOf(totals), 0));
+    }
+
+    @Test
+    void changeConditionsCompareAgainstPreviousWindow() {
+        CompiledAlert alert = CompiledAlert.compile(
+                alert("events.page_view", "change_below", "{\"value\": -50, \"windowMinutes\": 10}"), objectMapper);
+
+        assertTrue(alert.isEventMetric());
+        assertEquals("page_view", alert.eventType());
+        assertTrue(alert.test(40, 100));
+        assertFalse(alert.test(60, 100));
+        assertFalse(alert.test(0, 0));
+    }
+
+    @Test
+    void rejectsInvalidDefinitions() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledAlert.compile(alert("bogus", "above", "{\"value\": 1}"), objectMapper));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledAlert.compile(alert("orders", "sideways", "{\"value\": 1}"), objectMapper));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledAlert.compile(alert("orders", "above", "{\"windowDays\": 7}"), objectMapper));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledAlert.compile(alert("events", "change_above", "{\"value\": 1, \"windowMinutes\": 45}"),
+                        objectMapper));
+    }
+
+    @Test
+    void allEventsMetricHasNoTypeFilter() {
+        assertNull(CompiledAlert.compile(alert("events", "above", "{\"value\": 1}"), objectMapper).eventType());
+    }
+
+    @Test
+    void eventTypeFilterIsLowerCased() {
+        assertEquals("page_view",
+                CompiledAlert.compile(alert("events.Page_View", "above", "{\"value\": 1}"), objectMapper).eventType());
+    }
+
+    private static AnalyticsAlert alert(String metric, String condition, String thresholdJson) {
+        AnalyticsAlert alert = new AnalyticsAlert();
+        alert.setId(1L);
+        alert.setAlertName("test");
+        alert.setMetricName(metric);
+        alert.setCondition(condition);
+        alert.setThresholdJson(thresholdJson);
+        return alert;
+    }
+}
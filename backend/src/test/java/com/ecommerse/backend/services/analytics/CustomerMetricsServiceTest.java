@@ -0,0 +1,128 @@
+package com.ecommerse.backend.services.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerMetricsServiceTest {
+
+    private static final String INCREMENTAL_JOB = "fact_customer_metrics.incremental";
+    private static final LocalDateTime DATABASE_NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+    private static final LocalDateTime WATERMARK = DATABASE_NOW.minusSeconds(60);
+    private static final LocalDateTime CHECKPOINT = DATABASE_NOW.minusHours(1);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private AnalyticsETLService analyticsETLService;
+
+    private CustomerMetricsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CustomerMetricsService(jdbcTemplate, transactionManager, analyticsETLService,
+                new SimpleMeterRegistry(), 60);
+        when(analyticsETLService.isPostgreSql()).thenReturn(true);
+        when(analyticsETLService.databaseNow()).thenReturn(DATABASE_NOW);
+    }
+
+    @Test
+    void incrementalRunRecomputesChangedCustomersAndTheirCohorts() throws Exception {
+        givenCheckpointAndLock();
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class),
+                eq(Timestamp.valueOf(CHECKPOINT)), eq(Timestamp.valueOf(WATERMARK)))).thenReturn(List.of(7L, 8L));
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenReturn(List.of("2026-01"))
+                .thenReturn(List.of("2026-02"));
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenAnswer(call -> call.<String>getArgument(0).contains("INSERT INTO fact_customer_metrics") ? 2 : 0);
+
+        assertEquals(2, service.runIncremental());
+
+        Connection upsert = bind("o.user_id = ANY(?)");
+        verify(upsert).createArrayOf(eq("bigint"), aryEq(new Object[] {7L, 8L}));
+
+        // Cohorts from before and after the change are both rebuilt
+        Connection retention = bind("DELETE FROM agg_cohort_retention WHERE cohort_month = ANY(?)");
+        ArgumentCaptor<Object[]> months = ArgumentCaptor.forClass(Object[].class);
+        verify(retention).createArrayOf(eq("varchar"), months.capture());
+        assertEquals(Set.of("2026-01", "2026-02"), Set.of(months.getValue()));
+        verify(jdbcTemplate).update(contains("TO_CHAR(cohort, 'YYYY-MM') = ANY(?)"), any(PreparedStatementSetter.class));
+
+        verify(analyticsETLService).writeCheckpoint(INCREMENTAL_JOB, WATERMARK);
+    }
+
+    @Test
+    void incrementalRunWithoutChangesOnlyAdvancesTheCheckpoint() {
+        givenCheckpointAndLock();
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class),
+                eq(Timestamp.valueOf(CHECKPOINT)), eq(Timestamp.valueOf(WATERMARK)))).thenReturn(List.of());
+
+        assertEquals(0, service.runIncremental());
+
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+        verify(analyticsETLService).writeCheckpoint(INCREMENTAL_JOB, WATERMARK);
+    }
+
+    @Test
+    void firstIncrementalRunRecomputesEveryone() {
+        when(analyticsETLService.readCheckpoint(INCREMENTAL_JOB)).thenReturn(null);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("fact_customer_metrics"))).thenReturn(true);
+
+        service.runIncremental();
+
+        verify(jdbcTemplate).update(contains("DELETE FROM agg_cohort_retention WHERE TRUE"));
+        verify(jdbcTemplate).update(contains("INSERT INTO agg_cohort_retention"));
+        verify(analyticsETLService).writeCheckpoint(INCREMENTAL_JOB, WATERMARK);
+    }
+
+    private void givenCheckpointAndLock() {
+        when(analyticsETLService.readCheckpoint(INCREMENTAL_JOB)).thenReturn(CHECKPOINT);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("fact_customer_metrics"))).thenReturn(true);
+    }
+
+    /**
+     * Run the parameter setter of the update whose SQL contains {@code sqlPart} and return the
+     * connection it created its array on.
+     */
+    private Connection bind(String sqlPart) throws Exception {
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).update(contains(sqlPart), setter.capture());
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(statement.getConnection()).thenReturn(connection);
+        setter.getValue().setValues(statement);
+        return connection;
+    }
+}
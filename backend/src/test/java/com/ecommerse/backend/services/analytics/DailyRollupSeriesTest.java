@@ -0,0 +1,59 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.ecommerse.backend.entities.analytics.AggDailyMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DailyRollupSeriesTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void sumsSubRangesAndTreatsMissingDaysAsZero() {
+        DailyRollupSeries series = DailyRollupSeries.of(DAY_1, DAY_1.plusDays(4), List.of(
+                row(DAY_1, "100.00", 2, 10, 1),
+                row(DAY_1.plusDays(1), "50.00", 1, 5, 1),
+                row(DAY_1.plusDays(3), "30.00", 3, 20, 2)));
+
+        DailyRollupSeries.Totals all = series.sum(DAY_1, DAY_1.plusDays(4));
+        assertEquals(new BigDecimal("180.00"), all.revenue());
+        assertEquals(6, all.orders());
+        assertEquals(35, all.sessions());
+        assertEquals(new BigDecimal("30.00"), all.averageOrderValue());
+
+        DailyRollupSeries.Totals tail = series.sum(DAY_1.plusDays(1), DAY_1.plusDays(3));
+        assertEquals(new BigDecimal("80.00"), tail.revenue());
+        assertEquals(4, tail.orders());
+        assertEquals(12.0, tail.conversionRate(), 1e-9);
+
+        DailyRollupSeries.Totals gap = series.sum(DAY_1.plusDays(2), DAY_1.plusDays(2));
+        assertEquals(0, gap.revenue().signum());
+        assertEquals(0.0, gap.conversionRate());
+    }
+
+    @Test
+    void clampsRangesOutsideTheSeries() {
+        DailyRollupSeries series = DailyRollupSeries.of(DAY_1, DAY_1.plusDays(1), List.of(
+                row(DAY_1, "10.00", 1, 4, 1),
+                row(DAY_1.plusDays(5), "99.00", 9, 9, 9)));
+
+        assertEquals(1, series.sum(DAY_1.minusDays(10), DAY_1.plusDays(10)).orders());
+        assertEquals(0, series.sum(DAY_1.plusDays(3), DAY_1.plusDays(4)).orders());
+    }
+
+    private static AggDailyMetrics row(LocalDate day, String revenue, long orders, long sessions, long conversions) {
+        AggDailyMetrics row = new AggDailyMetrics();
+        row.setMetricDate(day);
+        row.setRevenue(new BigDecimal(revenue));
+        row.setOrderCount(orders);
+        row.setUnits(orders);
+        row.setSessions(sessions);
+        row.setConversions(conversions);
+        return row;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.ecommerse.backend.config.CacheConfig;
+import com.ecommerse.backend.config.ExpiringCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardMetricsWarmerTest {
+
+    @Mock
+    private MetricsService metricsService;
+
+    private Cache cache;
+    private DashboardMetricsWarmer warmer;
+
+    @BeforeEach
+    void setUp() {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(new ExpiringCache(CacheConfig.DASHBOARD_METRICS, 60_000, 100)));
+        cacheManager.afterPropertiesSet();
+        cache = cacheManager.getCache(CacheConfig.DASHBOARD_METRICS);
+        warmer = new DashboardMetricsWarmer(metricsService, cacheManager,
+                List.of("EXECUTIVE:today", "EXECUTIVE:yesterday"), true, 240_000, 30_000);
+    }
+
+    @Test
+    void evictsAndRewarmsOnlyViewsCoveringChangedDays() {
+        cache.put(MetricsService.dashboardCacheKey("today", "EXECUTIVE"), "today");
+        cache.put(MetricsService.dashboardCacheKey("yesterday", "EXECUTIVE"), "yesterday");
+
+        warmer.onAnalyticsDataRefreshed(event(Set.of(LocalDate.now())));
+        warmer.applyInvalidations();
+
+        assertNull(cache.get(MetricsService.dashboardCacheKey("today", "EXECUTIVE")));
+        assertNotNull(cache.get(MetricsService.dashboardCacheKey("yesterday", "EXECUTIVE")));
+        verify(metricsService).refreshDashboardMetrics("today", "EXECUTIVE");
+        verify(metricsService, never()).refreshDashboardMetrics("yesterday", "EXECUTIVE");
+    }
+
+    @Test
+    void coalescesEventsBetweenInvalidations() {
+        warmer.onAnalyticsDataRefreshed(event(Set.of(LocalDate.now())));
+        warmer.onAnalyticsDataRefreshed(event(Set.of(LocalDate.now())));
+
+        warmer.applyInvalidations();
+        warmer.applyInvalidations();
+
+        verify(metricsService, times(1)).refreshDashboardMetrics("today", "EXECUTIVE");
+    }
+
+    @Test
+    void eventsWithoutDaysInvalidateEverything() {
+        cache.put(MetricsService.dashboardCacheKey("yesterday", "EXECUTIVE"), "yesterday");
+
+        warmer.onAnalyticsDataRefreshed(event(Set.of()));
+        warmer.applyInvalidations();
+
+        assertNull(cache.get(MetricsService.dashboardCacheKey("yesterday", "EXECUTIVE")));
+        verify(metricsService).refreshDashboardMetrics("today", "EXECUTIVE");
+        verify(metricsService).refreshDashboardMetrics("yesterday", "EXECUTIVE");
+    }
+
+    private static AnalyticsDataRefreshedEvent event(Set<LocalDate> days) {
+        return new AnalyticsDataRefreshedEvent("test", LocalDateTime.now(), days);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerse.backend.services.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventRingBufferTest {
+
+    @Test
+    void offerFailsWhenFullAndPreservesOrder() {
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(99));
+        assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(List.of(0, 1, 2), drained);
+
+        assertTrue(buffer.offer(4));
+        assertEquals(3, buffer.poll());
+        assertEquals(4, buffer.poll());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void concurrentProducersNeverLoseOrDuplicateItems() throws Exception {
+        int producers = 4;
+        int perProducer = 5_000;
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(256);
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(producers);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        try {
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                pool.execute(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+
+            List<Integer> batch = new ArrayList<>();
+            while (seen.size() < producers * perProducer) {
+                batch.clear();
+                buffer.drainTo(batch, 64);
+                for (Integer item : batch) {
+                    assertTrue(seen.add(item), "duplicate " + item);
+                }
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertNull(buffer.poll());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
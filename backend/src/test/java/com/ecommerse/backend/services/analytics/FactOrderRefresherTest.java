@@ -0,0 +1,98 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.ecommerse.backend.entities.OrderStatus;
+import com.ecommerse.backend.services.OrderStatusChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FactOrderRefresherTest {
+
+    @Mock
+    private AnalyticsETLService analyticsETLService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private FactOrderRefresher refresher;
+
+    @BeforeEach
+    void setUp() {
+        refresher = new FactOrderRefresher(analyticsETLService, eventPublisher, 10);
+    }
+
+    @Test
+    void repeatedEventsForAnOrderAreRefreshedOnce() {
+        when(analyticsETLService.refreshOrders(anyCollection())).thenReturn(refreshed());
+        refresher.onOrderStatusChanged(event(1L));
+        refresher.onOrderStatusChanged(event(1L));
+        refresher.onOrderStatusChanged(event(2L));
+
+        refresher.flush();
+
+        ArgumentCaptor<Collection<Long>> batch = batchCaptor();
+        verify(analyticsETLService).refreshOrders(batch.capture());
+        assertEquals(Set.of(1L, 2L), Set.copyOf(batch.getValue()));
+        verify(eventPublisher).publishEvent(any(AnalyticsDataRefreshedEvent.class));
+    }
+
+    @Test
+    void failedBatchIsRequeuedAndOnlyPublishedAfterSuccess() {
+        when(analyticsETLService.refreshOrders(anyCollection()))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(refreshed());
+        refresher.onOrderStatusChanged(event(1L));
+        refresher.onOrderStatusChanged(event(2L));
+
+        refresher.flush();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        refresher.flush();
+
+        ArgumentCaptor<Collection<Long>> batches = batchCaptor();
+        verify(analyticsETLService, times(2)).refreshOrders(batches.capture());
+        List<Collection<Long>> calls = batches.getAllValues();
+        assertEquals(Set.of(1L, 2L), Set.copyOf(calls.get(1)));
+        verify(eventPublisher).publishEvent(any(AnalyticsDataRefreshedEvent.class));
+    }
+
+    @Test
+    void nothingPendingPublishesNothing() {
+        refresher.flush();
+
+        verify(analyticsETLService, never()).refreshOrders(anyCollection());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Collection<Long>> batchCaptor() {
+        return ArgumentCaptor.forClass((Class<Collection<Long>>) (Class<?>) Collection.class);
+    }
+
+    private static AnalyticsETLService.RefreshResult refreshed() {
+        return new AnalyticsETLService.RefreshResult(2, Set.of(LocalDate.now()));
+    }
+
+    private static OrderStatusChangedEvent event(Long orderId) {
+        return new OrderStatusChangedEvent(orderId, OrderStatus.PENDING, OrderStatus.PAID, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.ecommerse.backend.dto.analytics.ProductPerformanceDTO;
+import com.ecommerse.backend.repositories.ProductRepository;
+import com.ecommerse.backend.repositories.analytics.AggDailyMetricsRepository;
+import com.ecommerse.backend.repositories.analytics.FactCustomerMetricsRepository;
+import com.ecommerse.backend.repositories.analytics.FactOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsServiceTest {
+
+    @Mock
+    private FactOrderRepository factOrderRepository;
+
+    @Mock
+    private AggDailyMetricsRepository dailyMetricsRepository;
+
+    @Mock
+    private FactCustomerMetricsRepository customerMetricsRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private MetricsService metricsService;
+
+    @BeforeEach
+    void setUp() {
+        metricsService = new MetricsService(factOrderRepository, dailyMetricsRepository, customerMetricsRepository,
+                productRepository);
+    }
+
+    @Test
+    void topProductsKeepQueryRankingAndCompareAgainstThePreviousPeriod() {
+        when(factOrderRepository.getTopProducts(any(), any(), any(), eq(4L), any()))
+                .thenReturn(List.of(
+                        row(7L, "150.00", 5L, "100.00"),
+                        row(9L, "80.00", 2L, null)));
+        when(productRepository.findNamesByIdIn(List.of(7L, 9L)))
+                .thenReturn(List.<Object[]>of(new Object[] {7L, "Brake pads"}));
+
+        List<ProductPerformanceDTO> products = metricsService.getTopProducts("last_7_days", 500, 4L);
+
+        assertEquals(List.of(7L, 9L), products.stream().map(ProductPerformanceDTO::getProductId).toList());
+        assertEquals("Brake pads", products.get(0).getProductName());
+        assertEquals("Product 9", products.get(1).getProductName());
+        assertEquals(5L, products.get(0).getQuantity());
+        assertEquals(50.0, products.get(0).getGrowthRate());
+        assertEquals(100.0, products.get(1).getGrowthRate());
+
+        ArgumentCaptor<LocalDate> previousStart = ArgumentCaptor.forClass(LocalDate.class);
+        ArgumentCaptor<LocalDate> start = ArgumentCaptor.forClass(LocalDate.class);
+        ArgumentCaptor<LocalDate> end = ArgumentCaptor.forClass(LocalDate.class);
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(factOrderRepository).getTopProducts(previousStart.capture(), start.capture(), end.capture(),
+                eq(4L), page.capture());
+        assertEquals(start.getValue().minusDays(7), previousStart.getValue());
+        assertEquals(start.getValue().plusDays(6), end.getValue());
+        // The limit is applied in the query and capped
+        assertEquals(PageRequest.of(0, 100), page.getValue());
+    }
+
+    @Test
+    void topProductsWithoutSalesSkipTheNameLookup() {
+        when(factOrderRepository.getTopProducts(any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        assertTrue(metricsService.getTopProducts("last_30_days", 10).isEmpty());
+        verify(productRepository, never()).findNamesByIdIn(anyCollection());
+    }
+
+    private static Object[] row(Long productId, String revenue, Long quantity, String previousRevenue) {
+        return new Object[] {productId, new BigDecimal(revenue), quantity,
+                previousRevenue != null ? new BigDecimal(previousRevenue) : null};
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecommerse.backend.services.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class MinuteEventCounterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 14, 30, 15);
+
+    @Test
+    void countsCurrentHourByMinuteAndIgnoresPreviousHour() {
+        MinuteEventCounter counter = new MinuteEventCounter(10);
+        counter.record("page_view", millis(NOW.withMinute(0)));
+        counter.record("page_view", millis(NOW.withMinute(30)));
+        counter.record("page_view", millis(NOW.withMinute(30).withSecond(59)));
+        counter.record("add_to_cart", millis(NOW.withMinute(5)));
+        // Same minute slot one hour earlier must not leak into the current hour
+        counter.record("page_view", millis(NOW.minusHours(1).withMinute(10)));
+
+        Map<String, long[]> series = counter.currentHour(NOW, ZoneOffset.UTC);
+
+        assertEquals(1, series.get("page_view")[0]);
+        assertEquals(2, series.get("page_view")[30]);
+        assertEquals(0, series.get("page_view")[10]);
+        assertEquals(1, series.get("add_to_cart")[5]);
+    }
+
+    @Test
+    void recycledSlotsStartFromZero() {
+        MinuteEventCounter counter = new MinuteEventCounter(10);
+        counter.record("page_view", millis(NOW.minusHours(1)));
+        counter.record("page_view", millis(NOW));
+
+        assertEquals(1, counter.currentHour(NOW, ZoneOffset.UTC).get("page_view")[30]);
+    }
+
+    @Test
+    void capsDistinctTypesPerMinute() {
+        MinuteEventCounter counter = new MinuteEventCounter(2);
+        counter.record("a", millis(NOW));
+        counter.record("b", millis(NOW));
+        counter.record("c", millis(NOW));
+
+        Map<String, long[]> series = counter.currentHour(NOW, ZoneOffset.UTC);
+        assertFalse(series.containsKey("c"));
+        assertEquals(1, series.get(MinuteEventCounter.OTHER_TYPE)[30]);
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecommerse.backend.services.analytics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportWriterTest {
+
+    private static final List<String> COLUMNS = List.of("date", "product", "revenue", "units");
+
+    @Test
+    void csvQuotesValuesThatNeedIt() throws IOException {
+        String csv = new String(write(ReportFormat.CSV), StandardCharsets.UTF_8);
+
+        assertEquals("date,product,revenue,units\n"
+                + "2024-05-01,\"Wheel, \"\"alloy\"\"\",1250.50,3\n"
+                + "2024-05-02,,0,\n", csv);
+    }
+
+    @Test
+    void jsonWritesOneObjectPerRowWithTypedValues() throws IOException {
+        JsonNode rows = new ObjectMapper().readTree(write(ReportFormat.JSON));
+
+        assertEquals(2, rows.size());
+        assertEquals("Wheel, \"alloy\"", rows.get(0).get("product").asText());
+        assertEquals(new BigDecimal("1250.50"), rows.get(0).get("revenue").decimalValue());
+        assertEquals(3, rows.get(0).get("units").asLong());
+        assertTrue(rows.get(1).get("product").isNull());
+    }
+
+    @Test
+    void xlsxIsAZipWithAStreamedSheet() throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(write(ReportFormat.XLSX)))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        assertTrue(entries.containsKey("[Content_Types].xml"));
+        assertTrue(entries.containsKey("xl/workbook.xml"));
+        String sheet = entries.get("xl/worksheets/sheet1.xml");
+        assertTrue(sheet.contains("<c r=\"B2\" t=\"inlineStr\"><is><t>Wheel, &quot;alloy&quot;</t></is></c>"));
+        assertTrue(sheet.contains("<c r=\"C2\"><v>1250.50</v></c>"));
+        assertTrue(sheet.endsWith("</sheetData></worksheet>"));
+    }
+
+    @Test
+    void xlsxColumnNamesRollOverAfterZ() {
+        assertEquals("A", ReportWriter.Xlsx.columnName(0));
+        assertEquals("Z", ReportWriter.Xlsx.columnName(25));
+        assertEquals("AA", ReportWriter.Xlsx.columnName(26));
+        assertEquals("BA", ReportWriter.Xlsx.columnName(52));
+    }
+
+    private static byte[] write(ReportFormat format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ReportWriter writer = ReportWriter.open(format, COLUMNS, output)) {
+            writer.writeRow(new Object[]{LocalDate.of(2024, 5, 1), "Wheel, \"alloy\"", new BigDecimal("1250.50"), 3L});
+            writer.writeRow(new Object[]{LocalDate.of(2024, 5, 2), null, BigDecimal.ZERO, null});
+        }
+        return output.toByteArray();
+    }
+}
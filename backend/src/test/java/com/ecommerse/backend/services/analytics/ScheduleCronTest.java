@@ -0,0 +1,41 @@
+package com.ecommerse.backend.services.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScheduleCronTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 10, 30);
+
+    @Test
+    void acceptsFiveFieldExpressionsAndMacros() {
+        assertEquals(LocalDateTime.of(2024, 5, 2, 6, 0), ScheduleCron.parse("0 6 * * *").next(NOW));
+        assertEquals(LocalDateTime.of(2024, 5, 2, 6, 0), ScheduleCron.parse("0 0 6 * * *").next(NOW));
+        assertEquals(LocalDateTime.of(2024, 5, 2, 0, 0), ScheduleCron.parse("@daily").next(NOW));
+    }
+
+    @Test
+    void rejectsInvalidAndTooFrequentExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> ScheduleCron.parse("every day"));
+        assertThrows(IllegalArgumentException.class, () -> ScheduleCron.validate("*/5 * * * *", NOW));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 11, 0), ScheduleCron.validate("@hourly", NOW).next(NOW));
+    }
+
+    @Test
+    void defaultRangeFollowsCadence() {
+        assertEquals("yesterday", ScheduleCron.defaultRange(ScheduleCron.parse("0 6 * * *"), NOW));
+        assertEquals("previous_7_days", ScheduleCron.defaultRange(ScheduleCron.parse("0 6 * * MON"), NOW));
+        assertEquals("last_month", ScheduleCron.defaultRange(ScheduleCron.parse("0 6 1 * *"), NOW));
+    }
+
+    @Test
+    void weeklyDefaultRangeEndsYesterday() {
+        assertEquals(new ReportPeriod(LocalDate.of(2024, 4, 24), LocalDate.of(2024, 4, 30)),
+                ReportPeriod.parse("previous_7_days", NOW.toLocalDate()));
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerse.backend.services.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionizationServiceTest {
+
+    private static final String JOB_NAME = "fact_sessions.sessionize";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private AnalyticsETLService analyticsETLService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement statement;
+    @Mock
+    private ResultSet events;
+
+    private SessionizationService service;
+
+    @BeforeEach
+    void setUp() {
+        when(jdbcTemplate.getDataSource()).thenReturn(dataSource);
+        service = new SessionizationService(jdbcTemplate, transactionManager, analyticsETLService, eventPublisher,
+                new SimpleMeterRegistry(), 30, 0, 600, 500, 24);
+    }
+
+    @Test
+    void windowCommittedByAnotherRunIsNotAppliedAgain() throws Exception {
+        LocalDateTime start = LocalDateTime.now().minusMinutes(30).truncatedTo(ChronoUnit.SECONDS);
+        // Both runs read the same checkpoint up front; only the second run's read under the lock
+        // sees what the first one committed
+        AtomicReference<LocalDateTime> committed = new AtomicReference<>(start);
+        AtomicInteger reads = new AtomicInteger();
+        when(analyticsETLService.readCheckpoint(JOB_NAME))
+                .thenAnswer(call -> reads.incrementAndGet() % 2 == 1 ? start : committed.get());
+        doAnswer(call -> {
+            committed.set(call.getArgument(1));
+            return null;
+        }).when(analyticsETLService).writeCheckpoint(eq(JOB_NAME), any(LocalDateTime.class));
+        when(analyticsETLService.isPostgreSql()).thenReturn(true);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(JOB_NAME))).thenReturn(true);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(events);
+        when(events.next()).thenReturn(true, false);
+        when(events.getString(1)).thenReturn("session-1");
+        when(events.getTimestamp(2)).thenReturn(Timestamp.valueOf(start.plusMinutes(1)));
+        when(events.getString(3)).thenReturn("page_view");
+        when(events.wasNull()).thenReturn(true);
+
+        assertEquals(1, service.runIncremental());
+        assertEquals(0, service.runIncremental());
+
+        verify(statement, times(1)).setTimestamp(1, Timestamp.valueOf(start));
+        verify(jdbcTemplate, times(1)).batchUpdate(contains("INSERT INTO fact_sessions"), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, never()).batchUpdate(contains("UPDATE fact_sessions"), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+}
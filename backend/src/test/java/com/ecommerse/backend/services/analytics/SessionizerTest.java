@@ -0,0 +1,70 @@
+package com.ecommerse.backend.services.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionizerTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    private final List<Sessionizer.Session> emitted = new ArrayList<>();
+    private final Sessionizer sessionizer = new Sessionizer(Duration.ofMinutes(30), emitted::add);
+
+    @Test
+    void splitsOnInactivityGapAndCountsEventTypes() {
+        sessionizer.accept("s1", T0, "page_view", null, null);
+        sessionizer.accept("s1", T0.plusMinutes(5), "product_view", 7L, null);
+        sessionizer.accept("s1", T0.plusMinutes(10), "add_to_cart", 7L, null);
+        sessionizer.accept("s1", T0.plusMinutes(50), "page_view", 7L, null);
+        sessionizer.accept("s2", T0, "purchase", null, null);
+        sessionizer.finish();
+
+        assertEquals(3, emitted.size());
+        Sessionizer.Session first = emitted.get(0);
+        assertEquals(T0, first.getStartTime());
+        assertEquals(T0.plusMinutes(10), first.getEndTime());
+        assertEquals(1, first.getPageViews());
+        assertEquals(1, first.getProductViews());
+        assertEquals(1, first.getCartActions());
+        assertEquals(7L, first.getCustomerId());
+
+        assertEquals(T0.plusMinutes(50), emitted.get(1).getStartTime());
+        assertEquals("s2", emitted.get(2).getSessionId());
+        assertTrue(emitted.get(2).isConverted());
+    }
+
+    @Test
+    void extendsStoredSessionWithinGap() {
+        Sessionizer.Session stored = new Sessionizer.Session(42L, "s1", 3L, T0, T0.plusMinutes(20), 4, 0, 0, false);
+
+        sessionizer.accept("s1", T0.plusMinutes(45), "page_view", null, stored);
+        sessionizer.accept("s1", T0.plusMinutes(120), "page_view", null, stored);
+        sessionizer.finish();
+
+        assertEquals(2, emitted.size());
+        assertEquals(42L, emitted.get(0).getId());
+        assertEquals(5, emitted.get(0).getPageViews());
+        assertEquals(T0.plusMinutes(45), emitted.get(0).getEndTime());
+        assertNull(emitted.get(1).getId());
+        assertEquals(1, emitted.get(1).getPageViews());
+    }
+
+    @Test
+    void leavesUnrelatedStoredSessionUntouched() {
+        Sessionizer.Session stored = new Sessionizer.Session(42L, "s1", null, T0, T0.plusMinutes(5), 1, 0, 0, false);
+
+        sessionizer.accept("s1", T0.plusHours(3), "page_view", null, stored);
+        sessionizer.finish();
+
+        assertEquals(1, emitted.size());
+        assertNull(emitted.get(0).getId());
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerse.backend.services.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileSystemBlobStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void storesBlobsInShardedDirectories() throws Exception {
+        FileSystemBlobStore store = new FileSystemBlobStore(directory);
+        store.put("image.jpg", new ByteArrayInputStream(new byte[] {1, 2}));
+
+        Path file = store.localFile("image.jpg").orElseThrow();
+        assertEquals(directory, file.getParent().getParent().getParent());
+        assertEquals(2, file.getParent().getFileName().toString().length());
+        assertArrayEquals(new byte[] {1, 2}, store.read("image.jpg", InputStream::readAllBytes).orElseThrow());
+    }
+
+    @Test
+    void putReplacesContentAndLeavesNoTemporaryFiles() throws Exception {
+        FileSystemBlobStore store = new FileSystemBlobStore(directory);
+        store.put("image.jpg", new ByteArrayInputStream(new byte[] {1}));
+        store.put("image.jpg", new ByteArrayInputStream(new byte[] {2, 3}));
+
+        Path file = store.localFile("image.jpg").orElseThrow();
+        assertArrayEquals(new byte[] {2, 3}, Files.readAllBytes(file));
+        try (var files = Files.list(file.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void missingAndDeletedBlobsReadAsEmpty() throws Exception {
+        FileSystemBlobStore store = new FileSystemBlobStore(directory);
+        store.put("image.jpg", new ByteArrayInputStream(new byte[] {1}));
+        store.delete("image.jpg");
+        store.delete("never-stored.jpg");
+
+        assertTrue(store.read("image.jpg", InputStream::readAllBytes).isEmpty());
+        assertTrue(store.localFile("image.jpg").isEmpty());
+    }
+
+    @Test
+    void rejectsKeysThatLeaveTheRoot() {
+        FileSystemBlobStore store = new FileSystemBlobStore(directory);
+
+        assertThrows(IllegalArgumentException.class, () -> store.pathOf("../secret"));
+    }
+}